@@ -2,11 +2,13 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.InputStreamReader;
+import java.util.Arrays;
 
 import controller.Controller;
 import controller.ControllerImpl;
 import controller.Features;
 import controller.GUIController;
+import model.LazyMaskProcessorModelImpl;
 import model.MaskProcessorModel;
 import model.MaskProcessorModelImpl;
 import view.ImageProcessorGUIViewImpl;
@@ -31,6 +33,11 @@ public final class Main {
    */
   public static void main(String[] args) {
     MaskProcessorModel model = new MaskProcessorModelImpl();
+    // a last argument of -lazy only runs the operations whose images are asked for
+    if (args.length > 0 && args[args.length - 1].equals("-lazy")) {
+      model = new LazyMaskProcessorModelImpl();
+      args = Arrays.copyOf(args, args.length - 1);
+    }
 
     // if there's a command line to call on the script file
     if (args.length > 0 && args[0].equals("-file")) {
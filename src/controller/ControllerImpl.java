@@ -14,13 +14,22 @@ import java.awt.image.BufferedImage;
 
 import javax.imageio.ImageIO;
 
+import controller.commands.AdaptiveThreshold;
+import controller.commands.BoxBlur;
 import controller.commands.Brighten;
 import controller.commands.ColorTransformation;
 import controller.commands.Command;
+import controller.commands.Convolve;
+import controller.commands.Crop;
 import controller.commands.Downscale;
 import controller.commands.Filtering;
 import controller.commands.Flip;
+import controller.commands.GaussianBlur;
 import controller.commands.Greyscale;
+import controller.commands.Histogram;
+import controller.commands.Pipeline;
+import controller.commands.Resize;
+import controller.commands.Transpose;
 import model.Image;
 import model.MaskProcessorModel;
 import view.ImageProcessorTextView;
@@ -83,6 +92,15 @@ public class ControllerImpl implements Controller {
     this.commandType.put("sepia", ColorTransformation::new);
     // added for HW08
     this.commandType.put("downscale", Downscale::new);
+    this.commandType.put("crop", Crop::new);
+    this.commandType.put("transpose", Transpose::new);
+    this.commandType.put("pipeline", Pipeline::new);
+    this.commandType.put("gaussian-blur", GaussianBlur::new);
+    this.commandType.put("convolve", Convolve::new);
+    this.commandType.put("resize", Resize::new);
+    this.commandType.put("box-blur", BoxBlur::new);
+    this.commandType.put("adaptive-threshold", AdaptiveThreshold::new);
+    this.commandType.put("histogram", Histogram::new);
   }
 
   @Override
@@ -137,11 +155,101 @@ public class ControllerImpl implements Controller {
         inputs[0] = command;
         transmit("Operation: downscale, Width scale: " + inputs[1]
                   + ", Height scale: " + inputs[2] + ", Image name: " + inputs[3]
-                  + ", New file name: " + inputs[4]);
+                  + ", New file name: " + inputs[4]
+                  + (inputs.length == 6 ? ", Type: " + inputs[5] : ""));
         Function<String[], Command> functionCommand =
                 this.commandType.getOrDefault("downscale", null);
         functionCommand.apply(inputs).execute(this.model);
         break;
+      } else if (command.equals("resize")) {
+        String line = scan.nextLine();
+        String[] inputs = line.split(" ");
+        inputs[0] = command;
+        if (inputs.length == 5 || inputs.length == 6) {
+          transmit("Operation: resize, Width: " + inputs[1]
+                  + ", Height: " + inputs[2] + ", Image name: " + inputs[3]
+                  + ", New file name: " + inputs[4]
+                  + (inputs.length == 6 ? ", Filter: " + inputs[5] : ""));
+        }
+        Function<String[], Command> functionCommand =
+                this.commandType.getOrDefault("resize", null);
+        functionCommand.apply(inputs).execute(this.model);
+        break;
+      } else if (command.equals("crop")) {
+        String line = scan.nextLine();
+        String[] inputs = line.split(" ");
+        inputs[0] = command;
+        if (inputs.length == 7) {
+          transmit("Operation: crop, Row: " + inputs[1] + ", Column: " + inputs[2]
+                  + ", Width: " + inputs[3] + ", Height: " + inputs[4]
+                  + ", Image name: " + inputs[5] + ", New file name: " + inputs[6]);
+        }
+        Function<String[], Command> functionCommand =
+                this.commandType.getOrDefault("crop", null);
+        functionCommand.apply(inputs).execute(this.model);
+        break;
+      } else if (command.equals("gaussian-blur")) {
+        String line = scan.nextLine();
+        String[] inputs = line.split(" ");
+        inputs[0] = command;
+        if (inputs.length == 4) {
+          transmit("Operation: gaussian-blur, Standard deviation: " + inputs[1]
+                  + ", Image name: " + inputs[2] + ", New file name: " + inputs[3]);
+        }
+        Function<String[], Command> functionCommand =
+                this.commandType.getOrDefault("gaussian-blur", null);
+        functionCommand.apply(inputs).execute(this.model);
+        break;
+      } else if (command.equals("box-blur")) {
+        String line = scan.nextLine();
+        String[] inputs = line.split(" ");
+        inputs[0] = command;
+        if (inputs.length == 4) {
+          transmit("Operation: box-blur, Radius: " + inputs[1]
+                  + ", Image name: " + inputs[2] + ", New file name: " + inputs[3]);
+        }
+        Function<String[], Command> functionCommand =
+                this.commandType.getOrDefault("box-blur", null);
+        functionCommand.apply(inputs).execute(this.model);
+        break;
+      } else if (command.equals("adaptive-threshold")) {
+        String line = scan.nextLine();
+        String[] inputs = line.split(" ");
+        inputs[0] = command;
+        if (inputs.length == 5) {
+          transmit("Operation: adaptive-threshold, Radius: " + inputs[1]
+                  + ", Offset: " + inputs[2] + ", Image name: " + inputs[3]
+                  + ", New file name: " + inputs[4]);
+        }
+        Function<String[], Command> functionCommand =
+                this.commandType.getOrDefault("adaptive-threshold", null);
+        functionCommand.apply(inputs).execute(this.model);
+        break;
+      } else if (command.equals("histogram")) {
+        String line = scan.nextLine();
+        String[] inputs = line.split(" ");
+        inputs[0] = command;
+        if (inputs.length == 3 || inputs.length == 4) {
+          transmit("Operation: histogram, Image name: " + inputs[1]
+                  + ", File path: " + inputs[2]
+                  + (inputs.length == 4 ? ", Mask name: " + inputs[3] : ""));
+        }
+        Function<String[], Command> functionCommand =
+                this.commandType.getOrDefault("histogram", null);
+        functionCommand.apply(inputs).execute(this.model);
+        break;
+      } else if (command.equals("convolve")) {
+        String line = scan.nextLine();
+        String[] inputs = line.split(" ");
+        inputs[0] = command;
+        if (inputs.length == 4) {
+          transmit("Operation: convolve, Kernel path: " + inputs[1]
+                  + ", Image name: " + inputs[2] + ", New file name: " + inputs[3]);
+        }
+        Function<String[], Command> functionCommand =
+                this.commandType.getOrDefault("convolve", null);
+        functionCommand.apply(inputs).execute(this.model);
+        break;
       } else if (this.commandType.containsKey(command)) {
             String line = scan.nextLine();
               String[] input = line.split(" ");
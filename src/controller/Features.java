@@ -1,7 +1,7 @@
 package controller;
 
-import model.IPixel;
 import model.ImageProcessorModelState;
+import model.Region;
 
 /**
  * The controller interface specifically built to support the GUI visualization.
@@ -31,18 +31,18 @@ public interface Features {
    * Brightens the image that had been loaded in GUI.
    *
    * @param strength an integer that brightens an image by
-   * @param mask a mask to apply on the preview if applicable
+   * @param region the region shown in the preview to apply it on, or null for the whole image
    */
-  void brighten(int strength, IPixel[][] mask);
+  void brighten(int strength, Region region);
 
   /**
    * Converts a color of the image that had been loaded
    * in GUI into greyscale by visualizing given greyscale type.
    *
    * @param greyType the greyscale type
-   * @param mask a mask to apply on the preview if applicable
+   * @param region the region shown in the preview to apply it on, or null for the whole image
    */
-  void greyComponent(ImageProcessorModelState.GreyscaleType greyType, IPixel[][] mask);
+  void greyComponent(ImageProcessorModelState.GreyscaleType greyType, Region region);
 
   /**
    * Flips the image that had been loaded in GUI.
@@ -55,20 +55,45 @@ public interface Features {
    * Applies a filter on the image that had been loaded in GUI.
    *
    * @param filterType the type of the filter between blur and sharpen
-   *                   @param mask a mask to apply on the preview if applicable
+   * @param region the region shown in the preview to apply it on, or null for the whole image
    */
-  void filtering(ImageProcessorModelState.FilteringType filterType, IPixel[][] mask);
+  void filtering(ImageProcessorModelState.FilteringType filterType, Region region);
+
+  /**
+   * Blurs the image that had been loaded in GUI with a Gaussian.
+   *
+   * @param sigma the standard deviation of the Gaussian, in pixels
+   */
+  void gaussianBlur(double sigma);
 
   /**
    * Executes color transformation on the image that had been loaded in GUI.
    *
    * @param colorTransType the type of the color transformation between greyscale and sepia
-   *                       @param mask a mask to apply on the preview if applicable
+   * @param region the region shown in the preview to apply it on, or null for the whole image
    */
-  void colorTransformation(ImageProcessorModelState.ColorTransType colorTransType, IPixel[][] mask);
+  void colorTransformation(ImageProcessorModelState.ColorTransType colorTransType, Region region);
 
   /**
    * Executes downscale on the image that had been loaded in GUI.
    */
   void downscale(double width, double height);
-}
\ No newline at end of file
+
+  /**
+   * Resizes the image that had been loaded in GUI to the given size.
+   *
+   * @param width      the new width, in pixels
+   * @param height     the new height, in pixels
+   * @param resizeType the filter of resizing
+   */
+  void resize(int width, int height, ImageProcessorModelState.ResizeType resizeType);
+
+  /**
+   * Shows the image that had been loaded in GUI at the given zoom, without
+   * changing the image itself. Zooming out again only reads the smallest
+   * shrunk copy of the image that is still large enough.
+   *
+   * @param zoom the zoom, as a fraction of the size of the image, up to 1
+   */
+  void zoom(double zoom);
+}
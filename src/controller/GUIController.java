@@ -1,20 +1,19 @@
 package controller;
 
 import java.awt.Image;
-import java.awt.image.BufferedImage;
-import java.awt.Color;
 import java.io.StringReader;
 
-import model.IPixel;
 import model.ImageProcessorModelState.ColorTransType;
+import model.ImageProcessorModelState.DownscaleType;
 import model.ImageProcessorModelState.FilteringType;
 import model.ImageProcessorModelState.FlipType;
 import model.ImageProcessorModelState.GreyscaleType;
+import model.ImageProcessorModelState.ResizeType;
 import model.MaskProcessorModel;
+import model.Region;
+import util.Utils;
 import view.ImageProcessorGUIView;
 
-import static java.awt.image.BufferedImage.TYPE_INT_RGB;
-
 /**
  * The new controller specifically built for the GUI
  * visualization, which implements {@link Features} interface.
@@ -23,8 +22,7 @@ public class GUIController implements Features {
   private MaskProcessorModel model;
   private Controller delegate;
   private ImageProcessorGUIView view;
-  private String title;
-  private IPixel[][] masks;
+  private double zoom;
 
   /**
    * The constructor for {@link GUIController}, which runs addFeatures method
@@ -38,8 +36,7 @@ public class GUIController implements Features {
     this.delegate = new ControllerImpl(model, new StringReader(""));
     this.view = view;
     view.addFeatures(this);
-    this.title = "";
-    this.masks = null;
+    this.zoom = 1;
   }
 
   @Override
@@ -51,9 +48,11 @@ public class GUIController implements Features {
       this.view.renderMessage("The file is not in a format that can be loaded."
               + " Only can load: jpg, png, bmp, or ppm.");
     }
+    this.zoom = 1;
     this.delegate.load(imagePath, "image");
     // for preview
     this.delegate.load(imagePath, "image-pre");
+    this.view.refreshHistogram(this.model.histogram("image"));
   }
 
   @Override
@@ -79,60 +78,62 @@ public class GUIController implements Features {
    * @return the new image
    */
   protected Image imageToSave(String imageTitle) {
-    BufferedImage toSave = new BufferedImage(
-            model.getImage(imageTitle).getWidth(),
-            model.getImage(imageTitle).getHeight(), TYPE_INT_RGB);
-    for (int i = 0; i < toSave.getHeight(); i++) {
-      for (int j = 0; j < toSave.getWidth(); j++) {
-        Color col = new Color(
-                model.getImage(imageTitle).getPixelAt(i, j).getRed(),
-                model.getImage(imageTitle).getPixelAt(i, j).getGreen(),
-                model.getImage(imageTitle).getPixelAt(i, j).getBlue());
-        toSave.setRGB(j, i, col.getRGB());
-      }
+    return Utils.toBufferedImage(model.getImage(imageTitle), "");
+  }
+
+  /**
+   * A private helper function to show the image at the current zoom. A
+   * zoomed out image is shrunk by area averaging, starting from the pyramid
+   * the model keeps for the image until it changes.
+   */
+  private void refreshImage() {
+    String shown = "image";
+    if (this.zoom < 1) {
+      this.model.downscale("image", this.zoom, this.zoom, DownscaleType.Area, "image-zoom");
+      shown = "image-zoom";
     }
-    return toSave;
+    this.view.refresh(this.imageToSave(shown), true);
+    this.view.refreshHistogram(this.model.histogram("image"));
   }
 
   /**
-   * A private helper function to determine if the mask is null or not.
-   * If it is null, then it means the original image is getting edited.
+   * A private helper function to show an edit in the preview. The edit of
+   * the region shown in the preview is as large as the region, so only the
+   * region is converted and redrawn.
    *
-   * @param maskPixel the mask represented in pixels
-   * @return whether it is editing the original image or the preview image
+   * @param region the region shown in the preview
    */
-  private boolean notPreview(IPixel[][] maskPixel) {
-    if (maskPixel == null) {
-      title = "image";
-    } else {
-      title = "image-pre-edit";
-    }
-    return (maskPixel == null);
+  private void refreshPreview(Region region) {
+    this.view.refreshPreview(this.imageToSave("image-pre-edit"), region.getRow(),
+            region.getCol());
   }
 
   @Override
-  public void brighten(int strength, IPixel[][] mask) {
+  public void brighten(int strength, Region region) {
     try {
-      if (this.notPreview(masks)) {
-        this.model.brighten(title, strength, title);
+      if (region == null) {
+        this.model.brighten("image", strength, "image");
+        this.refreshImage();
       } else {
-        this.model.brighten("image-pre", strength, masks, title);
+        // only the region shown in the preview is computed
+        this.model.brighten("image-pre", strength, region, "image-pre-edit");
+        this.refreshPreview(region);
       }
-      this.view.refresh(this.imageToSave(title), this.notPreview(mask));
     } catch (Exception e) {
       this.view.renderMessage("The image to brighten has not been found.");
     }
   }
 
   @Override
-  public void greyComponent(GreyscaleType greyType, IPixel[][] mask) {
+  public void greyComponent(GreyscaleType greyType, Region region) {
     try {
-      if (this.notPreview(masks)) {
-        this.model.multipleGreyscale(title, greyType, title);
+      if (region == null) {
+        this.model.multipleGreyscale("image", greyType, "image");
+        this.refreshImage();
       } else {
-        this.model.multipleGreyscale("image-pre", greyType, masks, title);
+        this.model.multipleGreyscale("image-pre", greyType, region, "image-pre-edit");
+        this.refreshPreview(region);
       }
-      this.view.refresh(this.imageToSave(title), this.notPreview(mask));
     } catch (Exception e) {
       this.view.renderMessage("The image to apply " + greyType + " has not been found.");
     }
@@ -142,35 +143,47 @@ public class GUIController implements Features {
   public void flip(FlipType flipType) {
     try {
       this.model.flip("image", flipType, "image");
-      this.view.refresh(this.imageToSave(title), true);
+      this.refreshImage();
     } catch (Exception e) {
       this.view.renderMessage("The image to apply " + flipType + " has not been found.");
     }
   }
 
   @Override
-  public void filtering(FilteringType filterType, IPixel[][] mask) {
+  public void filtering(FilteringType filterType, Region region) {
     try {
-      if (this.notPreview(masks)) {
-        this.model.filtering(title, filterType, title);
+      if (region == null) {
+        this.model.filtering("image", filterType, "image");
+        this.refreshImage();
       } else {
-        this.model.filtering("image-pre", filterType, masks, title);
+        this.model.filtering("image-pre", filterType, region, "image-pre-edit");
+        this.refreshPreview(region);
       }
-      this.view.refresh(this.imageToSave(title), notPreview(mask));
     } catch (Exception e) {
       this.view.renderMessage("The image to " + filterType + " has not been found.");
     }
   }
 
   @Override
-  public void colorTransformation(ColorTransType colorTransType, IPixel[][] mask) {
+  public void gaussianBlur(double sigma) {
+    try {
+      this.model.gaussianBlur("image", sigma, "image");
+      this.refreshImage();
+    } catch (Exception e) {
+      this.view.renderMessage("The image to apply gaussian blur has not been found.");
+    }
+  }
+
+  @Override
+  public void colorTransformation(ColorTransType colorTransType, Region region) {
     try {
-      if (this.notPreview(masks)) {
-        this.model.colorTransformation(title, colorTransType, title);
+      if (region == null) {
+        this.model.colorTransformation("image", colorTransType, "image");
+        this.refreshImage();
       } else {
-        this.model.colorTransformation("image-pre", colorTransType, masks, title);
+        this.model.colorTransformation("image-pre", colorTransType, region, "image-pre-edit");
+        this.refreshPreview(region);
       }
-      this.view.refresh(this.imageToSave(title), notPreview(mask));
     } catch (Exception e) {
       this.view.renderMessage(e.getMessage());
       this.view.renderMessage("The image to apply " + colorTransType + " has not been found.");
@@ -181,9 +194,33 @@ public class GUIController implements Features {
   public void downscale(double width, double height) {
     try {
       this.model.downscale("image", width, height, "image");
-      this.view.refresh(this.imageToSave("image"), true);
+      this.refreshImage();
     } catch (Exception e) {
       this.view.renderMessage("The image to apply downscale has not been found.");
     }
   }
-}
\ No newline at end of file
+
+  @Override
+  public void resize(int width, int height, ResizeType resizeType) {
+    try {
+      this.model.resize("image", width, height, resizeType, "image");
+      this.refreshImage();
+    } catch (Exception e) {
+      this.view.renderMessage("The image to resize has not been found.");
+    }
+  }
+
+  @Override
+  public void zoom(double zoom) {
+    if (!(zoom > 0 && zoom <= 1)) {
+      this.view.renderMessage("The zoom must be greater than 0 and at most 1.");
+      return;
+    }
+    try {
+      this.zoom = zoom;
+      this.refreshImage();
+    } catch (Exception e) {
+      this.view.renderMessage("The image to zoom has not been found.");
+    }
+  }
+}
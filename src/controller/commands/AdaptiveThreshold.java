@@ -0,0 +1,47 @@
+package controller.commands;
+
+import model.MaskProcessorModel;
+
+/**
+ * A command specifically to make a mask image by adaptive thresholding.
+ * Extends {@link BulkCommand}, as it is a parent command.
+ * This command's execute function saves the mask image of the pixels darker than the pixels
+ * around them, which is black where a pixel is selected, so it can be saved and used as a mask.
+ */
+public class AdaptiveThreshold extends BulkCommand {
+  private final int radius;
+  private final int offset;
+
+  /**
+   * Constructs an AdaptiveThreshold using the input command line.
+   * Would throw an exception if the input is invalid.
+   *
+   * @param line the command line
+   * @throws IllegalArgumentException if the command line is null
+   */
+  public AdaptiveThreshold(String[] line) throws IllegalArgumentException {
+    super(line);
+    // adaptive-threshold radius offset image-name dest-image-name
+    if (line.length == 5) {
+      try {
+        this.radius = Integer.parseInt(line[1]);
+        this.offset = Integer.parseInt(line[2]);
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Radius or offset cannot be found");
+      }
+    } else {
+      throw new IllegalArgumentException("Invalid parameters.");
+    }
+  }
+
+  @Override
+  public void execute(MaskProcessorModel model) throws IllegalArgumentException {
+    super.execute(model);
+    try {
+      model.addImage(this.line[4],
+              model.adaptiveThreshold(this.line[3], this.radius, this.offset).toImage());
+    } catch (IllegalArgumentException e) {
+      System.out.println("Adaptive threshold cannot be executed on the image");
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package controller.commands;
+
+import model.MaskProcessorModel;
+
+/**
+ * A command specifically to execute a box blur on the image.
+ * Extends {@link BulkCommand}, as it is a parent command.
+ * This command's execute function sets every pixel to the mean of the square of the given
+ * radius around it.
+ */
+public class BoxBlur extends BulkCommand {
+  private final int radius;
+
+  /**
+   * Constructs a BoxBlur using the input command line.
+   * Would throw an exception if the input is invalid.
+   *
+   * @param line the command line
+   * @throws IllegalArgumentException if the command line is null
+   */
+  public BoxBlur(String[] line) throws IllegalArgumentException {
+    super(line);
+    // box-blur radius image-name dest-image-name
+    if (line.length == 4) {
+      try {
+        this.radius = Integer.parseInt(line[1]);
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Radius cannot be found");
+      }
+    } else {
+      throw new IllegalArgumentException("Invalid parameters.");
+    }
+  }
+
+  @Override
+  public void execute(MaskProcessorModel model) throws IllegalArgumentException {
+    super.execute(model);
+    try {
+      model.boxBlur(this.line[2], this.radius, this.line[3]);
+    } catch (IllegalArgumentException e) {
+      System.out.println("Box blur cannot be executed on the image");
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package controller.commands;
 
 import model.Image;
+import model.Mask;
 import model.MaskProcessorModel;
 import util.Utils;
 
@@ -41,7 +42,7 @@ public final class Brighten extends BulkCommand {
       } else {
     if (line.length == 5) {
       Image mask = Utils.othersToImage("res/" + this.line[3], this.line[3]);
-      model.brighten(this.line[1], this.strength, mask.getPixels(), this.line[4]);
+      model.brighten(this.line[1], this.strength, Mask.of(mask), this.line[4]);
       } else
         throw new IllegalArgumentException("Brighten cannot be executed on the image");
       }
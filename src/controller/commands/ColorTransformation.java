@@ -1,6 +1,7 @@
 package controller.commands;
 
 import model.Image;
+import model.Mask;
 import model.MaskProcessorModel;
 import model.ImageProcessorModelState.ColorTransType;
 import util.Utils;
@@ -35,7 +36,7 @@ public final class ColorTransformation extends BulkCommand {
         if (line.length == 4) {
           Image mask = Utils.othersToImage("res/" + this.line[2], this.line[2]);
           model.colorTransformation(this.line[1], ColorTransType.Greyscale,
-                  mask.getPixels(), this.line[3]);
+                  Mask.of(mask), this.line[3]);
         } else if (line.length == 3) {
           model.colorTransformation(this.line[1], ColorTransType.Greyscale, this.line[2]);
         }
@@ -43,7 +44,7 @@ public final class ColorTransformation extends BulkCommand {
         if (line.length == 4) {
           Image mask = Utils.othersToImage("res/" + this.line[2], this.line[2]);
           model.colorTransformation(this.line[1], ColorTransType.Sepia,
-                  mask.getPixels(), this.line[3]);
+                  Mask.of(mask), this.line[3]);
         } else if (line.length == 3) {
           model.colorTransformation(this.line[1], ColorTransType.Sepia, this.line[2]);
         }
@@ -0,0 +1,44 @@
+package controller.commands;
+
+import model.MaskProcessorModel;
+import util.Utils;
+
+/**
+ * A command specifically to convolve the image with a kernel read from a file.
+ * Extends {@link BulkCommand}, as it is a parent command.
+ * This command's execute function weighs the surrounding pixels of every pixel by the kernel.
+ */
+public class Convolve extends BulkCommand {
+  private final double[][] kernel;
+
+  /**
+   * Constructs a Convolve using the input command line.
+   * Would throw an exception if the input is invalid.
+   *
+   * @param line the command line
+   * @throws IllegalArgumentException if the command line is null or the kernel cannot be read
+   */
+  public Convolve(String[] line) throws IllegalArgumentException {
+    super(line);
+    // convolve kernel-path image-name dest-image-name
+    if (line.length == 4) {
+      try {
+        this.kernel = Utils.kernelFromFile(line[1]);
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Kernel cannot be found");
+      }
+    } else {
+      throw new IllegalArgumentException("Invalid parameters.");
+    }
+  }
+
+  @Override
+  public void execute(MaskProcessorModel model) throws IllegalArgumentException {
+    super.execute(model);
+    try {
+      model.convolve(this.line[2], this.kernel, this.line[3]);
+    } catch (IllegalArgumentException e) {
+      System.out.println("Convolution cannot be executed on the image");
+    }
+  }
+}
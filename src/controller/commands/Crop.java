@@ -0,0 +1,49 @@
+package controller.commands;
+
+import model.MaskProcessorModel;
+
+/**
+ * A command specifically to execute a crop on the image.
+ * Extends {@link BulkCommand}, as it is a parent command.
+ * This command's execute function crops a rectangular part out of the image.
+ */
+public class Crop extends BulkCommand {
+  private final int row;
+  private final int col;
+  private final int width;
+  private final int height;
+
+  /**
+   * Constructs a Crop using the input command line.
+   * Would throw an exception if the input is invalid.
+   *
+   * @param line the command line
+   * @throws IllegalArgumentException if the command line is null
+   */
+  public Crop(String[] line) throws IllegalArgumentException {
+    super(line);
+    // crop row col width height image-name dest-image-name
+    if (line.length == 7) {
+      try {
+        this.row = Integer.parseInt(line[1]);
+        this.col = Integer.parseInt(line[2]);
+        this.width = Integer.parseInt(line[3]);
+        this.height = Integer.parseInt(line[4]);
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Position or size cannot be found");
+      }
+    } else {
+      throw new IllegalArgumentException("Invalid parameters.");
+    }
+  }
+
+  @Override
+  public void execute(MaskProcessorModel model) throws IllegalArgumentException {
+    super.execute(model);
+    try {
+      model.crop(this.line[5], this.row, this.col, this.width, this.height, this.line[6]);
+    } catch (IllegalArgumentException e) {
+      System.out.println("Crop cannot be executed on the image");
+    }
+  }
+}
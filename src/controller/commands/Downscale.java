@@ -1,15 +1,19 @@
 package controller.commands;
 
+import model.ImageProcessorModel;
 import model.MaskProcessorModel;
 
 /**
  * A command specifically to execute downscale on the image.
  * Extends {@link BulkCommand}, as it is a parent command.
- * This command's execute function downsizes the image.
+ * This command's execute function downsizes the image, blending the pixels
+ * around each position, or averaging the pixels each resulting pixel covers
+ * if "area" follows the image names.
  */
 public class Downscale extends BulkCommand {
   private final double width;
   private final double height;
+  private final ImageProcessorModel.DownscaleType downscaleType;
 
   /**
    * Constructs a Downscale using the input command line.
@@ -20,14 +24,21 @@ public class Downscale extends BulkCommand {
    */
   public Downscale(String[] line) throws IllegalArgumentException {
     super(line);
-    // downscale width height image-name dest-image-name
-    if (line.length == 5) {
+    // downscale width height image-name dest-image-name [bilinear | area]
+    if (line.length == 5 || line.length == 6) {
       try {
         this.width = Double.parseDouble(line[1]);
         this.height = Double.parseDouble(line[2]);
       } catch (IllegalArgumentException e) {
         throw new IllegalArgumentException("Width or height cannot be found");
       }
+      if (line.length == 5 || line[5].equals("bilinear")) {
+        this.downscaleType = ImageProcessorModel.DownscaleType.Bilinear;
+      } else if (line[5].equals("area")) {
+        this.downscaleType = ImageProcessorModel.DownscaleType.Area;
+      } else {
+        throw new IllegalArgumentException("Downscale type cannot be found");
+      }
     } else {
       throw new IllegalArgumentException("Invalid parameters.");
     }
@@ -37,7 +48,7 @@ public class Downscale extends BulkCommand {
   public void execute(MaskProcessorModel model) throws IllegalArgumentException {
     super.execute(model);
     try {
-      model.downscale(this.line[3], this.width, this.height, this.line[4]);
+      model.downscale(this.line[3], this.width, this.height, this.downscaleType, this.line[4]);
     } catch (IllegalArgumentException e) {
       System.out.println("Downscale cannot be executed on the image");
     }
@@ -1,6 +1,7 @@
 package controller.commands;
 
 import model.Image;
+import model.Mask;
 import model.MaskProcessorModel;
 import model.ImageProcessorModelState.FilteringType;
 import util.Utils;
@@ -34,14 +35,14 @@ public class Filtering extends BulkCommand {
       if (command.charAt(0) == 'b') {
       if (line.length == 4) {
         Image mask = Utils.othersToImage("res/" + this.line[2], this.line[2]);
-        model.filtering(this.line[1], FilteringType.Blur, mask.getPixels(), this.line[3]);
+        model.filtering(this.line[1], FilteringType.Blur, Mask.of(mask), this.line[3]);
       } else if (line.length == 3) {
         model.filtering(this.line[1], FilteringType.Blur, this.line[2]);
       }
       } else {
         if (line.length == 4) {
           Image mask = Utils.othersToImage("res/" + this.line[2], this.line[2]);
-          model.filtering(this.line[1], FilteringType.Sharpen, mask.getPixels(), this.line[3]);
+          model.filtering(this.line[1], FilteringType.Sharpen, Mask.of(mask), this.line[3]);
         } else if (line.length == 3) {
           model.filtering(this.line[1], FilteringType.Sharpen, this.line[2]);
         }
@@ -0,0 +1,43 @@
+package controller.commands;
+
+import model.MaskProcessorModel;
+
+/**
+ * A command specifically to execute a Gaussian blur on the image.
+ * Extends {@link BulkCommand}, as it is a parent command.
+ * This command's execute function blurs the image as strongly as the given standard deviation.
+ */
+public class GaussianBlur extends BulkCommand {
+  private final double sigma;
+
+  /**
+   * Constructs a GaussianBlur using the input command line.
+   * Would throw an exception if the input is invalid.
+   *
+   * @param line the command line
+   * @throws IllegalArgumentException if the command line is null
+   */
+  public GaussianBlur(String[] line) throws IllegalArgumentException {
+    super(line);
+    // gaussian-blur sigma image-name dest-image-name
+    if (line.length == 4) {
+      try {
+        this.sigma = Double.parseDouble(line[1]);
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Standard deviation cannot be found");
+      }
+    } else {
+      throw new IllegalArgumentException("Invalid parameters.");
+    }
+  }
+
+  @Override
+  public void execute(MaskProcessorModel model) throws IllegalArgumentException {
+    super.execute(model);
+    try {
+      model.gaussianBlur(this.line[2], this.sigma, this.line[3]);
+    } catch (IllegalArgumentException e) {
+      System.out.println("Gaussian blur cannot be executed on the image");
+    }
+  }
+}
@@ -2,6 +2,7 @@ package controller.commands;
 
 import model.Image;
 import model.ImageProcessorModel;
+import model.Mask;
 import model.MaskProcessorModel;
 import util.Utils;
 
@@ -57,7 +58,7 @@ public final class Greyscale extends BulkCommand {
         model.multipleGreyscale(this.line[1], greyType, this.line[2]);
       } else if (line.length == 4) {
         Image mask = Utils.othersToImage("res/" + this.line[2], this.line[2]);
-        model.multipleGreyscale(this.line[1], greyType, mask.getPixels(), this.line[3]);
+        model.multipleGreyscale(this.line[1], greyType, Mask.of(mask), this.line[3]);
       }
     } catch (IllegalArgumentException e) {
       System.out.println("Greyscale cannot be executed on the image");
@@ -0,0 +1,45 @@
+package controller.commands;
+
+import model.Image;
+import model.Mask;
+import model.MaskProcessorModel;
+import util.Utils;
+
+/**
+ * A command specifically to count the values of the image into a histogram.
+ * Extends {@link BulkCommand}, as it is a parent command.
+ * This command's execute function writes the counts of every red, green, and blue value, and
+ * every intensity, of the image, or of the pixels a mask selects, to a text file.
+ */
+public class Histogram extends BulkCommand {
+
+  /**
+   * Constructs a Histogram using the input command line.
+   * Would throw an exception if the input is invalid.
+   *
+   * @param line the command line
+   * @throws IllegalArgumentException if the command line is null
+   */
+  public Histogram(String[] line) throws IllegalArgumentException {
+    super(line);
+    // histogram image-name file-path (mask-name)
+    if (line.length != 3 && line.length != 4) {
+      throw new IllegalArgumentException("Invalid parameters.");
+    }
+  }
+
+  @Override
+  public void execute(MaskProcessorModel model) throws IllegalArgumentException {
+    super.execute(model);
+    try {
+      if (this.line.length == 3) {
+        Utils.histogramToFile(model.histogram(this.line[1]), this.line[2]);
+      } else {
+        Image mask = Utils.othersToImage("res/" + this.line[3], this.line[3]);
+        Utils.histogramToFile(model.histogram(this.line[1], Mask.of(mask)), this.line[2]);
+      }
+    } catch (IllegalArgumentException e) {
+      System.out.println("Histogram cannot be made of the image");
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package controller.commands;
+
+import model.ImageProcessorModel;
+import model.MaskProcessorModel;
+import model.PointOperation;
+
+/**
+ * A command specifically to execute a sequence of point operations on the image
+ * in a single pass. Extends {@link BulkCommand}, as it is a parent command.
+ * The steps are brighten followed by its increment, the greyscale components,
+ * greyscale, and sepia. A step followed by "as" and a name is saved under that name.
+ */
+public class Pipeline extends BulkCommand {
+  private final PointOperation operation;
+
+  /**
+   * Constructs a Pipeline using the input command line.
+   * Would throw an exception if the input is invalid.
+   *
+   * @param line the command line
+   * @throws IllegalArgumentException if the command line is null or has an unknown step
+   */
+  public Pipeline(String[] line) throws IllegalArgumentException {
+    super(line);
+    // pipeline image-name dest-image-name step [as step-image-name] [step ...]
+    if (line.length < 4) {
+      throw new IllegalArgumentException("Invalid parameters.");
+    }
+    PointOperation operation = null;
+    for (int i = 3; i < line.length; i++) {
+      if (line[i].equals("as") && operation != null && i + 1 < line.length) {
+        operation = operation.saveAs(line[++i]);
+        continue;
+      }
+      PointOperation step;
+      if (line[i].equals("brighten") && i + 1 < line.length) {
+        try {
+          step = PointOperation.brighten(Integer.parseInt(line[++i]));
+        } catch (IllegalArgumentException e) {
+          throw new IllegalArgumentException("Increment amount cannot be found");
+        }
+      } else {
+        step = step(line[i]);
+      }
+      operation = operation == null ? step : operation.then(step);
+    }
+    this.operation = operation;
+  }
+
+  /**
+   * A private helper function to find the step of the given name.
+   *
+   * @param name the name of the step
+   * @return the step
+   * @throws IllegalArgumentException if there is no step of the given name
+   */
+  private static PointOperation step(String name) throws IllegalArgumentException {
+    switch (name) {
+      case "red-component":
+        return PointOperation.greyscale(ImageProcessorModel.GreyscaleType.Red);
+      case "green-component":
+        return PointOperation.greyscale(ImageProcessorModel.GreyscaleType.Green);
+      case "blue-component":
+        return PointOperation.greyscale(ImageProcessorModel.GreyscaleType.Blue);
+      case "value-component":
+        return PointOperation.greyscale(ImageProcessorModel.GreyscaleType.Value);
+      case "intensity-component":
+        return PointOperation.greyscale(ImageProcessorModel.GreyscaleType.Intensity);
+      case "luma-component":
+        return PointOperation.greyscale(ImageProcessorModel.GreyscaleType.Luma);
+      case "greyscale":
+        return PointOperation.colorTransformation(ImageProcessorModel.ColorTransType.Greyscale);
+      case "sepia":
+        return PointOperation.colorTransformation(ImageProcessorModel.ColorTransType.Sepia);
+      default:
+        throw new IllegalArgumentException("Unknown step: " + name);
+    }
+  }
+
+  @Override
+  public void execute(MaskProcessorModel model) throws IllegalArgumentException {
+    super.execute(model);
+    try {
+      model.pipeline(this.line[1], this.operation, this.line[2]);
+    } catch (IllegalArgumentException e) {
+      System.out.println("Pipeline cannot be executed on the image");
+    }
+  }
+}
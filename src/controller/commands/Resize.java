@@ -0,0 +1,66 @@
+package controller.commands;
+
+import model.ImageProcessorModel;
+import model.MaskProcessorModel;
+
+/**
+ * A command specifically to execute resize on the image.
+ * Extends {@link BulkCommand}, as it is a parent command.
+ * This command's execute function resizes the image to the given width and
+ * height with the filter following the image names, which is "nearest",
+ * "bilinear", "bicubic", or "lanczos", and bicubic if none follows.
+ */
+public class Resize extends BulkCommand {
+  private final int width;
+  private final int height;
+  private final ImageProcessorModel.ResizeType resizeType;
+
+  /**
+   * Constructs a Resize using the input command line.
+   * Would throw an exception if the input is invalid.
+   *
+   * @param line the command line
+   * @throws IllegalArgumentException if the command line is null
+   */
+  public Resize(String[] line) throws IllegalArgumentException {
+    super(line);
+    // resize width height image-name dest-image-name [nearest | bilinear | bicubic | lanczos]
+    if (line.length == 5 || line.length == 6) {
+      try {
+        this.width = Integer.parseInt(line[1]);
+        this.height = Integer.parseInt(line[2]);
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Width or height cannot be found");
+      }
+      String filter = line.length == 5 ? "bicubic" : line[5];
+      switch (filter) {
+        case "nearest":
+          this.resizeType = ImageProcessorModel.ResizeType.Nearest;
+          break;
+        case "bilinear":
+          this.resizeType = ImageProcessorModel.ResizeType.Bilinear;
+          break;
+        case "bicubic":
+          this.resizeType = ImageProcessorModel.ResizeType.Bicubic;
+          break;
+        case "lanczos":
+          this.resizeType = ImageProcessorModel.ResizeType.Lanczos;
+          break;
+        default:
+          throw new IllegalArgumentException("Resize type cannot be found");
+      }
+    } else {
+      throw new IllegalArgumentException("Invalid parameters.");
+    }
+  }
+
+  @Override
+  public void execute(MaskProcessorModel model) throws IllegalArgumentException {
+    super.execute(model);
+    try {
+      model.resize(this.line[3], this.width, this.height, this.resizeType, this.line[4]);
+    } catch (IllegalArgumentException e) {
+      System.out.println("Resize cannot be executed on the image");
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package controller.commands;
+
+import model.MaskProcessorModel;
+
+/**
+ * A command specifically to execute a transpose on the image.
+ * Extends {@link BulkCommand}, as it is a parent command.
+ * This command's execute function turns the rows of the image into its columns.
+ */
+public class Transpose extends BulkCommand {
+
+  /**
+   * Constructs a Transpose command using the input command line.
+   * Would throw an exception if the input is invalid.
+   *
+   * @param line the command line
+   * @throws IllegalArgumentException if the command line is null
+   */
+  public Transpose(String[] line) throws IllegalArgumentException {
+    super(line);
+    // transpose image-name dest-image-name
+  }
+
+  @Override
+  public void execute(MaskProcessorModel model) throws IllegalArgumentException {
+    super.execute(model);
+    try {
+      model.transpose(this.line[1], this.line[2]);
+    } catch (IllegalArgumentException e) {
+      System.out.println("Transpose cannot be executed on the image");
+    }
+  }
+}
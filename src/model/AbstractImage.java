@@ -0,0 +1,432 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An abstract base class for every {@link Image} implementation. Holds the
+ * width, height, and maximum value of the image and implements the methods
+ * that only depend on reading the channel values, so that the storage
+ * of the pixels is left to the subclasses. Two images are equal whenever
+ * their contents are equal, no matter how their pixels are stored.
+ */
+public abstract class AbstractImage implements Image {
+  protected final int width;
+  protected final int height;
+  protected final int maxValue;
+  private volatile boolean hashed;
+  private int hash;
+  private volatile BandExecutor executor = BandExecutor.DEFAULT;
+
+  /**
+   * Constructs the common part of an image using the given information.
+   *
+   * @param width    the image width
+   * @param height   the image height
+   * @param maxValue the maximum RBG value
+   * @throws IllegalArgumentException if the width or height is not positive,
+   *                                  or the maximum value is negative
+   */
+  protected AbstractImage(int width, int height, int maxValue)
+          throws IllegalArgumentException {
+    if (width <= 0 || height <= 0 || maxValue < 0) {
+      throw new IllegalArgumentException("Only positive values allowed.");
+    }
+    this.width = width;
+    this.height = height;
+    this.maxValue = maxValue;
+  }
+
+  @Override
+  public int getWidth() {
+    int width = this.width;
+    return width;
+  }
+
+  @Override
+  public int getHeight() {
+    int height = this.height;
+    return height;
+  }
+
+  @Override
+  public int getMaxValue() {
+    int maxValue = this.maxValue;
+    return maxValue;
+  }
+
+  @Override
+  public void getRow(int row, int col, int length, int[] red, int[] green, int[] blue)
+          throws IllegalArgumentException {
+    this.checkRow(row, col, length);
+    this.getRow(row, col, length, red, green, blue, 0);
+  }
+
+  /**
+   * Copies the channel values of a part of a row into the given arrays,
+   * starting at the given index of the arrays instead of index 0.
+   *
+   * @param row    the row position
+   * @param col    the column position where the part of the row starts
+   * @param length the number of pixels to copy
+   * @param red    the array to copy the red values into
+   * @param green  the array to copy the green values into
+   * @param blue   the array to copy the blue values into
+   * @param offset the index of the arrays to start copying into
+   */
+  void getRow(int row, int col, int length, int[] red, int[] green, int[] blue, int offset) {
+    this.getChannelRow(row, col, length, 0, red, offset);
+    this.getChannelRow(row, col, length, 1, green, offset);
+    this.getChannelRow(row, col, length, 2, blue, offset);
+  }
+
+  @Override
+  public void getChannelRow(int row, int col, int length, int channel, int[] dest)
+          throws IllegalArgumentException {
+    this.checkRow(row, col, length);
+    if (channel < 0 || channel > 2) {
+      throw new IllegalArgumentException("Channel out of bound.");
+    }
+    this.getChannelRow(row, col, length, channel, dest, 0);
+  }
+
+  /**
+   * Copies the values of a single channel from a part of a row into the
+   * given array, starting at the given index of the array instead of index 0.
+   *
+   * @param row     the row position
+   * @param col     the column position where the part of the row starts
+   * @param length  the number of pixels to copy
+   * @param channel the channel index
+   * @param dest    the array to copy the values into
+   * @param offset  the index of the array to start copying into
+   */
+  void getChannelRow(int row, int col, int length, int channel, int[] dest, int offset) {
+    for (int j = 0; j < length; j++) {
+      dest[offset + j] = this.getChannel(row, col + j, channel);
+    }
+  }
+
+  @Override
+  public IPixel[][] getPixels() {
+    Pixel[][] arrayPixel = new Pixel[this.height][this.width];
+    int[] red = new int[this.width];
+    int[] green = new int[this.width];
+    int[] blue = new int[this.width];
+    for (int i = 0; i < this.height; i++) {
+      this.getRow(i, 0, this.width, red, green, blue);
+      for (int j = 0; j < this.width; j++) {
+        arrayPixel[i][j] = new Pixel(red[j], green[j], blue[j]);
+      }
+    }
+    return arrayPixel;
+  }
+
+  @Override
+  public IPixel getPixelAt(int row, int col) throws IllegalArgumentException {
+    this.checkBounds(row, col);
+    return new Pixel(this.getChannel(row, col, 0), this.getChannel(row, col, 1),
+            this.getChannel(row, col, 2));
+  }
+
+  @Override
+  public String toByteRead() {
+    StringBuilder builder = new StringBuilder("P3 \n");
+    builder.append(this.width).append(" ");
+    builder.append(this.height).append("\n");
+    builder.append(this.maxValue).append("\n\n");
+
+    int[] red = new int[this.width];
+    int[] green = new int[this.width];
+    int[] blue = new int[this.width];
+    for (int i = 0; i < this.height; i++) {
+      this.getRow(i, 0, this.width, red, green, blue);
+      for (int j = 0; j < this.width; j++) {
+        builder.append(red[j]).append("\n");
+        builder.append(green[j]).append("\n");
+        builder.append(blue[j]).append("\n");
+        if (!((i == this.height - 1) && (j == this.width - 1))) {
+          builder.append("\n");
+        }
+      }
+    }
+    return builder.toString();
+  }
+
+  /**
+   * A protected helper function to determine whether the given position
+   * is inside this image.
+   *
+   * @param row the row position
+   * @param col the column position
+   * @throws IllegalArgumentException when the given position is out of bound
+   */
+  protected void checkBounds(int row, int col) throws IllegalArgumentException {
+    if (row < 0 || col < 0 || row >= this.height || col >= this.width) {
+      throw new IllegalArgumentException("Position out of bound.");
+    }
+  }
+
+  /**
+   * A protected helper function to determine whether the given position
+   * is inside this image, and the given channel is one of its three channels.
+   *
+   * @param row     the row position
+   * @param col     the column position
+   * @param channel the channel index
+   * @throws IllegalArgumentException when the given position or channel is out of bound
+   */
+  protected void checkChannel(int row, int col, int channel) throws IllegalArgumentException {
+    this.checkBounds(row, col);
+    if (channel < 0 || channel > 2) {
+      throw new IllegalArgumentException("Channel out of bound.");
+    }
+  }
+
+  /**
+   * A protected helper function to determine whether the given part of a
+   * row is inside this image.
+   *
+   * @param row    the row position
+   * @param col    the column position where the part of the row starts
+   * @param length the number of pixels of the part
+   * @throws IllegalArgumentException when the part of the row is out of bound
+   */
+  protected void checkRow(int row, int col, int length) throws IllegalArgumentException {
+    if (row < 0 || row >= this.height || col < 0 || length < 0
+            || (long) col + length > this.width) {
+      throw new IllegalArgumentException("Row out of bound.");
+    }
+  }
+
+  /**
+   * Copies the channel values of a part of a row of any image into the
+   * given arrays, using the faster row access of the image when it has one.
+   *
+   * @param image  the image to read
+   * @param row    the row position
+   * @param col    the column position where the part of the row starts
+   * @param length the number of pixels to copy
+   * @param red    the array to copy the red values into
+   * @param green  the array to copy the green values into
+   * @param blue   the array to copy the blue values into
+   * @param offset the index of the arrays to start copying into
+   */
+  static void readRow(Image image, int row, int col, int length,
+                      int[] red, int[] green, int[] blue, int offset) {
+    if (image instanceof AbstractImage) {
+      ((AbstractImage) image).getRow(row, col, length, red, green, blue, offset);
+    } else {
+      for (int j = 0; j < length; j++) {
+        red[offset + j] = image.getChannel(row, col + j, 0);
+        green[offset + j] = image.getChannel(row, col + j, 1);
+        blue[offset + j] = image.getChannel(row, col + j, 2);
+      }
+    }
+  }
+
+  /**
+   * Copies the values of a single channel from a part of a row of any image
+   * into the given array, using the faster row access of the image when it has one.
+   *
+   * @param image   the image to read
+   * @param row     the row position
+   * @param col     the column position where the part of the row starts
+   * @param length  the number of pixels to copy
+   * @param channel the channel index
+   * @param dest    the array to copy the values into
+   * @param offset  the index of the array to start copying into
+   */
+  static void readChannelRow(Image image, int row, int col, int length, int channel,
+                             int[] dest, int offset) {
+    if (image instanceof AbstractImage) {
+      ((AbstractImage) image).getChannelRow(row, col, length, channel, dest, offset);
+    } else {
+      for (int j = 0; j < length; j++) {
+        dest[offset + j] = image.getChannel(row, col + j, channel);
+      }
+    }
+  }
+
+  /**
+   * Determines whether an image may still read another image, because
+   * some of its pixels have not been copied or computed yet.
+   *
+   * @param image the image that may read the other image
+   * @param other the image to look for
+   * @return true if the image may still read the other image
+   */
+  static boolean dependsOn(Image image, Image other) {
+    return image == other
+            || (image instanceof AbstractImage && ((AbstractImage) image).dependsOn(other));
+  }
+
+  /**
+   * Determines whether reading this image may still read the given image,
+   * because some of its pixels have not been copied or computed yet.
+   *
+   * @param image the image to look for
+   * @return true if this image may still read the given image
+   */
+  boolean dependsOn(Image image) {
+    return false;
+  }
+
+  /**
+   * Finds the images stored outside of the heap that hold pixels of the
+   * given image, which are the image itself when it is a direct image, and
+   * its stored tiles or its copy otherwise. The images it reads pixels from
+   * are not counted.
+   *
+   * @param image the image
+   * @return the images stored outside of the heap, compared by identity
+   */
+  static Set<DirectImageImpl> directParts(Image image) {
+    Set<DirectImageImpl> parts = Collections.newSetFromMap(new IdentityHashMap<>());
+    if (image instanceof AbstractImage) {
+      ((AbstractImage) image).addDirectParts(parts);
+    }
+    return parts;
+  }
+
+  /**
+   * Adds the images stored outside of the heap that hold pixels of this
+   * image to the given set, the same way as {@link #directParts(Image)}.
+   *
+   * @param parts the set to add them to, compared by identity
+   */
+  void addDirectParts(Set<DirectImageImpl> parts) {
+    // the pixels of this image are all on the heap
+  }
+
+  /**
+   * Returns the executor this image is compared, hashed, and copied on,
+   * which is the executor of the model that stored it last, or the common
+   * pool if no model has stored it.
+   *
+   * @return the executor of this image
+   */
+  BandExecutor getExecutor() {
+    return this.executor;
+  }
+
+  /**
+   * Sets the executor this image is compared, hashed, and copied on, so
+   * that an image of a model set to a number of threads never works on
+   * more threads, or on the threads shared by the whole program.
+   *
+   * @param executor the executor of the model storing this image
+   */
+  void runOn(BandExecutor executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Copies or computes every pixel this image would otherwise read from
+   * another image, so that it no longer depends on any other image.
+   */
+  void materialize() {
+    // the pixels of this image are all stored already
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof AbstractImage)) {
+      return false;
+    }
+    AbstractImage image = (AbstractImage) o;
+    if (this.width != image.width
+            || this.height != image.height
+            || this.maxValue != image.maxValue
+            || this.hashCode() != image.hashCode()) {
+      return false;
+    }
+    // equal hashes almost always mean equal images, but it still has to be confirmed
+    AtomicBoolean differs = new AtomicBoolean();
+    this.executor.forEachBand(this.height, this.width, (from, to) -> {
+      if (!differs.get() && !this.rowsEqual(image, from, to)) {
+        differs.set(true);
+      }
+    });
+    return !differs.get();
+  }
+
+  /**
+   * Returns the hash of the contents of this image. The hash is computed
+   * once, in parallel for large images, and is cached afterwards, which is
+   * safe since an image is never altered once handed out of the model.
+   *
+   * @return the hash of this image
+   */
+  @Override
+  public int hashCode() {
+    if (!this.hashed) {
+      int[] rowHashes = new int[this.height];
+      this.executor.forEachBand(this.height, this.width,
+          (from, to) -> this.hashRows(rowHashes, from, to));
+      // the hash of a row is shifted past every later row, the same as hashing all pixels in order
+      int shift = 1;
+      for (int j = 0; j < 3 * this.width; j++) {
+        shift *= 31;
+      }
+      int hash = 31 * (31 * this.width + this.height) + this.maxValue;
+      for (int rowHash : rowHashes) {
+        hash = hash * shift + rowHash;
+      }
+      this.hash = hash;
+      this.hashed = true;
+    }
+    return this.hash;
+  }
+
+  /**
+   * A private helper function to hash every row of the given range of rows on its own.
+   *
+   * @param rowHashes the array to store the hash of each row into
+   * @param from      the first row to hash
+   * @param to        the row after the last row to hash
+   */
+  private void hashRows(int[] rowHashes, int from, int to) {
+    int[] red = new int[this.width];
+    int[] green = new int[this.width];
+    int[] blue = new int[this.width];
+    for (int i = from; i < to; i++) {
+      this.getRow(i, 0, this.width, red, green, blue);
+      int hash = 0;
+      for (int j = 0; j < this.width; j++) {
+        hash = 31 * (31 * (31 * hash + red[j]) + green[j]) + blue[j];
+      }
+      rowHashes[i] = hash;
+    }
+  }
+
+  /**
+   * A private helper function to determine whether the given range of rows
+   * is the same in this image and the given image.
+   *
+   * @param image the image to compare with, of the same size
+   * @param from  the first row to compare
+   * @param to    the row after the last row to compare
+   * @return true if every row of the range is the same in both images
+   */
+  private boolean rowsEqual(AbstractImage image, int from, int to) {
+    int[] these = new int[this.width];
+    int[] those = new int[this.width];
+    for (int i = from; i < to; i++) {
+      for (int k = 0; k < 3; k++) {
+        this.getChannelRow(i, 0, this.width, k, these);
+        image.getChannelRow(i, 0, this.width, k, those);
+        if (!Arrays.equals(these, those)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+}
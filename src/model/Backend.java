@@ -0,0 +1,85 @@
+package model;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import com.sun.management.VMOption;
+
+/**
+ * The ways the convolution kernels of the model are run over rows of channel values.
+ * <ul>
+ *   <li>{@link #SCALAR} computes one value at a time, summing each weighted
+ *   value of the kernel in turn.</li>
+ *   <li>{@link #VECTOR} computes a whole row at a time, adding the row under
+ *   each weight to the sums of the whole row, without branches in the loops.
+ *   The just-in-time compiler turns such loops into SIMD instructions, which
+ *   compute several values at once.</li>
+ * </ul>
+ * Both give exactly the same values. The backend of a run is picked once,
+ * from the {@value #PROPERTY} system property, which is "scalar", "vector",
+ * or "auto", the default. The vector backend is only used if the virtual
+ * machine turns loops into SIMD instructions, and the scalar one otherwise,
+ * in which case a request for the vector backend is reported as ignored.
+ *
+ * <p>The point operations always read their lookup tables: computing them
+ * with plain arithmetic over the row was no faster for brighten and sepia,
+ * and slower for luma.
+ */
+enum Backend {
+  SCALAR, VECTOR;
+
+  // the system property picking the backend of a run
+  static final String PROPERTY = "imageprocessor.backend";
+  // the backend of this run
+  static final Backend DEFAULT = choose(System.getProperty(PROPERTY), vectorSupported(),
+          System.err);
+
+  /**
+   * Picks the backend asked for, falling back to the scalar one if the
+   * virtual machine does not turn loops into SIMD instructions. A request
+   * that cannot be met, or that is not a backend at all, is reported.
+   *
+   * @param requested the backend asked for, "scalar", "vector", or "auto", where null or
+   *                  anything else counts as "auto"
+   * @param supported whether the virtual machine turns loops into SIMD instructions
+   * @param warnings  the stream to report an ignored request to
+   * @return the backend
+   */
+  static Backend choose(String requested, boolean supported, PrintStream warnings) {
+    if ("scalar".equals(requested)) {
+      return SCALAR;
+    }
+    if ("vector".equals(requested) && !supported) {
+      warnings.println("The vector backend is ignored, since this virtual machine does not "
+              + "turn loops into SIMD instructions; the scalar backend is used instead.");
+    } else if (requested != null && !"vector".equals(requested) && !"auto".equals(requested)) {
+      warnings.println("The backend \"" + requested + "\" is not known; "
+              + "it is picked automatically instead.");
+    }
+    return supported ? VECTOR : SCALAR;
+  }
+
+  /**
+   * Finds whether the virtual machine of this run turns loops into SIMD
+   * instructions, which a HotSpot virtual machine does with its UseSuperWord
+   * option, unless it only interprets the code.
+   *
+   * @return whether loops are turned into SIMD instructions
+   */
+  static boolean vectorSupported() {
+    String info = System.getProperty("java.vm.info", "");
+    if (info.contains("interpreted mode")) {
+      return false;
+    }
+    try {
+      HotSpotDiagnosticMXBean hotSpot =
+              ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+      VMOption option = hotSpot == null ? null : hotSpot.getVMOption("UseSuperWord");
+      return option != null && Boolean.parseBoolean(option.getValue());
+    } catch (RuntimeException | LinkageError e) {
+      // not a HotSpot virtual machine, or the option is not there
+      return false;
+    }
+  }
+}
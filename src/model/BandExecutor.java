@@ -0,0 +1,139 @@
+package model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs the work of an operation in bands of rows on a fork/join pool. The
+ * rows are split in halves until a band holds fewer pixels than the
+ * sequential cutoff, so small images are worked on by the calling thread
+ * alone. Each row is worked on exactly as it would be on a single thread,
+ * so the result never depends on the number of threads. Executors of the
+ * same number of threads share a single pool, which lives as long as the
+ * program, so making a model never leaves a pool of threads behind.
+ */
+final class BandExecutor {
+  static final int DEFAULT_SEQUENTIAL_PIXELS = 1 << 16;
+  static final BandExecutor DEFAULT = new BandExecutor(ForkJoinPool.commonPool(),
+          DEFAULT_SEQUENTIAL_PIXELS);
+  // the pools of the executors of a given number of threads, by their number of threads
+  private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+  private final ForkJoinPool pool;
+  private final long sequentialPixels;
+
+  /**
+   * Work done on a band of rows.
+   */
+  @FunctionalInterface
+  interface Band {
+
+    /**
+     * Works on every row of the given band.
+     *
+     * @param from the first row of the band
+     * @param to   the row after the last row of the band
+     */
+    void run(int from, int to);
+  }
+
+  /**
+   * Constructs an executor using the pool of the given number of threads,
+   * which is made the first time an executor of that many threads is.
+   *
+   * @param parallelism      the number of threads to work with, or 1 to never run in parallel
+   * @param sequentialPixels the number of pixels under which a band is not split any further
+   * @throws IllegalArgumentException if the parallelism or the cutoff is not positive
+   */
+  BandExecutor(int parallelism, long sequentialPixels) throws IllegalArgumentException {
+    this(parallelism == 1 ? null : checkParallelism(parallelism), sequentialPixels);
+  }
+
+  /**
+   * A private constructor for an executor using the given pool.
+   *
+   * @param pool             the pool to work on, or null to never run in parallel
+   * @param sequentialPixels the number of pixels under which a band is not split any further
+   * @throws IllegalArgumentException if the cutoff is not positive
+   */
+  private BandExecutor(ForkJoinPool pool, long sequentialPixels)
+          throws IllegalArgumentException {
+    if (sequentialPixels <= 0) {
+      throw new IllegalArgumentException("The sequential cutoff must be positive.");
+    }
+    this.pool = pool;
+    this.sequentialPixels = sequentialPixels;
+  }
+
+  /**
+   * A private helper function to get the pool of the given number of threads.
+   *
+   * @param parallelism the number of threads
+   * @return the pool
+   * @throws IllegalArgumentException if the parallelism is not positive
+   */
+  private static ForkJoinPool checkParallelism(int parallelism) throws IllegalArgumentException {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("The parallelism must be positive.");
+    }
+    return POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+  }
+
+  /**
+   * Works on every row from 0 to the given number of rows, in parallel bands
+   * when there are enough pixels, and returns once every band is done.
+   * An exception thrown by a band is thrown again here.
+   *
+   * @param rows         the number of rows
+   * @param pixelsPerRow the number of pixels in each row
+   * @param band         the work done on each band
+   */
+  void forEachBand(int rows, long pixelsPerRow, Band band) {
+    long bandRows = Math.max(1, this.sequentialPixels / Math.max(1, pixelsPerRow));
+    if (this.pool == null || rows <= bandRows) {
+      band.run(0, rows);
+      return;
+    }
+    this.pool.invoke(new Split(band, 0, rows, (int) bandRows));
+  }
+
+  /**
+   * A task splitting its rows in halves until they fit in a single band.
+   */
+  private static final class Split extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final Band band;
+    private final int from;
+    private final int to;
+    private final int bandRows;
+
+    /**
+     * Constructs a task working on the given rows.
+     *
+     * @param band     the work done on each band
+     * @param from     the first row
+     * @param to       the row after the last row
+     * @param bandRows the largest number of rows of a single band
+     */
+    private Split(Band band, int from, int to, int bandRows) {
+      this.band = band;
+      this.from = from;
+      this.to = to;
+      this.bandRows = bandRows;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.to - this.from <= this.bandRows) {
+        this.band.run(this.from, this.to);
+        return;
+      }
+      int middle = (this.from + this.to) >>> 1;
+      invokeAll(new Split(this.band, this.from, middle, this.bandRows),
+              new Split(this.band, middle, this.to, this.bandRows));
+    }
+  }
+}
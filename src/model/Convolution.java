@@ -0,0 +1,216 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Convolves an image with a {@link Kernel}. The rows of the image under the
+ * kernel are read once each into padded rows, which extend past both sides
+ * of the image by half of the kernel width. The border mode only decides how
+ * those padded rows are filled, so the loop computing every pixel never checks
+ * whether a position is inside the image.
+ */
+final class Convolution {
+
+  /**
+   * The ways the pixels outside of the image are filled in.
+   */
+  enum Border {
+    // pixels outside of the image count as black
+    ZERO,
+    // pixels outside of the image repeat the nearest pixel on the edge
+    CLAMP,
+    // pixels outside of the image mirror the pixels inside, without repeating the edge
+    REFLECT
+  }
+
+  /**
+   * Receives a row of the result of a convolution.
+   */
+  @FunctionalInterface
+  interface RowConsumer {
+
+    /**
+     * Receives a row of the result.
+     *
+     * @param row   the row position in the part of the result being computed
+     * @param red   the red channel values of the row
+     * @param green the green channel values of the row
+     * @param blue  the blue channel values of the row
+     */
+    void accept(int row, int[] red, int[] green, int[] blue);
+  }
+
+  private final Kernel kernel;
+  private final Border border;
+  private final int max;
+
+  /**
+   * Constructs a convolution with the given kernel and border mode.
+   *
+   * @param kernel the kernel to convolve with
+   * @param border how the pixels outside of the image are filled in
+   * @param max    the largest resulting value
+   * @throws IllegalArgumentException if the kernel or the border mode is null
+   */
+  Convolution(Kernel kernel, Border border, int max) throws IllegalArgumentException {
+    if (kernel == null || border == null) {
+      throw new IllegalArgumentException("The kernel and the border mode must not be null.");
+    }
+    this.kernel = kernel;
+    this.border = border;
+    this.max = max;
+  }
+
+  /**
+   * Returns how far a resulting pixel is from the farthest pixel it reads,
+   * which is half the size of the kernel.
+   *
+   * @return the distance, in pixels
+   */
+  int radius() {
+    return Math.max(this.kernel.getRows(), this.kernel.getCols()) / 2;
+  }
+
+  /**
+   * Computes a rectangular part of the convolution of the given image, and
+   * hands every row of it to the given consumer, from top to bottom. The
+   * arrays handed over are reused for the next row.
+   *
+   * @param source the image to convolve
+   * @param top    the row position of the part
+   * @param left   the column position of the part
+   * @param width  the width of the part
+   * @param height the height of the part
+   * @param rows   the consumer of the rows of the part
+   */
+  void apply(Image source, int top, int left, int width, int height, RowConsumer rows) {
+    int kernelRows = this.kernel.getRows();
+    int halfRows = kernelRows / 2;
+    int halfCols = this.kernel.getCols() / 2;
+    int paddedWidth = width + 2 * halfCols;
+    // the padded source rows, kept in a ring so each one is read only once
+    int[][][] ring = new int[kernelRows][3][paddedWidth];
+    int[][][] window = new int[3][kernelRows][];
+    int[] red = new int[width];
+    int[] green = new int[width];
+    int[] blue = new int[width];
+    int[][] result = {red, green, blue};
+    int[][] buffer = new int[3][paddedWidth];
+
+    for (int i = -halfRows; i < height + halfRows; i++) {
+      readPadded(source, this.border, top + i, left - halfCols,
+              ring[Math.floorMod(i, kernelRows)], buffer);
+      int row = i - halfRows;
+      if (row < 0) {
+        continue;
+      }
+      for (int k = 0; k < kernelRows; k++) {
+        int[][] padded = ring[Math.floorMod(row - halfRows + k, kernelRows)];
+        for (int channel = 0; channel < 3; channel++) {
+          window[channel][k] = padded[channel];
+        }
+      }
+      for (int channel = 0; channel < 3; channel++) {
+        this.kernel.apply(window[channel], result[channel], width, this.max);
+      }
+      rows.accept(row, red, green, blue);
+    }
+  }
+
+  /**
+   * Reads a source row, including the pixels past its sides, filled in by
+   * the given border mode.
+   *
+   * @param source the image to read
+   * @param border how the pixels outside of the image are filled in
+   * @param row    the row position, which may be outside of the image
+   * @param col    the column position of the first padded pixel, which may be outside
+   * @param dest   the red, green, and blue arrays to write the padded row into
+   * @param buffer arrays at least as long as the padded row, used to read the source
+   */
+  static void readPadded(Image source, Border border, int row, int col, int[][] dest,
+                         int[][] buffer) {
+    int length = dest[0].length;
+    int sourceRow = position(border, row, source.getHeight());
+    if (sourceRow < 0) {
+      for (int[] channel : dest) {
+        Arrays.fill(channel, 0);
+      }
+      return;
+    }
+    int width = source.getWidth();
+    int from = Math.max(col, 0);
+    int to = Math.min(col + length, width);
+    int left = length;
+    int right = length;
+    if (from < to) {
+      source.getRow(sourceRow, from, to - from, buffer[0], buffer[1], buffer[2]);
+      for (int channel = 0; channel < 3; channel++) {
+        System.arraycopy(buffer[channel], 0, dest[channel], from - col, to - from);
+      }
+      left = from - col;
+      right = to - col;
+    }
+    // the border loops, only over the pixels outside of the image
+    for (int j = 0; j < left; j++) {
+      fillBorder(source, border, sourceRow, col, j, from, to, dest);
+    }
+    for (int j = right; j < length; j++) {
+      fillBorder(source, border, sourceRow, col, j, from, to, dest);
+    }
+  }
+
+  /**
+   * A private helper function to fill in a padded pixel outside of the image.
+   *
+   * @param source    the image to read
+   * @param border    how the pixels outside of the image are filled in
+   * @param sourceRow the row position inside the image
+   * @param col       the column position of the first padded pixel
+   * @param j         the index of the padded pixel to fill in
+   * @param from      the first column already copied into the padded row
+   * @param to        the column after the last column already copied
+   * @param dest      the red, green, and blue arrays of the padded row
+   */
+  private static void fillBorder(Image source, Border border, int sourceRow, int col, int j,
+                                 int from, int to, int[][] dest) {
+    int inside = position(border, col + j, source.getWidth());
+    for (int channel = 0; channel < 3; channel++) {
+      if (inside < 0) {
+        dest[channel][j] = 0;
+      } else if (inside >= from && inside < to) {
+        dest[channel][j] = dest[channel][inside - col];
+      } else {
+        dest[channel][j] = source.getChannel(sourceRow, inside, channel);
+      }
+    }
+  }
+
+  /**
+   * A private helper function to find the position inside the image that
+   * the given position reads, according to the given border mode.
+   *
+   * @param border   how the pixels outside of the image are filled in
+   * @param position the position, which may be outside of the image
+   * @param size     the number of positions inside the image
+   * @return the position inside the image, or -1 if it counts as black
+   */
+  private static int position(Border border, int position, int size) {
+    if (position >= 0 && position < size) {
+      return position;
+    }
+    switch (border) {
+      case CLAMP:
+        return Math.max(0, Math.min(position, size - 1));
+      case REFLECT:
+        if (size == 1) {
+          return 0;
+        }
+        int period = 2 * (size - 1);
+        int folded = Math.floorMod(position, period);
+        return folded < size ? folded : period - folded;
+      default:
+        return -1;
+    }
+  }
+}
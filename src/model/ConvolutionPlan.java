@@ -0,0 +1,282 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Picks how to convolve an image with a kernel of any size, by estimating
+ * how many multiply-adds each way needs for every resulting value:
+ * <ul>
+ *   <li>{@link Method#DIRECT} weighs every pixel under the kernel, so it costs
+ *   the area of the kernel, and is the cheapest for small kernels.</li>
+ *   <li>{@link Method#SEPARABLE} applies to a kernel that is a column of
+ *   weights times a row of weights, such as a box or a Gaussian. The rows
+ *   are convolved with the row, and the result with the column, which costs
+ *   the width plus the height of the kernel.</li>
+ *   <li>{@link Method#FFT} convolves blocks of the image through the fast
+ *   Fourier transform, which costs about the same for any kernel, and so is
+ *   the cheapest for large kernels that are not separable. The size of the
+ *   transforms is the one of the lowest estimated cost.</li>
+ * </ul>
+ * Every way sums the weighted values as doubles and rounds the sum, as with
+ * {@link Kernel.Precision#FLOAT}, so they only differ by rounding.
+ */
+final class ConvolutionPlan {
+  // how many multiply-adds of the direct loop a butterfly of the transform takes as long as,
+  // measured on square kernels, for which the transform wins from about 11 by 11
+  static final double BUTTERFLY_COST = 10;
+  // the sizes of the transforms the cost model chooses from
+  static final int MIN_FFT_SIZE = 32;
+  static final int MAX_FFT_SIZE = 1024;
+  // the relative difference a weight may have from a separable kernel
+  private static final double SEPARABLE_TOLERANCE = 1e-9;
+
+  /**
+   * The ways to convolve an image.
+   */
+  enum Method { DIRECT, SEPARABLE, FFT }
+
+  private final Method method;
+  private final Convolution direct;
+  private final FftConvolution fft;
+  private final double[] columnWeights;
+  private final double[] rowWeights;
+  private final Convolution.Border border;
+  private final int max;
+
+  /**
+   * A private constructor for the plan of the given kernel.
+   *
+   * @param kernel the kernel to convolve with
+   * @param border how the pixels outside of the image are filled in
+   * @param max    the largest resulting value
+   */
+  private ConvolutionPlan(Kernel kernel, Convolution.Border border, int max) {
+    this.border = border;
+    this.max = max;
+    double[][] factors = separate(kernel);
+    int fftSize = fftSize(kernel.getRows(), kernel.getCols());
+    this.method = choose(kernel.getRows(), kernel.getCols(), factors != null);
+    this.direct = this.method == Method.DIRECT ? new Convolution(kernel, border, max) : null;
+    this.fft = this.method == Method.FFT
+            ? new FftConvolution(kernel, border, max, fftSize) : null;
+    this.columnWeights = factors == null ? null : factors[0];
+    this.rowWeights = factors == null ? null : factors[1];
+  }
+
+  /**
+   * Makes the plan convolving with the given weights, whose first index is the row.
+   *
+   * @param weights the weights, with an odd number of rows and columns
+   * @param border  how the pixels outside of the image are filled in
+   * @param max     the largest resulting value
+   * @return the plan
+   * @throws IllegalArgumentException if the weights are null, empty, not rectangular,
+   *                                  or do not have an odd number of rows and columns,
+   *                                  or if the border mode is null
+   */
+  static ConvolutionPlan of(double[][] weights, Convolution.Border border, int max)
+          throws IllegalArgumentException {
+    Kernel kernel = Kernel.of(weights, Kernel.Precision.FLOAT);
+    if (border == null) {
+      throw new IllegalArgumentException("The kernel and the border mode must not be null.");
+    }
+    return new ConvolutionPlan(kernel, border, max);
+  }
+
+  /**
+   * Returns the way this plan convolves an image.
+   *
+   * @return the way of convolving
+   */
+  Method getMethod() {
+    return this.method;
+  }
+
+  /**
+   * Picks the way of convolving with the lowest estimated cost for a kernel of the given size.
+   *
+   * @param rows      the number of rows of the kernel
+   * @param cols      the number of columns of the kernel
+   * @param separable whether the kernel is a column of weights times a row of weights
+   * @return the way of convolving
+   */
+  static Method choose(int rows, int cols, boolean separable) {
+    double direct = (double) rows * cols;
+    double fft = fftCost(rows, cols, fftSize(rows, cols));
+    if (separable && rows + cols <= Math.min(direct, fft)) {
+      return Method.SEPARABLE;
+    }
+    return fft < direct ? Method.FFT : Method.DIRECT;
+  }
+
+  /**
+   * A private helper function to find the size of the transforms of the
+   * lowest estimated cost for a kernel of the given size.
+   *
+   * @param rows the number of rows of the kernel
+   * @param cols the number of columns of the kernel
+   * @return the side of the transforms
+   */
+  private static int fftSize(int rows, int cols) {
+    int best = MAX_FFT_SIZE;
+    for (int size = MIN_FFT_SIZE; size < MAX_FFT_SIZE; size *= 2) {
+      if (fftCost(rows, cols, size) < fftCost(rows, cols, best)) {
+        best = size;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * A private helper function to estimate the cost of a resulting value of
+   * a single channel, convolving through transforms of the given size. A
+   * block takes four transforms, for two pairs of channels, each of which
+   * has its side times its side times log2 of its side butterflies, and two
+   * products with the transformed kernel.
+   *
+   * @param rows the number of rows of the kernel
+   * @param cols the number of columns of the kernel
+   * @param size the side of the transforms
+   * @return the estimated cost, in multiply-adds of the direct loop
+   */
+  private static double fftCost(int rows, int cols, int size) {
+    int blockRows = size - rows + 1;
+    int blockCols = size - cols + 1;
+    if (blockRows <= 0 || blockCols <= 0) {
+      return Double.POSITIVE_INFINITY;
+    }
+    double area = (double) size * size;
+    double log = Integer.numberOfTrailingZeros(size);
+    double block = 4 * area * log * BUTTERFLY_COST + 2 * area * 4;
+    return block / (3.0 * blockRows * blockCols);
+  }
+
+  /**
+   * Separates a kernel into a column of weights and a row of weights, whose
+   * products are the weights of the kernel.
+   *
+   * @param kernel the kernel
+   * @return the column and the row, or null if the kernel is not separable
+   */
+  static double[][] separate(Kernel kernel) {
+    int rows = kernel.getRows();
+    int cols = kernel.getCols();
+    // the largest weight, whose row and column are the most accurate factors
+    int pivotRow = 0;
+    int pivotCol = 0;
+    double largest = 0;
+    for (int i = 0; i < rows; i++) {
+      for (int j = 0; j < cols; j++) {
+        if (Math.abs(kernel.getWeight(i, j)) > largest) {
+          largest = Math.abs(kernel.getWeight(i, j));
+          pivotRow = i;
+          pivotCol = j;
+        }
+      }
+    }
+    if (largest == 0) {
+      return null;
+    }
+    double[] column = new double[rows];
+    double[] row = new double[cols];
+    for (int i = 0; i < rows; i++) {
+      column[i] = kernel.getWeight(i, pivotCol);
+    }
+    for (int j = 0; j < cols; j++) {
+      row[j] = kernel.getWeight(pivotRow, j) / kernel.getWeight(pivotRow, pivotCol);
+    }
+    for (int i = 0; i < rows; i++) {
+      for (int j = 0; j < cols; j++) {
+        if (Math.abs(column[i] * row[j] - kernel.getWeight(i, j))
+                > SEPARABLE_TOLERANCE * largest) {
+          return null;
+        }
+      }
+    }
+    return new double[][]{column, row};
+  }
+
+  /**
+   * Computes a rectangular part of the convolution of the given image, and
+   * hands every row of it to the given consumer, from top to bottom. The
+   * arrays handed over are reused for the next row.
+   *
+   * @param source the image to convolve
+   * @param top    the row position of the part
+   * @param left   the column position of the part
+   * @param width  the width of the part
+   * @param height the height of the part
+   * @param rows   the consumer of the rows of the part
+   */
+  void apply(Image source, int top, int left, int width, int height,
+             Convolution.RowConsumer rows) {
+    switch (this.method) {
+      case DIRECT:
+        this.direct.apply(source, top, left, width, height, rows);
+        break;
+      case FFT:
+        this.fft.apply(source, top, left, width, height, rows);
+        break;
+      default:
+        this.applySeparable(source, top, left, width, height, rows);
+        break;
+    }
+  }
+
+  /**
+   * A private helper function to compute a part of the convolution with a
+   * separable kernel. The padded rows under the part are convolved with the
+   * row of weights, keeping the unrounded sums, and the sums are convolved
+   * with the column of weights.
+   *
+   * @param source the image to convolve
+   * @param top    the row position of the part
+   * @param left   the column position of the part
+   * @param width  the width of the part
+   * @param height the height of the part
+   * @param rows   the consumer of the rows of the part
+   */
+  private void applySeparable(Image source, int top, int left, int width, int height,
+                              Convolution.RowConsumer rows) {
+    int kernelRows = this.columnWeights.length;
+    int kernelCols = this.rowWeights.length;
+    int halfRows = kernelRows / 2;
+    int halfCols = kernelCols / 2;
+    int[][] padded = new int[3][width + 2 * halfCols];
+    int[][] buffer = new int[3][padded[0].length];
+    double[][][] sums = new double[3][height + 2 * halfRows][width];
+    for (int i = 0; i < height + 2 * halfRows; i++) {
+      Convolution.readPadded(source, this.border, top - halfRows + i, left - halfCols,
+              padded, buffer);
+      for (int channel = 0; channel < 3; channel++) {
+        int[] values = padded[channel];
+        double[] sum = sums[channel][i];
+        for (int j = 0; j < width; j++) {
+          double total = 0;
+          for (int c = 0; c < kernelCols; c++) {
+            total += values[j + c] * this.rowWeights[c];
+          }
+          sum[j] = total;
+        }
+      }
+    }
+    int[][] result = new int[3][width];
+    double[] total = new double[width];
+    for (int i = 0; i < height; i++) {
+      for (int channel = 0; channel < 3; channel++) {
+        Arrays.fill(total, 0);
+        for (int k = 0; k < kernelRows; k++) {
+          double weight = this.columnWeights[k];
+          double[] sum = sums[channel][i + k];
+          for (int j = 0; j < width; j++) {
+            total[j] += sum[j] * weight;
+          }
+        }
+        for (int j = 0; j < width; j++) {
+          result[channel][j] = (int) Math.max(0, Math.min(Math.round(total[j]), this.max));
+        }
+      }
+      rows.accept(i, result[0], result[1], result[2]);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package model;
+
+/**
+ * How an image of the storage was made from another image of the storage by
+ * an operation computing every pixel from the pixels around the same position
+ * only. The footprint of the operation is how far those pixels reach, which is
+ * 0 for a point operation such as brighten, 1 for the blur filter, and 2 for
+ * the sharpen filter. When a part of the other image changes, only the pixels
+ * within the footprint of that part need to be computed again.
+ */
+final class Derivation {
+
+  /**
+   * Computes a region of the result of the operation.
+   */
+  @FunctionalInterface
+  interface Recipe {
+
+    /**
+     * Computes the given region of the result of the operation on the given image.
+     *
+     * @param source the image the operation reads
+     * @param region the region of the result to compute
+     * @return the region of the result, as large as the region
+     */
+    Image apply(Image source, Region region);
+  }
+
+  private final String source;
+  private final int footprint;
+  private final Recipe recipe;
+
+  /**
+   * Constructs how an image was made from the image of the given name.
+   *
+   * @param source    the name of the image it was made from
+   * @param footprint how far from a pixel the pixels it was computed from reach
+   * @param recipe    the operation it was made with
+   */
+  Derivation(String source, int footprint, Recipe recipe) {
+    this.source = source;
+    this.footprint = footprint;
+    this.recipe = recipe;
+  }
+
+  /**
+   * Returns the name of the image the image was made from.
+   *
+   * @return the name of the image
+   */
+  String getSource() {
+    return this.source;
+  }
+
+  /**
+   * Finds the region of the image that changes when the given region of the
+   * image it was made from changes, which is the changed region grown by the
+   * footprint, within the image.
+   *
+   * @param changed the changed region of the image it was made from
+   * @param width   the width of the image
+   * @param height  the height of the image
+   * @return the region that changes
+   */
+  Region reach(Region changed, int width, int height) {
+    int top = Math.max(0, changed.getRow() - this.footprint);
+    int left = Math.max(0, changed.getCol() - this.footprint);
+    long bottom = Math.min(height, (long) changed.getRow() + changed.getHeight() + this.footprint);
+    long right = Math.min(width, (long) changed.getCol() + changed.getWidth() + this.footprint);
+    return new Region(top, left, (int) (right - left), (int) (bottom - top));
+  }
+
+  /**
+   * Computes the given region of the image again from the given version of
+   * the image it was made from.
+   *
+   * @param source the image it was made from
+   * @param region the region to compute
+   * @return the region of the image, as large as the region
+   */
+  Image recompute(Image source, Region region) {
+    return this.recipe.apply(source, region);
+  }
+}
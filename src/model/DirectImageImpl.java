@@ -0,0 +1,219 @@
+package model;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * An image whose pixels are stored outside of the Java heap, in direct byte
+ * buffers. The red, green, and blue channels of each pixel are interleaved
+ * in row-major order, using one byte per channel when the maximum value is
+ * at most 255 and two bytes when it is at most 65535. Since a single buffer
+ * holds at most 2GB, the rows are split into chunks of whole rows, each
+ * stored in its own buffer.
+ *
+ * <p>The model uses this storage for very large images, so they neither
+ * count towards the heap size nor slow down the garbage collector. Once an
+ * image is closed, the memory of its buffers is freed right away, instead
+ * of whenever the garbage collector finds them, and its pixels cannot be
+ * read anymore.
+ */
+public final class DirectImageImpl extends WritableImage implements AutoCloseable {
+  static final int CHUNK_BYTES = 1 << 30;
+  // frees the memory of a direct buffer right away
+  private static final Consumer<ByteBuffer> FREE = freer();
+
+  private final int bytesPerChannel;
+  private final int rowBytes;
+  private final int rowsPerChunk;
+  private volatile ByteBuffer[] chunks;
+
+  /**
+   * Constructs a black image to be filled in by an operation of the model.
+   *
+   * @param width    the image width
+   * @param height   the image height
+   * @param maxValue the maximum RBG value, at most 65535
+   * @throws IllegalArgumentException if the maximum value is over 65535,
+   *                                  or a single row does not fit in a buffer
+   */
+  DirectImageImpl(int width, int height, int maxValue) throws IllegalArgumentException {
+    this(width, height, maxValue, CHUNK_BYTES);
+  }
+
+  /**
+   * Constructs a black image whose buffers hold at most the given number of bytes.
+   *
+   * @param width      the image width
+   * @param height     the image height
+   * @param maxValue   the maximum RBG value, at most 65535
+   * @param chunkBytes the largest number of bytes a single buffer may hold
+   * @throws IllegalArgumentException if the maximum value is over 65535,
+   *                                  or a single row does not fit in a buffer
+   */
+  DirectImageImpl(int width, int height, int maxValue, int chunkBytes)
+          throws IllegalArgumentException {
+    super(width, height, maxValue);
+    if (maxValue > 65535) {
+      throw new IllegalArgumentException("Direct images only support maximum values up to 65535.");
+    }
+    this.bytesPerChannel = maxValue <= 255 ? 1 : 2;
+    long rowBytes = 3L * this.bytesPerChannel * width;
+    if (rowBytes > chunkBytes) {
+      throw new IllegalArgumentException("The image is too wide.");
+    }
+    this.rowBytes = (int) rowBytes;
+    this.rowsPerChunk = (int) Math.min(height, chunkBytes / rowBytes);
+    ByteBuffer[] chunks = new ByteBuffer[(height + this.rowsPerChunk - 1) / this.rowsPerChunk];
+    for (int i = 0; i < chunks.length; i++) {
+      int rows = Math.min(this.rowsPerChunk, height - i * this.rowsPerChunk);
+      chunks[i] = ByteBuffer.allocateDirect(rows * this.rowBytes);
+    }
+    this.chunks = chunks;
+  }
+
+  /**
+   * A private helper function to find how to free the memory of a direct
+   * buffer right away, which the virtual machine only allows through the
+   * cleaner of the buffer, called by {@code sun.misc.Unsafe.invokeCleaner}.
+   * Where it cannot be called, the memory is freed once the garbage collector
+   * finds the buffer.
+   *
+   * @return the function freeing a direct buffer
+   */
+  private static Consumer<ByteBuffer> freer() {
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Field field = unsafeClass.getDeclaredField("theUnsafe");
+      field.setAccessible(true);
+      Object unsafe = field.get(null);
+      Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+      return buffer -> {
+        try {
+          invokeCleaner.invoke(unsafe, buffer);
+        } catch (ReflectiveOperationException e) {
+          // left to the garbage collector
+        }
+      };
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return buffer -> {
+      };
+    }
+  }
+
+  /**
+   * Frees the memory of the buffers holding the pixels of this image right
+   * away. Reading this image afterwards throws an exception, and closing it
+   * again does nothing. The image must not be read by another thread while
+   * it is closed.
+   */
+  @Override
+  public synchronized void close() {
+    ByteBuffer[] chunks = this.chunks;
+    this.chunks = null;
+    if (chunks != null) {
+      for (ByteBuffer chunk : chunks) {
+        FREE.accept(chunk);
+      }
+    }
+  }
+
+  @Override
+  void addDirectParts(Set<DirectImageImpl> parts) {
+    parts.add(this);
+  }
+
+  /**
+   * Returns whether this image has been closed.
+   *
+   * @return true if this image has been closed
+   */
+  public boolean isClosed() {
+    return this.chunks == null;
+  }
+
+  /**
+   * A private helper function to find the buffer holding the given row.
+   *
+   * @param row the row position
+   * @return the buffer holding the row
+   * @throws IllegalStateException if this image has been closed
+   */
+  private ByteBuffer chunk(int row) throws IllegalStateException {
+    ByteBuffer[] chunks = this.chunks;
+    if (chunks == null) {
+      throw new IllegalStateException("The image has been closed.");
+    }
+    return chunks[row / this.rowsPerChunk];
+  }
+
+  /**
+   * A private helper function to find the position of a pixel inside the
+   * buffer holding its row.
+   *
+   * @param row the row position
+   * @param col the column position
+   * @return the position of the first byte of the pixel
+   */
+  private int position(int row, int col) {
+    return (row % this.rowsPerChunk) * this.rowBytes + col * 3 * this.bytesPerChannel;
+  }
+
+  @Override
+  public int getChannel(int row, int col, int channel) throws IllegalArgumentException {
+    this.checkChannel(row, col, channel);
+    ByteBuffer chunk = this.chunk(row);
+    int position = this.position(row, col) + channel * this.bytesPerChannel;
+    if (this.bytesPerChannel == 1) {
+      return chunk.get(position) & 0xFF;
+    }
+    return chunk.getShort(position) & 0xFFFF;
+  }
+
+  @Override
+  void getChannelRow(int row, int col, int length, int channel, int[] dest, int offset) {
+    ByteBuffer chunk = this.chunk(row);
+    int step = 3 * this.bytesPerChannel;
+    int position = this.position(row, col) + channel * this.bytesPerChannel;
+    for (int j = 0; j < length; j++, position += step) {
+      dest[offset + j] = this.bytesPerChannel == 1
+              ? chunk.get(position) & 0xFF : chunk.getShort(position) & 0xFFFF;
+    }
+  }
+
+  @Override
+  void getRow(int row, int col, int length, int[] red, int[] green, int[] blue, int offset) {
+    ByteBuffer chunk = this.chunk(row);
+    int position = this.position(row, col);
+    if (this.bytesPerChannel == 1) {
+      for (int j = 0; j < length; j++, position += 3) {
+        red[offset + j] = chunk.get(position) & 0xFF;
+        green[offset + j] = chunk.get(position + 1) & 0xFF;
+        blue[offset + j] = chunk.get(position + 2) & 0xFF;
+      }
+    } else {
+      for (int j = 0; j < length; j++, position += 6) {
+        red[offset + j] = chunk.getShort(position) & 0xFFFF;
+        green[offset + j] = chunk.getShort(position + 2) & 0xFFFF;
+        blue[offset + j] = chunk.getShort(position + 4) & 0xFFFF;
+      }
+    }
+  }
+
+  @Override
+  void setPixel(int row, int col, int red, int green, int blue) {
+    ByteBuffer chunk = this.chunk(row);
+    int position = this.position(row, col);
+    if (this.bytesPerChannel == 1) {
+      chunk.put(position, (byte) red);
+      chunk.put(position + 1, (byte) green);
+      chunk.put(position + 2, (byte) blue);
+    } else {
+      chunk.putShort(position, (short) red);
+      chunk.putShort(position + 2, (short) green);
+      chunk.putShort(position + 4, (short) blue);
+    }
+  }
+}
@@ -0,0 +1,199 @@
+package model;
+
+import java.util.Arrays;
+
+import static model.ImageProcessorModelState.DownscaleType;
+
+/**
+ * Shrinks an image, reading the source a row at a time. Where each
+ * resulting column comes from, and how much each source column weighs, is
+ * worked out once for the whole image as integer weights, and so is every
+ * resulting row, so computing a pixel only takes integer multiply-adds. The
+ * resulting rows are computed in parallel bands.
+ * <ul>
+ *   <li>{@link DownscaleType#Bilinear} blends the four source pixels around
+ *   the position each resulting pixel comes from, weighted by how close they
+ *   are, with weights scaled by 2^16. The neighbours past the last row or
+ *   column fall back onto the edge.</li>
+ *   <li>{@link DownscaleType#Area} averages every source pixel the resulting
+ *   pixel covers, weighted by how much of it is covered, with the weights of
+ *   each direction scaled by 2^12. Unlike bilinear, every source pixel counts,
+ *   so strong reductions do not alias.</li>
+ * </ul>
+ */
+final class Downscale {
+  static final int BILINEAR_SHIFT = 16;
+  static final int AREA_SHIFT = 12;
+
+  /**
+   * The source positions of every resulting position along one direction,
+   * and their weights. A resulting position reads the source positions from
+   * its first one onwards, whose weights are stored one after the other.
+   */
+  private static final class Axis {
+    private final int[] first;
+    private final int[] offset;
+    private final int[] count;
+    private final int[] weights;
+
+    private Axis(int[] first, int[] offset, int[] count, int[] weights) {
+      this.first = first;
+      this.offset = offset;
+      this.count = count;
+      this.weights = weights;
+    }
+
+    /**
+     * Works out the two source positions around every resulting position,
+     * and the weight of the second one.
+     *
+     * @param size    the number of source positions
+     * @param newSize the number of resulting positions
+     * @param scale   the scale from the source to the result
+     * @return the axis
+     */
+    private static Axis bilinear(int size, int newSize, double scale) {
+      int[] first = new int[newSize];
+      int[] offset = new int[newSize];
+      int[] count = new int[newSize];
+      int[] weights = new int[2 * newSize];
+      int one = 1 << BILINEAR_SHIFT;
+      for (int j = 0; j < newSize; j++) {
+        double position = j * (1.0 / scale);
+        first[j] = (int) Math.floor(position);
+        offset[j] = 2 * j;
+        // the second position falls back onto the first one on the edge
+        count[j] = first[j] + 1 < size ? 2 : 1;
+        int second = (int) Math.round((position - Math.floor(position)) * one);
+        weights[2 * j] = count[j] == 2 ? one - second : one;
+        weights[2 * j + 1] = count[j] == 2 ? second : 0;
+      }
+      return new Axis(first, offset, count, weights);
+    }
+
+    /**
+     * Works out the source positions every resulting position covers, and
+     * how much of each is covered, as weights adding up to exactly 2^12.
+     *
+     * @param size    the number of source positions
+     * @param newSize the number of resulting positions
+     * @param scale   the scale from the source to the result
+     * @return the axis
+     */
+    private static Axis area(int size, int newSize, double scale) {
+      int[] first = new int[newSize];
+      int[] offset = new int[newSize];
+      int[] count = new int[newSize];
+      int[] weights = new int[newSize * ((int) Math.ceil(1.0 / scale) + 2)];
+      int one = 1 << AREA_SHIFT;
+      int used = 0;
+      for (int j = 0; j < newSize; j++) {
+        double start = j * (1.0 / scale);
+        double end = Math.min((j + 1) * (1.0 / scale), size);
+        first[j] = Math.min((int) Math.floor(start), size - 1);
+        int last = Math.max(first[j], Math.min((int) Math.ceil(end) - 1, size - 1));
+        offset[j] = used;
+        count[j] = last - first[j] + 1;
+        int sum = 0;
+        int largest = used;
+        for (int k = 0; k < count[j]; k++) {
+          int position = first[j] + k;
+          double covered = Math.min(end, position + 1) - Math.max(start, position);
+          int weight = end > start ? (int) Math.round(covered / (end - start) * one) : one;
+          weights[used + k] = weight;
+          sum += weight;
+          if (weight > weights[largest]) {
+            largest = used + k;
+          }
+        }
+        // the rounding is made up on the largest weight, so every average keeps its color
+        weights[largest] += one - sum;
+        used += count[j];
+      }
+      return new Axis(first, offset, count, weights);
+    }
+  }
+
+  /**
+   * A private constructor, as this class only holds static functions.
+   */
+  private Downscale() {
+  }
+
+  /**
+   * Shrinks the given image into the given image, whose size is the scaled size.
+   *
+   * @param source        the image to shrink
+   * @param widthScale    the scale of the width, as a fraction of the width
+   * @param heightScale   the scale of the height, as a fraction of the height
+   * @param downscaleType how every resulting pixel is computed from the source
+   * @param dest          the image to write the result into
+   * @param executor      the executor to compute the rows on
+   */
+  static void apply(Image source, double widthScale, double heightScale,
+                    DownscaleType downscaleType, WritableImage dest, BandExecutor executor) {
+    int width = source.getWidth();
+    int height = source.getHeight();
+    int newWidth = dest.getWidth();
+    int newHeight = dest.getHeight();
+    boolean area = downscaleType == DownscaleType.Area;
+    Axis columns = area ? Axis.area(width, newWidth, widthScale)
+            : Axis.bilinear(width, newWidth, widthScale);
+    Axis rows = area ? Axis.area(height, newHeight, heightScale)
+            : Axis.bilinear(height, newHeight, heightScale);
+    int shift = 2 * (area ? AREA_SHIFT : BILINEAR_SHIFT);
+    // bilinear drops the fraction of every value, and area rounds its averages
+    long half = area ? 1L << (shift - 1) : 0;
+    long rowsPerResult = Math.max(1, height / Math.max(newHeight, 1));
+    int max = dest.getMaxValue();
+
+    executor.forEachBand(newHeight, width * rowsPerResult, (from, to) -> {
+      int[][] sourceRow = new int[3][width];
+      long[][] sums = new long[3][newWidth];
+      int[][] result = new int[3][newWidth];
+      for (int i = from; i < to; i++) {
+        for (long[] channel : sums) {
+          Arrays.fill(channel, 0);
+        }
+        for (int k = 0; k < rows.count[i]; k++) {
+          long rowWeight = rows.weights[rows.offset[i] + k];
+          if (rowWeight == 0) {
+            continue;
+          }
+          source.getRow(rows.first[i] + k, 0, width, sourceRow[0], sourceRow[1], sourceRow[2]);
+          for (int channel = 0; channel < 3; channel++) {
+            addRow(sourceRow[channel], rowWeight, columns, sums[channel]);
+          }
+        }
+        for (int channel = 0; channel < 3; channel++) {
+          long[] sum = sums[channel];
+          for (int j = 0; j < newWidth; j++) {
+            result[channel][j] = (int) Math.min((sum[j] + half) >> shift, max);
+          }
+        }
+        dest.setRow(i, 0, newWidth, result[0], result[1], result[2], 0);
+      }
+    });
+  }
+
+  /**
+   * A private helper function to add a weighted source row to the sums of
+   * every resulting column, each weighing the source columns it reads.
+   *
+   * @param values    the values of a channel of the source row
+   * @param rowWeight the weight of the source row
+   * @param columns   the source columns of every resulting column
+   * @param sums      the sums of every resulting column
+   */
+  private static void addRow(int[] values, long rowWeight, Axis columns, long[] sums) {
+    for (int j = 0; j < sums.length; j++) {
+      int first = columns.first[j];
+      int offset = columns.offset[j];
+      long sum = 0;
+      for (int k = 0; k < columns.count[j]; k++) {
+        sum += (long) values[first + k] * columns.weights[offset + k];
+      }
+      sums[j] += sum * rowWeight;
+    }
+  }
+}
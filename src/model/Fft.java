@@ -0,0 +1,126 @@
+package model;
+
+/**
+ * A fast Fourier transform of square blocks of complex values, whose side is
+ * a power of two. The real and imaginary parts are kept in two separate
+ * arrays in row-major order. The block is transformed along every row and
+ * then along every column, each with the iterative radix-2 transform, whose
+ * twiddle factors and bit-reversed positions are worked out once.
+ */
+final class Fft {
+  private final int size;
+  private final int[] reversed;
+  private final double[] cos;
+  private final double[] sin;
+
+  /**
+   * Constructs the transform of square blocks of the given side.
+   *
+   * @param size the side of the blocks, a power of two
+   * @throws IllegalArgumentException if the side is not a positive power of two
+   */
+  Fft(int size) throws IllegalArgumentException {
+    if (size <= 0 || Integer.bitCount(size) != 1) {
+      throw new IllegalArgumentException("The size of the transform must be a power of two.");
+    }
+    this.size = size;
+    this.reversed = new int[size];
+    int bits = Integer.numberOfTrailingZeros(size);
+    for (int i = 0; i < size; i++) {
+      this.reversed[i] = bits == 0 ? 0 : Integer.reverse(i) >>> (32 - bits);
+    }
+    this.cos = new double[size / 2];
+    this.sin = new double[size / 2];
+    for (int i = 0; i < size / 2; i++) {
+      this.cos[i] = Math.cos(2 * Math.PI * i / size);
+      this.sin[i] = Math.sin(2 * Math.PI * i / size);
+    }
+  }
+
+  /**
+   * Returns the side of the blocks this transform works on.
+   *
+   * @return the side of the blocks
+   */
+  int getSize() {
+    return this.size;
+  }
+
+  /**
+   * Transforms a block in place. The inverse transform is scaled, so that it
+   * gives back the block that was transformed.
+   *
+   * @param real      the real parts, in row-major order
+   * @param imaginary the imaginary parts, in row-major order
+   * @param inverse   whether to compute the inverse transform
+   */
+  void transform(double[] real, double[] imaginary, boolean inverse) {
+    int n = this.size;
+    for (int i = 0; i < n; i++) {
+      this.transformLine(real, imaginary, i * n, inverse);
+    }
+    // the columns are copied into a line, transformed, and copied back
+    double[] columnReal = new double[n];
+    double[] columnImaginary = new double[n];
+    for (int j = 0; j < n; j++) {
+      for (int i = 0; i < n; i++) {
+        columnReal[i] = real[i * n + j];
+        columnImaginary[i] = imaginary[i * n + j];
+      }
+      this.transformLine(columnReal, columnImaginary, 0, inverse);
+      for (int i = 0; i < n; i++) {
+        real[i * n + j] = columnReal[i];
+        imaginary[i * n + j] = columnImaginary[i];
+      }
+    }
+    if (inverse) {
+      double scale = 1.0 / ((double) n * n);
+      for (int k = 0; k < real.length; k++) {
+        real[k] *= scale;
+        imaginary[k] *= scale;
+      }
+    }
+  }
+
+  /**
+   * A private helper function to transform a single line in place, without scaling.
+   *
+   * @param real      the real parts
+   * @param imaginary the imaginary parts
+   * @param offset    the position of the first value of the line
+   * @param inverse   whether to compute the inverse transform
+   */
+  private void transformLine(double[] real, double[] imaginary, int offset, boolean inverse) {
+    int n = this.size;
+    for (int i = 0; i < n; i++) {
+      int j = this.reversed[i];
+      if (i < j) {
+        double swap = real[offset + i];
+        real[offset + i] = real[offset + j];
+        real[offset + j] = swap;
+        swap = imaginary[offset + i];
+        imaginary[offset + i] = imaginary[offset + j];
+        imaginary[offset + j] = swap;
+      }
+    }
+    double sign = inverse ? 1 : -1;
+    for (int length = 2; length <= n; length <<= 1) {
+      int half = length / 2;
+      int step = n / length;
+      for (int start = offset; start < offset + n; start += length) {
+        for (int k = 0; k < half; k++) {
+          double twiddleReal = this.cos[k * step];
+          double twiddleImaginary = sign * this.sin[k * step];
+          int even = start + k;
+          int odd = even + half;
+          double oddReal = real[odd] * twiddleReal - imaginary[odd] * twiddleImaginary;
+          double oddImaginary = real[odd] * twiddleImaginary + imaginary[odd] * twiddleReal;
+          real[odd] = real[even] - oddReal;
+          imaginary[odd] = imaginary[even] - oddImaginary;
+          real[even] += oddReal;
+          imaginary[even] += oddImaginary;
+        }
+      }
+    }
+  }
+}
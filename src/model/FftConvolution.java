@@ -0,0 +1,201 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Convolves an image with a {@link Kernel} through the fast Fourier
+ * transform, which takes about as long for any kernel size. The part being
+ * computed is split into blocks, which are computed one at a time, so only
+ * a few transforms of a fixed size are ever held in memory. Each block is
+ * read together with the pixels around it that the kernel reaches, the
+ * border mode filling in those outside of the image, and transformed at
+ * once; the results the wrapped-around transform gets wrong all fall in the
+ * margin that is thrown away.
+ *
+ * <p>The kernel is transformed once. Because it is real, the red and green
+ * channels of a block are transformed together, as the real and imaginary
+ * parts of one complex block, and the blue channel on its own. The
+ * weighted values are summed as doubles and the sum is rounded, as with
+ * {@link Kernel.Precision#FLOAT}, up to the rounding of the transform.
+ */
+final class FftConvolution {
+  private final Fft fft;
+  private final int kernelRows;
+  private final int kernelCols;
+  private final Convolution.Border border;
+  private final int max;
+  private final double[] kernelReal;
+  private final double[] kernelImaginary;
+
+  /**
+   * Constructs a convolution with the given kernel and border mode,
+   * computed with transforms of the given size.
+   *
+   * @param kernel the kernel to convolve with
+   * @param border how the pixels outside of the image are filled in
+   * @param max    the largest resulting value
+   * @param size   the side of the transforms, a power of two larger than the kernel
+   * @throws IllegalArgumentException if the kernel or the border mode is null, or if the
+   *                                  size is not a power of two larger than the kernel
+   */
+  FftConvolution(Kernel kernel, Convolution.Border border, int max, int size)
+          throws IllegalArgumentException {
+    if (kernel == null || border == null) {
+      throw new IllegalArgumentException("The kernel and the border mode must not be null.");
+    }
+    if (size <= kernel.getRows() || size <= kernel.getCols()) {
+      throw new IllegalArgumentException("The size of the transform must exceed the kernel.");
+    }
+    this.fft = new Fft(size);
+    this.kernelRows = kernel.getRows();
+    this.kernelCols = kernel.getCols();
+    this.border = border;
+    this.max = max;
+    this.kernelReal = new double[size * size];
+    this.kernelImaginary = new double[size * size];
+    for (int i = 0; i < this.kernelRows; i++) {
+      for (int j = 0; j < this.kernelCols; j++) {
+        this.kernelReal[i * size + j] = kernel.getWeight(i, j);
+      }
+    }
+    this.fft.transform(this.kernelReal, this.kernelImaginary, false);
+  }
+
+  /**
+   * Returns the number of rows of the result of each block.
+   *
+   * @return the number of rows of a block
+   */
+  int getBlockRows() {
+    return this.fft.getSize() - this.kernelRows + 1;
+  }
+
+  /**
+   * Returns the number of columns of the result of each block.
+   *
+   * @return the number of columns of a block
+   */
+  int getBlockCols() {
+    return this.fft.getSize() - this.kernelCols + 1;
+  }
+
+  /**
+   * Computes a rectangular part of the convolution of the given image, and
+   * hands every row of it to the given consumer, from top to bottom. The
+   * arrays handed over are reused for the next row.
+   *
+   * @param source the image to convolve
+   * @param top    the row position of the part
+   * @param left   the column position of the part
+   * @param width  the width of the part
+   * @param height the height of the part
+   * @param rows   the consumer of the rows of the part
+   */
+  void apply(Image source, int top, int left, int width, int height,
+             Convolution.RowConsumer rows) {
+    int size = this.fft.getSize();
+    int blockRows = this.getBlockRows();
+    int blockCols = this.getBlockCols();
+    double[] first = new double[size * size];
+    double[] firstImaginary = new double[size * size];
+    double[] second = new double[size * size];
+    double[] secondImaginary = new double[size * size];
+    int[][] padded = new int[3][blockCols + this.kernelCols - 1];
+    int[][] buffer = new int[3][padded[0].length];
+    // the results of a band of blocks side by side, handed over row by row
+    int[][][] band = new int[Math.min(blockRows, height)][3][width];
+
+    for (int i = 0; i < height; i += blockRows) {
+      int bandRows = Math.min(blockRows, height - i);
+      for (int j = 0; j < width; j += blockCols) {
+        int cols = Math.min(blockCols, width - j);
+        this.readBlock(source, top + i, left + j, bandRows, cols, padded, buffer,
+                first, firstImaginary, second, secondImaginary);
+        this.multiply(first, firstImaginary);
+        this.multiply(second, secondImaginary);
+        this.fft.transform(first, firstImaginary, true);
+        this.fft.transform(second, secondImaginary, true);
+        for (int r = 0; r < bandRows; r++) {
+          int[][] row = band[r];
+          for (int c = 0; c < cols; c++) {
+            int k = r * size + c;
+            row[0][j + c] = this.clamp(first[k]);
+            row[1][j + c] = this.clamp(firstImaginary[k]);
+            row[2][j + c] = this.clamp(second[k]);
+          }
+        }
+      }
+      for (int r = 0; r < bandRows; r++) {
+        rows.accept(i + r, band[r][0], band[r][1], band[r][2]);
+      }
+    }
+  }
+
+  /**
+   * A private helper function to read a block together with the pixels
+   * around it that the kernel reaches, and to transform it.
+   *
+   * @param source          the image to read
+   * @param top             the row position of the result of the block
+   * @param left            the column position of the result of the block
+   * @param blockRows       the number of rows of the result of the block
+   * @param blockCols       the number of columns of the result of the block
+   * @param padded          arrays to read a padded row into
+   * @param buffer          arrays used to read the source
+   * @param first           the real parts of the red and green block
+   * @param firstImaginary  the imaginary parts of the red and green block
+   * @param second          the real parts of the blue block
+   * @param secondImaginary the imaginary parts of the blue block
+   */
+  private void readBlock(Image source, int top, int left, int blockRows, int blockCols,
+                         int[][] padded, int[][] buffer, double[] first,
+                         double[] firstImaginary, double[] second, double[] secondImaginary) {
+    int size = this.fft.getSize();
+    Arrays.fill(first, 0);
+    Arrays.fill(firstImaginary, 0);
+    Arrays.fill(second, 0);
+    Arrays.fill(secondImaginary, 0);
+    int rows = blockRows + this.kernelRows - 1;
+    int cols = blockCols + this.kernelCols - 1;
+    for (int i = 0; i < rows; i++) {
+      Convolution.readPadded(source, this.border, top - this.kernelRows / 2 + i,
+              left - this.kernelCols / 2, padded, buffer);
+      for (int j = 0; j < cols; j++) {
+        first[i * size + j] = padded[0][j];
+        firstImaginary[i * size + j] = padded[1][j];
+        second[i * size + j] = padded[2][j];
+      }
+    }
+    this.fft.transform(first, firstImaginary, false);
+    this.fft.transform(second, secondImaginary, false);
+  }
+
+  /**
+   * A private helper function to multiply a transformed block by the
+   * complex conjugate of the transformed kernel, which makes the inverse
+   * transform weigh the pixels to the right of and below each position.
+   *
+   * @param real      the real parts of the transformed block
+   * @param imaginary the imaginary parts of the transformed block
+   */
+  private void multiply(double[] real, double[] imaginary) {
+    for (int k = 0; k < real.length; k++) {
+      double a = real[k];
+      double b = imaginary[k];
+      double c = this.kernelReal[k];
+      double d = this.kernelImaginary[k];
+      real[k] = a * c + b * d;
+      imaginary[k] = b * c - a * d;
+    }
+  }
+
+  /**
+   * A private helper function to round a weighted sum and keep it between 0 and the maximum.
+   *
+   * @param sum the weighted sum
+   * @return the resulting value
+   */
+  private int clamp(double sum) {
+    return (int) Math.max(0, Math.min(Math.round(sum), this.max));
+  }
+}
@@ -0,0 +1,333 @@
+package model;
+
+/**
+ * Blurs an image with a Gaussian of any standard deviation. The Gaussian is
+ * separable, so the image is blurred along its rows, in parallel bands of
+ * rows, and then down its columns, in parallel strips of columns. A strip
+ * reads its part of every row into a buffer per column, blurs each column
+ * there, and writes the blurred part of every row back in place.
+ *
+ * <p>A small standard deviation is blurred with the exact Gaussian weights.
+ * A larger one is approximated by three box blurs in a row, whose widths are
+ * chosen so that together they spread a pixel as much as the Gaussian does.
+ * A box blur keeps a running sum over a window sliding along the row, so it
+ * costs the same for every pixel no matter how wide the window is. Pixels
+ * past the edges of the image repeat the pixel on the edge.
+ */
+final class GaussianBlur {
+  // the largest standard deviation blurred with the exact Gaussian weights
+  static final double EXACT_SIGMA = 2.0;
+  private static final int BOXES = 3;
+  // the number of columns blurred together, reading a short part of every row at once
+  private static final int STRIP = 32;
+
+  private final double[] weights;
+  private final int[] boxRadii;
+
+  /**
+   * A private constructor for the blur of the given standard deviation.
+   *
+   * @param sigma the standard deviation of the Gaussian
+   */
+  private GaussianBlur(double sigma) {
+    if (sigma <= EXACT_SIGMA) {
+      this.weights = gaussianWeights(sigma);
+      this.boxRadii = null;
+    } else {
+      this.weights = null;
+      this.boxRadii = boxRadii(sigma);
+    }
+  }
+
+  /**
+   * Blurs the given image with a Gaussian of the given standard deviation.
+   *
+   * @param source   the image to blur
+   * @param sigma    the standard deviation of the Gaussian, in pixels
+   * @param executor the executor to blur the rows and columns on
+   * @return the blurred image
+   * @throws IllegalArgumentException if the standard deviation is not positive
+   */
+  static Image apply(Image source, double sigma, BandExecutor executor)
+          throws IllegalArgumentException {
+    sigmaCheck(sigma);
+    return new GaussianBlur(sigma).blur(source, executor);
+  }
+
+  /**
+   * Blurs only a region of the given image with a Gaussian of the given
+   * standard deviation. Only the region and the pixels around it that reach
+   * it through the blur are read and blurred, so the blurred region is the
+   * same as the same region of the whole blurred image.
+   *
+   * @param source   the image to blur
+   * @param sigma    the standard deviation of the Gaussian, in pixels
+   * @param region   the region to blur, within the image
+   * @param executor the executor to blur the rows and columns on
+   * @return the blurred region, as large as the region
+   * @throws IllegalArgumentException if the standard deviation is not positive
+   */
+  static Image apply(Image source, double sigma, Region region, BandExecutor executor)
+          throws IllegalArgumentException {
+    sigmaCheck(sigma);
+    GaussianBlur blur = new GaussianBlur(sigma);
+    int halo = blur.radius();
+    int top = Math.max(0, region.getRow() - halo);
+    int left = Math.max(0, region.getCol() - halo);
+    int bottom = (int) Math.min(source.getHeight(), (long) region.getRow() + region.getHeight()
+            + halo);
+    int right = (int) Math.min(source.getWidth(), (long) region.getCol() + region.getWidth()
+            + halo);
+    // the edges of the part that are edges of the image repeat their pixels as before, and
+    // the other ones are far enough from the region not to reach it
+    Image part = ViewImageImpl.crop(source, top, left, right - left, bottom - top);
+    return ViewImageImpl.crop(blur.blur(part, executor), region.getRow() - top,
+            region.getCol() - left, region.getWidth(), region.getHeight());
+  }
+
+  /**
+   * Finds how far a pixel blurred with the given standard deviation is from
+   * the farthest pixel it is blurred from.
+   *
+   * @param sigma the standard deviation of the Gaussian, in pixels
+   * @return the distance, in pixels
+   * @throws IllegalArgumentException if the standard deviation is not positive
+   */
+  static int radius(double sigma) throws IllegalArgumentException {
+    sigmaCheck(sigma);
+    return new GaussianBlur(sigma).radius();
+  }
+
+  /**
+   * Checks a standard deviation, so that a blur can be refused before it is run.
+   *
+   * @param sigma the standard deviation
+   * @throws IllegalArgumentException if the standard deviation is not positive
+   */
+  static void sigmaCheck(double sigma) throws IllegalArgumentException {
+    if (!(sigma > 0) || Double.isInfinite(sigma)) {
+      throw new IllegalArgumentException("The standard deviation must be positive.");
+    }
+  }
+
+  /**
+   * A private helper function to blur an image along its rows and then down its columns.
+   *
+   * @param source   the image to blur
+   * @param executor the executor to blur the rows and columns on
+   * @return the blurred image
+   */
+  private Image blur(Image source, BandExecutor executor) {
+    WritableImage blurred = this.blurRows(source, executor);
+    this.blurColumns(blurred, executor);
+    return blurred;
+  }
+
+  /**
+   * A private helper function to find how far a blurred pixel is from the
+   * farthest pixel it is blurred from, which is the radius of the Gaussian
+   * weights, or the radii of the box blurs added up.
+   *
+   * @return the distance, in pixels
+   */
+  private int radius() {
+    if (this.weights != null) {
+      return this.weights.length / 2;
+    }
+    int radius = 0;
+    for (int box : this.boxRadii) {
+      radius += box;
+    }
+    return radius;
+  }
+
+  /**
+   * A private helper function to find the Gaussian weights of a standard
+   * deviation, reaching three standard deviations on each side and adding
+   * up to 1.
+   *
+   * @param sigma the standard deviation
+   * @return the weights, from the leftmost to the rightmost
+   */
+  private static double[] gaussianWeights(double sigma) {
+    int radius = (int) Math.ceil(3 * sigma);
+    double[] weights = new double[2 * radius + 1];
+    double sum = 0;
+    for (int i = -radius; i <= radius; i++) {
+      weights[i + radius] = Math.exp(-(i * i) / (2 * sigma * sigma));
+      sum += weights[i + radius];
+    }
+    for (int i = 0; i < weights.length; i++) {
+      weights[i] /= sum;
+    }
+    return weights;
+  }
+
+  /**
+   * A private helper function to find the radii of the box blurs that
+   * together approximate a Gaussian of the given standard deviation. The
+   * boxes are of two odd widths next to each other, the narrower ones first.
+   *
+   * @param sigma the standard deviation
+   * @return the radius of each box
+   */
+  private static int[] boxRadii(double sigma) {
+    double ideal = Math.sqrt(12 * sigma * sigma / BOXES + 1);
+    int lower = (int) Math.floor(ideal);
+    if (lower % 2 == 0) {
+      lower--;
+    }
+    int upper = lower + 2;
+    double narrow = (12 * sigma * sigma - BOXES * lower * lower - 4 * BOXES * lower - 3 * BOXES)
+            / (-4 * lower - 4);
+    long narrowBoxes = Math.round(narrow);
+    int[] radii = new int[BOXES];
+    for (int i = 0; i < BOXES; i++) {
+      radii[i] = ((i < narrowBoxes ? lower : upper) - 1) / 2;
+    }
+    return radii;
+  }
+
+  /**
+   * A private helper function to blur every row of an image on its own.
+   *
+   * @param source   the image to blur
+   * @param executor the executor to blur the rows on
+   * @return the image of the blurred rows
+   */
+  private WritableImage blurRows(Image source, BandExecutor executor) {
+    int width = source.getWidth();
+    int height = source.getHeight();
+    int max = source.getMaxValue();
+    WritableImage updated = WritableImage.blank(width, height, max);
+    executor.forEachBand(height, width, (from, to) -> {
+      int[][] row = new int[3][width];
+      int[] scratch = new int[width];
+      for (int i = from; i < to; i++) {
+        source.getRow(i, 0, width, row[0], row[1], row[2]);
+        for (int[] channel : row) {
+          this.blurLine(channel, scratch, max);
+        }
+        updated.setRow(i, 0, width, row[0], row[1], row[2], 0);
+      }
+    });
+    return updated;
+  }
+
+  /**
+   * A private helper function to blur every column of an image on its own,
+   * in place. Each strip of columns is read a row at a time into a buffer
+   * per column, so a column is blurred in one array as a row is.
+   *
+   * @param image    the image to blur
+   * @param executor the executor to blur the strips of columns on
+   */
+  private void blurColumns(WritableImage image, BandExecutor executor) {
+    int width = image.getWidth();
+    int height = image.getHeight();
+    int max = image.getMaxValue();
+    int strips = (width + STRIP - 1) / STRIP;
+    executor.forEachBand(strips, (long) STRIP * height, (from, to) -> {
+      int[][] row = new int[3][STRIP];
+      int[][][] columns = new int[3][STRIP][height];
+      int[] scratch = new int[height];
+      for (int strip = from; strip < to; strip++) {
+        int left = strip * STRIP;
+        int length = Math.min(STRIP, width - left);
+        for (int i = 0; i < height; i++) {
+          image.getRow(i, left, length, row[0], row[1], row[2]);
+          for (int channel = 0; channel < 3; channel++) {
+            for (int j = 0; j < length; j++) {
+              columns[channel][j][i] = row[channel][j];
+            }
+          }
+        }
+        for (int[][] channel : columns) {
+          for (int j = 0; j < length; j++) {
+            this.blurLine(channel[j], scratch, max);
+          }
+        }
+        for (int i = 0; i < height; i++) {
+          for (int channel = 0; channel < 3; channel++) {
+            for (int j = 0; j < length; j++) {
+              row[channel][j] = columns[channel][j][i];
+            }
+          }
+          image.setRow(i, left, length, row[0], row[1], row[2], 0);
+        }
+      }
+    });
+  }
+
+  /**
+   * A private helper function to blur a row or a column in place, with the
+   * exact Gaussian weights or with the box blurs.
+   *
+   * @param values  the values of the row or column, replaced by the blurred values
+   * @param scratch an array as long as the row or column
+   * @param max     the largest value
+   */
+  private void blurLine(int[] values, int[] scratch, int max) {
+    if (this.weights != null) {
+      this.blurExact(values, scratch, max);
+    } else {
+      for (int radius : this.boxRadii) {
+        boxBlur(values, scratch, radius);
+      }
+    }
+  }
+
+  /**
+   * A private helper function to blur a row in place with the exact Gaussian weights.
+   *
+   * @param values  the values of the row, replaced by the blurred values
+   * @param scratch an array as long as the row
+   * @param max     the largest value
+   */
+  private void blurExact(int[] values, int[] scratch, int max) {
+    int length = values.length;
+    int radius = this.weights.length / 2;
+    System.arraycopy(values, 0, scratch, 0, length);
+    for (int j = 0; j < length; j++) {
+      double sum = 0;
+      if (j >= radius && j + radius < length) {
+        for (int k = 0; k < this.weights.length; k++) {
+          sum += scratch[j - radius + k] * this.weights[k];
+        }
+      } else {
+        for (int k = 0; k < this.weights.length; k++) {
+          int col = Math.max(0, Math.min(j - radius + k, length - 1));
+          sum += scratch[col] * this.weights[k];
+        }
+      }
+      values[j] = (int) Math.max(0, Math.min(Math.round(sum), max));
+    }
+  }
+
+  /**
+   * A private helper function to blur a row in place with a box of the
+   * given radius, keeping a running sum over the window.
+   *
+   * @param values  the values of the row, replaced by the blurred values
+   * @param scratch an array as long as the row
+   * @param radius  the radius of the box
+   */
+  private static void boxBlur(int[] values, int[] scratch, int radius) {
+    if (radius == 0) {
+      return;
+    }
+    int length = values.length;
+    int size = 2 * radius + 1;
+    System.arraycopy(values, 0, scratch, 0, length);
+    int last = length - 1;
+    // the window of the first pixel, whose left part repeats the first value
+    long sum = (long) (radius + 1) * scratch[0];
+    for (int k = 1; k <= radius; k++) {
+      sum += scratch[Math.min(k, last)];
+    }
+    for (int j = 0; j < length; j++) {
+      values[j] = (int) ((sum + size / 2) / size);
+      sum += scratch[Math.min(j + radius + 1, last)] - scratch[Math.max(j - radius, 0)];
+    }
+  }
+}
@@ -0,0 +1,219 @@
+package model;
+
+/**
+ * The histogram of an image, which counts how many pixels have each value
+ * of the red, green, and blue channels, and each intensity, which is the
+ * mean of the three values rounded down. There is a count for every value
+ * from 0 to the maximum value of the image, so the histogram of a 16-bit
+ * image has 65536 counts per channel. Histograms are immutable.
+ *
+ * <p>The rows of the image are counted in parallel parts, each into counts
+ * of its own, which are added up once every part is done, so no count is
+ * ever shared between threads. A part holds at least a few pixels per
+ * count, so the counts of the parts never take longer to add up than the
+ * pixels take to count. A part holds at most a row of pixels or a few
+ * times the fewest pixels of a part, whichever is more, so it counts into
+ * ints, and the counts of the parts are added up into longs, which hold
+ * the counts of an image of any size.
+ */
+public final class Histogram {
+  // the fewest pixels counted by a part, whatever the number of counts
+  private static final int PART_PIXELS = 1 << 16;
+  // how many pixels a part counts for every count it holds, at least
+  private static final int PIXELS_PER_COUNT = 4;
+
+  private final int maxValue;
+  private final long count;
+  // the counts of the red, green, and blue values, and of the intensities, in this order
+  private final long[][] counts;
+
+  /**
+   * A private constructor for the given counts.
+   *
+   * @param maxValue the maximum value of the image
+   * @param count    the number of pixels counted
+   * @param counts   the counts of the channels and the intensities
+   */
+  private Histogram(int maxValue, long count, long[][] counts) {
+    this.maxValue = maxValue;
+    this.count = count;
+    this.counts = counts;
+  }
+
+  /**
+   * Counts the values of the pixels of an image, or of the pixels a mask
+   * selects. With a mask, only the runs of selected pixels are read.
+   *
+   * @param image    the image
+   * @param mask     the mask of the pixels to count, as large as the image, or null to count
+   *                 every pixel
+   * @param executor the executor to count the parts on
+   * @return the histogram
+   * @throws IllegalArgumentException if the image is null, or the mask is not the size of
+   *                                  the image
+   */
+  static Histogram of(Image image, Mask mask, BandExecutor executor)
+          throws IllegalArgumentException {
+    if (image == null) {
+      throw new IllegalArgumentException("Image must not be null");
+    }
+    int width = image.getWidth();
+    int height = image.getHeight();
+    if (mask != null && (mask.getWidth() != width || mask.getHeight() != height)) {
+      throw new IllegalArgumentException("The mask size must be the same with the image size");
+    }
+    MaskSpans spans = mask == null ? null : MaskSpans.of(mask);
+    int top = spans == null ? 0 : spans.getTop();
+    int rows = spans == null ? height : spans.getHeight();
+    int columns = spans == null ? width : spans.getWidth();
+    int bins = image.getMaxValue() + 1;
+    long pixels = (long) rows * columns;
+    long partPixels = Math.max(PART_PIXELS, (long) PIXELS_PER_COUNT * 4 * bins);
+    int parts = (int) Math.max(1, Math.min(rows, pixels / partPixels));
+    int[][][] partial = new int[parts][][];
+    long[] counted = new long[parts];
+    // every part is a band of its own
+    executor.forEachBand(parts, Long.MAX_VALUE, (from, to) -> {
+      for (int p = from; p < to; p++) {
+        int[][] counts = new int[4][bins];
+        int[] red = new int[columns];
+        int[] green = new int[columns];
+        int[] blue = new int[columns];
+        long total = 0;
+        int first = top + (int) ((long) rows * p / parts);
+        int last = top + (int) ((long) rows * (p + 1) / parts);
+        for (int i = first; i < last; i++) {
+          if (spans == null) {
+            image.getRow(i, 0, width, red, green, blue);
+            count(counts, red, green, blue, width);
+            total += width;
+            continue;
+          }
+          int[] runs = spans.getSpans(i);
+          for (int k = 0; k < runs.length; k += 2) {
+            int length = runs[k + 1] - runs[k];
+            image.getRow(i, runs[k], length, red, green, blue);
+            count(counts, red, green, blue, length);
+            total += length;
+          }
+        }
+        partial[p] = counts;
+        counted[p] = total;
+      }
+    });
+    long[][] counts = new long[4][bins];
+    long count = 0;
+    for (int p = 0; p < parts; p++) {
+      for (int c = 0; c < 4; c++) {
+        long[] into = counts[c];
+        int[] part = partial[p][c];
+        for (int v = 0; v < bins; v++) {
+          into[v] += part[v];
+        }
+      }
+      count += counted[p];
+    }
+    return new Histogram(image.getMaxValue(), count, counts);
+  }
+
+  /**
+   * A private helper function to count the values of a run of pixels.
+   *
+   * @param counts the counts of the channels and the intensities
+   * @param red    the red values
+   * @param green  the green values
+   * @param blue   the blue values
+   * @param length the number of pixels of the run
+   */
+  private static void count(int[][] counts, int[] red, int[] green, int[] blue, int length) {
+    int[] reds = counts[0];
+    int[] greens = counts[1];
+    int[] blues = counts[2];
+    int[] intensities = counts[3];
+    for (int j = 0; j < length; j++) {
+      reds[red[j]]++;
+      greens[green[j]]++;
+      blues[blue[j]]++;
+      intensities[(red[j] + green[j] + blue[j]) / 3]++;
+    }
+  }
+
+  /**
+   * Returns the maximum value of the image, which is the last value counted.
+   *
+   * @return the maximum value
+   */
+  public int getMaxValue() {
+    return this.maxValue;
+  }
+
+  /**
+   * Returns the number of pixels counted, which is the size of the image,
+   * or the number of pixels the mask selects.
+   *
+   * @return the number of pixels
+   */
+  public long getCount() {
+    return this.count;
+  }
+
+  /**
+   * Returns the counts of the red values, whose index is the value.
+   *
+   * @return a copy of the counts
+   */
+  public long[] getRed() {
+    return this.counts[0].clone();
+  }
+
+  /**
+   * Returns the counts of the green values, whose index is the value.
+   *
+   * @return a copy of the counts
+   */
+  public long[] getGreen() {
+    return this.counts[1].clone();
+  }
+
+  /**
+   * Returns the counts of the blue values, whose index is the value.
+   *
+   * @return a copy of the counts
+   */
+  public long[] getBlue() {
+    return this.counts[2].clone();
+  }
+
+  /**
+   * Returns the counts of the intensities, whose index is the intensity.
+   *
+   * @return a copy of the counts
+   */
+  public long[] getIntensity() {
+    return this.counts[3].clone();
+  }
+
+  /**
+   * Finds the least intensity that the given fraction of the counted pixels
+   * are at or below, such as 0.5 for the median intensity.
+   *
+   * @param fraction the fraction of the pixels, from 0 to 1
+   * @return the intensity, or 0 if no pixel was counted
+   * @throws IllegalArgumentException if the fraction is not from 0 to 1
+   */
+  public int percentile(double fraction) throws IllegalArgumentException {
+    if (!(fraction >= 0 && fraction <= 1)) {
+      throw new IllegalArgumentException("The fraction must be from 0 to 1");
+    }
+    long needed = (long) Math.ceil(fraction * this.count);
+    long seen = 0;
+    long[] intensities = this.counts[3];
+    for (int v = 0; v < intensities.length; v++) {
+      seen += intensities[v];
+      if (seen >= needed && seen > 0) {
+        return v;
+      }
+    }
+    return 0;
+  }
+}
@@ -67,6 +67,53 @@ public interface Image {
    */
   IPixel getPixelAt(int row, int col) throws IllegalArgumentException;
 
+  /**
+   * Extracts a single channel value of the pixel at the specified location.
+   * This is a read-only access that neither copies the image nor creates
+   * a pixel. The channel is indexed the same way as {@link IPixel#getValues()}:
+   * 0 for red, 1 for green, and 2 for blue.
+   *
+   * @param row     the row position
+   * @param col     the column position
+   * @param channel the channel index
+   * @return the channel value of the pixel
+   * @throws IllegalArgumentException when the given position or channel is out of bound
+   */
+  int getChannel(int row, int col, int channel) throws IllegalArgumentException;
+
+  /**
+   * Copies the channel values of a part of a row into the given arrays,
+   * one array per channel. This is a read-only access that neither copies
+   * the whole image nor creates any pixel, so the same arrays can be reused
+   * for every row.
+   *
+   * @param row    the row position
+   * @param col    the column position where the part of the row starts
+   * @param length the number of pixels to copy
+   * @param red    the array to copy the red values into, starting at index 0
+   * @param green  the array to copy the green values into, starting at index 0
+   * @param blue   the array to copy the blue values into, starting at index 0
+   * @throws IllegalArgumentException when the part of the row is out of bound
+   */
+  void getRow(int row, int col, int length, int[] red, int[] green, int[] blue)
+          throws IllegalArgumentException;
+
+  /**
+   * Copies the values of a single channel from a part of a row into the
+   * given array, without creating any pixel or copying the other channels.
+   * The channel is indexed the same way as {@link IPixel#getValues()}:
+   * 0 for red, 1 for green, and 2 for blue.
+   *
+   * @param row     the row position
+   * @param col     the column position where the part of the row starts
+   * @param length  the number of pixels to copy
+   * @param channel the channel index
+   * @param dest    the array to copy the values into, starting at index 0
+   * @throws IllegalArgumentException when the part of the row or the channel is out of bound
+   */
+  void getChannelRow(int row, int col, int length, int channel, int[] dest)
+          throws IllegalArgumentException;
+
   /**
    * Returns the information about this image into a string,
    * which would be used later through the byte reader when
@@ -0,0 +1,110 @@
+package model;
+
+/**
+ * Builds an image a row at a time, so that the loaders outside the model
+ * store an image the same way as the model stores the results of its
+ * operations: outside of the heap when it has at least
+ * {@link WritableImage#DIRECT_PIXELS} pixels, and in planes of bytes or
+ * shorts otherwise. Only a row of the file is held on the heap at a time,
+ * so a very large image is never held there as a whole.
+ *
+ * <p>Once the image is built, no more rows can be set, so the image can
+ * never be altered once it has been handed out.
+ */
+public final class ImageBuilder {
+  private final int width;
+  private final int maxValue;
+  private WritableImage image;
+  // the channel values of a row of packed pixels, once they are unpacked
+  private int[][] unpacked;
+
+  /**
+   * Constructs a builder of a black image of the given size.
+   *
+   * @param width    the image width
+   * @param height   the image height
+   * @param maxValue the maximum RBG value, at most 65535
+   * @throws IllegalArgumentException if the width or height is not positive,
+   *                                  or the maximum value is negative or over 65535
+   */
+  public ImageBuilder(int width, int height, int maxValue) throws IllegalArgumentException {
+    this.image = WritableImage.blank(width, height, maxValue);
+    this.width = width;
+    this.maxValue = maxValue;
+  }
+
+  /**
+   * Sets the channel values of a whole row of the image.
+   *
+   * @param row   the row position
+   * @param red   the red values, at least as many as the image width
+   * @param green the green values, at least as many as the image width
+   * @param blue  the blue values, at least as many as the image width
+   * @throws IllegalArgumentException if the row is out of bound, an array is too short,
+   *                                  or a value is negative or over the maximum value
+   * @throws IllegalStateException    if the image has been built already
+   */
+  public void setRow(int row, int[] red, int[] green, int[] blue)
+          throws IllegalArgumentException, IllegalStateException {
+    WritableImage image = this.image;
+    if (image == null) {
+      throw new IllegalStateException("The image has been built already.");
+    }
+    image.checkRow(row, 0, this.width);
+    if (red.length < this.width || green.length < this.width || blue.length < this.width) {
+      throw new IllegalArgumentException("The row is shorter than the image width.");
+    }
+    for (int j = 0; j < this.width; j++) {
+      if (red[j] < 0 || green[j] < 0 || blue[j] < 0
+              || red[j] > this.maxValue || green[j] > this.maxValue || blue[j] > this.maxValue) {
+        throw new IllegalArgumentException(
+                "RGB channel values of a pixel cannot exceed the maximum value.");
+      }
+    }
+    image.setRow(row, 0, this.width, red, green, blue, 0);
+  }
+
+  /**
+   * Sets a whole row of the image from packed pixels (0xRRGGBB), the layout
+   * of {@link java.awt.image.BufferedImage#TYPE_INT_RGB}, whose highest byte,
+   * such as an alpha channel, is left out.
+   *
+   * @param row the row position
+   * @param rgb the packed pixels, at least as many as the image width
+   * @throws IllegalArgumentException if the row is out of bound, the array is too short,
+   *                                  or a value is over the maximum value
+   * @throws IllegalStateException    if the image has been built already
+   */
+  public void setRow(int row, int[] rgb) throws IllegalArgumentException, IllegalStateException {
+    if (rgb.length < this.width) {
+      throw new IllegalArgumentException("The row is shorter than the image width.");
+    }
+    if (this.unpacked == null) {
+      this.unpacked = new int[3][this.width];
+    }
+    int[] red = this.unpacked[0];
+    int[] green = this.unpacked[1];
+    int[] blue = this.unpacked[2];
+    for (int j = 0; j < this.width; j++) {
+      red[j] = (rgb[j] >> 16) & 0xFF;
+      green[j] = (rgb[j] >> 8) & 0xFF;
+      blue[j] = rgb[j] & 0xFF;
+    }
+    this.setRow(row, red, green, blue);
+  }
+
+  /**
+   * Hands out the image, whose rows that were never set are black.
+   *
+   * @return the image
+   * @throws IllegalStateException if the image has been built already
+   */
+  public Image build() throws IllegalStateException {
+    WritableImage image = this.image;
+    if (image == null) {
+      throw new IllegalStateException("The image has been built already.");
+    }
+    this.image = null;
+    return image;
+  }
+}
@@ -15,6 +15,35 @@ public interface ImageProcessorModel extends ImageProcessorModelState {
    */
   void addImage(String imageTitle, Image image);
 
+  /**
+   * Removes an image from the model's storage. If the image is stored outside
+   * of the heap, its memory is freed, and it cannot be read anymore. Images in
+   * the storage that were made from it can still be read.
+   *
+   * @param imageTitle title/name of the image to remove
+   */
+  void removeImage(String imageTitle);
+
+  /**
+   * Replaces an image of the storage with a new version of it that only
+   * differs inside the given region, such as the result of a masked edit, and
+   * brings the images made from it up to date. An image made from it by
+   * brighten, greyscale, pipeline, filtering, Gaussian blur, convolve, or color
+   * transformation is computed again only where the region reaches it, and so
+   * on for the images made from that one. The updated image itself is no
+   * longer brought up to date with the image it was made from, so a later
+   * update of that image keeps the new version. An image replaced with
+   * addImage instead leaves the images made from it as they are.
+   *
+   * @param imageTitle title/name of the image to replace
+   * @param image      the new version of the image
+   * @param changed    the region of the image the new version differs in
+   * @throws IllegalArgumentException if any parameter is null, the image cannot be found,
+   *                                  the new version is not the same size and maximum
+   *                                  value, or the region is not within the image
+   */
+  void update(String imageTitle, Image image, Region changed) throws IllegalArgumentException;
+
   /**
    * Flips an image either horizontally or vertically.
    *
@@ -25,6 +54,30 @@ public interface ImageProcessorModel extends ImageProcessorModelState {
    */
   void flip(String imageTitle, FlipType flipType, String dest) throws IllegalArgumentException;
 
+  /**
+   * Crops a rectangular part out of an image.
+   *
+   * @param imageTitle the target image
+   * @param row        the row position of the top left corner of the part
+   * @param col        the column position of the top left corner of the part
+   * @param width      the width of the part
+   * @param height     the height of the part
+   * @param dest       the name of the new image
+   * @throws IllegalArgumentException if any parameter is null, the image cannot be found,
+   *                                  or the part is empty or not inside the image
+   */
+  void crop(String imageTitle, int row, int col, int width, int height, String dest)
+          throws IllegalArgumentException;
+
+  /**
+   * Transposes an image, so that its rows become its columns.
+   *
+   * @param imageTitle the target image
+   * @param dest       the name of the new image
+   * @throws IllegalArgumentException if any parameter is null or the image cannot be found
+   */
+  void transpose(String imageTitle, String dest) throws IllegalArgumentException;
+
   /**
    * Alters the brightness of an image.
    *
@@ -35,6 +88,21 @@ public interface ImageProcessorModel extends ImageProcessorModelState {
    */
   void brighten(String imageTitle, int strength, String dest) throws IllegalArgumentException;
 
+  /**
+   * Alters the brightness of a region of the image only, such as the part
+   * shown in a preview. Only the region is computed, and the new image is as
+   * large as the region.
+   *
+   * @param imageTitle the target image
+   * @param strength   the amount to change each RGB value by
+   * @param region     the region of the image to brighten
+   * @param dest       the name of the new image
+   * @throws IllegalArgumentException if any parameter is null, the image cannot be found,
+   *                                  or the region is not within the image
+   */
+  void brighten(String imageTitle, int strength, Region region, String dest)
+          throws IllegalArgumentException;
+
   /**
    * Converts a color image to greyscale by visualizing
    * individual components, or value/intensity/luma.
@@ -47,6 +115,35 @@ public interface ImageProcessorModel extends ImageProcessorModelState {
   void multipleGreyscale(String imageTitle, GreyscaleType greyType, String dest)
           throws IllegalArgumentException;
 
+  /**
+   * Visualizes a greyscale type on a region of the image only, the same way
+   * as on the whole image. The new image is as large as the region.
+   *
+   * @param imageTitle the target image
+   * @param greyType   the method type of the greyscale
+   * @param region     the region of the image to visualize
+   * @param dest       the name of the new image
+   * @throws IllegalArgumentException if any parameter is null, the image cannot be found,
+   *                                  or the region is not within the image
+   */
+  void multipleGreyscale(String imageTitle, GreyscaleType greyType, Region region, String dest)
+          throws IllegalArgumentException;
+
+  /**
+   * Applies a sequence of point operations, such as brighten, greyscale, and
+   * color transformations, in a single pass over the image. The images between
+   * the steps are not made, unless a step has been saved under a name, in which
+   * case its result is saved in the storage as well.
+   *
+   * @param imageTitle the target image
+   * @param operation  the point operations to apply one after the other
+   * @param dest       the name of the new image
+   * @throws IllegalArgumentException if any parameter is null, the image cannot be found,
+   *                                  or a step cannot be applied to the image
+   */
+  void pipeline(String imageTitle, PointOperation operation, String dest)
+          throws IllegalArgumentException;
+
   /**
    * Applies the filter on the image using kernel.
    * The filters include blurring and sharpening.
@@ -59,6 +156,120 @@ public interface ImageProcessorModel extends ImageProcessorModelState {
   void filtering(String imageTitle, FilteringType filterType, String dest)
           throws IllegalArgumentException;
 
+  /**
+   * Applies the filter on a region of the image only, reading the pixels
+   * around the region the kernel covers, so the new image, which is as large
+   * as the region, is the same as that region of the whole filtered image.
+   *
+   * @param imageTitle the target image
+   * @param filterType the type of the filter
+   * @param region     the region of the image to filter
+   * @param dest       the name of the new image
+   * @throws IllegalArgumentException if any parameter is null, the image cannot be found,
+   *                                  or the region is not within the image
+   */
+  void filtering(String imageTitle, FilteringType filterType, Region region, String dest)
+          throws IllegalArgumentException;
+
+  /**
+   * Blurs an image with a Gaussian of the given standard deviation, so that
+   * a larger standard deviation gives a stronger blur. It takes about as long
+   * for any standard deviation.
+   *
+   * @param imageTitle the target image
+   * @param sigma      the standard deviation of the Gaussian, in pixels
+   * @param dest       the name of the new image
+   * @throws IllegalArgumentException if any parameter is null, the image cannot be found,
+   *                                  or the standard deviation is not positive
+   */
+  void gaussianBlur(String imageTitle, double sigma, String dest)
+          throws IllegalArgumentException;
+
+  /**
+   * Blurs a region of the image only, reading the pixels around the region
+   * the Gaussian reaches, so the new image, which is as large as the region,
+   * is the same as that region of the whole blurred image.
+   *
+   * @param imageTitle the target image
+   * @param sigma      the standard deviation of the Gaussian, in pixels
+   * @param region     the region of the image to blur
+   * @param dest       the name of the new image
+   * @throws IllegalArgumentException if any parameter is null, the image cannot be found,
+   *                                  the standard deviation is not positive, or the region
+   *                                  is not within the image
+   */
+  void gaussianBlur(String imageTitle, double sigma, Region region, String dest)
+          throws IllegalArgumentException;
+
+  /**
+   * Blurs an image with a box, setting every pixel to the rounded mean of
+   * the square of pixels around it whose side is twice the radius plus one.
+   * Near the edges, the mean only counts the pixels of the square within
+   * the image. The means are read off the summed-area table of the image,
+   * which is kept until the image is replaced, so a blur of any radius
+   * costs the same.
+   *
+   * @param imageTitle the target image
+   * @param radius     the radius of the box, in pixels
+   * @param dest       the name of the new image
+   * @throws IllegalArgumentException if any parameter is null, the image cannot be found,
+   *                                  or the radius is negative
+   */
+  void boxBlur(String imageTitle, int radius, String dest) throws IllegalArgumentException;
+
+  /**
+   * Blurs a region of the image only with a box, so the new image, which
+   * is as large as the region, is the same as that region of the whole
+   * blurred image.
+   *
+   * @param imageTitle the target image
+   * @param radius     the radius of the box, in pixels
+   * @param region     the region of the image to blur
+   * @param dest       the name of the new image
+   * @throws IllegalArgumentException if any parameter is null, the image cannot be found,
+   *                                  the radius is negative, or the region is not within
+   *                                  the image
+   */
+  void boxBlur(String imageTitle, int radius, Region region, String dest)
+          throws IllegalArgumentException;
+
+  /**
+   * Convolves an image with a kernel of any size, such as a deblur or an
+   * emboss kernel. Each resulting value is the sum of the surrounding values
+   * weighted by the kernel, whose center sits on the pixel being computed,
+   * and the pixels past the edges of the image repeat the pixel on the edge.
+   * Large kernels are convolved through the fast Fourier transform, and
+   * kernels that are a column of weights times a row of weights are
+   * convolved with the column and the row separately.
+   *
+   * @param imageTitle the target image
+   * @param kernel     the weights, whose first index is the row, with an odd number of rows
+   *                   and columns
+   * @param dest       the name of the new image
+   * @throws IllegalArgumentException if any parameter is null, the image cannot be found,
+   *                                  or the kernel is empty, not rectangular, or does not
+   *                                  have an odd number of rows and columns
+   */
+  void convolve(String imageTitle, double[][] kernel, String dest)
+          throws IllegalArgumentException;
+
+  /**
+   * Convolves a region of the image only, reading the pixels around the
+   * region the kernel covers, so the new image, which is as large as the
+   * region, is the same as that region of the whole convolved image.
+   *
+   * @param imageTitle the target image
+   * @param kernel     the weights, whose first index is the row, with an odd number of rows
+   *                   and columns
+   * @param region     the region of the image to convolve
+   * @param dest       the name of the new image
+   * @throws IllegalArgumentException if any parameter is null, the image cannot be found,
+   *                                  the kernel is not valid, or the region is not within
+   *                                  the image
+   */
+  void convolve(String imageTitle, double[][] kernel, Region region, String dest)
+          throws IllegalArgumentException;
+
   /**
    * Color transformations on individual pixels.
    * There are two operations: greyscale and sepia.
@@ -71,6 +282,20 @@ public interface ImageProcessorModel extends ImageProcessorModelState {
   void colorTransformation(String imageTitle, ColorTransType colorType, String dest)
           throws IllegalArgumentException;
 
+  /**
+   * Applies a color transformation on a region of the image only. The new
+   * image is as large as the region.
+   *
+   * @param imageTitle the target image
+   * @param colorType  the type of the color transformation
+   * @param region     the region of the image to transform
+   * @param dest       the name of the new image
+   * @throws IllegalArgumentException if any parameter is null, the image cannot be found,
+   *                                  or the region is not within the image
+   */
+  void colorTransformation(String imageTitle, ColorTransType colorType, Region region,
+                           String dest) throws IllegalArgumentException;
+
   /**
    * Applies downscaling on the image.
    *
@@ -86,4 +311,92 @@ public interface ImageProcessorModel extends ImageProcessorModelState {
    */
   void downscale(String imageTitle, double width, double height, String dest)
           throws IllegalArgumentException;
+
+  /**
+   * Applies downscaling on the image, computing every resulting pixel the
+   * given way. Area averages every pixel each resulting pixel covers, which
+   * keeps strong reductions, such as thumbnails, from aliasing, while
+   * bilinear only blends the four pixels around each position.
+   *
+   * @param imageTitle    the target image
+   * @param width         the scale factor to downsize the width of the image by (in decimal
+   *                      percentage) - 0.5 results in the image with 50% of the width and
+   *                      1.0 results in the same width
+   * @param height        the scale factor to downsize the height of the image by (in decimal
+   *                      percentage) - 0.5 results in the image with 50% of the height and
+   *                      1.0 results in the same height
+   * @param downscaleType the type of downscaling
+   * @param dest          the name of the new image
+   * @throws IllegalArgumentException if any parameter is null or the image cannot be found
+   */
+  void downscale(String imageTitle, double width, double height, DownscaleType downscaleType,
+                 String dest) throws IllegalArgumentException;
+
+  /**
+   * Resizes the image to the given width and height, which may be smaller or
+   * larger than the ones of the image, computing every resulting pixel with
+   * the given filter. Bicubic and Lanczos keep the most detail when enlarging.
+   *
+   * @param imageTitle the target image
+   * @param width      the width of the new image, in pixels
+   * @param height     the height of the new image, in pixels
+   * @param resizeType the filter of resizing
+   * @param dest       the name of the new image
+   * @throws IllegalArgumentException if any parameter is null, the image cannot be found,
+   *                                  or the width or the height is not positive
+   */
+  void resize(String imageTitle, int width, int height, ResizeType resizeType, String dest)
+          throws IllegalArgumentException;
+
+  /**
+   * Works out the mean of every channel over a region of an image, from the
+   * summed-area table of the image, so it costs the same for any region.
+   *
+   * @param imageTitle the target image
+   * @param region     the region of the image
+   * @return the means of the red, green, and blue values, in this order
+   * @throws IllegalArgumentException if any parameter is null, the image cannot be found,
+   *                                  or the region is not within the image
+   */
+  double[] mean(String imageTitle, Region region) throws IllegalArgumentException;
+
+  /**
+   * Works out the variance of every channel over a region of an image, the
+   * same way as {@link #mean}.
+   *
+   * @param imageTitle the target image
+   * @param region     the region of the image
+   * @return the variances of the red, green, and blue values, in this order
+   * @throws IllegalArgumentException if any parameter is null, the image cannot be found,
+   *                                  or the region is not within the image
+   */
+  double[] variance(String imageTitle, Region region) throws IllegalArgumentException;
+
+  /**
+   * Makes the mask selecting the pixels of an image darker than the pixels
+   * around them, such as the writing on a page that is lit unevenly. A pixel
+   * is selected when its intensity is less than the mean intensity of the
+   * square around it, the same square as the one of {@link #boxBlur}, less
+   * the given offset.
+   *
+   * @param imageTitle the target image
+   * @param radius     the radius of the square, in pixels
+   * @param offset     how much darker than the mean around it a pixel must be
+   * @return the mask, as large as the image
+   * @throws IllegalArgumentException if the name is null, the image cannot be found,
+   *                                  or the radius is negative
+   */
+  Mask adaptiveThreshold(String imageTitle, int radius, int offset)
+          throws IllegalArgumentException;
+
+  /**
+   * Counts how many pixels of an image have each red, green, and blue
+   * value, and each intensity, from 0 to the maximum value of the image.
+   * The rows are counted in parallel parts, each into counts of its own.
+   *
+   * @param imageTitle the target image
+   * @return the histogram of the image
+   * @throws IllegalArgumentException if the name is null or the image cannot be found
+   */
+  Histogram histogram(String imageTitle) throws IllegalArgumentException;
 }
\ No newline at end of file
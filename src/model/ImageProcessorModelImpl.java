@@ -1,13 +1,20 @@
 package model;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 /**
  * The implementation of {@link ImageProcessorModel}. Applies different
  * changes on the pixels of the image based on the desired order. For now,
  * the image can: flip horizontally/vertically, brighten/darken,
  * visualize individual RGB components, and visualize value/intensity/luma.
+ * The pixels are worked on in parallel bands of rows, which gives exactly
+ * the same result as working on them one by one.
  */
 public class ImageProcessorModelImpl implements ImageProcessorModel {
   protected final Map<String, Image> images;
@@ -15,13 +22,47 @@ public class ImageProcessorModelImpl implements ImageProcessorModel {
   protected int height = -1;
   protected int maxValue = -1;
   protected Image image;
+  final BandExecutor executor;
+  // how the images made from another image of the storage were made, by their name
+  private final Map<String, Derivation> derivations = new HashMap<>();
+  // the pyramids of the images of the storage that have been downscaled, by their name
+  private final Map<String, Pyramid> pyramids = new HashMap<>();
+  // the summed-area tables of the images of the storage that have been summed, by their name
+  private final Map<String, SummedAreaTable> tables = new HashMap<>();
 
   /**
    * Constructs an image processor model,
    * which instantiates the storage with a hash map.
+   * Operations run in parallel on every available processor.
    */
   public ImageProcessorModelImpl() {
     this.images = new HashMap<String, Image>();
+    this.executor = BandExecutor.DEFAULT;
+  }
+
+  /**
+   * Constructs an image processor model whose operations run on the given
+   * number of threads. The rows of an image are split into bands worked on
+   * in parallel, until a band holds fewer pixels than the given cutoff,
+   * so images smaller than the cutoff are worked on by a single thread.
+   *
+   * @param parallelism      the number of threads, or 1 to never run in parallel
+   * @param sequentialPixels the number of pixels under which a band is not split any further
+   * @throws IllegalArgumentException if the parallelism or the cutoff is not positive
+   */
+  public ImageProcessorModelImpl(int parallelism, int sequentialPixels)
+          throws IllegalArgumentException {
+    this(new BandExecutor(parallelism, sequentialPixels));
+  }
+
+  /**
+   * Constructs an image processor model whose operations run on the given executor.
+   *
+   * @param executor the executor running the operations
+   */
+  ImageProcessorModelImpl(BandExecutor executor) {
+    this.images = new HashMap<String, Image>();
+    this.executor = executor;
   }
 
   @Override
@@ -36,7 +77,192 @@ public class ImageProcessorModelImpl implements ImageProcessorModel {
 
   @Override
   public void addImage(String imageTitle, Image image) {
+    this.forget(imageTitle);
+    this.adopt(image);
+    this.release(this.images.put(imageTitle, image));
+  }
+
+  @Override
+  public void removeImage(String imageTitle) {
+    this.forget(imageTitle);
+    this.release(this.images.remove(imageTitle));
+  }
+
+  @Override
+  public void update(String imageTitle, Image image, Region changed)
+          throws IllegalArgumentException {
+    typeCheck(imageTitle, "At least one parameter is null.");
+    typeCheck(image, "Image must not be null");
+    typeCheck(changed, "Region must not be null");
+    imageInStorage(imageTitle, "update");
+    Image previous = this.images.get(imageTitle);
+    if (image.getWidth() != previous.getWidth() || image.getHeight() != previous.getHeight()
+            || image.getMaxValue() != previous.getMaxValue()) {
+      throw new IllegalArgumentException(
+              "The updated image must be the same size as the image it replaces");
+    }
+    changed.checkWithin(image.getWidth(), image.getHeight());
+    this.pyramids.remove(imageTitle);
+    this.tables.remove(imageTitle);
+    // the new version is the user's own, so it is not made again from the image it came from
+    this.derivations.remove(imageTitle);
+    this.adopt(image);
     this.images.put(imageTitle, image);
+    this.propagate(imageTitle, changed);
+    this.release(previous);
+  }
+
+  /**
+   * A private helper function to bring the images made from the given image
+   * up to date, once a region of it has changed, and then the images made
+   * from them. Only the region each image changes in is computed again, and
+   * the rest of it is shared with the image it replaces.
+   *
+   * @param imageTitle the name of the changed image
+   * @param changed    the region of the image that has changed
+   */
+  private void propagate(String imageTitle, Region changed) {
+    Image source = this.images.get(imageTitle);
+    List<String> made = new ArrayList<>();
+    for (Map.Entry<String, Derivation> entry : this.derivations.entrySet()) {
+      if (entry.getValue().getSource().equals(imageTitle)) {
+        made.add(entry.getKey());
+      }
+    }
+    for (String title : made) {
+      Derivation derivation = this.derivations.get(title);
+      Image previous = this.images.get(title);
+      Region reach = derivation.reach(changed, previous.getWidth(), previous.getHeight());
+      Image part = derivation.recompute(source, reach);
+      this.pyramids.remove(title);
+      this.tables.remove(title);
+      this.images.put(title, this.patch(previous, part, reach));
+      this.propagate(title, reach);
+    }
+  }
+
+  /**
+   * A private helper function to make a copy-on-write copy of an image with
+   * a region of it written over, so that only the tiles of the region are copied.
+   *
+   * @param previous the image to copy
+   * @param part     the pixels of the region, as large as the region
+   * @param region   the region to write over
+   * @return the copy
+   */
+  private Image patch(Image previous, Image part, Region region) {
+    TiledImageImpl patched = new TiledImageImpl(previous, this.executor);
+    int length = region.getWidth();
+    this.executor.forEachBand(region.getHeight(), length, (from, to) -> {
+      int[] red = new int[length];
+      int[] green = new int[length];
+      int[] blue = new int[length];
+      for (int i = from; i < to; i++) {
+        part.getRow(i, 0, length, red, green, blue);
+        patched.setRow(region.getRow() + i, region.getCol(), length, red, green, blue, 0);
+      }
+    });
+    return patched;
+  }
+
+  /**
+   * A helper function that remembers how an image was made from another
+   * image of the storage, so that it is brought up to date when the other
+   * image is updated. An image made from itself is not remembered, since
+   * the image it was made from is gone.
+   *
+   * @param dest      the name of the image that was made
+   * @param source    the name of the image it was made from
+   * @param footprint how far from a pixel the pixels it is computed from reach
+   * @param recipe    the operation computing any region of it
+   */
+  void derive(String dest, String source, int footprint, Derivation.Recipe recipe) {
+    if (!dest.equals(source)) {
+      this.derivations.put(dest, new Derivation(source, footprint, recipe));
+    }
+  }
+
+  /**
+   * A helper function that makes the recipe of an operation which can compute
+   * any region of its result on its own, producing the region the same way
+   * as {@link #produce(Region, int, Image, RegionOperation)}.
+   *
+   * @param operation the operation on a given image
+   * @return the recipe of the operation
+   */
+  Derivation.Recipe recipe(Function<Image, RegionOperation> operation) {
+    return (source, region) -> this.produce(region, source.getMaxValue(), source,
+            operation.apply(source));
+  }
+
+  /**
+   * A private helper function to forget how the image of the given name was
+   * made, and how the images made from it were made, once it is replaced
+   * without an update. The images made from it stay as they are. Its pyramid
+   * and its summed-area table are let go as well.
+   *
+   * @param imageTitle the name of the image
+   */
+  private void forget(String imageTitle) {
+    this.pyramids.remove(imageTitle);
+    this.tables.remove(imageTitle);
+    this.derivations.remove(imageTitle);
+    this.derivations.values().removeIf(derivation ->
+            derivation.getSource().equals(imageTitle));
+  }
+
+  /**
+   * A private helper function to make an image entering the storage work on
+   * the executor of this model, so it is compared, hashed, and copied on the
+   * threads of this model only.
+   *
+   * @param image the image entering the storage, or null
+   */
+  private void adopt(Image image) {
+    if (image instanceof AbstractImage) {
+      ((AbstractImage) image).runOn(this.executor);
+    }
+  }
+
+  /**
+   * A private helper function to free the memory outside of the heap held
+   * by an image that has left the storage, which is the image itself, its
+   * tiles, or its copy. Every kept image that would still read it is
+   * completed first, so they stay readable, and the tiles a kept image
+   * shares with it are left open.
+   *
+   * @param removed the image that has left the storage, or null if there is none
+   */
+  private void release(Image removed) {
+    if (removed == null || this.images.containsValue(removed)) {
+      return;
+    }
+    Set<DirectImageImpl> parts = AbstractImage.directParts(removed);
+    if (parts.isEmpty()) {
+      return;
+    }
+    Collection<Image> kept = this.keptImages();
+    for (Image stored : kept) {
+      if (stored instanceof AbstractImage && ((AbstractImage) stored).dependsOn(removed)) {
+        ((AbstractImage) stored).materialize();
+      }
+    }
+    for (Image stored : kept) {
+      parts.removeAll(AbstractImage.directParts(stored));
+    }
+    for (DirectImageImpl part : parts) {
+      part.close();
+    }
+  }
+
+  /**
+   * A helper function to find the images that must stay readable when an
+   * image leaves the storage, which are the images of the storage.
+   *
+   * @return the images to keep readable
+   */
+  Collection<Image> keptImages() {
+    return this.images.values();
   }
 
   /**
@@ -53,27 +279,101 @@ public class ImageProcessorModelImpl implements ImageProcessorModel {
     this.maxValue = this.image.getMaxValue();
   }
 
+  /**
+   * A helper function for the operations on a region of an image, which
+   * instantiates the fields the same way, and checks the region.
+   *
+   * @param imageTitle the title of the image to operate on
+   * @param region     the region to operate on
+   * @throws IllegalArgumentException if the region is null or not within the image
+   */
+  protected void operationSetup(String imageTitle, Region region)
+          throws IllegalArgumentException {
+    typeCheck(region, "Region must not be null");
+    this.operationSetup(imageTitle);
+    region.checkWithin(this.width, this.height);
+  }
+
+  /**
+   * A helper function that makes a black image for an operation to write
+   * its result into, using the storage that suits its size and bit depth.
+   *
+   * @param width    the width of the new image
+   * @param height   the height of the new image
+   * @param maxValue the maximum value of the new image
+   * @return the black image to write into
+   */
+  WritableImage newImage(int width, int height, int maxValue) {
+    return WritableImage.blank(width, height, maxValue);
+  }
+
+  /**
+   * A helper function that makes the result of an operation which can
+   * compute any region of its result on its own. The result is tiled, and
+   * each tile is only computed the first time it is read, so nothing is
+   * computed here. Tiles read at once are computed in parallel. The operation
+   * must only read local copies of the fields, since the fields are reused by
+   * the next operation.
+   *
+   * @param width     the width of the result
+   * @param height    the height of the result
+   * @param maxValue  the maximum value of the result
+   * @param source    the image the operation reads
+   * @param operation the operation computing the regions of the result
+   * @return the result of the operation
+   */
+  Image produce(int width, int height, int maxValue, Image source, RegionOperation operation) {
+    return new TiledImageImpl(width, height, maxValue, source, operation, this.executor);
+  }
+
+  /**
+   * A helper function that makes the result of an operation on a region of
+   * an image, the same way as {@link #produce}. The result is as large as the
+   * region, and each of its tiles is computed as the same part of the region
+   * of the whole result, so only the region is ever computed.
+   *
+   * @param region    the region of the whole result to make
+   * @param maxValue  the maximum value of the result
+   * @param source    the image the operation reads
+   * @param operation the operation computing the regions of the whole result
+   * @return the region of the result of the operation
+   */
+  Image produce(Region region, int maxValue, Image source, RegionOperation operation) {
+    int row = region.getRow();
+    int col = region.getCol();
+    return this.produce(region.getWidth(), region.getHeight(), maxValue, source,
+        (top, left, part) -> operation.apply(row + top, col + left, part));
+  }
+
   @Override
   public void flip(String imageTitle, FlipType flipType, String dest)
           throws IllegalArgumentException {
     nullInputs(imageTitle, dest);
     imageInStorage(imageTitle, "flip");
+    typeCheck(flipType, "Flip type must not be null");
     // extracts the image from the storage
     this.operationSetup(imageTitle);
-    IPixel[][] original = this.image.getPixels();
-    IPixel[][] updated = new Pixel[this.height][this.width];
+    // only remaps the positions, the pixels are read when they are needed
+    this.addImage(dest, ViewImageImpl.flip(this.image, flipType));
+  }
 
-    for (int i = 0; i < this.height; i++) {
-      for (int j = 0; j < this.width; j++) {
-        if (flipType.equals(FlipType.Horizontal)) {
-          updated[i][j] = original[i][this.width - j - 1];
-        }
-        if (flipType.equals(FlipType.Vertical)) {
-          updated[i][j] = original[this.height - i - 1][j];
-        }
-      }
-    }
-    this.addImage(dest, new ImageImpl(width, height, maxValue, updated));
+  @Override
+  public void crop(String imageTitle, int row, int col, int width, int height, String dest)
+          throws IllegalArgumentException {
+    nullInputs(imageTitle, dest);
+    imageInStorage(imageTitle, "crop");
+    // extracts the image from the storage
+    this.operationSetup(imageTitle);
+    this.addImage(dest, ViewImageImpl.crop(this.image, row, col, width, height));
+  }
+
+  @Override
+  public void transpose(String imageTitle, String dest) throws IllegalArgumentException {
+    nullInputs(imageTitle, dest);
+    imageInStorage(imageTitle, "transpose");
+    // extracts the image from the storage
+    this.operationSetup(imageTitle);
+    this.addImage(dest, ViewImageImpl.transpose(this.image));
   }
 
   @Override
@@ -83,18 +383,26 @@ public class ImageProcessorModelImpl implements ImageProcessorModel {
     imageInStorage(imageTitle, "brighten");
     // extracts the image from the storage
     this.operationSetup(imageTitle);
-    IPixel[][] original = this.image.getPixels();
-    IPixel[][] updated = new Pixel[this.height][this.width];
-
-    for (int i = 0; i < this.height; i++) {
-      for (int j = 0; j < this.width; j++) {
-        IPixel newPixel;
-        newPixel = original[i][j].brighten(strength, this.maxValue);
-        updated[i][j] = newPixel;
-      }
-    }
+    maxValueCheck(this.maxValue);
+    // computes the result of every channel value once
+    LookupTable table = LookupTable.brighten(strength, this.maxValue);
     // saves it in the storage
-    this.addImage(dest, new ImageImpl(width, height, maxValue, updated));
+    this.addImage(dest, this.produce(this.width, this.height, this.maxValue, this.image,
+            tableOperation(this.image, table)));
+    this.derive(dest, imageTitle, 0, this.recipe(source -> tableOperation(source, table)));
+  }
+
+  @Override
+  public void brighten(String imageTitle, int strength, Region region, String dest)
+          throws IllegalArgumentException {
+    nullInputs(imageTitle, dest);
+    imageInStorage(imageTitle, "brighten");
+    // extracts the image from the storage
+    this.operationSetup(imageTitle, region);
+    maxValueCheck(this.maxValue);
+    LookupTable table = LookupTable.brighten(strength, this.maxValue);
+    this.addImage(dest, this.produce(region, this.maxValue, this.image,
+            tableOperation(this.image, table)));
   }
 
   @Override
@@ -102,19 +410,127 @@ public class ImageProcessorModelImpl implements ImageProcessorModel {
           throws IllegalArgumentException {
     nullInputs(imageTitle, dest);
     imageInStorage(imageTitle, "to-greyscale");
+    typeCheck(greyType, "Greyscale type must not be null");
+    // extracts the image from the storage
+    this.operationSetup(imageTitle);
+    this.addImage(dest, this.produce(this.width, this.height, this.maxValue, this.image,
+            greyscaleOperation(this.image, greyType, this.maxValue)));
+    this.derive(dest, imageTitle, 0, this.recipe(source ->
+            greyscaleOperation(source, greyType, source.getMaxValue())));
+  }
+
+  @Override
+  public void multipleGreyscale(String imageTitle, GreyscaleType greyType, Region region,
+                                String dest) throws IllegalArgumentException {
+    nullInputs(imageTitle, dest);
+    imageInStorage(imageTitle, "to-greyscale");
+    typeCheck(greyType, "Greyscale type must not be null");
+    // extracts the image from the storage
+    this.operationSetup(imageTitle, region);
+    this.addImage(dest, this.produce(region, this.maxValue, this.image,
+            greyscaleOperation(this.image, greyType, this.maxValue)));
+  }
+
+  /**
+   * A helper function that makes the operation visualizing a greyscale
+   * type on every region of the given image.
+   *
+   * @param source   the image to read
+   * @param greyType the method type of the greyscale
+   * @param maxValue the maximum value of the image
+   * @return the operation computing the regions of the result
+   */
+  static RegionOperation greyscaleOperation(Image source, GreyscaleType greyType,
+                                            int maxValue) {
+    // a single component only needs to read its own channel
+    int channel = componentChannel(greyType);
+    if (channel < 0) {
+      return tableOperation(source, LookupTable.greyscale(greyType, maxValue));
+    }
+    return (top, left, region) -> {
+      int length = region.getWidth();
+      int[] values = new int[length];
+      for (int i = 0; i < region.getHeight(); i++) {
+        source.getChannelRow(top + i, left, length, channel, values);
+        for (int j = 0; j < length; j++) {
+          region.setPixel(i, j, values[j], values[j], values[j]);
+        }
+      }
+    };
+  }
+
+  /**
+   * A helper function that makes the operation applying a point operation
+   * to every region of the given image, row by row.
+   *
+   * @param source the image to read
+   * @param table  the point operation to apply
+   * @return the operation computing the regions of the result
+   */
+  static RegionOperation tableOperation(Image source, LookupTable table) {
+    return (top, left, region) -> {
+      int length = region.getWidth();
+      int[] red = new int[length];
+      int[] green = new int[length];
+      int[] blue = new int[length];
+      for (int i = 0; i < region.getHeight(); i++) {
+        source.getRow(top + i, left, length, red, green, blue);
+        table.apply(red, green, blue, length);
+        region.setRow(i, 0, length, red, green, blue, 0);
+      }
+    };
+  }
+
+  /**
+   * A helper function that finds the channel visualized by a greyscale
+   * type, if it only visualizes a single component.
+   *
+   * @param greyType the method type of the greyscale
+   * @return the channel index, or -1 if the greyscale type combines channels
+   */
+  static int componentChannel(GreyscaleType greyType) {
+    if (greyType == GreyscaleType.Red) {
+      return 0;
+    } else if (greyType == GreyscaleType.Green) {
+      return 1;
+    } else if (greyType == GreyscaleType.Blue) {
+      return 2;
+    }
+    return -1;
+  }
+
+  @Override
+  public void pipeline(String imageTitle, PointOperation operation, String dest)
+          throws IllegalArgumentException {
+    nullInputs(imageTitle, dest);
+    imageInStorage(imageTitle, "pipeline");
+    typeCheck(operation, "Point operation must not be null");
     // extracts the image from the storage
     this.operationSetup(imageTitle);
-    IPixel[][] original = this.image.getPixels();
-    IPixel[][] updated = new Pixel[this.height][this.width];
-
-    for (int i = 0; i < this.height; i++) {
-      for (int j = 0; j < this.width; j++) {
-        IPixel newPixel;
-        newPixel = original[i][j].greyscale(greyType);
-        updated[i][j] = newPixel;
+    Image source = this.image;
+    // every table is made first, so a step that cannot be applied saves nothing
+    LookupTable[] tables = new LookupTable[operation.size()];
+    for (int i = 0; i < tables.length; i++) {
+      tables[i] = operation.table(i, this.maxValue);
+    }
+    LookupTable fused = tables[0];
+    for (int i = 0; i < tables.length; i++) {
+      if (i > 0) {
+        fused = fused.then(tables[i]);
+      }
+      // only the steps saved under a name are kept, each one applying every step up to it
+      if (operation.savedAs(i) != null) {
+        LookupTable step = fused;
+        this.addImage(operation.savedAs(i), this.produce(this.width, this.height, this.maxValue,
+                source, tableOperation(source, step)));
+        this.derive(operation.savedAs(i), imageTitle, 0,
+                this.recipe(image -> tableOperation(image, step)));
       }
     }
-    this.addImage(dest, new ImageImpl(width, height, maxValue, updated));
+    LookupTable steps = fused;
+    this.addImage(dest, this.produce(this.width, this.height, this.maxValue, source,
+            tableOperation(source, steps)));
+    this.derive(dest, imageTitle, 0, this.recipe(image -> tableOperation(image, steps)));
   }
 
   @Override
@@ -122,77 +538,222 @@ public class ImageProcessorModelImpl implements ImageProcessorModel {
           throws IllegalArgumentException {
     nullInputs(imageTitle, dest);
     imageInStorage(imageTitle, "filtering");
+    typeCheck(filterType, "Filter type must not be null");
     // extracts the image from the storage
     this.operationSetup(imageTitle);
-    IPixel[][] original = this.image.getPixels();
-    IPixel[][] updated = new Pixel[this.height][this.width];
-    IPixel newPixel;
-    for (int i = 0; i < this.height; i++) {
-      for (int j = 0; j < this.width; j++) {
-        newPixel = this.blurOrSharpen(i, j, filterType, original);
-        updated[i][j] = newPixel;
-      }
+    Convolution convolution = filterConvolution(filterType);
+    this.addImage(dest, this.produce(this.width, this.height, this.maxValue, this.image,
+            convolutionOperation(this.image, convolution)));
+    this.derive(dest, imageTitle, convolution.radius(),
+            this.recipe(source -> convolutionOperation(source, convolution)));
+  }
+
+  @Override
+  public void filtering(String imageTitle, FilteringType filterType, Region region,
+                        String dest) throws IllegalArgumentException {
+    nullInputs(imageTitle, dest);
+    imageInStorage(imageTitle, "filtering");
+    typeCheck(filterType, "Filter type must not be null");
+    // extracts the image from the storage
+    this.operationSetup(imageTitle, region);
+    Convolution convolution = filterConvolution(filterType);
+    // the convolution reads the pixels around the region from the source itself
+    this.addImage(dest, this.produce(region, this.maxValue, this.image,
+            convolutionOperation(this.image, convolution)));
+  }
+
+  /**
+   * A helper function that makes the operation convolving every region of
+   * the given image, reading the pixels around the region it needs.
+   *
+   * @param source      the image to read
+   * @param convolution the convolution to apply
+   * @return the operation computing the regions of the result
+   */
+  static RegionOperation convolutionOperation(Image source, Convolution convolution) {
+    return (top, left, region) -> convolution.apply(source, top, left, region.getWidth(),
+        region.getHeight(), (row, red, green, blue) ->
+            region.setRow(row, 0, region.getWidth(), red, green, blue, 0));
+  }
+
+  @Override
+  public void gaussianBlur(String imageTitle, double sigma, String dest)
+          throws IllegalArgumentException {
+    nullInputs(imageTitle, dest);
+    imageInStorage(imageTitle, "gaussian blur");
+    // extracts the image from the storage
+    this.operationSetup(imageTitle);
+    this.addImage(dest, GaussianBlur.apply(this.image, sigma, this.executor));
+    this.derive(dest, imageTitle, GaussianBlur.radius(sigma),
+        (source, region) -> GaussianBlur.apply(source, sigma, region, this.executor));
+  }
+
+  @Override
+  public void gaussianBlur(String imageTitle, double sigma, Region region, String dest)
+          throws IllegalArgumentException {
+    nullInputs(imageTitle, dest);
+    imageInStorage(imageTitle, "gaussian blur");
+    // extracts the image from the storage
+    this.operationSetup(imageTitle, region);
+    this.addImage(dest, GaussianBlur.apply(this.image, sigma, region, this.executor));
+  }
+
+  @Override
+  public void boxBlur(String imageTitle, int radius, String dest)
+          throws IllegalArgumentException {
+    nullInputs(imageTitle, dest);
+    imageInStorage(imageTitle, "box blur");
+    radiusCheck(radius);
+    // extracts the image from the storage
+    this.operationSetup(imageTitle);
+    this.addImage(dest, this.produce(this.width, this.height, this.maxValue, this.image,
+            this.table(imageTitle).boxBlur(radius)));
+    // an update only sums the table of the part of the image around the changed region
+    this.derive(dest, imageTitle, radius,
+        (source, region) -> SummedAreaTable.boxBlur(source, radius, region, this.executor));
+  }
+
+  @Override
+  public void boxBlur(String imageTitle, int radius, Region region, String dest)
+          throws IllegalArgumentException {
+    nullInputs(imageTitle, dest);
+    imageInStorage(imageTitle, "box blur");
+    radiusCheck(radius);
+    // extracts the image from the storage
+    this.operationSetup(imageTitle, region);
+    this.addImage(dest, this.produce(region, this.maxValue, this.image,
+            this.table(imageTitle).boxBlur(radius)));
+  }
+
+  @Override
+  public double[] mean(String imageTitle, Region region) throws IllegalArgumentException {
+    typeCheck(imageTitle, "At least one parameter is null.");
+    imageInStorage(imageTitle, "find the mean of");
+    this.operationSetup(imageTitle, region);
+    return this.table(imageTitle).mean(region);
+  }
+
+  @Override
+  public double[] variance(String imageTitle, Region region) throws IllegalArgumentException {
+    typeCheck(imageTitle, "At least one parameter is null.");
+    imageInStorage(imageTitle, "find the variance of");
+    this.operationSetup(imageTitle, region);
+    return this.table(imageTitle).variance(region);
+  }
+
+  @Override
+  public Mask adaptiveThreshold(String imageTitle, int radius, int offset)
+          throws IllegalArgumentException {
+    typeCheck(imageTitle, "At least one parameter is null.");
+    imageInStorage(imageTitle, "threshold");
+    radiusCheck(radius);
+    return this.table(imageTitle).threshold(radius, offset);
+  }
+
+  @Override
+  public Histogram histogram(String imageTitle) throws IllegalArgumentException {
+    typeCheck(imageTitle, "At least one parameter is null.");
+    imageInStorage(imageTitle, "count");
+    return Histogram.of(this.images.get(imageTitle), null, this.executor);
+  }
+
+  /**
+   * A private helper function to get the summed-area table of the image of
+   * the given name, summing it the first time it is needed.
+   *
+   * @param imageTitle the name of the image, which is in the storage
+   * @return the summed-area table of the image
+   */
+  private SummedAreaTable table(String imageTitle) {
+    return this.tables.computeIfAbsent(imageTitle,
+        title -> new SummedAreaTable(this.images.get(title), this.executor));
+  }
+
+  /**
+   * Returns the summed-area table of the image of the given name, if it has been summed.
+   *
+   * @param imageTitle the name of the image
+   * @return the table, or null if the image has not been summed since it was stored
+   */
+  SummedAreaTable getTable(String imageTitle) {
+    return this.tables.get(imageTitle);
+  }
+
+  /**
+   * A private helper function to check the radius of a box.
+   *
+   * @param radius the radius of the box
+   * @throws IllegalArgumentException if the radius is negative
+   */
+  private static void radiusCheck(int radius) throws IllegalArgumentException {
+    if (radius < 0) {
+      throw new IllegalArgumentException("The radius must not be negative");
     }
-    this.addImage(dest, new ImageImpl(width, height, maxValue, updated));
+  }
+
+  @Override
+  public void convolve(String imageTitle, double[][] kernel, String dest)
+          throws IllegalArgumentException {
+    nullInputs(imageTitle, dest);
+    imageInStorage(imageTitle, "convolution");
+    // extracts the image from the storage
+    this.operationSetup(imageTitle);
+    ConvolutionPlan plan = ConvolutionPlan.of(kernel, Convolution.Border.CLAMP, this.maxValue);
+    this.addImage(dest, this.produce(this.width, this.height, this.maxValue, this.image,
+            planOperation(this.image, plan)));
+    this.derive(dest, imageTitle, Math.max(kernel.length, kernel[0].length) / 2,
+            this.recipe(source -> planOperation(source, plan)));
+  }
+
+  @Override
+  public void convolve(String imageTitle, double[][] kernel, Region region, String dest)
+          throws IllegalArgumentException {
+    nullInputs(imageTitle, dest);
+    imageInStorage(imageTitle, "convolution");
+    // extracts the image from the storage
+    this.operationSetup(imageTitle, region);
+    ConvolutionPlan plan = ConvolutionPlan.of(kernel, Convolution.Border.CLAMP, this.maxValue);
+    // the convolution reads the pixels around the region from the source itself
+    this.addImage(dest, this.produce(region, this.maxValue, this.image,
+            planOperation(this.image, plan)));
   }
 
   /**
-   * A private helper function that returns a new pixel with
-   * updated RGB channel values, based on its surrounding pixels'
-   * RBG values and the filter type. Appropriate kernel is applied
-   * to the pixel to update the channel value.
+   * A helper function that makes the operation convolving every region of
+   * the given image with a kernel, the way the given plan convolves it.
    *
-   * @param pixelRow   the row position of the pixel
-   * @param pixelCol   the column position of the pixel
-   * @param filterType the filter type of the pixel
-   * @param original   the original 2d array of pixels
-   * @return the new pixel with updated RBG values after filtering
+   * @param source the image to read
+   * @param plan   the plan of the convolution
+   * @return the operation computing the regions of the result
    */
-  protected IPixel blurOrSharpen(int pixelRow, int pixelCol,
-                                 FilteringType filterType, IPixel[][] original) {
-    int[][] kernel = new int[][]{};
-    int[][][] surrounding = new int[][][]{};
-    int newRed = 0;
-    int newGreen = 0;
-    int newBlue = 0;
+  static RegionOperation planOperation(Image source, ConvolutionPlan plan) {
+    return (top, left, region) -> plan.apply(source, top, left, region.getWidth(),
+        region.getHeight(), (row, red, green, blue) ->
+            region.setRow(row, 0, region.getWidth(), red, green, blue, 0));
+  }
 
+  /**
+   * A helper function that makes the convolution of a filter type. Each
+   * weighted value is rounded towards 0 before they are added up, and the
+   * surrounding pixels outside the image count as 0.
+   *
+   * @param filterType the type of the filter
+   * @return the convolution applying the filter
+   */
+  static Convolution filterConvolution(FilteringType filterType) {
+    double[][] weights;
     if (filterType == FilteringType.Blur) {
-      kernel = new int[][]{{16, 8, 16}, {8, 4, 8}, {16, 8, 16}};
-      surrounding = new int[][][]{{{-1, -1}, {-1, 0}, {-1, 1}}, {{0, -1}, {0, 0}, {0, 1}},
-              {{1, -1}, {1, 0}, {1, 1}}};
-    } else if (filterType == FilteringType.Sharpen) {
-      kernel = new int[][]{{-8, -8, -8, -8, -8}, {-8, 4, 4, 4, -8}, {-8, 4, 1, 4, -8},
-              {-8, 4, 4, 4, -8}, {-8, -8, -8, -8, -8}};
-      surrounding = new int[][][]{{{-2, -2}, {-2, -1}, {-2, 0}, {-2, 1}, {-2, 2}},
-              {{-2, -2}, {-1, -1}, {-1, 0}, {-1, 1}, {-1, 2}},
-              {{0, -2}, {0, -1}, {0, 0}, {0, 1}, {0, 2}},
-              {{1, -2}, {1, -1}, {1, 0}, {1, 1}, {1, 2}},
-              {{2, -2}, {2, -1}, {2, 0}, {2, 1}, {2, 2}}};
-    }
-    for (int i = 0; i < kernel.length; i++) {
-      for (int j = 0; j < kernel.length; j++) {
-        try {
-          newRed += (original[pixelRow + surrounding[i][j][0]][pixelCol
-                  + surrounding[i][j][1]].getRed()) / kernel[i][j];
-        } catch (ArrayIndexOutOfBoundsException e) {
-          newRed += 0;
-        }
-        try {
-          newGreen += (original[pixelRow + surrounding[i][j][0]][pixelCol
-                  + surrounding[i][j][1]].getGreen()) / kernel[i][j];
-        } catch (ArrayIndexOutOfBoundsException e) {
-          newGreen += 0;
-        }
-        try {
-          newBlue += (original[pixelRow + surrounding[i][j][0]][pixelCol
-                  + surrounding[i][j][1]].getBlue()) / kernel[i][j];
-        } catch (ArrayIndexOutOfBoundsException e) {
-          newBlue += 0;
-        }
-      }
+      weights = new double[][]{{1 / 16.0, 1 / 8.0, 1 / 16.0}, {1 / 8.0, 1 / 4.0, 1 / 8.0},
+              {1 / 16.0, 1 / 8.0, 1 / 16.0}};
+    } else {
+      double edge = -1 / 8.0;
+      double near = 1 / 4.0;
+      weights = new double[][]{{edge, edge, edge, edge, edge}, {edge, near, near, near, edge},
+              {edge, near, 1, near, edge}, {edge, near, near, near, edge},
+              {edge, edge, edge, edge, edge}};
     }
-    return new Pixel(Math.max(0, Math.min(newRed, 255)), Math.max(0, Math.min(newGreen, 255)),
-            Math.max(0, Math.min(newBlue, 255)));
+    return new Convolution(Kernel.of(weights, Kernel.Precision.TRUNCATED_TAPS),
+            Convolution.Border.ZERO, 255);
   }
 
   @Override
@@ -200,79 +761,107 @@ public class ImageProcessorModelImpl implements ImageProcessorModel {
           throws IllegalArgumentException {
     nullInputs(imageTitle, dest);
     imageInStorage(imageTitle, "color transformation");
+    typeCheck(colorType, "Color transformation type must not be null");
     // extracts the image from the storage
     this.operationSetup(imageTitle);
-    IPixel[][] original = this.image.getPixels();
-    IPixel[][] updated = new Pixel[this.height][this.width];
+    LookupTable table = LookupTable.colorTransformation(colorType, this.maxValue);
+    this.addImage(dest, this.produce(this.width, this.height, this.maxValue, this.image,
+            tableOperation(this.image, table)));
+    this.derive(dest, imageTitle, 0, this.recipe(source -> tableOperation(source, table)));
+  }
 
-    for (int i = 0; i < this.height; i++) {
-      for (int j = 0; j < this.width; j++) {
-        IPixel newPixel = original[i][j].colorTrans(colorType);
-        updated[i][j] = newPixel;
-      }
-    }
-    this.addImage(dest, new ImageImpl(width, height, maxValue, updated));
+  @Override
+  public void colorTransformation(String imageTitle, ColorTransType colorType, Region region,
+                                  String dest) throws IllegalArgumentException {
+    nullInputs(imageTitle, dest);
+    imageInStorage(imageTitle, "color transformation");
+    typeCheck(colorType, "Color transformation type must not be null");
+    // extracts the image from the storage
+    this.operationSetup(imageTitle, region);
+    LookupTable table = LookupTable.colorTransformation(colorType, this.maxValue);
+    this.addImage(dest, this.produce(region, this.maxValue, this.image,
+            tableOperation(this.image, table)));
   }
 
   @Override
   public void downscale(String imageTitle, double width, double height, String dest)
           throws IllegalArgumentException {
+    this.downscale(imageTitle, width, height, DownscaleType.Bilinear, dest);
+  }
+
+  @Override
+  public void downscale(String imageTitle, double width, double height,
+                        DownscaleType downscaleType, String dest)
+          throws IllegalArgumentException {
     nullInputs(imageTitle, dest);
     imageInStorage(imageTitle, "downscale");
+    typeCheck(downscaleType, "Downscale type must not be null");
     // extracts the image from the storage
     this.operationSetup(imageTitle);
     int newWidth = (int) Math.floor(this.image.getWidth() * width);
     int newHeight = (int) Math.floor(this.image.getHeight() * height);
-    Pixel[][] updated = new Pixel[newHeight][newWidth];
-    IPixel pixel2;
-    IPixel pixel3;
-    IPixel pixel4;
-
-    for (int i = 0; i < newHeight; i++) {
-      for (int j = 0; j < newWidth; j++) {
-        double row = i * (1.0 / height);
-        double column = j * (1.0 / width);
-        IPixel pixel1 = this.image.getPixelAt((int) Math.floor(row), (int) Math.floor(column));
-        try {
-          pixel2 = this.image.getPixelAt((int) Math.floor(row) + 1, (int) Math.floor(column));
-        } catch (ArrayIndexOutOfBoundsException e) {
-          pixel2 = this.image.getPixelAt((int) Math.ceil(row), (int) Math.floor(column));
-        }
-        try {
-          pixel3 = this.image.getPixelAt((int) Math.floor(row), (int) Math.floor(column) + 1);
-        } catch (ArrayIndexOutOfBoundsException e) {
-          pixel3 = this.image.getPixelAt((int) Math.floor(row), (int) Math.ceil(column));
-        }
-        try {
-          pixel4 = this.image.getPixelAt((int) Math.floor(row) + 1,
-                  (int) Math.floor(column) + 1);
-        } catch (ArrayIndexOutOfBoundsException e) {
-          pixel4 = this.image.getPixelAt((int) Math.ceil(row), (int) Math.ceil(column));
-        }
-        int[] pixel1Values = pixel1.getValues();
-        int[] pixel2Values = pixel2.getValues();
-        int[] pixel3Values = pixel3.getValues();
-        int[] pixel4Values = pixel4.getValues();
-        int[] rgbSum = new int[3];
-
-        for (int k = 0; k <= 2; k++) {
-          double value1 = (pixel2Values[k] * (row - Math.floor(row))) + (pixel1Values[k]
-                  * ((Math.floor(row) + 1) - row));
-          double value2 = (pixel4Values[k] * (row - Math.floor(row))) + (pixel3Values[k]
-                  * ((Math.floor(row) + 1) - row));
-          int computation = (int) ((value2 * (column - Math.floor(column))) + (value1
-                  * ((Math.floor(column) + 1) - column)));
-          rgbSum[k] = computation;
-        }
-        for (int k = 0; k < 3; k++) {
-          if (rgbSum[k] > this.maxValue) {
-            rgbSum[k] = this.maxValue;
-          }
-        }
-        updated[i][j] = new Pixel(rgbSum[0], rgbSum[1], rgbSum[2]);
-      }
+    WritableImage updated = this.newImage(newWidth, newHeight, this.maxValue);
+    // area starts from the smallest level of the pyramid of the image as large as the result,
+    // and bilinear, which only blends four pixels, from the smallest one twice as large
+    Pyramid pyramid = this.pyramids.computeIfAbsent(imageTitle,
+        title -> new Pyramid(this.images.get(title), this.executor));
+    Image start = downscaleType == DownscaleType.Area ? pyramid.atLeast(newWidth, newHeight)
+            : pyramid.atLeast(2 * newWidth, 2 * newHeight);
+    Downscale.apply(start, width * this.width / start.getWidth(),
+            height * this.height / start.getHeight(), downscaleType, updated, this.executor);
+    this.addImage(dest, updated);
+  }
+
+  /**
+   * Returns the pyramid of the image of the given name, if it has been made.
+   *
+   * @param imageTitle the name of the image
+   * @return the pyramid, or null if the image has not been downscaled since it was stored
+   */
+  Pyramid getPyramid(String imageTitle) {
+    return this.pyramids.get(imageTitle);
+  }
+
+  @Override
+  public void resize(String imageTitle, int width, int height, ResizeType resizeType,
+                     String dest) throws IllegalArgumentException {
+    nullInputs(imageTitle, dest);
+    imageInStorage(imageTitle, "resize");
+    typeCheck(resizeType, "Resize type must not be null");
+    if (width < 1 || height < 1) {
+      throw new IllegalArgumentException("Width and height must be positive");
+    }
+    // extracts the image from the storage
+    this.operationSetup(imageTitle);
+    WritableImage updated = this.newImage(width, height, this.maxValue);
+    Resize.apply(this.image, resizeType, updated, this.executor);
+    this.addImage(dest, updated);
+  }
+
+  /**
+   * A helper function to determine if the maximum value of an image
+   * allows it to be brightened, the same way {@link IPixel#brighten(int, int)} does.
+   *
+   * @param maxValue the maximum value of the image
+   * @throws IllegalArgumentException if the maximum value is less than 1
+   */
+  static void maxValueCheck(int maxValue) throws IllegalArgumentException {
+    if (maxValue < 1) {
+      throw new IllegalArgumentException("MaxValue should be greater 1");
+    }
+  }
+
+  /**
+   * A helper function to determine if the type of an operation is null.
+   *
+   * @param type    the type of the operation
+   * @param message the message of the exception
+   * @throws IllegalArgumentException if the type is null
+   */
+  static void typeCheck(Object type, String message) throws IllegalArgumentException {
+    if (type == null) {
+      throw new IllegalArgumentException(message);
     }
-    this.addImage(dest, new ImageImpl(newWidth, newHeight, maxValue, updated));
   }
 
   /**
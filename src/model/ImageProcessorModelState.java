@@ -32,6 +32,20 @@ public interface ImageProcessorModelState {
    */
   enum ColorTransType { Greyscale, Sepia }
 
+  /**
+   * This enum represents the types of downscaling. There are two types,
+   * Bilinear, which blends the four pixels around each position, and Area,
+   * which averages every pixel each resulting pixel covers.
+   */
+  enum DownscaleType { Bilinear, Area }
+
+  /**
+   * This enum represents the filters of resizing. There are four types,
+   * Nearest, which takes the closest pixel, and Bilinear, Bicubic, and
+   * Lanczos, which weigh the pixels within one, two, and three pixels.
+   */
+  enum ResizeType { Nearest, Bilinear, Bicubic, Lanczos }
+
   /**
    * Retrieves the model's loaded images. Gets a copy of
    * the images instead of the actual images.
@@ -0,0 +1,317 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * A convolution kernel, holding the weight of every surrounding pixel around
+ * the pixel being computed, which sits at the center of the kernel. The
+ * weights are worked out once when the kernel is made, in the precision the
+ * kernel sums them in:
+ * <ul>
+ *   <li>{@link Precision#FLOAT} sums the weighted values as doubles and rounds the sum.</li>
+ *   <li>{@link Precision#FIXED_POINT} sums them as integers scaled by 2^16 and rounds the sum,
+ *   which avoids floating-point arithmetic altogether.</li>
+ *   <li>{@link Precision#TRUNCATED_TAPS} drops the fraction of every weighted value before
+ *   summing them, which is how the blur and sharpen filters have always been computed.</li>
+ * </ul>
+ *
+ * <p>With the {@link Backend#VECTOR} backend, a row is computed one weight
+ * at a time, adding the weighted row under that weight to the sums of the
+ * whole row, which the compiler turns into SIMD instructions. The weighted
+ * values of every position are still added in the same order, so the
+ * results are exactly the same.
+ */
+final class Kernel {
+  static final int FIXED_POINT_SHIFT = 16;
+
+  /**
+   * The ways the weighted values of a kernel are summed up.
+   */
+  enum Precision { FLOAT, FIXED_POINT, TRUNCATED_TAPS }
+
+  private final int rows;
+  private final int cols;
+  private final Precision precision;
+  private final Backend backend;
+  private final double[] weights;
+  private final long[] fixedWeights;
+
+  /**
+   * A private constructor for a kernel of the given weights.
+   *
+   * @param rows      the number of rows
+   * @param cols      the number of columns
+   * @param weights   the weights in row-major order
+   * @param precision how the weighted values are summed
+   * @param backend   the backend to run the kernel with
+   */
+  private Kernel(int rows, int cols, double[] weights, Precision precision, Backend backend) {
+    this.rows = rows;
+    this.cols = cols;
+    this.weights = weights;
+    this.precision = precision;
+    this.backend = backend;
+    this.fixedWeights = new long[weights.length];
+    for (int i = 0; i < weights.length; i++) {
+      this.fixedWeights[i] = Math.round(weights[i] * (1 << FIXED_POINT_SHIFT));
+    }
+  }
+
+  /**
+   * Makes a kernel of the given weights, whose first index is the row.
+   *
+   * @param weights   the weights, with an odd number of rows and columns
+   * @param precision how the weighted values are summed
+   * @return the kernel
+   * @throws IllegalArgumentException if the weights are null, empty, not rectangular,
+   *                                  or do not have an odd number of rows and columns
+   */
+  static Kernel of(double[][] weights, Precision precision) throws IllegalArgumentException {
+    return of(weights, precision, Backend.DEFAULT);
+  }
+
+  /**
+   * Makes a kernel of the given weights, whose first index is the row, run by the given backend.
+   *
+   * @param weights   the weights, with an odd number of rows and columns
+   * @param precision how the weighted values are summed
+   * @param backend   the backend to run the kernel with
+   * @return the kernel
+   * @throws IllegalArgumentException if the weights are null, empty, not rectangular,
+   *                                  or do not have an odd number of rows and columns
+   */
+  static Kernel of(double[][] weights, Precision precision, Backend backend)
+          throws IllegalArgumentException {
+    if (weights == null || precision == null || backend == null || weights.length == 0
+            || weights[0] == null) {
+      throw new IllegalArgumentException("The kernel must not be null or empty.");
+    }
+    int rows = weights.length;
+    int cols = weights[0].length;
+    if (rows % 2 == 0 || cols % 2 == 0) {
+      throw new IllegalArgumentException("The kernel must have an odd number of rows and columns.");
+    }
+    double[] flat = new double[rows * cols];
+    for (int i = 0; i < rows; i++) {
+      if (weights[i] == null || weights[i].length != cols) {
+        throw new IllegalArgumentException("The kernel must be rectangular.");
+      }
+      System.arraycopy(weights[i], 0, flat, i * cols, cols);
+    }
+    return new Kernel(rows, cols, flat, precision, backend);
+  }
+
+  /**
+   * Makes the same kernel whose weights are scaled to add up to 1, so that
+   * an area of a single color keeps its color.
+   *
+   * @return the normalized kernel
+   * @throws IllegalArgumentException if the weights add up to 0
+   */
+  Kernel normalized() throws IllegalArgumentException {
+    double sum = 0;
+    for (double weight : this.weights) {
+      sum += weight;
+    }
+    if (sum == 0) {
+      throw new IllegalArgumentException("The weights of the kernel must not add up to 0.");
+    }
+    double[] weights = new double[this.weights.length];
+    for (int i = 0; i < weights.length; i++) {
+      weights[i] = this.weights[i] / sum;
+    }
+    return new Kernel(this.rows, this.cols, weights, this.precision, this.backend);
+  }
+
+  /**
+   * Returns the number of rows of this kernel.
+   *
+   * @return the number of rows
+   */
+  int getRows() {
+    return this.rows;
+  }
+
+  /**
+   * Returns the number of columns of this kernel.
+   *
+   * @return the number of columns
+   */
+  int getCols() {
+    return this.cols;
+  }
+
+  /**
+   * Returns the weight at the given position of this kernel.
+   *
+   * @param row the row of the weight
+   * @param col the column of the weight
+   * @return the weight
+   */
+  double getWeight(int row, int col) {
+    return this.weights[row * this.cols + col];
+  }
+
+  /**
+   * Computes a single channel of a row of the result, reading the rows of the
+   * source under each row of the kernel. Each source row is padded on both
+   * sides by half of the kernel width, so no position is ever checked.
+   *
+   * @param padded the padded source rows under each row of the kernel
+   * @param dest   the array to write the resulting values into
+   * @param length the number of values to compute
+   * @param max    the largest resulting value
+   */
+  void apply(int[][] padded, int[] dest, int length, int max) {
+    if (this.backend == Backend.VECTOR) {
+      this.applyRows(padded, dest, length, max);
+      return;
+    }
+    switch (this.precision) {
+      case FLOAT:
+        this.applyFloat(padded, dest, length, max);
+        break;
+      case FIXED_POINT:
+        this.applyFixedPoint(padded, dest, length, max);
+        break;
+      default:
+        this.applyTruncatedTaps(padded, dest, length, max);
+        break;
+    }
+  }
+
+  /**
+   * A private helper function to compute a channel of a row summing doubles.
+   *
+   * @param padded the padded source rows under each row of the kernel
+   * @param dest   the array to write the resulting values into
+   * @param length the number of values to compute
+   * @param max    the largest resulting value
+   */
+  private void applyFloat(int[][] padded, int[] dest, int length, int max) {
+    for (int j = 0; j < length; j++) {
+      double sum = 0;
+      for (int i = 0, k = 0; i < this.rows; i++) {
+        int[] row = padded[i];
+        for (int c = 0; c < this.cols; c++, k++) {
+          sum += row[j + c] * this.weights[k];
+        }
+      }
+      dest[j] = clamp(Math.round(sum), max);
+    }
+  }
+
+  /**
+   * A private helper function to compute a channel of a row summing fixed-point integers.
+   *
+   * @param padded the padded source rows under each row of the kernel
+   * @param dest   the array to write the resulting values into
+   * @param length the number of values to compute
+   * @param max    the largest resulting value
+   */
+  private void applyFixedPoint(int[][] padded, int[] dest, int length, int max) {
+    long half = 1L << (FIXED_POINT_SHIFT - 1);
+    for (int j = 0; j < length; j++) {
+      long sum = half;
+      for (int i = 0, k = 0; i < this.rows; i++) {
+        int[] row = padded[i];
+        for (int c = 0; c < this.cols; c++, k++) {
+          sum += row[j + c] * this.fixedWeights[k];
+        }
+      }
+      dest[j] = clamp(sum >> FIXED_POINT_SHIFT, max);
+    }
+  }
+
+  /**
+   * A private helper function to compute a channel of a row dropping the
+   * fraction of every weighted value.
+   *
+   * @param padded the padded source rows under each row of the kernel
+   * @param dest   the array to write the resulting values into
+   * @param length the number of values to compute
+   * @param max    the largest resulting value
+   */
+  private void applyTruncatedTaps(int[][] padded, int[] dest, int length, int max) {
+    for (int j = 0; j < length; j++) {
+      long sum = 0;
+      for (int i = 0, k = 0; i < this.rows; i++) {
+        int[] row = padded[i];
+        for (int c = 0; c < this.cols; c++, k++) {
+          sum += (long) (row[j + c] * this.weights[k]);
+        }
+      }
+      dest[j] = clamp(sum, max);
+    }
+  }
+
+  /**
+   * A private helper function to compute a channel of a row one weight at a
+   * time, over the whole row, in any precision.
+   *
+   * @param padded the padded source rows under each row of the kernel
+   * @param dest   the array to write the resulting values into
+   * @param length the number of values to compute
+   * @param max    the largest resulting value
+   */
+  private void applyRows(int[][] padded, int[] dest, int length, int max) {
+    // each padded row is converted once, rather than under every weight
+    int paddedLength = length + this.cols - 1;
+    if (this.precision == Precision.FIXED_POINT) {
+      long[] sums = new long[length];
+      long[] row = new long[paddedLength];
+      Arrays.fill(sums, 1L << (FIXED_POINT_SHIFT - 1));
+      for (int i = 0, k = 0; i < this.rows; i++) {
+        int[] values = padded[i];
+        for (int j = 0; j < paddedLength; j++) {
+          row[j] = values[j];
+        }
+        for (int c = 0; c < this.cols; c++, k++) {
+          long weight = this.fixedWeights[k];
+          for (int j = 0; j < length; j++) {
+            sums[j] += row[j + c] * weight;
+          }
+        }
+      }
+      for (int j = 0; j < length; j++) {
+        dest[j] = clamp(sums[j] >> FIXED_POINT_SHIFT, max);
+      }
+      return;
+    }
+    boolean truncated = this.precision == Precision.TRUNCATED_TAPS;
+    double[] sums = new double[length];
+    double[] row = new double[paddedLength];
+    for (int i = 0, k = 0; i < this.rows; i++) {
+      int[] values = padded[i];
+      for (int j = 0; j < paddedLength; j++) {
+        row[j] = values[j];
+      }
+      for (int c = 0; c < this.cols; c++, k++) {
+        double weight = this.weights[k];
+        if (truncated) {
+          for (int j = 0; j < length; j++) {
+            sums[j] += (long) (row[j + c] * weight);
+          }
+        } else {
+          for (int j = 0; j < length; j++) {
+            sums[j] += row[j + c] * weight;
+          }
+        }
+      }
+    }
+    for (int j = 0; j < length; j++) {
+      dest[j] = clamp(Math.round(sums[j]), max);
+    }
+  }
+
+  /**
+   * A private helper function to keep a value between 0 and the given maximum.
+   *
+   * @param value the value
+   * @param max   the largest value
+   * @return the value kept between 0 and the maximum
+   */
+  private static int clamp(long value, int max) {
+    return (int) Math.max(0, Math.min(value, max));
+  }
+}
@@ -0,0 +1,614 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A model that records every operation in a graph instead of running it right
+ * away. Each operation becomes a node reading the node or the stored image its
+ * image came from, and the node is only run once its image is asked for with
+ * getImage, which is also how the controllers save and show images. Images that
+ * are replaced before anything asks for them are never made, unless another
+ * asked image was made from them. Asking for every image at once runs
+ * independent nodes in parallel.
+ *
+ * <p>An operation still checks its parameters and whether its image exists
+ * when it is called. Other problems, such as cropping outside of the image or
+ * a mask of the wrong size, are only found when the node runs, in which case
+ * getImage throws the exception the operation would have thrown, and the
+ * image is not saved.
+ */
+public class LazyMaskProcessorModelImpl extends MaskProcessorModelImpl {
+  private static final String SOURCE = "source";
+  private static final String RESULT = "result";
+
+  // the operations whose images have not been asked for yet, by the name they are saved under
+  private final Map<String, Node> pending = new HashMap<>();
+
+  /**
+   * Constructs a lazy model, whose operations run in parallel on every available processor.
+   */
+  public LazyMaskProcessorModelImpl() {
+    super(BandExecutor.DEFAULT);
+  }
+
+  /**
+   * Constructs a lazy model whose operations run on the given number of threads, the same
+   * way as {@link ImageProcessorModelImpl#ImageProcessorModelImpl(int, int)}.
+   *
+   * @param parallelism      the number of threads, or 1 to never run in parallel
+   * @param sequentialPixels the number of pixels under which a band is not split any further
+   * @throws IllegalArgumentException if the parallelism or the cutoff is not positive
+   */
+  public LazyMaskProcessorModelImpl(int parallelism, int sequentialPixels)
+          throws IllegalArgumentException {
+    super(new BandExecutor(parallelism, sequentialPixels));
+  }
+
+  /**
+   * An operation of a node, run on a model holding the image it reads.
+   */
+  @FunctionalInterface
+  private interface Step {
+
+    /**
+     * Runs the operation on the given model.
+     *
+     * @param model  the model to run the operation on
+     * @param source the name of the image to read
+     * @param dest   the name to save the result under
+     * @throws IllegalArgumentException if the operation cannot be run on the image
+     */
+    void run(MaskProcessorModel model, String source, String dest)
+            throws IllegalArgumentException;
+  }
+
+  /**
+   * A node of the graph, which is either an image that already exists, or an
+   * operation reading the image of another node. Once the image of an
+   * operation is made, the node keeps it and lets go of the node it read.
+   */
+  private static final class Node {
+    private Node input;
+    private Step step;
+    private volatile Image image;
+
+    /**
+     * Constructs a node of an image that already exists.
+     *
+     * @param image the image
+     */
+    private Node(Image image) {
+      this.image = image;
+    }
+
+    /**
+     * Constructs a node of an operation.
+     *
+     * @param input the node whose image the operation reads
+     * @param step  the operation
+     */
+    private Node(Node input, Step step) {
+      this.input = input;
+      this.step = step;
+    }
+
+    /**
+     * Makes the image of this node, making the images it reads first. The
+     * operation runs on a model of its own, so nodes run in parallel never
+     * share the fields of a model.
+     *
+     * @param executor the executor to run the operation on
+     * @return the image of this node
+     * @throws IllegalArgumentException if the operation cannot be run on its image
+     */
+    private Image evaluate(BandExecutor executor) throws IllegalArgumentException {
+      Image image = this.image;
+      if (image != null) {
+        return image;
+      }
+      synchronized (this) {
+        if (this.image == null) {
+          MaskProcessorModelImpl worker = new MaskProcessorModelImpl(executor);
+          worker.addImage(SOURCE, this.input.evaluate(executor));
+          this.step.run(worker, SOURCE, RESULT);
+          this.image = worker.getImage(RESULT);
+          this.input = null;
+          this.step = null;
+        }
+        return this.image;
+      }
+    }
+
+    /**
+     * Determines whether the image of this node reads the given image, or
+     * would read it once it is made.
+     *
+     * @param other the image to look for
+     * @return true if the image of this node may read the given image
+     */
+    private synchronized boolean dependsOn(Image other) {
+      if (this.image != null) {
+        return AbstractImage.dependsOn(this.image, other);
+      }
+      return this.input.dependsOn(other);
+    }
+  }
+
+  /**
+   * A private helper function to record an operation saving its image under
+   * the given name, once its parameters have been checked.
+   *
+   * @param imageTitle   the name of the image to read
+   * @param dest         the name to save the image under
+   * @param errorMessage the name of the operation used in the error message
+   * @param step         the operation
+   * @throws IllegalArgumentException if a name is null, or the image cannot be found
+   */
+  private void record(String imageTitle, String dest, String errorMessage, Step step)
+          throws IllegalArgumentException {
+    if (imageTitle == null || dest == null) {
+      throw new IllegalArgumentException("At least one parameter is null.");
+    }
+    Node input = this.pending.get(imageTitle);
+    if (input == null) {
+      this.imageInStorage(imageTitle, errorMessage);
+      input = new Node(this.images.get(imageTitle));
+    }
+    this.pending.put(dest, new Node(input, step));
+  }
+
+  /**
+   * A private helper function to copy the rows of a mask given as pixels,
+   * since the mask is only used once the image is read. The pixels cannot be
+   * changed, so they are shared.
+   *
+   * @param mask the pixels of the mask, whose first index is the row
+   * @return the copy
+   */
+  private static IPixel[][] copy(IPixel[][] mask) {
+    IPixel[][] copy = new IPixel[mask.length][];
+    for (int i = 0; i < mask.length; i++) {
+      copy[i] = mask[i] == null ? null : mask[i].clone();
+    }
+    return copy;
+  }
+
+  /**
+   * A private helper function to make the images of the given names that have
+   * not been made yet, and save them. The images are made in parallel. An
+   * image that cannot be made is not saved, and the exception of the first
+   * one is thrown once every other image has been saved.
+   *
+   * @param titles the names of the images to make
+   * @throws IllegalArgumentException if an image cannot be made
+   */
+  private void force(Iterable<String> titles) throws IllegalArgumentException {
+    List<String> names = new ArrayList<>();
+    for (String title : titles) {
+      if (this.pending.containsKey(title)) {
+        names.add(title);
+      }
+    }
+    Node[] nodes = new Node[names.size()];
+    for (int i = 0; i < nodes.length; i++) {
+      nodes[i] = this.pending.get(names.get(i));
+    }
+    Image[] made = new Image[nodes.length];
+    RuntimeException[] failed = new RuntimeException[nodes.length];
+    // every node is a band of its own
+    this.executor.forEachBand(nodes.length, Long.MAX_VALUE, (from, to) -> {
+      for (int i = from; i < to; i++) {
+        try {
+          made[i] = nodes[i].evaluate(this.executor);
+        } catch (RuntimeException e) {
+          failed[i] = e;
+        }
+      }
+    });
+    RuntimeException first = null;
+    for (int i = 0; i < nodes.length; i++) {
+      this.pending.remove(names.get(i));
+      if (failed[i] == null) {
+        this.keepReadable(this.images.get(names.get(i)));
+        super.addImage(names.get(i), made[i]);
+      } else if (first == null) {
+        first = failed[i];
+      }
+    }
+    if (first != null) {
+      throw first;
+    }
+  }
+
+  /**
+   * A private helper function to make sure the images still to be made can
+   * be read after the given image leaves the storage. When it holds memory
+   * outside of the heap, that memory is freed, so every node that reads it is
+   * made and completed first.
+   *
+   * @param removed the image leaving the storage, or null if there is none
+   */
+  private void keepReadable(Image removed) {
+    if (AbstractImage.directParts(removed).isEmpty()) {
+      return;
+    }
+    Iterator<Node> nodes = this.pending.values().iterator();
+    while (nodes.hasNext()) {
+      Node node = nodes.next();
+      if (!node.dependsOn(removed)) {
+        continue;
+      }
+      try {
+        Image image = node.evaluate(this.executor);
+        if (image instanceof AbstractImage) {
+          ((AbstractImage) image).materialize();
+        }
+      } catch (IllegalArgumentException e) {
+        // an image that cannot be made would never be saved anyway
+        nodes.remove();
+      }
+    }
+  }
+
+  @Override
+  Collection<Image> keptImages() {
+    // the images made already by the nodes still to be saved, and by the nodes they read
+    List<Image> kept = new ArrayList<>(this.images.values());
+    for (Node node : this.pending.values()) {
+      for (Node read = node; read != null; read = read.input) {
+        Image image = read.image;
+        if (image != null) {
+          kept.add(image);
+        }
+      }
+    }
+    return kept;
+  }
+
+  /**
+   * Returns the number of images that have been asked for by an operation,
+   * but not made yet.
+   *
+   * @return the number of images still to be made
+   */
+  int pendingImages() {
+    return this.pending.size();
+  }
+
+  @Override
+  public Map<String, Image> getImage() {
+    this.force(new ArrayList<>(this.pending.keySet()));
+    return super.getImage();
+  }
+
+  @Override
+  public Image getImage(String imageTitle) {
+    this.force(Collections.singletonList(imageTitle));
+    return this.images.getOrDefault(imageTitle, null);
+  }
+
+  @Override
+  public void addImage(String imageTitle, Image image) {
+    this.pending.remove(imageTitle);
+    this.keepReadable(this.images.get(imageTitle));
+    super.addImage(imageTitle, image);
+  }
+
+  @Override
+  public void update(String imageTitle, Image image, Region changed)
+          throws IllegalArgumentException {
+    // the operations are recorded rather than run by this model, so the images made from
+    // this one, or still to be made from it, keep reading the version they were made from
+    this.force(Collections.singletonList(imageTitle));
+    this.keepReadable(this.images.get(imageTitle));
+    super.update(imageTitle, image, changed);
+  }
+
+  @Override
+  public double[] mean(String imageTitle, Region region) throws IllegalArgumentException {
+    this.force(Collections.singletonList(imageTitle));
+    return super.mean(imageTitle, region);
+  }
+
+  @Override
+  public double[] variance(String imageTitle, Region region) throws IllegalArgumentException {
+    this.force(Collections.singletonList(imageTitle));
+    return super.variance(imageTitle, region);
+  }
+
+  @Override
+  public Mask adaptiveThreshold(String imageTitle, int radius, int offset)
+          throws IllegalArgumentException {
+    this.force(Collections.singletonList(imageTitle));
+    return super.adaptiveThreshold(imageTitle, radius, offset);
+  }
+
+  @Override
+  public Histogram histogram(String imageTitle) throws IllegalArgumentException {
+    this.force(Collections.singletonList(imageTitle));
+    return super.histogram(imageTitle);
+  }
+
+  @Override
+  public Histogram histogram(String imageTitle, Mask mask) throws IllegalArgumentException {
+    this.force(Collections.singletonList(imageTitle));
+    return super.histogram(imageTitle, mask);
+  }
+
+  @Override
+  public void removeImage(String imageTitle) {
+    this.pending.remove(imageTitle);
+    this.keepReadable(this.images.get(imageTitle));
+    super.removeImage(imageTitle);
+  }
+
+  @Override
+  public void flip(String imageTitle, FlipType flipType, String dest)
+          throws IllegalArgumentException {
+    typeCheck(flipType, "Flip type must not be null");
+    this.record(imageTitle, dest, "flip",
+        (model, source, result) -> model.flip(source, flipType, result));
+  }
+
+  @Override
+  public void crop(String imageTitle, int row, int col, int width, int height, String dest)
+          throws IllegalArgumentException {
+    this.record(imageTitle, dest, "crop",
+        (model, source, result) -> model.crop(source, row, col, width, height, result));
+  }
+
+  @Override
+  public void transpose(String imageTitle, String dest) throws IllegalArgumentException {
+    this.record(imageTitle, dest, "transpose", MaskProcessorModel::transpose);
+  }
+
+  @Override
+  public void brighten(String imageTitle, int strength, String dest)
+          throws IllegalArgumentException {
+    this.record(imageTitle, dest, "brighten",
+        (model, source, result) -> model.brighten(source, strength, result));
+  }
+
+  @Override
+  public void multipleGreyscale(String imageTitle, GreyscaleType greyType, String dest)
+          throws IllegalArgumentException {
+    typeCheck(greyType, "Greyscale type must not be null");
+    this.record(imageTitle, dest, "to-greyscale",
+        (model, source, result) -> model.multipleGreyscale(source, greyType, result));
+  }
+
+  @Override
+  public void pipeline(String imageTitle, PointOperation operation, String dest)
+          throws IllegalArgumentException {
+    typeCheck(operation, "Point operation must not be null");
+    // a step saved under a name is recorded as an operation of its own
+    for (int i = 0; i < operation.size(); i++) {
+      if (operation.savedAs(i) != null) {
+        PointOperation saved = operation.prefix(i + 1);
+        this.record(imageTitle, operation.savedAs(i), "pipeline",
+            (model, source, result) -> model.pipeline(source, saved, result));
+      }
+    }
+    PointOperation steps = operation.prefix(operation.size());
+    this.record(imageTitle, dest, "pipeline",
+        (model, source, result) -> model.pipeline(source, steps, result));
+  }
+
+  @Override
+  public void filtering(String imageTitle, FilteringType filterType, String dest)
+          throws IllegalArgumentException {
+    typeCheck(filterType, "Filter type must not be null");
+    this.record(imageTitle, dest, "filtering",
+        (model, source, result) -> model.filtering(source, filterType, result));
+  }
+
+  @Override
+  public void gaussianBlur(String imageTitle, double sigma, String dest)
+          throws IllegalArgumentException {
+    GaussianBlur.sigmaCheck(sigma);
+    this.record(imageTitle, dest, "gaussian blur",
+        (model, source, result) -> model.gaussianBlur(source, sigma, result));
+  }
+
+  @Override
+  public void boxBlur(String imageTitle, int radius, String dest)
+          throws IllegalArgumentException {
+    if (radius < 0) {
+      throw new IllegalArgumentException("The radius must not be negative");
+    }
+    this.record(imageTitle, dest, "box blur",
+        (model, source, result) -> model.boxBlur(source, radius, result));
+  }
+
+  @Override
+  public void convolve(String imageTitle, double[][] kernel, String dest)
+          throws IllegalArgumentException {
+    Kernel.of(kernel, Kernel.Precision.FLOAT);
+    // copies the kernel, since it is only used once the image is read
+    double[][] weights = new double[kernel.length][];
+    for (int i = 0; i < kernel.length; i++) {
+      weights[i] = kernel[i].clone();
+    }
+    this.record(imageTitle, dest, "convolution",
+        (model, source, result) -> model.convolve(source, weights, result));
+  }
+
+  @Override
+  public void colorTransformation(String imageTitle, ColorTransType colorType, String dest)
+          throws IllegalArgumentException {
+    typeCheck(colorType, "Color transformation type must not be null");
+    this.record(imageTitle, dest, "color transformation",
+        (model, source, result) -> model.colorTransformation(source, colorType, result));
+  }
+
+  @Override
+  public void downscale(String imageTitle, double width, double height,
+                        DownscaleType downscaleType, String dest)
+          throws IllegalArgumentException {
+    typeCheck(downscaleType, "Downscale type must not be null");
+    this.record(imageTitle, dest, "downscale",
+        (model, source, result) -> model.downscale(source, width, height, downscaleType,
+            result));
+  }
+
+  @Override
+  public void resize(String imageTitle, int width, int height, ResizeType resizeType,
+                     String dest) throws IllegalArgumentException {
+    typeCheck(resizeType, "Resize type must not be null");
+    if (width < 1 || height < 1) {
+      throw new IllegalArgumentException("Width and height must be positive");
+    }
+    this.record(imageTitle, dest, "resize",
+        (model, source, result) -> model.resize(source, width, height, resizeType, result));
+  }
+
+  @Override
+  public void brighten(String imageTitle, int strength, IPixel[][] mask, String dest)
+          throws IllegalArgumentException {
+    typeCheck(mask, "At least one parameter is null");
+    IPixel[][] pixels = copy(mask);
+    this.record(imageTitle, dest, "brighten",
+        (model, source, result) -> model.brighten(source, strength, pixels, result));
+  }
+
+  @Override
+  public void multipleGreyscale(String imageTitle, GreyscaleType greyType,
+                                IPixel[][] mask, String dest) throws IllegalArgumentException {
+    typeCheck(mask, "At least one parameter is null");
+    typeCheck(greyType, "Greyscale type must not be null");
+    IPixel[][] pixels = copy(mask);
+    this.record(imageTitle, dest, "greyscale",
+        (model, source, result) -> model.multipleGreyscale(source, greyType, pixels, result));
+  }
+
+  @Override
+  public void filtering(String imageTitle, FilteringType filterType,
+                        IPixel[][] mask, String dest) throws IllegalArgumentException {
+    typeCheck(mask, "At least one parameter is null");
+    typeCheck(filterType, "Filter type must not be null");
+    IPixel[][] pixels = copy(mask);
+    this.record(imageTitle, dest, "filtering",
+        (model, source, result) -> model.filtering(source, filterType, pixels, result));
+  }
+
+  @Override
+  public void colorTransformation(String imageTitle, ColorTransType colorType,
+                                  IPixel[][] mask, String dest) throws IllegalArgumentException {
+    typeCheck(mask, "At least one parameter is null");
+    typeCheck(colorType, "Color transformation type must not be null");
+    IPixel[][] pixels = copy(mask);
+    this.record(imageTitle, dest, "color transformation",
+        (model, source, result) -> model.colorTransformation(source, colorType, pixels, result));
+  }
+
+  @Override
+  public void brighten(String imageTitle, int strength, Mask mask, String dest)
+          throws IllegalArgumentException {
+    typeCheck(mask, "At least one parameter is null");
+    this.record(imageTitle, dest, "brighten",
+        (model, source, result) -> model.brighten(source, strength, mask, result));
+  }
+
+  @Override
+  public void multipleGreyscale(String imageTitle, GreyscaleType greyType,
+                                Mask mask, String dest) throws IllegalArgumentException {
+    typeCheck(mask, "At least one parameter is null");
+    typeCheck(greyType, "Greyscale type must not be null");
+    this.record(imageTitle, dest, "greyscale",
+        (model, source, result) -> model.multipleGreyscale(source, greyType, mask, result));
+  }
+
+  @Override
+  public void filtering(String imageTitle, FilteringType filterType,
+                        Mask mask, String dest) throws IllegalArgumentException {
+    typeCheck(mask, "At least one parameter is null");
+    typeCheck(filterType, "Filter type must not be null");
+    this.record(imageTitle, dest, "filtering",
+        (model, source, result) -> model.filtering(source, filterType, mask, result));
+  }
+
+  @Override
+  public void colorTransformation(String imageTitle, ColorTransType colorType,
+                                  Mask mask, String dest) throws IllegalArgumentException {
+    typeCheck(mask, "At least one parameter is null");
+    typeCheck(colorType, "Color transformation type must not be null");
+    this.record(imageTitle, dest, "color transformation",
+        (model, source, result) -> model.colorTransformation(source, colorType, mask, result));
+  }
+
+  @Override
+  public void brighten(String imageTitle, int strength, Region region, String dest)
+          throws IllegalArgumentException {
+    typeCheck(region, "Region must not be null");
+    this.record(imageTitle, dest, "brighten",
+        (model, source, result) -> model.brighten(source, strength, region, result));
+  }
+
+  @Override
+  public void multipleGreyscale(String imageTitle, GreyscaleType greyType, Region region,
+                                String dest) throws IllegalArgumentException {
+    typeCheck(region, "Region must not be null");
+    typeCheck(greyType, "Greyscale type must not be null");
+    this.record(imageTitle, dest, "to-greyscale",
+        (model, source, result) -> model.multipleGreyscale(source, greyType, region, result));
+  }
+
+  @Override
+  public void filtering(String imageTitle, FilteringType filterType, Region region,
+                        String dest) throws IllegalArgumentException {
+    typeCheck(region, "Region must not be null");
+    typeCheck(filterType, "Filter type must not be null");
+    this.record(imageTitle, dest, "filtering",
+        (model, source, result) -> model.filtering(source, filterType, region, result));
+  }
+
+  @Override
+  public void gaussianBlur(String imageTitle, double sigma, Region region, String dest)
+          throws IllegalArgumentException {
+    typeCheck(region, "Region must not be null");
+    GaussianBlur.sigmaCheck(sigma);
+    this.record(imageTitle, dest, "gaussian blur",
+        (model, source, result) -> model.gaussianBlur(source, sigma, region, result));
+  }
+
+  @Override
+  public void boxBlur(String imageTitle, int radius, Region region, String dest)
+          throws IllegalArgumentException {
+    typeCheck(region, "Region must not be null");
+    if (radius < 0) {
+      throw new IllegalArgumentException("The radius must not be negative");
+    }
+    this.record(imageTitle, dest, "box blur",
+        (model, source, result) -> model.boxBlur(source, radius, region, result));
+  }
+
+  @Override
+  public void convolve(String imageTitle, double[][] kernel, Region region, String dest)
+          throws IllegalArgumentException {
+    typeCheck(region, "Region must not be null");
+    Kernel.of(kernel, Kernel.Precision.FLOAT);
+    // copies the kernel, since it is only used once the image is read
+    double[][] weights = new double[kernel.length][];
+    for (int i = 0; i < kernel.length; i++) {
+      weights[i] = kernel[i].clone();
+    }
+    this.record(imageTitle, dest, "convolution",
+        (model, source, result) -> model.convolve(source, weights, region, result));
+  }
+
+  @Override
+  public void colorTransformation(String imageTitle, ColorTransType colorType, Region region,
+                                  String dest) throws IllegalArgumentException {
+    typeCheck(region, "Region must not be null");
+    typeCheck(colorType, "Color transformation type must not be null");
+    this.record(imageTitle, dest, "color transformation",
+        (model, source, result) -> model.colorTransformation(source, colorType, region,
+            result));
+  }
+}
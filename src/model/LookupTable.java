@@ -0,0 +1,393 @@
+package model;
+
+import static model.ImageProcessorModelState.ColorTransType;
+import static model.ImageProcessorModelState.GreyscaleType;
+
+/**
+ * A point operation whose result for each pixel only depends on the red,
+ * green, and blue values of that pixel, such as brighten, greyscale, or a
+ * color transformation. The result of every channel value is computed once
+ * into a table when the operation is made, so applying it to a row is only
+ * a few table reads per pixel, without any floating-point multiplication.
+ *
+ * <p>The weighted sums of luma and sepia keep a table of the products of each
+ * weight, and add them up in the same order as {@link Pixel} does, so the
+ * results are exactly the same as computing every pixel on its own.
+ */
+abstract class LookupTable {
+  // the largest number of entries of a table, above which values are computed directly
+  static final int MAX_ENTRIES = 1 << 16;
+
+  /**
+   * Applies this operation in place to a row of channel values.
+   *
+   * @param red    the red channel values, replaced by the resulting red values
+   * @param green  the green channel values, replaced by the resulting green values
+   * @param blue   the blue channel values, replaced by the resulting blue values
+   * @param length the number of values to apply it to
+   */
+  abstract void apply(int[] red, int[] green, int[] blue, int length);
+
+  /**
+   * Makes the operation applying the given operation after this one. Both
+   * are applied to a row before it is written, so no image is made between
+   * them. Both must have been made for the same maximum value.
+   *
+   * @param next the operation to apply afterwards
+   * @return the combined operation
+   */
+  LookupTable then(LookupTable next) {
+    return new Chain(this, next);
+  }
+
+  /**
+   * A private helper function to find the number of entries a table needs for
+   * an image of the given maximum value. Filters and color transformations can
+   * write values up to 255 even when the maximum value is smaller, so the tables
+   * always cover them.
+   *
+   * @param maxValue the maximum value of the image
+   * @return the number of entries, or -1 if the tables would be too large
+   */
+  private static int entries(int maxValue) {
+    long entries = Math.max(maxValue, 255) + 1L;
+    return entries > MAX_ENTRIES ? -1 : (int) entries;
+  }
+
+  /**
+   * Makes the operation brightening or darkening every channel value.
+   *
+   * @param strength the amount to change the channel values by
+   * @param maxValue the maximum value of the image
+   * @return the operation
+   */
+  static LookupTable brighten(int strength, int maxValue) {
+    int entries = entries(maxValue);
+    if (entries < 0) {
+      return new Direct((red, green, blue, channel) -> Pixel.brightenChannel(
+              channel == 0 ? red : channel == 1 ? green : blue, strength, maxValue));
+    }
+    int[] table = new int[entries];
+    for (int value = 0; value < entries; value++) {
+      table[value] = Pixel.brightenChannel(value, strength, maxValue);
+    }
+    return new Channels(table, table, table);
+  }
+
+  /**
+   * Makes the operation visualizing the given greyscale component. A single
+   * channel, or the largest of the three, is read straight from the row
+   * without any table, whatever the maximum value.
+   *
+   * @param greyType the type of greyscale component
+   * @param maxValue the maximum value of the image
+   * @return the operation
+   */
+  static LookupTable greyscale(GreyscaleType greyType, int maxValue) {
+    if (greyType == GreyscaleType.Luma) {
+      return luma(maxValue);
+    }
+    switch (greyType) {
+      case Red:
+        return new Component(0);
+      case Green:
+        return new Component(1);
+      case Blue:
+        return new Component(2);
+      case Value:
+        return new Value();
+      default:
+        break;
+    }
+    if (greyType == GreyscaleType.Intensity) {
+      int entries = entries(maxValue);
+      if (entries >= 0) {
+        int[] table = new int[3 * entries];
+        for (int sum = 0; sum < table.length; sum++) {
+          table[sum] = sum / 3;
+        }
+        return new Intensity(table);
+      }
+    }
+    return new Direct((red, green, blue, channel) -> Pixel.greyValue(greyType, red, green, blue));
+  }
+
+  /**
+   * Makes the operation applying the given color transformation.
+   *
+   * @param colorType the type of the color transformation
+   * @param maxValue  the maximum value of the image
+   * @return the operation
+   */
+  static LookupTable colorTransformation(ColorTransType colorType, int maxValue) {
+    if (colorType == ColorTransType.Greyscale) {
+      return luma(maxValue);
+    }
+    int entries = entries(maxValue);
+    if (entries < 0) {
+      return new Direct((red, green, blue, channel) ->
+              Pixel.colorTransChannel(colorType, channel, red, green, blue));
+    }
+    return new Sepia(products(entries, 0.393), products(entries, 0.769),
+            products(entries, 0.189), products(entries, 0.349), products(entries, 0.686),
+            products(entries, 0.168), products(entries, 0.272), products(entries, 0.534),
+            products(entries, 0.131));
+  }
+
+  /**
+   * A private helper function to make the operation replacing every pixel by its luma.
+   *
+   * @param maxValue the maximum value of the image
+   * @return the operation
+   */
+  private static LookupTable luma(int maxValue) {
+    int entries = entries(maxValue);
+    if (entries < 0) {
+      return new Direct((red, green, blue, channel) -> Pixel.luma(red, green, blue));
+    }
+    return new Luma(products(entries, 0.2126), products(entries, 0.7152),
+            products(entries, 0.0722));
+  }
+
+  /**
+   * A private helper function to make a table of every channel value multiplied by a weight.
+   *
+   * @param entries the number of entries
+   * @param weight  the weight
+   * @return the table of products
+   */
+  private static double[] products(int entries, double weight) {
+    double[] table = new double[entries];
+    for (int value = 0; value < entries; value++) {
+      table[value] = value * weight;
+    }
+    return table;
+  }
+
+  /**
+   * An operation mapping each channel value through its own table.
+   */
+  private static final class Channels extends LookupTable {
+    private final int[] red;
+    private final int[] green;
+    private final int[] blue;
+
+    private Channels(int[] red, int[] green, int[] blue) {
+      this.red = red;
+      this.green = green;
+      this.blue = blue;
+    }
+
+    @Override
+    LookupTable then(LookupTable next) {
+      if (!(next instanceof Channels)) {
+        return super.then(next);
+      }
+      // two tables of single channels combine into a single table
+      Channels after = (Channels) next;
+      return new Channels(compose(this.red, after.red), compose(this.green, after.green),
+              compose(this.blue, after.blue));
+    }
+
+    /**
+     * A private helper function to make the table of a table followed by another.
+     *
+     * @param first  the table applied first
+     * @param second the table applied afterwards
+     * @return the combined table
+     */
+    private static int[] compose(int[] first, int[] second) {
+      int[] table = new int[first.length];
+      for (int value = 0; value < table.length; value++) {
+        table[value] = second[first[value]];
+      }
+      return table;
+    }
+
+    @Override
+    void apply(int[] red, int[] green, int[] blue, int length) {
+      for (int j = 0; j < length; j++) {
+        red[j] = this.red[red[j]];
+        green[j] = this.green[green[j]];
+        blue[j] = this.blue[blue[j]];
+      }
+    }
+  }
+
+  /**
+   * An operation replacing every pixel by one of its channel values.
+   */
+  private static final class Component extends LookupTable {
+    private final int channel;
+
+    private Component(int channel) {
+      this.channel = channel;
+    }
+
+    @Override
+    void apply(int[] red, int[] green, int[] blue, int length) {
+      int[] source = this.channel == 0 ? red : this.channel == 1 ? green : blue;
+      for (int[] channel : new int[][]{red, green, blue}) {
+        if (channel != source) {
+          System.arraycopy(source, 0, channel, 0, length);
+        }
+      }
+    }
+  }
+
+  /**
+   * An operation replacing every pixel by the largest of its channel values.
+   */
+  private static final class Value extends LookupTable {
+
+    @Override
+    void apply(int[] red, int[] green, int[] blue, int length) {
+      for (int j = 0; j < length; j++) {
+        int grey = Math.max(Math.max(red[j], green[j]), blue[j]);
+        red[j] = grey;
+        green[j] = grey;
+        blue[j] = grey;
+      }
+    }
+  }
+
+  /**
+   * An operation replacing every pixel by the average of its channel values.
+   */
+  private static final class Intensity extends LookupTable {
+    private final int[] third;
+
+    private Intensity(int[] third) {
+      this.third = third;
+    }
+
+    @Override
+    void apply(int[] red, int[] green, int[] blue, int length) {
+      for (int j = 0; j < length; j++) {
+        int grey = this.third[red[j] + green[j] + blue[j]];
+        red[j] = grey;
+        green[j] = grey;
+        blue[j] = grey;
+      }
+    }
+  }
+
+  /**
+   * An operation replacing every pixel by its luma.
+   */
+  private static final class Luma extends LookupTable {
+    private final double[] red;
+    private final double[] green;
+    private final double[] blue;
+
+    private Luma(double[] red, double[] green, double[] blue) {
+      this.red = red;
+      this.green = green;
+      this.blue = blue;
+    }
+
+    @Override
+    void apply(int[] red, int[] green, int[] blue, int length) {
+      for (int j = 0; j < length; j++) {
+        int grey = (int) (this.red[red[j]] + this.green[green[j]] + this.blue[blue[j]]);
+        red[j] = grey;
+        green[j] = grey;
+        blue[j] = grey;
+      }
+    }
+  }
+
+  /**
+   * An operation applying the sepia tone, where each resulting channel is
+   * the sum of the three tables of its weights, capped at 255.
+   */
+  private static final class Sepia extends LookupTable {
+    private final double[][] tables;
+
+    private Sepia(double[]... tables) {
+      this.tables = tables;
+    }
+
+    @Override
+    void apply(int[] red, int[] green, int[] blue, int length) {
+      double[] redByRed = this.tables[0];
+      double[] redByGreen = this.tables[1];
+      double[] redByBlue = this.tables[2];
+      double[] greenByRed = this.tables[3];
+      double[] greenByGreen = this.tables[4];
+      double[] greenByBlue = this.tables[5];
+      double[] blueByRed = this.tables[6];
+      double[] blueByGreen = this.tables[7];
+      double[] blueByBlue = this.tables[8];
+      for (int j = 0; j < length; j++) {
+        int r = red[j];
+        int g = green[j];
+        int b = blue[j];
+        red[j] = Math.min((int) (redByRed[r] + redByGreen[g] + redByBlue[b]), 255);
+        green[j] = Math.min((int) (greenByRed[r] + greenByGreen[g] + greenByBlue[b]), 255);
+        blue[j] = Math.min((int) (blueByRed[r] + blueByGreen[g] + blueByBlue[b]), 255);
+      }
+    }
+  }
+
+  /**
+   * An operation applying two operations one after the other.
+   */
+  private static final class Chain extends LookupTable {
+    private final LookupTable first;
+    private final LookupTable second;
+
+    private Chain(LookupTable first, LookupTable second) {
+      this.first = first;
+      this.second = second;
+    }
+
+    @Override
+    void apply(int[] red, int[] green, int[] blue, int length) {
+      this.first.apply(red, green, blue, length);
+      this.second.apply(red, green, blue, length);
+    }
+  }
+
+  /**
+   * A function computing a single resulting channel value of a pixel.
+   */
+  @FunctionalInterface
+  private interface ChannelFunction {
+
+    /**
+     * Computes a resulting channel value of a pixel.
+     *
+     * @param red     the red channel value
+     * @param green   the green channel value
+     * @param blue    the blue channel value
+     * @param channel the channel to compute: 0 for red, 1 for green, and 2 for blue
+     * @return the resulting channel value
+     */
+    int compute(int red, int green, int blue, int channel);
+  }
+
+  /**
+   * An operation computing every value directly, used when the maximum
+   * value of the image is too large for its tables to be worth keeping.
+   */
+  private static final class Direct extends LookupTable {
+    private final ChannelFunction function;
+
+    private Direct(ChannelFunction function) {
+      this.function = function;
+    }
+
+    @Override
+    void apply(int[] red, int[] green, int[] blue, int length) {
+      for (int j = 0; j < length; j++) {
+        int r = red[j];
+        int g = green[j];
+        int b = blue[j];
+        red[j] = this.function.compute(r, g, b, 0);
+        green[j] = this.function.compute(r, g, b, 1);
+        blue[j] = this.function.compute(r, g, b, 2);
+      }
+    }
+  }
+}
@@ -0,0 +1,402 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * A mask selecting some pixels of an image, stored as one bit per pixel,
+ * 64 pixels to a long, with every row starting on a long of its own. A mask
+ * image selects the pixels where its red value is less than
+ * {@value #THRESHOLD}, the same way the masks of {@link MaskProcessorModel}
+ * given as pixels do, but takes 1 bit per pixel instead of a pixel object,
+ * so a mask of 24 megapixels takes 3 megabytes. Masks are immutable, and
+ * combining them works on whole longs at a time.
+ */
+public final class Mask {
+  // the red value of a mask image under which a pixel is selected
+  static final int THRESHOLD = 200;
+
+  private final int width;
+  private final int height;
+  private final int wordsPerRow;
+  private final long[] words;
+
+  /**
+   * A private constructor for the given bits.
+   *
+   * @param width  the width of the mask
+   * @param height the height of the mask
+   * @param words  the bits of every row, each row starting on a long of its own
+   */
+  private Mask(int width, int height, long[] words) {
+    this.width = width;
+    this.height = height;
+    this.wordsPerRow = (width + 63) >>> 6;
+    this.words = words;
+  }
+
+  /**
+   * Constructs a mask of the given size selecting no pixel.
+   *
+   * @param width  the width of the mask
+   * @param height the height of the mask
+   * @throws IllegalArgumentException if the width or the height is negative
+   */
+  public Mask(int width, int height) throws IllegalArgumentException {
+    this(width, height, new long[checkSize(width, height)]);
+  }
+
+  /**
+   * A private helper function to check the size of a mask.
+   *
+   * @param width  the width of the mask
+   * @param height the height of the mask
+   * @return the number of longs holding the bits of the mask
+   * @throws IllegalArgumentException if the width or the height is negative
+   */
+  private static int checkSize(int width, int height) throws IllegalArgumentException {
+    if (width < 0 || height < 0) {
+      throw new IllegalArgumentException("The width and height of a mask must not be negative");
+    }
+    return Math.multiplyExact((width + 63) >>> 6, height);
+  }
+
+  /**
+   * Makes a mask of the given size selecting every pixel.
+   *
+   * @param width  the width of the mask
+   * @param height the height of the mask
+   * @return the mask
+   * @throws IllegalArgumentException if the width or the height is negative
+   */
+  public static Mask all(int width, int height) throws IllegalArgumentException {
+    return new Mask(width, height).invert();
+  }
+
+  /**
+   * Makes a mask of the given size selecting a rectangle, such as the part
+   * of an image selected in the GUI. The parts of the rectangle outside of
+   * the mask are left out.
+   *
+   * @param width      the width of the mask
+   * @param height     the height of the mask
+   * @param top        the row position of the rectangle
+   * @param left       the column position of the rectangle
+   * @param rectWidth  the width of the rectangle
+   * @param rectHeight the height of the rectangle
+   * @return the mask
+   * @throws IllegalArgumentException if the width or the height of the mask is negative
+   */
+  public static Mask rectangle(int width, int height, int top, int left,
+                               int rectWidth, int rectHeight) throws IllegalArgumentException {
+    Mask mask = new Mask(width, height);
+    int from = Math.max(0, left);
+    int to = (int) Math.min(width, (long) left + Math.max(0, rectWidth));
+    for (int i = Math.max(0, top); i < Math.min(height, (long) top + rectHeight); i++) {
+      mask.setRun(i, from, to);
+    }
+    return mask;
+  }
+
+  /**
+   * Makes the mask of a mask image given as pixels.
+   *
+   * @param pixels the pixels of the mask image, whose first index is the row
+   * @return the mask
+   * @throws IllegalArgumentException if the pixels are null or their rows are not all as wide
+   */
+  public static Mask of(IPixel[][] pixels) throws IllegalArgumentException {
+    if (pixels == null) {
+      throw new IllegalArgumentException("The mask must not be null");
+    }
+    return of(pixels, pixels.length == 0 || pixels[0] == null ? 0 : pixels[0].length);
+  }
+
+  /**
+   * Makes the mask of the given width of a mask image given as pixels,
+   * leaving out the columns of the pixels past the width.
+   *
+   * @param pixels the pixels of the mask image, whose first index is the row
+   * @param width  the width of the mask
+   * @return the mask
+   * @throws IllegalArgumentException if a row of the pixels is narrower than the width
+   */
+  static Mask of(IPixel[][] pixels, int width) throws IllegalArgumentException {
+    Mask mask = new Mask(width, pixels.length);
+    for (int i = 0; i < pixels.length; i++) {
+      if (pixels[i] == null || pixels[i].length < width) {
+        throw new IllegalArgumentException("The mask size must be the same with the image size");
+      }
+      int base = i * mask.wordsPerRow;
+      for (int j = 0; j < width; j++) {
+        if (pixels[i][j].getRed() < THRESHOLD) {
+          mask.words[base + (j >>> 6)] |= 1L << j;
+        }
+      }
+    }
+    return mask;
+  }
+
+  /**
+   * Makes the mask of a mask image, reading it a row at a time.
+   *
+   * @param image the mask image
+   * @return the mask
+   * @throws IllegalArgumentException if the image is null
+   */
+  public static Mask of(Image image) throws IllegalArgumentException {
+    if (image == null) {
+      throw new IllegalArgumentException("The mask image must not be null");
+    }
+    Mask mask = new Mask(image.getWidth(), image.getHeight());
+    int[] red = new int[mask.width];
+    int[] green = new int[mask.width];
+    int[] blue = new int[mask.width];
+    for (int i = 0; i < mask.height; i++) {
+      image.getRow(i, 0, mask.width, red, green, blue);
+      int base = i * mask.wordsPerRow;
+      for (int j = 0; j < mask.width; j++) {
+        if (red[j] < THRESHOLD) {
+          mask.words[base + (j >>> 6)] |= 1L << j;
+        }
+      }
+    }
+    return mask;
+  }
+
+  /**
+   * A helper function to select a run of pixels of a row while the mask is
+   * being made, setting whole longs at a time.
+   *
+   * @param row  the row position
+   * @param from the first column of the run
+   * @param to   the column past the last column of the run
+   */
+  void setRun(int row, int from, int to) {
+    if (from >= to) {
+      return;
+    }
+    int base = row * this.wordsPerRow;
+    int first = from >>> 6;
+    int last = (to - 1) >>> 6;
+    long firstBits = -1L << from;
+    long lastBits = -1L >>> (63 - ((to - 1) & 63));
+    if (first == last) {
+      this.words[base + first] |= firstBits & lastBits;
+      return;
+    }
+    this.words[base + first] |= firstBits;
+    Arrays.fill(this.words, base + first + 1, base + last, -1L);
+    this.words[base + last] |= lastBits;
+  }
+
+  /**
+   * Makes the mask image of this mask, which is black where this mask
+   * selects a pixel and white elsewhere, so that it can be saved and read
+   * back as a mask.
+   *
+   * @return the mask image
+   * @throws IllegalArgumentException if this mask is empty
+   */
+  public Image toImage() throws IllegalArgumentException {
+    WritableImage image = WritableImage.blank(this.width, this.height, 255);
+    int[] values = new int[this.width];
+    int[] runs = new int[this.width + 1];
+    for (int i = 0; i < this.height; i++) {
+      Arrays.fill(values, 255);
+      int used = this.runs(i, runs);
+      for (int k = 0; k < used; k += 2) {
+        Arrays.fill(values, runs[k], runs[k + 1], 0);
+      }
+      image.setRow(i, 0, this.width, values, values, values, 0);
+    }
+    return image;
+  }
+
+  /**
+   * Returns the width of this mask.
+   *
+   * @return the width
+   */
+  public int getWidth() {
+    return this.width;
+  }
+
+  /**
+   * Returns the height of this mask.
+   *
+   * @return the height
+   */
+  public int getHeight() {
+    return this.height;
+  }
+
+  /**
+   * Checks if this mask selects the given pixel.
+   *
+   * @param row the row position of the pixel
+   * @param col the column position of the pixel
+   * @return whether the pixel is selected
+   * @throws IllegalArgumentException if the position is outside of the mask
+   */
+  public boolean isSelected(int row, int col) throws IllegalArgumentException {
+    if (row < 0 || row >= this.height || col < 0 || col >= this.width) {
+      throw new IllegalArgumentException("The position is outside of the mask");
+    }
+    return (this.words[row * this.wordsPerRow + (col >>> 6)] & (1L << col)) != 0;
+  }
+
+  /**
+   * Finds the smallest region holding every pixel this mask selects, which
+   * is the region a masked edit with this mask changes.
+   *
+   * @return the region, or null if this mask selects no pixel
+   */
+  public Region getBounds() {
+    MaskSpans spans = MaskSpans.of(this);
+    if (spans.getArea() == 0) {
+      return null;
+    }
+    return new Region(spans.getTop(), spans.getLeft(), spans.getWidth(), spans.getHeight());
+  }
+
+  /**
+   * Counts the pixels this mask selects.
+   *
+   * @return the number of selected pixels
+   */
+  public long count() {
+    long count = 0;
+    for (long word : this.words) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  /**
+   * Makes the mask selecting the pixels either this mask or the given one selects.
+   *
+   * @param other the other mask
+   * @return the union of the masks
+   * @throws IllegalArgumentException if the other mask is null or not the same size
+   */
+  public Mask union(Mask other) throws IllegalArgumentException {
+    this.sizeCheck(other);
+    long[] result = new long[this.words.length];
+    for (int k = 0; k < result.length; k++) {
+      result[k] = this.words[k] | other.words[k];
+    }
+    return new Mask(this.width, this.height, result);
+  }
+
+  /**
+   * Makes the mask selecting the pixels both this mask and the given one select.
+   *
+   * @param other the other mask
+   * @return the intersection of the masks
+   * @throws IllegalArgumentException if the other mask is null or not the same size
+   */
+  public Mask intersection(Mask other) throws IllegalArgumentException {
+    this.sizeCheck(other);
+    long[] result = new long[this.words.length];
+    for (int k = 0; k < result.length; k++) {
+      result[k] = this.words[k] & other.words[k];
+    }
+    return new Mask(this.width, this.height, result);
+  }
+
+  /**
+   * Makes the mask selecting the pixels this mask does not select.
+   *
+   * @return the inverse of this mask
+   */
+  public Mask invert() {
+    long[] result = new long[this.words.length];
+    // the bits past the width of every row stay clear
+    long lastBits = this.width % 64 == 0 ? -1L : (1L << this.width) - 1;
+    for (int k = 0; k < result.length; k++) {
+      long bits = (k + 1) % this.wordsPerRow == 0 ? lastBits : -1L;
+      result[k] = ~this.words[k] & bits;
+    }
+    return new Mask(this.width, this.height, result);
+  }
+
+  /**
+   * A private helper function to check that the given mask is the size of this one.
+   *
+   * @param other the other mask
+   * @throws IllegalArgumentException if the other mask is null or not the same size
+   */
+  private void sizeCheck(Mask other) throws IllegalArgumentException {
+    if (other == null) {
+      throw new IllegalArgumentException("The mask must not be null");
+    }
+    if (other.width != this.width || other.height != this.height) {
+      throw new IllegalArgumentException("The masks must be the same size");
+    }
+  }
+
+  /**
+   * Finds the runs of selected pixels of a row, skipping 64 unselected
+   * pixels at a time.
+   *
+   * @param row  the row position
+   * @param runs the array to store the column each run starts at followed by the
+   *             column past its end, which holds at least the width plus one values
+   * @return the number of values stored
+   */
+  int runs(int row, int[] runs) {
+    int base = row * this.wordsPerRow;
+    int used = 0;
+    int col = 0;
+    while (col < this.width) {
+      int start = this.next(base, col, false);
+      if (start >= this.width) {
+        break;
+      }
+      col = Math.min(this.next(base, start, true), this.width);
+      runs[used++] = start;
+      runs[used++] = col;
+    }
+    return used;
+  }
+
+  /**
+   * A private helper function to find the first column of a row from the
+   * given one on whose bit is set, or clear.
+   *
+   * @param base  the index of the first long of the row
+   * @param col   the column to start from
+   * @param clear whether to find a clear bit instead of a set one
+   * @return the column, or at least the width if there is none
+   */
+  private int next(int base, int col, boolean clear) {
+    int index = col >>> 6;
+    long word = (clear ? ~this.words[base + index] : this.words[base + index]) & (-1L << col);
+    while (word == 0) {
+      index++;
+      if (index == this.wordsPerRow) {
+        return this.wordsPerRow << 6;
+      }
+      word = clear ? ~this.words[base + index] : this.words[base + index];
+    }
+    return (index << 6) + Long.numberOfTrailingZeros(word);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Mask)) {
+      return false;
+    }
+    Mask mask = (Mask) o;
+    return this.width == mask.width && this.height == mask.height
+            && Arrays.equals(this.words, mask.words);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (31 * this.width + this.height) + Arrays.hashCode(this.words);
+  }
+}
@@ -63,4 +63,75 @@ public interface MaskProcessorModel extends ImageProcessorModel {
    */
   void colorTransformation(String imageTitle, ColorTransType colorType, IPixel[][] mask, String dest)
           throws IllegalArgumentException;
-}
\ No newline at end of file
+
+  /**
+   * Alters the brightness of an image.
+   * Applies only where the mask selects.
+   *
+   * @param imageTitle the target image
+   * @param strength   the amount to change each RGB value by
+   * @param mask       the mask, the size of the image
+   * @param dest       destination path of the file
+   * @throws IllegalArgumentException if any parameter is null, the image cannot be found,
+   *                                  or the mask is not the size of the image
+   */
+  void brighten(String imageTitle, int strength, Mask mask, String dest)
+          throws IllegalArgumentException;
+
+  /**
+   * Converts a color image to greyscale by visualizing
+   * individual components, or value/intensity/luma.
+   * Applies only where the mask selects.
+   *
+   * @param imageTitle the target image
+   * @param greyType   the method type of the greyscale
+   * @param mask       the mask, the size of the image
+   * @param dest       destination path of the file
+   * @throws IllegalArgumentException if any parameter is null, the image cannot be found,
+   *                                  or the mask is not the size of the image
+   */
+  void multipleGreyscale(String imageTitle, GreyscaleType greyType, Mask mask, String dest)
+          throws IllegalArgumentException;
+
+  /**
+   * Applies the filter on the image using kernel.
+   * The filters include blurring and sharpening.
+   * Applies only where the mask selects.
+   *
+   * @param imageTitle the target image
+   * @param filterType the type of the filter
+   * @param mask       the mask, the size of the image
+   * @param dest       the name of the new image
+   * @throws IllegalArgumentException if any parameter is null, the image cannot be found,
+   *                                  or the mask is not the size of the image
+   */
+  void filtering(String imageTitle, FilteringType filterType, Mask mask, String dest)
+          throws IllegalArgumentException;
+
+  /**
+   * Color transformations on individual pixels.
+   * There are two operations: greyscale and sepia.
+   * Applies only where the mask selects.
+   *
+   * @param imageTitle the target image
+   * @param colorType  the type of the color transformation
+   * @param mask       the mask, the size of the image
+   * @param dest       the name of the new image
+   * @throws IllegalArgumentException if any parameter is null, the image cannot be found,
+   *                                  or the mask is not the size of the image
+   */
+  void colorTransformation(String imageTitle, ColorTransType colorType, Mask mask, String dest)
+          throws IllegalArgumentException;
+
+  /**
+   * Counts the values of the pixels the mask selects, the same way as
+   * {@link #histogram(String)}, only reading the runs of selected pixels.
+   *
+   * @param imageTitle the target image
+   * @param mask       the mask, the size of the image
+   * @return the histogram of the selected pixels
+   * @throws IllegalArgumentException if any parameter is null, the image cannot be found,
+   *                                  or the mask is not the size of the image
+   */
+  Histogram histogram(String imageTitle, Mask mask) throws IllegalArgumentException;
+}
@@ -8,7 +8,7 @@ package model;
  */
 public class MaskProcessorModelImpl extends ImageProcessorModelImpl implements MaskProcessorModel {
   private Image maskImage;
-  private IPixel[][] maskPixel;
+  private MaskSpans spans;
 
   /**
    * Constructor for {@link MaskProcessorModelImpl}. Needs a
@@ -17,7 +17,30 @@ public class MaskProcessorModelImpl extends ImageProcessorModelImpl implements M
   public MaskProcessorModelImpl() {
     super();
     this.maskImage = null;
-    this.maskPixel = new Pixel[][]{};
+  }
+
+  /**
+   * Constructor for {@link MaskProcessorModelImpl} whose operations run on
+   * the given number of threads, the same way as
+   * {@link ImageProcessorModelImpl#ImageProcessorModelImpl(int, int)}.
+   *
+   * @param parallelism      the number of threads, or 1 to never run in parallel
+   * @param sequentialPixels the number of pixels under which a band is not split any further
+   * @throws IllegalArgumentException if the parallelism or the cutoff is not positive
+   */
+  public MaskProcessorModelImpl(int parallelism, int sequentialPixels)
+          throws IllegalArgumentException {
+    this(new BandExecutor(parallelism, sequentialPixels));
+  }
+
+  /**
+   * Constructor for {@link MaskProcessorModelImpl} whose operations run on the given executor.
+   *
+   * @param executor the executor running the operations
+   */
+  MaskProcessorModelImpl(BandExecutor executor) {
+    super(executor);
+    this.maskImage = null;
   }
 
   /**
@@ -36,125 +59,198 @@ public class MaskProcessorModelImpl extends ImageProcessorModelImpl implements M
     }
   }
 
+  /**
+   * A private helper function to determine if any of the parameters
+   * are null. If so, throw an illegal argument exception.
+   *
+   * @param input1 the first string input
+   * @param input2 the mask
+   * @param input3 the second string input
+   * @throws IllegalArgumentException if any of the parameters is null
+   */
+  private void nullInputs(String input1, Mask input2, String input3)
+          throws IllegalArgumentException {
+    if (input1 == null || input2 == null || input3 == null) {
+      throw new IllegalArgumentException("At least one parameter is null");
+    }
+  }
+
+  /**
+   * A private helper function to turn a mask given as pixels into a
+   * {@link Mask} of the size of the image it applies to. The columns of
+   * the pixels past the width of the image are left out.
+   *
+   * @param imageTitle the title of the image to operate on
+   * @param mask       the mask 2D pixel array to use
+   * @param operation  the name of the operation
+   * @return the mask
+   * @throws IllegalArgumentException if the image cannot be found, or if the mask size
+   *                                  isn't same with the image size
+   */
+  private Mask toMask(String imageTitle, IPixel[][] mask, String operation)
+          throws IllegalArgumentException {
+    this.imageInStorage(imageTitle, operation);
+    Image target = this.getImage(imageTitle);
+    if (mask.length != target.getHeight()) {
+      throw new IllegalArgumentException("The mask size must be the same with the image size");
+    }
+    return Mask.of(mask, target.getWidth());
+  }
+
   /**
    * A private helper function for all the image operations,
    * which instantiates the image, width, height, and maximum value
-   * fields using the imageTitle input. It also pulls out the mask
-   * image if it exists.
+   * fields using the imageTitle input, and finds the runs of pixels
+   * the mask selects. For this model, only where the mask pixels are
+   * black will be modified.
    *
    * @param imageTitle the title of the image to operate on
-   * @param mask       the mask 2D pixel array to use
+   * @param mask       the mask to use
    * @throws IllegalArgumentException if the mask size isn't same with the image size
    */
-  private void operationSetup(String imageTitle, IPixel[][] mask) throws IllegalArgumentException {
+  private void operationSetup(String imageTitle, Mask mask) throws IllegalArgumentException {
     super.operationSetup(imageTitle);
-    this.maskPixel = mask;
-    if (this.maskPixel.length != this.image.getPixels().length) {
+    if (mask.getWidth() != this.width || mask.getHeight() != this.height) {
       throw new IllegalArgumentException("The mask size must be the same with the image size");
     }
+    this.spans = MaskSpans.of(mask);
+  }
+
+  /**
+   * A private helper function to make the image a masked operation writes
+   * into. Unless the mask selects every pixel, it is a copy-on-write copy of
+   * the image, so only the tiles holding a pixel selected by the mask are ever
+   * copied, and every other pixel is shared with the image.
+   *
+   * @return the image to write the modified pixels into
+   */
+  private WritableImage maskedCopy() {
+    if (this.spans.getArea() == (long) this.width * this.height) {
+      return this.newImage(this.width, this.height, this.maxValue);
+    }
+    return new TiledImageImpl(this.image, this.executor);
   }
 
   /**
-   * A private helper function to check if the pixel must be
-   * manipulated or not. For this model, only where the mask
-   * pixels are black will be modified.
+   * A private helper function to map the pixels the mask selects through
+   * the given table. Only the rows of the box around the selected pixels
+   * are read, and only the runs of selected pixels are written, so every
+   * other pixel is shared with the image.
    *
-   * @param height the height position of the pixel
-   * @param width  the width position of the pixel
-   * @return true if it must be modified
+   * @param table the table to map the values through
+   * @return the image holding the result
    */
-  private boolean conditionCheck(int height, int width) {
-    return (this.maskPixel.length == 0
-            || this.maskPixel[height][width].getRed() < 200);
+  private WritableImage maskedTable(LookupTable table) {
+    WritableImage updated = this.maskedCopy();
+    MaskSpans selected = this.spans;
+    int top = selected.getTop();
+    int left = selected.getLeft();
+    int boxWidth = selected.getWidth();
+
+    this.executor.forEachBand(selected.getHeight(), boxWidth, (from, to) -> {
+      int[] red = new int[boxWidth];
+      int[] green = new int[boxWidth];
+      int[] blue = new int[boxWidth];
+      for (int i = top + from; i < top + to; i++) {
+        this.image.getRow(i, left, boxWidth, red, green, blue);
+        table.apply(red, green, blue, boxWidth);
+        selected.writeRow(updated, i, red, green, blue);
+      }
+    });
+    return updated;
   }
 
   @Override
   public void brighten(String imageTitle, int strength, IPixel[][] mask, String dest)
           throws IllegalArgumentException {
     this.nullInputs(imageTitle, mask, dest);
+    this.brighten(imageTitle, strength, this.toMask(imageTitle, mask, "brighten"), dest);
+  }
+
+  @Override
+  public void brighten(String imageTitle, int strength, Mask mask, String dest)
+          throws IllegalArgumentException {
+    this.nullInputs(imageTitle, mask, dest);
     this.imageInStorage(imageTitle, "brighten");
     this.operationSetup(imageTitle, mask);
-    IPixel[][] original = this.image.getPixels();
-    IPixel[][] updated = new Pixel[this.height][this.width];
-
-    for (int i = 0; i < this.height; i++) {
-      for (int j = 0; j < this.width; j++) {
-        IPixel newPixel;
-        if (conditionCheck(i, j)) {
-          newPixel = original[i][j].brighten(strength, this.maxValue);
-          updated[i][j] = newPixel;
-        } else {
-          updated[i][j] = original[i][j];
-        }
-      }
-    }
+    maxValueCheck(this.maxValue);
+    LookupTable table = LookupTable.brighten(strength, this.maxValue);
     // saves it in the storage
-    this.addImage(dest, new ImageImpl(width, height, maxValue, updated));
+    this.addImage(dest, this.maskedTable(table));
   }
 
   @Override
   public void multipleGreyscale(String imageTitle, GreyscaleType greyType,
                                 IPixel[][] mask, String dest) throws IllegalArgumentException {
     this.nullInputs(imageTitle, mask, dest);
+    this.multipleGreyscale(imageTitle, greyType, this.toMask(imageTitle, mask, "greyscale"),
+            dest);
+  }
+
+  @Override
+  public void multipleGreyscale(String imageTitle, GreyscaleType greyType,
+                                Mask mask, String dest) throws IllegalArgumentException {
+    this.nullInputs(imageTitle, mask, dest);
     this.imageInStorage(imageTitle, "greyscale");
+    typeCheck(greyType, "Greyscale type must not be null");
     this.operationSetup(imageTitle, mask);
-    IPixel[][] original = this.image.getPixels();
-    IPixel[][] updated = new Pixel[this.height][this.width];
-
-    for (int i = 0; i < this.height; i++) {
-      for (int j = 0; j < this.width; j++) {
-        IPixel newPixel;
-        if (conditionCheck(i, j)) {
-          newPixel = original[i][j].greyscale(greyType);
-          updated[i][j] = newPixel;
-        } else {
-          updated[i][j] = original[i][j];
-        }
-      }
-    }
-    this.addImage(dest, new ImageImpl(width, height, maxValue, updated));
+    LookupTable table = LookupTable.greyscale(greyType, this.maxValue);
+    this.addImage(dest, this.maskedTable(table));
   }
 
   @Override
   public void filtering(String imageTitle, FilteringType filterType,
                         IPixel[][] mask, String dest) throws IllegalArgumentException {
     this.nullInputs(imageTitle, mask, dest);
+    this.filtering(imageTitle, filterType, this.toMask(imageTitle, mask, "filtering"), dest);
+  }
+
+  @Override
+  public void filtering(String imageTitle, FilteringType filterType,
+                        Mask mask, String dest) throws IllegalArgumentException {
+    this.nullInputs(imageTitle, mask, dest);
     this.imageInStorage(imageTitle, "filtering");
+    typeCheck(filterType, "Filter type must not be null");
     this.operationSetup(imageTitle, mask);
-    IPixel[][] original = this.image.getPixels();
-    IPixel[][] updated = new Pixel[this.height][this.width];
-    for (int i = 0; i < this.height; i++) {
-      for (int j = 0; j < this.width; j++) {
-        if (conditionCheck(i, j)) {
-          IPixel newPixel = this.blurOrSharpen(i, j, filterType, original);
-          updated[i][j] = newPixel;
-        } else {
-          updated[i][j] = original[i][j];
-        }
-      }
-    }
-    this.addImage(dest, new ImageImpl(width, height, maxValue, updated));
+    WritableImage updated = this.maskedCopy();
+
+    Convolution convolution = filterConvolution(filterType);
+    MaskSpans selected = this.spans;
+    int top = selected.getTop();
+    int left = selected.getLeft();
+
+    // only the box around the selected pixels is convolved
+    this.executor.forEachBand(selected.getHeight(), selected.getWidth(), (from, to) ->
+        convolution.apply(this.image, top + from, left, selected.getWidth(), to - from,
+            (row, red, green, blue) -> selected.writeRow(updated, top + from + row,
+                red, green, blue)));
+    this.addImage(dest, updated);
   }
 
   @Override
   public void colorTransformation(String imageTitle, ColorTransType colorType,
                                   IPixel[][] mask, String dest) throws IllegalArgumentException {
     this.nullInputs(imageTitle, mask, dest);
+    this.colorTransformation(imageTitle, colorType,
+            this.toMask(imageTitle, mask, "color transformation"), dest);
+  }
+
+  @Override
+  public void colorTransformation(String imageTitle, ColorTransType colorType,
+                                  Mask mask, String dest) throws IllegalArgumentException {
+    this.nullInputs(imageTitle, mask, dest);
     this.imageInStorage(imageTitle, "color transformation");
+    typeCheck(colorType, "Color transformation type must not be null");
     this.operationSetup(imageTitle, mask);
-    IPixel[][] original = this.image.getPixels();
-    IPixel[][] updated = new Pixel[this.height][this.width];
-
-    for (int i = 0; i < this.height; i++) {
-      for (int j = 0; j < this.width; j++) {
-        if (conditionCheck(i, j)) {
-          IPixel newPixel = original[i][j].colorTrans(colorType);
-          updated[i][j] = newPixel;
-        } else {
-          updated[i][j] = original[i][j];
-        }
-      }
-    }
-    this.addImage(dest, new ImageImpl(width, height, maxValue, updated));
+    LookupTable table = LookupTable.colorTransformation(colorType, this.maxValue);
+    this.addImage(dest, this.maskedTable(table));
+  }
+
+  @Override
+  public Histogram histogram(String imageTitle, Mask mask) throws IllegalArgumentException {
+    typeCheck(imageTitle, "At least one parameter is null");
+    typeCheck(mask, "At least one parameter is null");
+    this.imageInStorage(imageTitle, "count");
+    return Histogram.of(this.images.get(imageTitle), mask, this.executor);
   }
-}
\ No newline at end of file
+}
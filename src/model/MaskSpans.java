@@ -0,0 +1,149 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * The pixels a {@link Mask} selects, as the bounding box of the selected
+ * pixels and the runs of selected pixels of every row. A masked operation
+ * only computes the pixels inside the box, and only writes the runs, so it
+ * costs the area the mask selects instead of the area of the image.
+ */
+final class MaskSpans {
+  private static final int[] NONE = new int[0];
+
+  private final int top;
+  private final int left;
+  private final int bottom;
+  private final int right;
+  private final int[][] spans;
+
+  /**
+   * A private constructor for the given runs.
+   *
+   * @param top    the first row of the box
+   * @param left   the first column of the box
+   * @param bottom the row past the last row of the box
+   * @param right  the column past the last column of the box
+   * @param spans  the runs of every row
+   */
+  private MaskSpans(int top, int left, int bottom, int right, int[][] spans) {
+    this.top = top;
+    this.left = left;
+    this.bottom = bottom;
+    this.right = right;
+    this.spans = spans;
+  }
+
+  /**
+   * Finds the pixels the given mask selects, skipping 64 unselected pixels at a time.
+   *
+   * @param mask the mask
+   * @return the selected pixels
+   */
+  static MaskSpans of(Mask mask) {
+    int width = mask.getWidth();
+    int height = mask.getHeight();
+    int[][] spans = new int[height][];
+    int top = height;
+    int left = width;
+    int bottom = 0;
+    int right = 0;
+    int[] runs = new int[width + 1];
+    for (int i = 0; i < height; i++) {
+      int used = mask.runs(i, runs);
+      spans[i] = used == 0 ? NONE : Arrays.copyOf(runs, used);
+      if (used > 0) {
+        top = Math.min(top, i);
+        bottom = i + 1;
+        left = Math.min(left, runs[0]);
+        right = Math.max(right, runs[used - 1]);
+      }
+    }
+    if (bottom == 0) {
+      return new MaskSpans(0, 0, 0, 0, spans);
+    }
+    return new MaskSpans(top, left, bottom, right, spans);
+  }
+
+  /**
+   * Returns the first row of the box around the selected pixels.
+   *
+   * @return the row position
+   */
+  int getTop() {
+    return this.top;
+  }
+
+  /**
+   * Returns the first column of the box around the selected pixels.
+   *
+   * @return the column position
+   */
+  int getLeft() {
+    return this.left;
+  }
+
+  /**
+   * Returns the width of the box around the selected pixels, which is 0
+   * if no pixel is selected.
+   *
+   * @return the width of the box
+   */
+  int getWidth() {
+    return this.right - this.left;
+  }
+
+  /**
+   * Returns the height of the box around the selected pixels, which is 0
+   * if no pixel is selected.
+   *
+   * @return the height of the box
+   */
+  int getHeight() {
+    return this.bottom - this.top;
+  }
+
+  /**
+   * Returns the runs of selected pixels of the given row, as the column
+   * each run starts at followed by the column past its end, from left to
+   * right. The array must not be changed.
+   *
+   * @param row the row position
+   * @return the starts and ends of the runs
+   */
+  int[] getSpans(int row) {
+    return this.spans[row];
+  }
+
+  /**
+   * Counts the selected pixels.
+   *
+   * @return the number of selected pixels
+   */
+  long getArea() {
+    long area = 0;
+    for (int[] row : this.spans) {
+      for (int k = 0; k < row.length; k += 2) {
+        area += row[k + 1] - row[k];
+      }
+    }
+    return area;
+  }
+
+  /**
+   * Writes the selected pixels of a row of the box from the given arrays,
+   * whose first index holds the first column of the box.
+   *
+   * @param dest  the image to write into
+   * @param row   the row position
+   * @param red   the red values of the row of the box
+   * @param green the green values of the row of the box
+   * @param blue  the blue values of the row of the box
+   */
+  void writeRow(WritableImage dest, int row, int[] red, int[] green, int[] blue) {
+    int[] runs = this.spans[row];
+    for (int k = 0; k < runs.length; k += 2) {
+      dest.setRow(row, runs[k], runs[k + 1] - runs[k], red, green, blue, runs[k] - this.left);
+    }
+  }
+}
@@ -55,29 +55,33 @@ public final class Pixel implements IPixel {
     if (maxValue < 1) {
       throw new IllegalArgumentException("MaxValue should be greater 1");
     }
-    int newRed;
-    int newGreen;
-    int newBlue;
+    int newRed = brightenChannel(this.red, strength, maxValue);
+    int newGreen = brightenChannel(this.green, strength, maxValue);
+    int newBlue = brightenChannel(this.blue, strength, maxValue);
+    return new Pixel(newRed, newGreen, newBlue);
+  }
 
+  /**
+   * Applies a change in the brightness of a single channel value.
+   * Shared by {@link #brighten(int, int)} and the operations of the model
+   * that work on channel values directly, without making pixels.
+   *
+   * @param value    the channel value
+   * @param strength the amount to change the channel value by
+   * @param maxValue the maximum value of the RGB channel depending on the desired bit
+   * @return the resulting channel value
+   */
+  static int brightenChannel(int value, int strength, int maxValue) {
     // brightening
     if (strength > 0) {
-      newRed = Math.min(this.red + strength, maxValue);
-      newGreen = Math.min(this.green + strength, maxValue);
-      newBlue = Math.min(this.blue + strength, maxValue);
+      return Math.min(value + strength, maxValue);
     }
     // darkening
     else if (strength < 0) {
-      newRed = Math.max(this.red + strength, 0);
-      newGreen = Math.max(this.green + strength, 0);
-      newBlue = Math.max(this.blue + strength, 0);
+      return Math.max(value + strength, 0);
     }
     // no change
-    else {
-      newRed = this.red;
-      newGreen = this.green;
-      newBlue = this.blue;
-    }
-    return new Pixel(newRed, newGreen, newBlue);
+    return value;
   }
 
   @Override
@@ -86,36 +90,49 @@ public final class Pixel implements IPixel {
     if (greyType == null) {
       throw new IllegalArgumentException("Greyscale type must not be null");
     }
-    Pixel pixel;
+    int grey = greyValue(greyType, this.red, this.green, this.blue);
+    return new Pixel(grey, grey, grey);
+  }
 
+  /**
+   * Computes the greyscale value of the given channel values.
+   * Shared by {@link #greyscale(ImageProcessorModel.GreyscaleType)} and
+   * the operations of the model that work on channel values directly.
+   *
+   * @param greyType the type of greyscale component to apply
+   * @param red      the red channel value
+   * @param green    the green channel value
+   * @param blue     the blue channel value
+   * @return the greyscale value for all three channels
+   */
+  static int greyValue(ImageProcessorModel.GreyscaleType greyType, int red, int green, int blue) {
     switch (greyType) {
       case Red:
-        pixel = new Pixel(this.red, this.red, this.red);
-        break;
+        return red;
       case Green:
-        pixel = new Pixel(this.green, this.green, this.green);
-        break;
+        return green;
       case Blue:
-        pixel = new Pixel(this.blue, this.blue, this.blue);
-        break;
+        return blue;
       case Value:
-        int maximum = Math.max(Math.max(this.red, this.green), this.blue);
-        pixel = new Pixel(maximum, maximum, maximum);
-        break;
+        return Math.max(Math.max(red, green), blue);
       case Intensity:
-        int avg = (this.red + this.green + this.blue) / 3;
-        pixel = new Pixel(avg, avg, avg);
-        break;
-      case Luma:
-        int weightedSum = (int) ((this.red * 0.2126) + (this.green * 0.7152)
-                + (this.blue * 0.0722));
-        pixel = new Pixel(weightedSum, weightedSum, weightedSum);
-        break;
+        return (red + green + blue) / 3;
       default:
-        pixel = new Pixel(this.red, this.green, this.blue);
-        break;
+        return luma(red, green, blue);
     }
-    return pixel;
+  }
+
+  /**
+   * Computes the luma of the given channel values, which is the
+   * weighted sum used by both the luma component and the greyscale transformation.
+   *
+   * @param red   the red channel value
+   * @param green the green channel value
+   * @param blue  the blue channel value
+   * @return the luma value
+   */
+  static int luma(int red, int green, int blue) {
+    return (int) ((red * 0.2126) + (green * 0.7152) + (blue * 0.0722));
   }
 
   @Override
@@ -124,18 +141,41 @@ public final class Pixel implements IPixel {
     if (colorType == null) {
       throw new IllegalArgumentException("Color transformation type must not be null");
     }
-    Pixel pixel = new Pixel(this.red, this.green, this.blue);
+    return new Pixel(colorTransChannel(colorType, 0, this.red, this.green, this.blue),
+            colorTransChannel(colorType, 1, this.red, this.green, this.blue),
+            colorTransChannel(colorType, 2, this.red, this.green, this.blue));
+  }
+
+  /**
+   * Computes a single channel of the color transformation of the given channel values.
+   * Shared by {@link #colorTrans(ImageProcessorModelState.ColorTransType)} and
+   * the operations of the model that work on channel values directly.
+   *
+   * @param colorType the type of the color transformation
+   * @param channel   the channel to compute: 0 for red, 1 for green, and 2 for blue
+   * @param red       the red channel value
+   * @param green     the green channel value
+   * @param blue      the blue channel value
+   * @return the resulting channel value
+   */
+  static int colorTransChannel(ImageProcessorModelState.ColorTransType colorType, int channel,
+                               int red, int green, int blue) {
     if (colorType == ImageProcessorModelState.ColorTransType.Greyscale) {
-      int weightedSum = (int) ((this.red * 0.2126) + (this.green * 0.7152) + (this.blue * 0.0722));
-      pixel = new Pixel(weightedSum, weightedSum, weightedSum);
-    } else if (colorType == ImageProcessorModelState.ColorTransType.Sepia) {
-      int r = (int) ((this.red * 0.393) + (this.green * 0.769) + (this.blue * 0.189));
-      int g = (int) ((this.red * 0.349) + (this.green * 0.686) + (this.blue * 0.168));
-      int b = (int) ((this.red * 0.272) + (this.green * 0.534) + (this.blue * 0.131));
-      pixel = new Pixel(Math.max(0,Math.min(r, 255)), Math.max(0,Math.min(g, 255)),
-              Math.max(0,Math.min(b, 255)));
+      return luma(red, green, blue);
+    }
+    double value;
+    switch (channel) {
+      case 0:
+        value = (red * 0.393) + (green * 0.769) + (blue * 0.189);
+        break;
+      case 1:
+        value = (red * 0.349) + (green * 0.686) + (blue * 0.168);
+        break;
+      default:
+        value = (red * 0.272) + (green * 0.534) + (blue * 0.131);
+        break;
     }
-    return pixel;
+    return Math.max(0, Math.min((int) value, 255));
   }
 
   @Override
@@ -0,0 +1,148 @@
+package model;
+
+/**
+ * An image whose red, green, and blue channels are stored in three separate
+ * planes, each in row-major order. The planes are arrays of bytes when the
+ * maximum value fits in 8 bits, and arrays of shorts when it fits in 16 bits,
+ * so the storage always matches the bit depth of the image. Since every channel
+ * is contiguous, an operation reading a single channel only reads one plane.
+ */
+public final class PlanarImageImpl extends WritableImage {
+  private final byte[][] bytePlanes;
+  private final short[][] shortPlanes;
+
+  /**
+   * Constructs an 8-bit image using the given planes. The arrays are used
+   * as they are, instead of being copied, so they must not be altered afterwards.
+   *
+   * @param width    the image width
+   * @param height   the image height
+   * @param maxValue the maximum RBG value, at most 255
+   * @param red      the red plane, read as unsigned bytes
+   * @param green    the green plane, read as unsigned bytes
+   * @param blue     the blue plane, read as unsigned bytes
+   * @throws IllegalArgumentException if any parameter is negative or null, or if not compilable
+   */
+  public PlanarImageImpl(int width, int height, int maxValue,
+                         byte[] red, byte[] green, byte[] blue)
+          throws IllegalArgumentException {
+    super(width, height, maxValue);
+    if (maxValue > 255) {
+      throw new IllegalArgumentException("8-bit planes only support maximum values up to 255.");
+    }
+    if (red == null || green == null || blue == null) {
+      throw new IllegalArgumentException("Pixels must not be null.");
+    }
+    this.bytePlanes = new byte[][]{red, green, blue};
+    this.shortPlanes = null;
+    for (byte[] plane : this.bytePlanes) {
+      if (plane.length != (long) width * height) {
+        throw new IllegalArgumentException("The given pixels don't match the width or height.");
+      }
+      for (byte value : plane) {
+        if ((value & 0xFF) > maxValue) {
+          throw new IllegalArgumentException(
+                  "RGB channel values of a pixel cannot exceed the maximum value.");
+        }
+      }
+    }
+  }
+
+  /**
+   * Constructs a 16-bit image using the given planes. The arrays are used
+   * as they are, instead of being copied, so they must not be altered afterwards.
+   *
+   * @param width    the image width
+   * @param height   the image height
+   * @param maxValue the maximum RBG value, at most 65535
+   * @param red      the red plane, read as unsigned shorts
+   * @param green    the green plane, read as unsigned shorts
+   * @param blue     the blue plane, read as unsigned shorts
+   * @throws IllegalArgumentException if any parameter is negative or null, or if not compilable
+   */
+  public PlanarImageImpl(int width, int height, int maxValue,
+                         short[] red, short[] green, short[] blue)
+          throws IllegalArgumentException {
+    super(width, height, maxValue);
+    if (maxValue > 65535) {
+      throw new IllegalArgumentException("16-bit planes only support maximum values up to 65535.");
+    }
+    if (red == null || green == null || blue == null) {
+      throw new IllegalArgumentException("Pixels must not be null.");
+    }
+    this.bytePlanes = null;
+    this.shortPlanes = new short[][]{red, green, blue};
+    for (short[] plane : this.shortPlanes) {
+      if (plane.length != (long) width * height) {
+        throw new IllegalArgumentException("The given pixels don't match the width or height.");
+      }
+      for (short value : plane) {
+        if ((value & 0xFFFF) > maxValue) {
+          throw new IllegalArgumentException(
+                  "RGB channel values of a pixel cannot exceed the maximum value.");
+        }
+      }
+    }
+  }
+
+  /**
+   * Constructs a black image to be filled in by an operation of the model.
+   * Uses bytes when the maximum value is at most 255, and shorts otherwise.
+   *
+   * @param width    the image width
+   * @param height   the image height
+   * @param maxValue the maximum RBG value, at most 65535
+   */
+  PlanarImageImpl(int width, int height, int maxValue) {
+    super(width, height, maxValue);
+    if (maxValue > 65535) {
+      throw new IllegalArgumentException("16-bit planes only support maximum values up to 65535.");
+    }
+    if (maxValue <= 255) {
+      this.bytePlanes = new byte[3][width * height];
+      this.shortPlanes = null;
+    } else {
+      this.bytePlanes = null;
+      this.shortPlanes = new short[3][width * height];
+    }
+  }
+
+  @Override
+  public int getChannel(int row, int col, int channel) throws IllegalArgumentException {
+    this.checkChannel(row, col, channel);
+    if (this.bytePlanes != null) {
+      return this.bytePlanes[channel][row * this.width + col] & 0xFF;
+    }
+    return this.shortPlanes[channel][row * this.width + col] & 0xFFFF;
+  }
+
+  @Override
+  void getChannelRow(int row, int col, int length, int channel, int[] dest, int offset) {
+    int start = row * this.width + col;
+    if (this.bytePlanes != null) {
+      byte[] plane = this.bytePlanes[channel];
+      for (int j = 0; j < length; j++) {
+        dest[offset + j] = plane[start + j] & 0xFF;
+      }
+    } else {
+      short[] plane = this.shortPlanes[channel];
+      for (int j = 0; j < length; j++) {
+        dest[offset + j] = plane[start + j] & 0xFFFF;
+      }
+    }
+  }
+
+  @Override
+  void setPixel(int row, int col, int red, int green, int blue) {
+    int index = row * this.width + col;
+    if (this.bytePlanes != null) {
+      this.bytePlanes[0][index] = (byte) red;
+      this.bytePlanes[1][index] = (byte) green;
+      this.bytePlanes[2][index] = (byte) blue;
+    } else {
+      this.shortPlanes[0][index] = (short) red;
+      this.shortPlanes[1][index] = (short) green;
+      this.shortPlanes[2][index] = (short) blue;
+    }
+  }
+}
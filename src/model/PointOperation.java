@@ -0,0 +1,185 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static model.ImageProcessorModelState.ColorTransType;
+import static model.ImageProcessorModelState.GreyscaleType;
+
+/**
+ * A sequence of point operations, such as brighten, greyscale, and color
+ * transformations, applied one after the other to every pixel. The model
+ * applies the whole sequence in a single pass over the image, so the images
+ * between the steps are never made, unless a step is saved under a name
+ * with {@link #saveAs(String)}.
+ *
+ * <p>A sequence is immutable, and is built by chaining single steps:
+ * {@code PointOperation.brighten(10).then(PointOperation.greyscale(GreyscaleType.Luma))}.
+ */
+public final class PointOperation {
+  private final List<Step> steps;
+
+  /**
+   * A single step of the sequence, making its lookup table for the maximum
+   * value of the image, with the name its result is saved under, if any.
+   */
+  private static final class Step {
+    private final TableFactory factory;
+    private final String name;
+
+    private Step(TableFactory factory, String name) {
+      this.factory = factory;
+      this.name = name;
+    }
+  }
+
+  /**
+   * Makes the lookup table of a step for the maximum value of an image.
+   */
+  @FunctionalInterface
+  private interface TableFactory {
+    LookupTable make(int maxValue) throws IllegalArgumentException;
+  }
+
+  /**
+   * A private constructor for a sequence of the given steps.
+   *
+   * @param steps the steps of the sequence
+   */
+  private PointOperation(List<Step> steps) {
+    this.steps = Collections.unmodifiableList(steps);
+  }
+
+  /**
+   * A private helper function to make a sequence of a single unnamed step.
+   *
+   * @param factory the factory of the lookup table of the step
+   * @return the sequence
+   */
+  private static PointOperation of(TableFactory factory) {
+    List<Step> steps = new ArrayList<>();
+    steps.add(new Step(factory, null));
+    return new PointOperation(steps);
+  }
+
+  /**
+   * Makes a single step that brightens or darkens the image.
+   *
+   * @param strength the amount to change each RGB value by
+   * @return the point operation
+   */
+  public static PointOperation brighten(int strength) {
+    return of(maxValue -> {
+      ImageProcessorModelImpl.maxValueCheck(maxValue);
+      return LookupTable.brighten(strength, maxValue);
+    });
+  }
+
+  /**
+   * Makes a single step that visualizes a greyscale component of the image.
+   *
+   * @param greyType the method type of the greyscale
+   * @return the point operation
+   * @throws IllegalArgumentException if the greyscale type is null
+   */
+  public static PointOperation greyscale(GreyscaleType greyType)
+          throws IllegalArgumentException {
+    ImageProcessorModelImpl.typeCheck(greyType, "Greyscale type must not be null");
+    return of(maxValue -> LookupTable.greyscale(greyType, maxValue));
+  }
+
+  /**
+   * Makes a single step that applies a color transformation to the image.
+   *
+   * @param colorType the type of the color transformation
+   * @return the point operation
+   * @throws IllegalArgumentException if the color transformation type is null
+   */
+  public static PointOperation colorTransformation(ColorTransType colorType)
+          throws IllegalArgumentException {
+    ImageProcessorModelImpl.typeCheck(colorType, "Color transformation type must not be null");
+    return of(maxValue -> LookupTable.colorTransformation(colorType, maxValue));
+  }
+
+  /**
+   * Makes the sequence applying the steps of the given sequence after the
+   * steps of this one.
+   *
+   * @param next the steps to apply afterwards
+   * @return the longer sequence
+   * @throws IllegalArgumentException if the given sequence is null
+   */
+  public PointOperation then(PointOperation next) throws IllegalArgumentException {
+    if (next == null) {
+      throw new IllegalArgumentException("The next operation must not be null.");
+    }
+    List<Step> steps = new ArrayList<>(this.steps);
+    steps.addAll(next.steps);
+    return new PointOperation(steps);
+  }
+
+  /**
+   * Makes the same sequence, whose result after its last step is also saved
+   * in the storage under the given name. The result is still not computed
+   * until it is read.
+   *
+   * @param imageTitle the name to save the result of the last step under
+   * @return the same sequence, saving the result of its last step
+   * @throws IllegalArgumentException if the name is null
+   */
+  public PointOperation saveAs(String imageTitle) throws IllegalArgumentException {
+    if (imageTitle == null) {
+      throw new IllegalArgumentException("At least one parameter is null.");
+    }
+    List<Step> steps = new ArrayList<>(this.steps);
+    Step last = steps.get(steps.size() - 1);
+    steps.set(steps.size() - 1, new Step(last.factory, imageTitle));
+    return new PointOperation(steps);
+  }
+
+  /**
+   * Returns the number of steps of this sequence.
+   *
+   * @return the number of steps
+   */
+  public int size() {
+    return this.steps.size();
+  }
+
+  /**
+   * Makes the sequence of the first steps of this one, none of which is saved under a name.
+   *
+   * @param length the number of steps to keep
+   * @return the shorter sequence
+   */
+  PointOperation prefix(int length) {
+    List<Step> steps = new ArrayList<>();
+    for (int i = 0; i < length; i++) {
+      steps.add(new Step(this.steps.get(i).factory, null));
+    }
+    return new PointOperation(steps);
+  }
+
+  /**
+   * Returns the name the result of the given step is saved under.
+   *
+   * @param step the index of the step
+   * @return the name, or null if the result of the step is not saved
+   */
+  String savedAs(int step) {
+    return this.steps.get(step).name;
+  }
+
+  /**
+   * Makes the lookup table of the given step for an image of the given maximum value.
+   *
+   * @param step     the index of the step
+   * @param maxValue the maximum value of the image
+   * @return the lookup table of the step
+   * @throws IllegalArgumentException if the step cannot be applied to such an image
+   */
+  LookupTable table(int step, int maxValue) throws IllegalArgumentException {
+    return this.steps.get(step).factory.make(maxValue);
+  }
+}
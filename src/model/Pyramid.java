@@ -0,0 +1,83 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static model.ImageProcessorModelState.DownscaleType;
+
+/**
+ * The mipmap pyramid of an image, whose first level is the image itself and
+ * every next level is the level before it shrunk to half its width and
+ * height by area averaging. A level is only made the first time it is
+ * needed, and is kept, so shrinking the image again, or showing it at
+ * another zoom, starts from the smallest level that is still large enough
+ * instead of reading every pixel of the image. A level takes a quarter of
+ * the memory of the level before it, so every level together takes a third
+ * of the memory of the image.
+ */
+final class Pyramid {
+  private final List<Image> levels;
+  private final BandExecutor executor;
+
+  /**
+   * Constructs the pyramid of the given image, making none of its levels yet.
+   *
+   * @param image    the image
+   * @param executor the executor to make the levels on
+   */
+  Pyramid(Image image, BandExecutor executor) {
+    this.levels = new ArrayList<>();
+    this.levels.add(image);
+    this.executor = executor;
+  }
+
+  /**
+   * Finds the smallest level that is at least the given width and height,
+   * making the levels down to it that have not been made yet.
+   *
+   * @param width  the least width of the level
+   * @param height the least height of the level
+   * @return the level, which is the image itself if no smaller level is large enough
+   */
+  synchronized Image atLeast(int width, int height) {
+    int index = 0;
+    while (true) {
+      Image level = this.levels.get(index);
+      int halfWidth = level.getWidth() / 2;
+      int halfHeight = level.getHeight() / 2;
+      if (halfWidth < Math.max(width, 1) || halfHeight < Math.max(height, 1)) {
+        return level;
+      }
+      index++;
+      if (index == this.levels.size()) {
+        this.levels.add(this.half(level, halfWidth, halfHeight));
+      }
+    }
+  }
+
+  /**
+   * Returns the number of levels made so far, counting the image itself.
+   *
+   * @return the number of levels
+   */
+  synchronized int levels() {
+    return this.levels.size();
+  }
+
+  /**
+   * A private helper function to make the next level of the pyramid. When a
+   * side of the level is odd, each pixel of the next level covers a little
+   * more than two pixels of the level along it, so that every pixel counts.
+   *
+   * @param level      the level to shrink
+   * @param halfWidth  the width of the next level
+   * @param halfHeight the height of the next level
+   * @return the next level
+   */
+  private Image half(Image level, int halfWidth, int halfHeight) {
+    WritableImage next = WritableImage.blank(halfWidth, halfHeight, level.getMaxValue());
+    Downscale.apply(level, (double) halfWidth / level.getWidth(),
+            (double) halfHeight / level.getHeight(), DownscaleType.Area, next, this.executor);
+    return next;
+  }
+}
@@ -0,0 +1,103 @@
+package model;
+
+/**
+ * A rectangular region of interest of an image, such as the part of an
+ * image shown in a preview window. An operation given a region only
+ * computes the pixels of the region, reading the pixels around it that
+ * its neighbourhood needs, and its result is as large as the region.
+ */
+public final class Region {
+  private final int row;
+  private final int col;
+  private final int width;
+  private final int height;
+
+  /**
+   * Constructs a region of the given position and size.
+   *
+   * @param row    the row position of the top left corner of the region
+   * @param col    the column position of the top left corner of the region
+   * @param width  the width of the region
+   * @param height the height of the region
+   * @throws IllegalArgumentException if the position is negative, or the size is not positive
+   */
+  public Region(int row, int col, int width, int height) throws IllegalArgumentException {
+    if (row < 0 || col < 0) {
+      throw new IllegalArgumentException("The position of a region must not be negative");
+    }
+    if (width < 1 || height < 1) {
+      throw new IllegalArgumentException("The width and height of a region must be positive");
+    }
+    this.row = row;
+    this.col = col;
+    this.width = width;
+    this.height = height;
+  }
+
+  /**
+   * Returns the row position of the top left corner of this region.
+   *
+   * @return the row position
+   */
+  public int getRow() {
+    return this.row;
+  }
+
+  /**
+   * Returns the column position of the top left corner of this region.
+   *
+   * @return the column position
+   */
+  public int getCol() {
+    return this.col;
+  }
+
+  /**
+   * Returns the width of this region.
+   *
+   * @return the width
+   */
+  public int getWidth() {
+    return this.width;
+  }
+
+  /**
+   * Returns the height of this region.
+   *
+   * @return the height
+   */
+  public int getHeight() {
+    return this.height;
+  }
+
+  /**
+   * Checks that this region lies within an image of the given size.
+   *
+   * @param imageWidth  the width of the image
+   * @param imageHeight the height of the image
+   * @throws IllegalArgumentException if a part of this region is outside of the image
+   */
+  void checkWithin(int imageWidth, int imageHeight) throws IllegalArgumentException {
+    if ((long) this.col + this.width > imageWidth || (long) this.row + this.height > imageHeight) {
+      throw new IllegalArgumentException("The region must be within the image");
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Region)) {
+      return false;
+    }
+    Region region = (Region) o;
+    return this.row == region.row && this.col == region.col
+            && this.width == region.width && this.height == region.height;
+  }
+
+  @Override
+  public int hashCode() {
+    return ((this.row * 31 + this.col) * 31 + this.width) * 31 + this.height;
+  }
+}
@@ -0,0 +1,21 @@
+package model;
+
+/**
+ * An operation of the model that can compute any rectangular region of its
+ * result on its own. This lets a result be produced one tile at a time,
+ * only when the tile is first read, instead of all at once.
+ */
+@FunctionalInterface
+interface RegionOperation {
+
+  /**
+   * Computes the pixels of a region of the result and writes them into the
+   * given image, which is exactly as large as the region. The pixel at the
+   * top left corner of the image is the pixel at the given position of the result.
+   *
+   * @param top    the row position of the region in the result
+   * @param left   the column position of the region in the result
+   * @param region the image to write the pixels of the region into
+   */
+  void apply(int top, int left, WritableImage region);
+}
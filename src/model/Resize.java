@@ -0,0 +1,265 @@
+package model;
+
+import java.util.Arrays;
+
+import static model.ImageProcessorModelState.ResizeType;
+
+/**
+ * Resizes an image to any width and height, shrinking or enlarging it, with
+ * a resampling filter centered on where each resulting pixel comes from.
+ * The filter is separable, so the source rows are filtered along the width
+ * first, and the filtered rows are filtered along the height, which takes as
+ * many multiply-adds per resulting value as the filter has taps in one
+ * direction, instead of their square. Which source positions every
+ * resulting position reads, and their integer weights, are worked out once
+ * per direction, so the passes only take integer multiply-adds. The
+ * resulting rows are computed in parallel bands, each filtering the source
+ * rows it reads along the width once.
+ * <ul>
+ *   <li>{@link ResizeType#Nearest} takes the source pixel under the center of
+ *   each resulting pixel.</li>
+ *   <li>{@link ResizeType#Bilinear} weighs the source pixels within one pixel
+ *   by their distance, falling off linearly.</li>
+ *   <li>{@link ResizeType#Bicubic} weighs the source pixels within two pixels
+ *   with the cubic convolution filter of Keys, whose small negative lobes keep
+ *   edges sharper.</li>
+ *   <li>{@link ResizeType#Lanczos} weighs the source pixels within three pixels
+ *   with a sinc windowed by a wider sinc, which keeps the most detail.</li>
+ * </ul>
+ * When shrinking, the filters other than nearest are stretched by the
+ * reduction, so every source pixel counts and the result does not alias.
+ * The positions past the edges fall back onto the edges.
+ */
+final class Resize {
+  // the weights of each direction are scaled by 2^14, and add up to exactly that
+  static final int SHIFT = 14;
+  // the filtered rows keep 8 bits of fraction for the second pass
+  static final int EXTRA = 8;
+
+  /**
+   * The source positions of every resulting position along one direction,
+   * and their weights. A resulting position reads as many source positions
+   * as its count, which are stored one after the other, from a multiple of
+   * the largest count onwards.
+   */
+  private static final class Axis {
+    private final int taps;
+    private final int[] count;
+    private final int[] index;
+    private final int[] weights;
+
+    private Axis(int taps, int[] count, int[] index, int[] weights) {
+      this.taps = taps;
+      this.count = count;
+      this.index = index;
+      this.weights = weights;
+    }
+
+    /**
+     * Works out the source positions every resulting position reads, and
+     * their weights, for the given filter.
+     *
+     * @param size       the number of source positions
+     * @param newSize    the number of resulting positions
+     * @param resizeType the filter
+     * @return the axis
+     */
+    private static Axis of(int size, int newSize, ResizeType resizeType) {
+      double scale = (double) newSize / size;
+      // shrinking stretches the filter over every source position it covers
+      double stretch = resizeType == ResizeType.Nearest ? 1 : Math.max(1, 1 / scale);
+      double support = support(resizeType) * stretch;
+      int taps = resizeType == ResizeType.Nearest ? 1 : (int) Math.ceil(2 * support) + 1;
+      int[] count = new int[newSize];
+      int[] index = new int[newSize * taps];
+      int[] weights = new int[newSize * taps];
+      double[] exact = new double[taps];
+      int one = 1 << SHIFT;
+      for (int j = 0; j < newSize; j++) {
+        int offset = j * taps;
+        // the center of the resulting pixel, in source positions
+        double center = (j + 0.5) / scale;
+        if (resizeType == ResizeType.Nearest) {
+          count[j] = 1;
+          index[offset] = Math.min((int) Math.floor(center), size - 1);
+          weights[offset] = one;
+          continue;
+        }
+        int first = (int) Math.ceil(center - support - 0.5);
+        int last = Math.min((int) Math.floor(center + support - 0.5), first + taps - 1);
+        double sum = 0;
+        int used = 0;
+        for (int k = first; k <= last; k++) {
+          double weight = weight(resizeType, (k + 0.5 - center) / stretch);
+          if (weight != 0) {
+            exact[used] = weight;
+            index[offset + used] = Math.max(0, Math.min(k, size - 1));
+            sum += weight;
+            used++;
+          }
+        }
+        count[j] = used;
+        int total = 0;
+        int largest = offset;
+        for (int k = 0; k < used; k++) {
+          int weight = (int) Math.round(exact[k] / sum * one);
+          weights[offset + k] = weight;
+          total += weight;
+          if (weight > weights[largest]) {
+            largest = offset + k;
+          }
+        }
+        // the rounding is made up on the largest weight, so flat colors stay the same
+        weights[largest] += one - total;
+      }
+      return new Axis(taps, count, index, weights);
+    }
+  }
+
+  /**
+   * A private constructor, as this class only holds static functions.
+   */
+  private Resize() {
+  }
+
+  /**
+   * Returns how far from the center the given filter weighs source pixels.
+   *
+   * @param resizeType the filter
+   * @return the distance, in pixels
+   */
+  static double support(ResizeType resizeType) {
+    switch (resizeType) {
+      case Bilinear:
+        return 1;
+      case Bicubic:
+        return 2;
+      case Lanczos:
+        return 3;
+      default:
+        return 0.5;
+    }
+  }
+
+  /**
+   * Returns the weight of the given filter at the given distance from the center.
+   *
+   * @param resizeType the filter
+   * @param x          the distance, in pixels
+   * @return the weight, before the weights are made to add up to one
+   */
+  static double weight(ResizeType resizeType, double x) {
+    double distance = Math.abs(x);
+    switch (resizeType) {
+      case Bilinear:
+        return Math.max(0, 1 - distance);
+      case Bicubic:
+        // the cubic convolution filter of Keys, with a = -0.5
+        if (distance < 1) {
+          return (1.5 * distance - 2.5) * distance * distance + 1;
+        } else if (distance < 2) {
+          return ((-0.5 * distance + 2.5) * distance - 4) * distance + 2;
+        }
+        return 0;
+      case Lanczos:
+        return distance < 3 ? sinc(distance) * sinc(distance / 3) : 0;
+      default:
+        return distance <= 0.5 ? 1 : 0;
+    }
+  }
+
+  /**
+   * A private helper function to compute the normalized sinc, sin(pi x) / (pi x).
+   *
+   * @param x the position
+   * @return the sinc of the position
+   */
+  private static double sinc(double x) {
+    if (x == 0) {
+      return 1;
+    }
+    double angle = Math.PI * x;
+    return Math.sin(angle) / angle;
+  }
+
+  /**
+   * Resizes the given image into the given image, whose size is the resulting size.
+   *
+   * @param source     the image to resize
+   * @param resizeType the filter every resulting pixel is computed with
+   * @param dest       the image to write the result into
+   * @param executor   the executor to compute the rows on
+   */
+  static void apply(Image source, ResizeType resizeType, WritableImage dest,
+                    BandExecutor executor) {
+    int width = source.getWidth();
+    int height = source.getHeight();
+    int newWidth = dest.getWidth();
+    int newHeight = dest.getHeight();
+    Axis columns = Axis.of(width, newWidth, resizeType);
+    Axis rows = Axis.of(height, newHeight, resizeType);
+    int shift = SHIFT + EXTRA;
+    long half = 1L << (shift - 1);
+    int max = dest.getMaxValue();
+
+    executor.forEachBand(newHeight, (long) newWidth * (columns.taps + rows.taps), (from, to) -> {
+      // the source rows the band reads, filtered along the width once each
+      int low = height;
+      int high = -1;
+      for (int i = from; i < to; i++) {
+        for (int k = 0; k < rows.count[i]; k++) {
+          low = Math.min(low, rows.index[i * rows.taps + k]);
+          high = Math.max(high, rows.index[i * rows.taps + k]);
+        }
+      }
+      int[][] sourceRow = new int[3][width];
+      int[][][] filtered = new int[3][high - low + 1][newWidth];
+      for (int row = low; row <= high; row++) {
+        source.getRow(row, 0, width, sourceRow[0], sourceRow[1], sourceRow[2]);
+        for (int channel = 0; channel < 3; channel++) {
+          filterRow(sourceRow[channel], columns, filtered[channel][row - low]);
+        }
+      }
+      long[] sums = new long[newWidth];
+      int[][] result = new int[3][newWidth];
+      for (int i = from; i < to; i++) {
+        int offset = i * rows.taps;
+        for (int channel = 0; channel < 3; channel++) {
+          Arrays.fill(sums, 0);
+          for (int k = 0; k < rows.count[i]; k++) {
+            long weight = rows.weights[offset + k];
+            int[] values = filtered[channel][rows.index[offset + k] - low];
+            for (int j = 0; j < newWidth; j++) {
+              sums[j] += values[j] * weight;
+            }
+          }
+          for (int j = 0; j < newWidth; j++) {
+            result[channel][j] = (int) Math.max(0, Math.min((sums[j] + half) >> shift, max));
+          }
+        }
+        dest.setRow(i, 0, newWidth, result[0], result[1], result[2], 0);
+      }
+    });
+  }
+
+  /**
+   * A private helper function to filter a channel of a source row along the
+   * width, keeping {@value #EXTRA} bits of fraction of every filtered value.
+   *
+   * @param values   the values of a channel of the source row
+   * @param columns  the source columns of every resulting column
+   * @param filtered the filtered values of every resulting column
+   */
+  private static void filterRow(int[] values, Axis columns, int[] filtered) {
+    int shift = SHIFT - EXTRA;
+    long half = 1L << (shift - 1);
+    for (int j = 0; j < filtered.length; j++) {
+      int offset = j * columns.taps;
+      long sum = 0;
+      for (int k = 0; k < columns.count[j]; k++) {
+        sum += (long) values[columns.index[offset + k]] * columns.weights[offset + k];
+      }
+      filtered[j] = (int) ((sum + half) >> shift);
+    }
+  }
+}
@@ -0,0 +1,318 @@
+package model;
+
+/**
+ * The summed-area table of an image, which holds, for every position, the
+ * sum of each channel over every pixel above and to the left of it. The sum
+ * over any rectangle then takes four reads, whatever its size, so a box
+ * blur costs the same for any radius, and the mean of a region costs the
+ * same for any region. The sums of the squared values, which the variance
+ * of a region needs, are only summed the first time they are asked for.
+ *
+ * <p>The table is summed in parallel bands of rows, each band from its own
+ * top row, and the sums of the bands above are then added to every band, in
+ * parallel as well. Each channel takes a long per pixel, so the table of an
+ * 8-bit image takes eight times the memory of the image, and twice that once
+ * the squares are summed.
+ */
+final class SummedAreaTable {
+  private final Image image;
+  private final BandExecutor executor;
+  private final int width;
+  private final int height;
+  // the number of sums of a row, which starts with the sum of no column
+  private final int stride;
+  private final long[][] sums;
+  private long[][] squares;
+
+  /**
+   * Constructs the summed-area table of the given image, summing its values.
+   *
+   * @param image    the image
+   * @param executor the executor to sum the rows on
+   * @throws IllegalArgumentException if the image is too large for its table to be stored
+   */
+  SummedAreaTable(Image image, BandExecutor executor) throws IllegalArgumentException {
+    this.image = image;
+    this.executor = executor;
+    this.width = image.getWidth();
+    this.height = image.getHeight();
+    this.stride = this.width + 1;
+    if ((long) this.stride * (this.height + 1) > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("The image is too large for a summed-area table");
+    }
+    this.sums = this.sum(false);
+  }
+
+  /**
+   * A private helper function to sum the values, or the squared values, of
+   * the image. Each band first sums its rows as if it were the whole image,
+   * then the sums of the rows just above the bands are worked out one band
+   * after another, which only takes a row per band, and added to the bands.
+   *
+   * @param squared whether to sum the squared values instead of the values
+   * @return the sums of every channel, a row of zeros first and a column of zeros first
+   */
+  private long[][] sum(boolean squared) {
+    int size = this.stride * (this.height + 1);
+    long[][] table = {new long[size], new long[size], new long[size]};
+    // the first row of the band every row was summed in
+    int[] bandOf = new int[this.height];
+    this.executor.forEachBand(this.height, this.width, (from, to) -> {
+      int[][] values = {new int[this.width], new int[this.width], new int[this.width]};
+      for (int i = from; i < to; i++) {
+        this.image.getRow(i, 0, this.width, values[0], values[1], values[2]);
+        int row = (i + 1) * this.stride;
+        int above = i * this.stride;
+        for (int c = 0; c < 3; c++) {
+          long[] sums = table[c];
+          int[] channel = values[c];
+          long run = 0;
+          for (int j = 0; j < this.width; j++) {
+            long value = channel[j];
+            run += squared ? value * value : value;
+            sums[row + j + 1] = i == from ? run : sums[above + j + 1] + run;
+          }
+        }
+        bandOf[i] = from;
+      }
+    });
+    // the sums of the row just above every band but the first, by the first row of the band
+    long[][][] carried = new long[this.height][][];
+    long[][] carry = null;
+    for (int i = 1; i < this.height; i++) {
+      if (bandOf[i] != i) {
+        continue;
+      }
+      long[][] next = new long[3][this.stride];
+      int last = i * this.stride;
+      for (int c = 0; c < 3; c++) {
+        for (int j = 0; j < this.stride; j++) {
+          next[c][j] = table[c][last + j] + (carry == null ? 0 : carry[c][j]);
+        }
+      }
+      carried[i] = next;
+      carry = next;
+    }
+    this.executor.forEachBand(this.height, this.width, (from, to) -> {
+      for (int i = from; i < to; i++) {
+        long[][] add = carried[bandOf[i]];
+        if (add == null) {
+          continue;
+        }
+        int row = (i + 1) * this.stride;
+        for (int c = 0; c < 3; c++) {
+          for (int j = 1; j < this.stride; j++) {
+            table[c][row + j] += add[c][j];
+          }
+        }
+      }
+    });
+    return table;
+  }
+
+  /**
+   * A private helper function to add up the given sums over a rectangle.
+   *
+   * @param table  the sums of a channel
+   * @param top    the first row of the rectangle
+   * @param left   the first column of the rectangle
+   * @param bottom the row past the last row of the rectangle
+   * @param right  the column past the last column of the rectangle
+   * @return the sum over the rectangle
+   */
+  private long over(long[] table, int top, int left, int bottom, int right) {
+    int upper = top * this.stride;
+    int lower = bottom * this.stride;
+    return table[lower + right] - table[upper + right] - table[lower + left]
+            + table[upper + left];
+  }
+
+  /**
+   * Adds up the values of a channel over a rectangle of the image.
+   *
+   * @param channel the channel, 0 for red, 1 for green, and 2 for blue
+   * @param top     the first row of the rectangle
+   * @param left    the first column of the rectangle
+   * @param bottom  the row past the last row of the rectangle
+   * @param right   the column past the last column of the rectangle
+   * @return the sum of the values
+   */
+  long sum(int channel, int top, int left, int bottom, int right) {
+    return this.over(this.sums[channel], top, left, bottom, right);
+  }
+
+  /**
+   * Adds up the squared values of a channel over a rectangle of the image,
+   * summing the squared values of the whole image the first time.
+   *
+   * @param channel the channel, 0 for red, 1 for green, and 2 for blue
+   * @param top     the first row of the rectangle
+   * @param left    the first column of the rectangle
+   * @param bottom  the row past the last row of the rectangle
+   * @param right   the column past the last column of the rectangle
+   * @return the sum of the squared values
+   */
+  long sumOfSquares(int channel, int top, int left, int bottom, int right) {
+    return this.over(this.squares()[channel], top, left, bottom, right);
+  }
+
+  /**
+   * A private helper function to get the sums of the squared values,
+   * summing them the first time.
+   *
+   * @return the sums of the squared values of every channel
+   */
+  private synchronized long[][] squares() {
+    if (this.squares == null) {
+      this.squares = this.sum(true);
+    }
+    return this.squares;
+  }
+
+  /**
+   * Works out the mean of every channel over a region of the image.
+   *
+   * @param region the region, within the image
+   * @return the means of the red, green, and blue values, in this order
+   */
+  double[] mean(Region region) {
+    double count = (double) region.getWidth() * region.getHeight();
+    double[] mean = new double[3];
+    for (int c = 0; c < 3; c++) {
+      mean[c] = this.sum(c, region.getRow(), region.getCol(),
+              region.getRow() + region.getHeight(), region.getCol() + region.getWidth()) / count;
+    }
+    return mean;
+  }
+
+  /**
+   * Works out the variance of every channel over a region of the image,
+   * which is the mean of the squared values less the square of the mean.
+   *
+   * @param region the region, within the image
+   * @return the variances of the red, green, and blue values, in this order
+   */
+  double[] variance(Region region) {
+    int top = region.getRow();
+    int left = region.getCol();
+    int bottom = top + region.getHeight();
+    int right = left + region.getWidth();
+    double count = (double) region.getWidth() * region.getHeight();
+    double[] variance = new double[3];
+    for (int c = 0; c < 3; c++) {
+      double mean = this.sum(c, top, left, bottom, right) / count;
+      double spread = this.sumOfSquares(c, top, left, bottom, right) / count - mean * mean;
+      // rounding can leave a flat region a hair under zero
+      variance[c] = Math.max(0, spread);
+    }
+    return variance;
+  }
+
+  /**
+   * Makes the operation blurring every region of the image with a box of
+   * the given radius, setting every pixel to the rounded mean of the square
+   * of pixels around it whose side is twice the radius plus one. Near the
+   * edges, the mean only counts the pixels of the square within the image.
+   *
+   * @param radius the radius of the box, 0 to leave the image as it is
+   * @return the operation computing the regions of the result
+   */
+  RegionOperation boxBlur(int radius) {
+    return (top, left, region) -> {
+      int regionWidth = region.getWidth();
+      int[][] values = {new int[regionWidth], new int[regionWidth], new int[regionWidth]};
+      for (int i = 0; i < region.getHeight(); i++) {
+        int row = top + i;
+        int upper = Math.max(0, row - radius);
+        int lower = Math.min(this.height, row + radius + 1);
+        for (int j = 0; j < regionWidth; j++) {
+          int col = left + j;
+          int first = Math.max(0, col - radius);
+          int last = Math.min(this.width, col + radius + 1);
+          long count = (long) (lower - upper) * (last - first);
+          for (int c = 0; c < 3; c++) {
+            long sum = this.over(this.sums[c], upper, first, lower, last);
+            values[c][j] = (int) ((sum + count / 2) / count);
+          }
+        }
+        region.setRow(i, 0, regionWidth, values[0], values[1], values[2], 0);
+      }
+    };
+  }
+
+  /**
+   * Blurs only a region of the given image with a box of the given radius,
+   * the same way as {@link #boxBlur(int)}. Only the table of the region and
+   * the pixels around it within the radius is summed, so the blurred region
+   * is the same as the same region of the whole blurred image.
+   *
+   * @param source   the image to blur
+   * @param radius   the radius of the box
+   * @param region   the region to blur, within the image
+   * @param executor the executor to sum and blur the rows on
+   * @return the blurred region, as large as the region
+   */
+  static Image boxBlur(Image source, int radius, Region region, BandExecutor executor) {
+    int top = Math.max(0, region.getRow() - radius);
+    int left = Math.max(0, region.getCol() - radius);
+    int bottom = (int) Math.min(source.getHeight(), (long) region.getRow() + region.getHeight()
+            + radius);
+    int right = (int) Math.min(source.getWidth(), (long) region.getCol() + region.getWidth()
+            + radius);
+    // the edges of the part that are edges of the image leave out the pixels past them as
+    // before, and the other ones are far enough from the region not to reach it
+    Image part = ViewImageImpl.crop(source, top, left, right - left, bottom - top);
+    RegionOperation blur = new SummedAreaTable(part, executor).boxBlur(radius);
+    int row = region.getRow() - top;
+    int col = region.getCol() - left;
+    return new TiledImageImpl(region.getWidth(), region.getHeight(), source.getMaxValue(), part,
+        (partTop, partLeft, tile) -> blur.apply(row + partTop, col + partLeft, tile), executor);
+  }
+
+  /**
+   * Makes the mask selecting the pixels darker than the pixels around them,
+   * which picks out dark writing or marks on a page that is lit unevenly,
+   * where a single threshold would not. A pixel is selected when its
+   * intensity is less than the mean intensity of the square around it, the
+   * same square as the one of {@link #boxBlur(int)}, less the given offset.
+   *
+   * @param radius the radius of the square
+   * @param offset how much darker than the mean around it a pixel must be
+   * @return the mask, as large as the image
+   */
+  Mask threshold(int radius, int offset) {
+    Mask mask = new Mask(this.width, this.height);
+    this.executor.forEachBand(this.height, this.width, (from, to) -> {
+      int[][] values = {new int[this.width], new int[this.width], new int[this.width]};
+      for (int i = from; i < to; i++) {
+        this.image.getRow(i, 0, this.width, values[0], values[1], values[2]);
+        int upper = Math.max(0, i - radius);
+        int lower = Math.min(this.height, i + radius + 1);
+        int start = -1;
+        for (int j = 0; j <= this.width; j++) {
+          boolean selected = false;
+          if (j < this.width) {
+            int first = Math.max(0, j - radius);
+            int last = Math.min(this.width, j + radius + 1);
+            long count = (long) (lower - upper) * (last - first);
+            long around = 0;
+            for (int c = 0; c < 3; c++) {
+              around += this.over(this.sums[c], upper, first, lower, last);
+            }
+            // compares the sums of the three channels, so no intensity is rounded
+            long pixel = (long) values[0][j] + values[1][j] + values[2][j];
+            selected = pixel * count < around - 3L * offset * count;
+          }
+          if (selected && start < 0) {
+            start = j;
+          } else if (!selected && start >= 0) {
+            // every row of the mask starts on a long of its own, so bands never share one
+            mask.setRun(i, start, j);
+            start = -1;
+          }
+        }
+      }
+    });
+    return mask;
+  }
+}
@@ -0,0 +1,398 @@
+package model;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An image split into square tiles of {@link #TILE_SIZE} pixels, whose tiles
+ * are only stored once they are needed. It is made in one of two ways.
+ *
+ * <p>As a copy-on-write copy of a source image, a tile is only stored once a
+ * pixel inside it is written, so every tile that was never written is read
+ * straight from the source. When the source is itself a tiled image, its
+ * tiles are shared by reference instead, and are copied on the first write.
+ * This is how a masked operation avoids copying the pixels it leaves untouched.
+ *
+ * <p>As the lazy result of a {@link RegionOperation}, a tile is computed the
+ * first time one of its pixels is read, so reading a part of the image only
+ * computes the tiles covering that part. Each tile is small enough for the
+ * operation to work on it while it stays in the cache. When a part of a row
+ * covers several tiles that are not computed yet, they are computed in parallel.
+ *
+ * <p>Once every tile is stored, the image lets go of its source and its
+ * operation, so that a long chain of results does not keep every earlier
+ * image of the chain alive.
+ */
+public final class TiledImageImpl extends WritableImage {
+  static final int TILE_SIZE = 128;
+
+  private final int tileColumns;
+  private final WritableImage[] shared;
+  private final AtomicReferenceArray<WritableImage> written;
+  private final AtomicInteger missing;
+  private volatile Image base;
+  private volatile RegionOperation producer;
+
+  /**
+   * Constructs a copy-on-write copy of the given image. Since images are
+   * never altered once handed out of the model, the source is not copied.
+   *
+   * @param source the image to copy
+   * @throws IllegalArgumentException if the source is null
+   */
+  TiledImageImpl(Image source) throws IllegalArgumentException {
+    this(source, source instanceof AbstractImage ? ((AbstractImage) source).getExecutor()
+            : BandExecutor.DEFAULT);
+  }
+
+  /**
+   * Constructs a copy-on-write copy of the given image, which works on the
+   * given executor.
+   *
+   * @param source   the image to copy
+   * @param executor the executor of the model making the copy
+   * @throws IllegalArgumentException if the source is null
+   */
+  TiledImageImpl(Image source, BandExecutor executor) throws IllegalArgumentException {
+    super(checkSource(source).getWidth(), source.getHeight(), source.getMaxValue());
+    this.tileColumns = (this.width + TILE_SIZE - 1) / TILE_SIZE;
+    int tileRows = (this.height + TILE_SIZE - 1) / TILE_SIZE;
+    this.producer = null;
+    this.runOn(executor);
+    if (source instanceof TiledImageImpl && ((TiledImageImpl) source).producer == null) {
+      TiledImageImpl tiled = (TiledImageImpl) source;
+      this.base = tiled.base;
+      this.shared = new WritableImage[tiled.shared.length];
+      int missing = 0;
+      for (int i = 0; i < this.shared.length; i++) {
+        this.shared[i] = tiled.tileAt(i);
+        if (this.shared[i] == null) {
+          missing++;
+        }
+      }
+      this.missing = new AtomicInteger(missing);
+    } else {
+      this.base = source;
+      this.shared = new WritableImage[this.tileColumns * tileRows];
+      this.missing = new AtomicInteger(this.shared.length);
+    }
+    this.written = new AtomicReferenceArray<>(this.shared.length);
+  }
+
+  /**
+   * Constructs an image whose tiles are computed by the given operation
+   * the first time they are read. The operation must only read images
+   * that are never altered, since it may run long after this call.
+   *
+   * @param width    the image width
+   * @param height   the image height
+   * @param maxValue the maximum RBG value
+   * @param source   the image the operation reads, or null if it reads none
+   * @param producer the operation computing the tiles
+   * @param executor the executor computing several tiles at once
+   * @throws IllegalArgumentException if the operation or the executor is null, the width
+   *                                  or height is not positive, or the maximum value is negative
+   */
+  TiledImageImpl(int width, int height, int maxValue, Image source, RegionOperation producer,
+                 BandExecutor executor) throws IllegalArgumentException {
+    super(width, height, maxValue);
+    if (producer == null || executor == null) {
+      throw new IllegalArgumentException("Operation must not be null.");
+    }
+    this.base = source;
+    this.producer = producer;
+    this.runOn(executor);
+    this.tileColumns = (width + TILE_SIZE - 1) / TILE_SIZE;
+    this.shared = new WritableImage[this.tileColumns * ((height + TILE_SIZE - 1) / TILE_SIZE)];
+    this.written = new AtomicReferenceArray<>(this.shared.length);
+    this.missing = new AtomicInteger(this.shared.length);
+  }
+
+  /**
+   * A private helper function to reject a null source before the
+   * super constructor reads it.
+   *
+   * @param source the image to copy
+   * @return the same image
+   * @throws IllegalArgumentException if the source is null
+   */
+  private static Image checkSource(Image source) throws IllegalArgumentException {
+    if (source == null) {
+      throw new IllegalArgumentException("Image must not be null.");
+    }
+    return source;
+  }
+
+  /**
+   * Returns the number of tiles this image stores itself, either because
+   * they were written or computed, or because they are shared with the source.
+   *
+   * @return the number of stored tiles
+   */
+  int storedTiles() {
+    int count = 0;
+    for (int i = 0; i < this.shared.length; i++) {
+      if (this.tileAt(i) != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the number of tiles this image has copied because they were
+   * written, or has computed because they were read.
+   *
+   * @return the number of written or computed tiles
+   */
+  int writtenTiles() {
+    int count = 0;
+    for (int i = 0; i < this.written.length(); i++) {
+      if (this.written.get(i) != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the stored tile at the given index, preferring the written copy
+   * over the shared one. The tiles are indexed row by row.
+   *
+   * @param index the index of the tile
+   * @return the stored tile, or null when it is not stored yet
+   */
+  WritableImage tileAt(int index) {
+    WritableImage tile = this.written.get(index);
+    return tile != null ? tile : this.shared[index];
+  }
+
+  /**
+   * A private helper function to get the tile at the given index for reading.
+   * A tile of a lazy image is computed here the first time it is read.
+   * Two threads reading the same new tile may both compute it, but only
+   * the first one is kept, so every reader sees the same tile.
+   *
+   * @param index the index of the tile
+   * @return the tile, or null when it is read from the source
+   */
+  private WritableImage readTile(int index) {
+    // read before the tile, since it is only let go once every tile is stored
+    RegionOperation producer = this.producer;
+    WritableImage tile = this.tileAt(index);
+    if (tile != null || producer == null) {
+      return tile;
+    }
+    int top = (index / this.tileColumns) * TILE_SIZE;
+    int left = (index % this.tileColumns) * TILE_SIZE;
+    tile = this.newTile(Math.min(TILE_SIZE, this.width - left),
+            Math.min(TILE_SIZE, this.height - top));
+    producer.apply(top, left, tile);
+    if (this.written.compareAndSet(index, null, tile)) {
+      this.tileStored();
+      return tile;
+    }
+    if (tile instanceof DirectImageImpl) {
+      ((DirectImageImpl) tile).close();
+    }
+    return this.written.get(index);
+  }
+
+  /**
+   * A private helper function to count a tile that is stored for the first
+   * time. Once every tile is stored, the source and the operation are let go.
+   */
+  private void tileStored() {
+    if (this.missing.decrementAndGet() == 0) {
+      this.base = null;
+      this.producer = null;
+    }
+  }
+
+  /**
+   * A private helper function to make a black tile of the given size, stored
+   * outside of the heap when the whole image would be. Such a tile is closed
+   * by the model once no image of its storage holds it anymore.
+   *
+   * @param tileWidth  the width of the tile
+   * @param tileHeight the height of the tile
+   * @return the black tile
+   */
+  private WritableImage newTile(int tileWidth, int tileHeight) {
+    return WritableImage.blank(tileWidth, tileHeight, this.maxValue,
+            (long) this.width * this.height);
+  }
+
+  @Override
+  boolean dependsOn(Image image) {
+    Image base = this.base;
+    return base != null && this.missing.get() > 0 && dependsOn(base, image);
+  }
+
+  @Override
+  void addDirectParts(Set<DirectImageImpl> parts) {
+    for (int i = 0; i < this.shared.length; i++) {
+      WritableImage tile = this.tileAt(i);
+      if (tile instanceof DirectImageImpl) {
+        parts.add((DirectImageImpl) tile);
+      }
+    }
+  }
+
+  @Override
+  void materialize() {
+    if (this.producer != null) {
+      this.getExecutor().forEachBand(this.shared.length, (long) TILE_SIZE * TILE_SIZE,
+          (from, to) -> {
+            for (int i = from; i < to; i++) {
+              this.readTile(i);
+            }
+          });
+      return;
+    }
+    for (int i = 0; i < this.shared.length; i++) {
+      if (this.tileAt(i) == null) {
+        this.tileForWrite(i / this.tileColumns, i % this.tileColumns);
+      }
+    }
+  }
+
+  @Override
+  public int getChannel(int row, int col, int channel) throws IllegalArgumentException {
+    this.checkChannel(row, col, channel);
+    // read before the tile, since it is only let go once every tile is stored
+    Image base = this.base;
+    WritableImage tile = this.readTile((row / TILE_SIZE) * this.tileColumns + col / TILE_SIZE);
+    if (tile == null) {
+      return base.getChannel(row, col, channel);
+    }
+    return tile.getChannel(row % TILE_SIZE, col % TILE_SIZE, channel);
+  }
+
+  @Override
+  void getChannelRow(int row, int col, int length, int channel, int[] dest, int offset) {
+    this.produceTiles(row, col, length);
+    Image base = this.base;
+    int tileRow = row / TILE_SIZE;
+    int end = col + length;
+    while (col < end) {
+      int tileCol = col / TILE_SIZE;
+      int part = Math.min(end, (tileCol + 1) * TILE_SIZE) - col;
+      WritableImage tile = this.readTile(tileRow * this.tileColumns + tileCol);
+      if (tile != null) {
+        tile.getChannelRow(row % TILE_SIZE, col % TILE_SIZE, part, channel, dest, offset);
+      } else {
+        readChannelRow(base, row, col, part, channel, dest, offset);
+      }
+      col += part;
+      offset += part;
+    }
+  }
+
+  @Override
+  void getRow(int row, int col, int length, int[] red, int[] green, int[] blue, int offset) {
+    this.produceTiles(row, col, length);
+    Image base = this.base;
+    int tileRow = row / TILE_SIZE;
+    int end = col + length;
+    while (col < end) {
+      int tileCol = col / TILE_SIZE;
+      int part = Math.min(end, (tileCol + 1) * TILE_SIZE) - col;
+      WritableImage tile = this.readTile(tileRow * this.tileColumns + tileCol);
+      if (tile != null) {
+        tile.getRow(row % TILE_SIZE, col % TILE_SIZE, part, red, green, blue, offset);
+      } else {
+        readRow(base, row, col, part, red, green, blue, offset);
+      }
+      col += part;
+      offset += part;
+    }
+  }
+
+  /**
+   * A private helper function to compute the tiles of a lazy image covering
+   * a part of a row, in parallel when several of them are not computed yet.
+   *
+   * @param row    the row position
+   * @param col    the column position where the part of the row starts
+   * @param length the number of pixels in the part of the row
+   */
+  private void produceTiles(int row, int col, int length) {
+    if (this.producer == null || length <= 0) {
+      return;
+    }
+    int first = (row / TILE_SIZE) * this.tileColumns + col / TILE_SIZE;
+    int count = (col + length - 1) / TILE_SIZE - col / TILE_SIZE + 1;
+    int missing = 0;
+    for (int t = 0; t < count; t++) {
+      if (this.tileAt(first + t) == null) {
+        missing++;
+      }
+    }
+    if (missing > 1) {
+      this.getExecutor().forEachBand(count, (long) TILE_SIZE * TILE_SIZE, (from, to) -> {
+        for (int t = from; t < to; t++) {
+          this.readTile(first + t);
+        }
+      });
+    }
+  }
+
+  @Override
+  void setPixel(int row, int col, int red, int green, int blue) {
+    int tileRow = row / TILE_SIZE;
+    int tileCol = col / TILE_SIZE;
+    WritableImage tile = this.written.get(tileRow * this.tileColumns + tileCol);
+    if (tile == null) {
+      tile = this.tileForWrite(tileRow, tileCol);
+    }
+    tile.setPixel(row % TILE_SIZE, col % TILE_SIZE, red, green, blue);
+  }
+
+  /**
+   * A private helper function to get the tile at the given tile position
+   * for writing. A tile that has not been written yet is copied first,
+   * either from the shared tile or from the source image, and a tile of
+   * a lazy image is computed first.
+   *
+   * @param tileRow the row of the tile
+   * @param tileCol the column of the tile
+   * @return the written tile of this image
+   */
+  private synchronized WritableImage tileForWrite(int tileRow, int tileCol) {
+    int index = tileRow * this.tileColumns + tileCol;
+    // read before the tile, since they are only let go once every tile is stored
+    RegionOperation producer = this.producer;
+    Image base = this.base;
+    WritableImage tile = this.written.get(index);
+    if (tile != null) {
+      return tile;
+    }
+    if (producer != null) {
+      return this.readTile(index);
+    }
+    int top = tileRow * TILE_SIZE;
+    int left = tileCol * TILE_SIZE;
+    int tileWidth = Math.min(TILE_SIZE, this.width - left);
+    int tileHeight = Math.min(TILE_SIZE, this.height - top);
+    WritableImage sharedTile = this.shared[index];
+    WritableImage copy = this.newTile(tileWidth, tileHeight);
+    int[] red = new int[tileWidth];
+    int[] green = new int[tileWidth];
+    int[] blue = new int[tileWidth];
+    for (int i = 0; i < tileHeight; i++) {
+      if (sharedTile != null) {
+        sharedTile.getRow(i, 0, tileWidth, red, green, blue, 0);
+      } else {
+        readRow(base, top + i, left, tileWidth, red, green, blue, 0);
+      }
+      copy.setRow(i, 0, tileWidth, red, green, blue, 0);
+    }
+    this.written.set(index, copy);
+    if (sharedTile == null) {
+      this.tileStored();
+    }
+    return copy;
+  }
+}
@@ -0,0 +1,242 @@
+package model;
+
+import java.util.Set;
+
+import static model.ImageProcessorModelState.FlipType;
+
+/**
+ * An image that is a geometric view of another image, such as a flip, a crop,
+ * or a transpose of it. It stores no pixels of its own, and only remaps every
+ * position onto the other image, so making a view costs nothing no matter how
+ * large the image is. A view of a view remaps straight onto the original image,
+ * so a chain of flips and crops is read through a single remapping.
+ *
+ * <p>A view that keeps the rows of the other image as rows is read row by row
+ * straight from it. A view that turns columns into rows, such as a transpose,
+ * copies its pixels the first time it is read row by row, since reading a
+ * column of the other image for every row would be much slower.
+ */
+public final class ViewImageImpl extends AbstractImage {
+  private static final int BLOCK_SIZE = 64;
+
+  private final Image parent;
+  // the position in the parent is (rowOrigin + rowByRow * row + rowByCol * col,
+  // colOrigin + colByRow * row + colByCol * col)
+  private final int rowOrigin;
+  private final int rowByRow;
+  private final int rowByCol;
+  private final int colOrigin;
+  private final int colByRow;
+  private final int colByCol;
+  private volatile WritableImage copy;
+
+  /**
+   * A private constructor for a view remapping every position onto the parent.
+   *
+   * @param parent    the image the view remaps onto
+   * @param width     the width of the view
+   * @param height    the height of the view
+   * @param rowOrigin the parent row of the top left corner
+   * @param rowByRow  how much the parent row moves for every row
+   * @param rowByCol  how much the parent row moves for every column
+   * @param colOrigin the parent column of the top left corner
+   * @param colByRow  how much the parent column moves for every row
+   * @param colByCol  how much the parent column moves for every column
+   */
+  private ViewImageImpl(Image parent, int width, int height,
+                        int rowOrigin, int rowByRow, int rowByCol,
+                        int colOrigin, int colByRow, int colByCol) {
+    super(width, height, parent.getMaxValue());
+    this.parent = parent;
+    this.rowOrigin = rowOrigin;
+    this.rowByRow = rowByRow;
+    this.rowByCol = rowByCol;
+    this.colOrigin = colOrigin;
+    this.colByRow = colByRow;
+    this.colByCol = colByCol;
+  }
+
+  /**
+   * A private helper function to make a view of the given image. When the
+   * image is a view itself, both remappings are combined into a single one
+   * onto its parent.
+   *
+   * @param image     the image to make a view of
+   * @param width     the width of the view
+   * @param height    the height of the view
+   * @param rowOrigin the image row of the top left corner
+   * @param rowByRow  how much the image row moves for every row
+   * @param rowByCol  how much the image row moves for every column
+   * @param colOrigin the image column of the top left corner
+   * @param colByRow  how much the image column moves for every row
+   * @param colByCol  how much the image column moves for every column
+   * @return the view of the image
+   */
+  private static ViewImageImpl of(Image image, int width, int height,
+                                  int rowOrigin, int rowByRow, int rowByCol,
+                                  int colOrigin, int colByRow, int colByCol) {
+    if (!(image instanceof ViewImageImpl)) {
+      return new ViewImageImpl(image, width, height,
+              rowOrigin, rowByRow, rowByCol, colOrigin, colByRow, colByCol);
+    }
+    ViewImageImpl view = (ViewImageImpl) image;
+    return new ViewImageImpl(view.parent, width, height,
+            view.rowOrigin + view.rowByRow * rowOrigin + view.rowByCol * colOrigin,
+            view.rowByRow * rowByRow + view.rowByCol * colByRow,
+            view.rowByRow * rowByCol + view.rowByCol * colByCol,
+            view.colOrigin + view.colByRow * rowOrigin + view.colByCol * colOrigin,
+            view.colByRow * rowByRow + view.colByCol * colByRow,
+            view.colByRow * rowByCol + view.colByCol * colByCol);
+  }
+
+  /**
+   * Makes a view of the given image flipped horizontally or vertically.
+   *
+   * @param image    the image to flip
+   * @param flipType whether the image is flipped horizontally or vertically
+   * @return the flipped view of the image
+   */
+  static ViewImageImpl flip(Image image, FlipType flipType) {
+    int width = image.getWidth();
+    int height = image.getHeight();
+    if (flipType == FlipType.Horizontal) {
+      return of(image, width, height, 0, 1, 0, width - 1, 0, -1);
+    }
+    return of(image, width, height, height - 1, -1, 0, 0, 0, 1);
+  }
+
+  /**
+   * Makes a view of a rectangular part of the given image.
+   *
+   * @param image  the image to crop
+   * @param row    the row position of the top left corner of the part
+   * @param col    the column position of the top left corner of the part
+   * @param width  the width of the part
+   * @param height the height of the part
+   * @return the cropped view of the image
+   * @throws IllegalArgumentException if the part is empty or not inside the image
+   */
+  static ViewImageImpl crop(Image image, int row, int col, int width, int height)
+          throws IllegalArgumentException {
+    if (row < 0 || col < 0 || width <= 0 || height <= 0
+            || row > image.getHeight() - height || col > image.getWidth() - width) {
+      throw new IllegalArgumentException("The region to crop must be inside the image.");
+    }
+    return of(image, width, height, row, 1, 0, col, 0, 1);
+  }
+
+  /**
+   * Makes a view of the given image transposed, so that its rows become columns.
+   *
+   * @param image the image to transpose
+   * @return the transposed view of the image
+   */
+  static ViewImageImpl transpose(Image image) {
+    return of(image, image.getHeight(), image.getWidth(), 0, 0, 1, 0, 1, 0);
+  }
+
+  @Override
+  public int getChannel(int row, int col, int channel) throws IllegalArgumentException {
+    this.checkChannel(row, col, channel);
+    WritableImage copy = this.copy;
+    if (copy != null) {
+      return copy.getChannel(row, col, channel);
+    }
+    return this.parent.getChannel(this.rowOrigin + this.rowByRow * row + this.rowByCol * col,
+            this.colOrigin + this.colByRow * row + this.colByCol * col, channel);
+  }
+
+  @Override
+  void getChannelRow(int row, int col, int length, int channel, int[] dest, int offset) {
+    if (this.rowByCol != 0) {
+      this.materialize();
+      this.copy.getChannelRow(row, col, length, channel, dest, offset);
+      return;
+    }
+    int parentRow = this.rowOrigin + this.rowByRow * row;
+    int parentCol = this.colOrigin + this.colByRow * row + this.colByCol * col;
+    if (this.colByCol == 1) {
+      readChannelRow(this.parent, parentRow, parentCol, length, channel, dest, offset);
+    } else {
+      readChannelRow(this.parent, parentRow, parentCol - length + 1, length, channel,
+              dest, offset);
+      reverse(dest, offset, length);
+    }
+  }
+
+  @Override
+  void getRow(int row, int col, int length, int[] red, int[] green, int[] blue, int offset) {
+    if (this.rowByCol != 0) {
+      this.materialize();
+      this.copy.getRow(row, col, length, red, green, blue, offset);
+      return;
+    }
+    int parentRow = this.rowOrigin + this.rowByRow * row;
+    int parentCol = this.colOrigin + this.colByRow * row + this.colByCol * col;
+    if (this.colByCol == 1) {
+      readRow(this.parent, parentRow, parentCol, length, red, green, blue, offset);
+    } else {
+      readRow(this.parent, parentRow, parentCol - length + 1, length, red, green, blue, offset);
+      reverse(red, offset, length);
+      reverse(green, offset, length);
+      reverse(blue, offset, length);
+    }
+  }
+
+  /**
+   * A private helper function to reverse a part of an array in place.
+   *
+   * @param values the array to reverse a part of
+   * @param offset the index where the part starts
+   * @param length the length of the part
+   */
+  private static void reverse(int[] values, int offset, int length) {
+    for (int i = offset, j = offset + length - 1; i < j; i++, j--) {
+      int value = values[i];
+      values[i] = values[j];
+      values[j] = value;
+    }
+  }
+
+  @Override
+  boolean dependsOn(Image image) {
+    return this.copy == null && dependsOn(this.parent, image);
+  }
+
+  @Override
+  void addDirectParts(Set<DirectImageImpl> parts) {
+    WritableImage copy = this.copy;
+    if (copy != null) {
+      copy.addDirectParts(parts);
+    }
+  }
+
+  @Override
+  void materialize() {
+    if (this.copy != null) {
+      return;
+    }
+    synchronized (this) {
+      if (this.copy != null) {
+        return;
+      }
+      WritableImage copy = WritableImage.blank(this.width, this.height, this.maxValue);
+      int blockRows = (this.height + BLOCK_SIZE - 1) / BLOCK_SIZE;
+      // copies block by block, so both the rows and the columns being read stay in the cache
+      this.getExecutor().forEachBand(blockRows, (long) BLOCK_SIZE * this.width, (from, to) -> {
+        for (int top = from * BLOCK_SIZE; top < Math.min(to * BLOCK_SIZE, this.height);
+             top += BLOCK_SIZE) {
+          for (int left = 0; left < this.width; left += BLOCK_SIZE) {
+            for (int i = top; i < Math.min(top + BLOCK_SIZE, this.height); i++) {
+              for (int j = left; j < Math.min(left + BLOCK_SIZE, this.width); j++) {
+                copy.setPixel(i, j, this.getChannel(i, j, 0), this.getChannel(i, j, 1),
+                        this.getChannel(i, j, 2));
+              }
+            }
+          }
+        }
+      });
+      this.copy = copy;
+    }
+  }
+}
@@ -0,0 +1,108 @@
+package model;
+
+/**
+ * An image whose pixels can be written while an operation is producing it.
+ * The writing methods are only visible inside the model, so that an image
+ * can never be altered once it has been handed out of the model. Since the
+ * hash of an image is cached, an image must not be hashed or compared
+ * before it is completely written.
+ */
+abstract class WritableImage extends AbstractImage {
+  static final long DIRECT_PIXELS = 1L << 26;
+  // the number of pixels from which images are stored outside of the heap
+  private static volatile long directPixels = DIRECT_PIXELS;
+
+  /**
+   * Constructs the common part of a writable image using the given information.
+   *
+   * @param width    the image width
+   * @param height   the image height
+   * @param maxValue the maximum RBG value
+   * @throws IllegalArgumentException if the width or height is not positive,
+   *                                  or the maximum value is negative
+   */
+  WritableImage(int width, int height, int maxValue) throws IllegalArgumentException {
+    super(width, height, maxValue);
+  }
+
+  /**
+   * Sets the number of pixels from which images are stored outside of the
+   * heap, which is {@link #DIRECT_PIXELS} unless it is set.
+   *
+   * @param pixels the number of pixels
+   * @return the number of pixels it replaces
+   */
+  static long setDirectPixels(long pixels) {
+    long previous = directPixels;
+    directPixels = pixels;
+    return previous;
+  }
+
+  /**
+   * Makes a black image to write into. Images of at least {@link #DIRECT_PIXELS}
+   * pixels are stored outside of the heap. Otherwise, they are stored in planes,
+   * of bytes when the maximum value fits in 8 bits, and of shorts otherwise.
+   *
+   * @param width    the image width
+   * @param height   the image height
+   * @param maxValue the maximum RBG value
+   * @return the black image to write into
+   * @throws IllegalArgumentException if the width or height is not positive,
+   *                                  or the maximum value is negative or over 65535
+   */
+  static WritableImage blank(int width, int height, int maxValue)
+          throws IllegalArgumentException {
+    return blank(width, height, maxValue, (long) width * height);
+  }
+
+  /**
+   * Makes a black part of an image of the given number of pixels, such as
+   * one of its tiles, stored the same way as the whole image would be. The
+   * tiles of an image of at least {@link #DIRECT_PIXELS} pixels are then
+   * stored outside of the heap, however small they are.
+   *
+   * @param width       the width of the part
+   * @param height      the height of the part
+   * @param maxValue    the maximum RBG value
+   * @param imagePixels the number of pixels of the whole image
+   * @return the black part to write into
+   * @throws IllegalArgumentException if the width or height is not positive,
+   *                                  or the maximum value is negative or over 65535
+   */
+  static WritableImage blank(int width, int height, int maxValue, long imagePixels)
+          throws IllegalArgumentException {
+    if (imagePixels >= directPixels) {
+      return new DirectImageImpl(width, height, maxValue);
+    }
+    return new PlanarImageImpl(width, height, maxValue);
+  }
+
+  /**
+   * Sets the channel values of the pixel at the specified location.
+   *
+   * @param row   the row position
+   * @param col   the column position
+   * @param red   the red channel value
+   * @param green the green channel value
+   * @param blue  the blue channel value
+   */
+  abstract void setPixel(int row, int col, int red, int green, int blue);
+
+  /**
+   * Sets the channel values of a part of a row from the given arrays,
+   * starting at the given index of the arrays.
+   *
+   * @param row    the row position
+   * @param col    the column position where the part of the row starts
+   * @param length the number of pixels to set
+   * @param red    the red values to set
+   * @param green  the green values to set
+   * @param blue   the blue values to set
+   * @param offset the index of the arrays to start reading from
+   */
+  void setRow(int row, int col, int length, int[] red, int[] green, int[] blue, int offset) {
+    for (int j = 0; j < length; j++) {
+      this.setPixel(row, col + j, red[offset + j], green[offset + j], blue[offset + j]);
+    }
+  }
+}
@@ -1,19 +1,21 @@
 package util;
 
 import java.awt.image.BufferedImage;
-import java.awt.Color;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
 import javax.imageio.ImageIO;
 
-import model.IPixel;
+import model.Histogram;
 import model.Image;
-import model.ImageImpl;
-import model.Pixel;
+import model.ImageBuilder;
 
 import static java.awt.image.BufferedImage.TYPE_INT_RGB;
 
@@ -41,7 +43,6 @@ public class Utils {
     int green = 0;
     int blue = 0;
     int maxValue = 255;
-    Pixel[][] pixels;
 
     Scanner sc;
     try {
@@ -79,7 +80,11 @@ public class Utils {
       maxValue = sc.nextInt();
     }
 
-    pixels = new Pixel[height][width];
+    // reads a row at a time into an image stored the same way as the results of the model
+    ImageBuilder image = new ImageBuilder(width, height, maxValue);
+    int[] reds = new int[width];
+    int[] greens = new int[width];
+    int[] blues = new int[width];
     for (int i = 0; i < height; i++) {
       for (int j = 0; j < width; j++) {
         if (sc.hasNextInt()) {
@@ -91,10 +96,13 @@ public class Utils {
         if (sc.hasNextInt()) {
           blue = sc.nextInt();
         }
-        pixels[i][j] = new Pixel(red, green, blue);
+        reds[j] = red;
+        greens[j] = green;
+        blues[j] = blue;
       }
+      image.setRow(i, reds, greens, blues);
     }
-    return new ImageImpl(width, height, maxValue, pixels);
+    return image.build();
   }
 
   /**
@@ -110,11 +118,7 @@ public class Utils {
           throws IllegalArgumentException {
     int width = 0;
     int height = 0;
-    int red = 0;
-    int green = 0;
-    int blue = 0;
     int maxValue = 255;
-    IPixel[][] pixels;
 
     BufferedImage imageToLoad = null;
     try {
@@ -126,38 +130,116 @@ public class Utils {
     height = imageToLoad.getHeight();
     width = imageToLoad.getWidth();
 
-    pixels = new Pixel[height][width];
+    // reads a row of packed pixels at a time, dropping the alpha channel
+    ImageBuilder image = new ImageBuilder(width, height, maxValue);
+    int[] rgb = new int[width];
     for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        red = new Color(imageToLoad.getRGB(j, i)).getRed();
-        green = new Color(imageToLoad.getRGB(j, i)).getGreen();
-        blue = new Color(imageToLoad.getRGB(j, i)).getBlue();
-        pixels[i][j] = new Pixel(red, green, blue);
-      }
+      imageToLoad.getRGB(0, i, width, 1, rgb, 0, width);
+      image.setRow(i, rgb);
     }
-    return new ImageImpl(width, height, maxValue, pixels);
+    return image.build();
   }
 
   /**
    * A utility to create a {@link BufferedImage} from an
-   * {@link Image} object. Uses its individual pixels to
-   * produce an image.
+   * {@link Image} object. Reads the image one row at a time
+   * and packs each row into the buffered image at once. Images
+   * with a maximum value over 255 are scaled down to 8 bits.
    *
    * @param saved     the Image file
    * @param imagePath the path of the image
    * @return a buffered image
    */
   public static BufferedImage toBufferedImage(Image saved, String imagePath) {
-    BufferedImage imageToSave = new BufferedImage(
-            saved.getWidth(), saved.getHeight(), TYPE_INT_RGB);
-    for (int i = 0; i < imageToSave.getHeight(); i++) {
-      for (int j = 0; j < imageToSave.getWidth(); j++) {
-        Color col = new Color(saved.getPixelAt(i, j).getRed(),
-                saved.getPixelAt(i, j).getGreen(),
-                saved.getPixelAt(i, j).getBlue());
-        imageToSave.setRGB(j, i, col.getRGB());
+    int width = saved.getWidth();
+    int height = saved.getHeight();
+    int maxValue = saved.getMaxValue();
+    BufferedImage imageToSave = new BufferedImage(width, height, TYPE_INT_RGB);
+    int[] red = new int[width];
+    int[] green = new int[width];
+    int[] blue = new int[width];
+    int[] rgb = new int[width];
+    for (int i = 0; i < height; i++) {
+      saved.getRow(i, 0, width, red, green, blue);
+      for (int j = 0; j < width; j++) {
+        if (maxValue > 255) {
+          red[j] = red[j] * 255 / maxValue;
+          green[j] = green[j] * 255 / maxValue;
+          blue[j] = blue[j] * 255 / maxValue;
+        }
+        rgb[j] = (red[j] << 16) | (green[j] << 8) | blue[j];
       }
+      imageToSave.setRGB(0, i, width, 1, rgb, 0, width);
     }
     return imageToSave;
   }
-}
\ No newline at end of file
+
+  /**
+   * A utility that reads the weights of a convolution kernel from a text
+   * file, one row of the kernel per line, with the weights of a row
+   * separated by spaces. Empty lines and lines starting with '#' are skipped.
+   *
+   * @param kernelPath the path of the kernel file
+   * @return the weights, whose first index is the row
+   * @throws IllegalArgumentException if the file cannot be found, is empty,
+   *                                  or has a weight that is not a number
+   */
+  public static double[][] kernelFromFile(String kernelPath) throws IllegalArgumentException {
+    Scanner sc;
+    try {
+      sc = new Scanner(new FileInputStream(kernelPath));
+    } catch (FileNotFoundException e) {
+      throw new IllegalArgumentException("Invalid file");
+    }
+    List<double[]> rows = new ArrayList<>();
+    while (sc.hasNextLine()) {
+      String str = sc.nextLine().trim();
+      if (str.equals("") || str.charAt(0) == '#') {
+        continue;
+      }
+      String[] weights = str.split("\\s+");
+      double[] row = new double[weights.length];
+      for (int j = 0; j < weights.length; j++) {
+        try {
+          row[j] = Double.parseDouble(weights[j]);
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("Invalid kernel weight: " + weights[j]);
+        }
+      }
+      rows.add(row);
+    }
+    if (rows.isEmpty()) {
+      throw new IllegalArgumentException("Nothing to load");
+    }
+    return rows.toArray(new double[0][]);
+  }
+
+  /**
+   * A utility that writes a histogram to a text file, as a line of the
+   * names of the columns, followed by a line for every value from 0 to the
+   * maximum value, holding the value and how many pixels have it as their
+   * red, green, and blue value, and as their intensity, separated by commas.
+   *
+   * @param histogram the histogram to write
+   * @param path      the path of the file
+   * @throws IllegalArgumentException if the file cannot be written
+   */
+  public static void histogramToFile(Histogram histogram, String path)
+          throws IllegalArgumentException {
+    long[] red = histogram.getRed();
+    long[] green = histogram.getGreen();
+    long[] blue = histogram.getBlue();
+    long[] intensity = histogram.getIntensity();
+    try (PrintWriter writer = new PrintWriter(new FileWriter(path))) {
+      writer.println("value,red,green,blue,intensity");
+      for (int v = 0; v < red.length; v++) {
+        writer.println(v + "," + red[v] + "," + green[v] + "," + blue[v] + "," + intensity[v]);
+      }
+      if (writer.checkError()) {
+        throw new IllegalArgumentException("The histogram cannot be written");
+      }
+    } catch (IOException e) {
+      throw new IllegalArgumentException("The histogram cannot be written");
+    }
+  }
+}
@@ -3,6 +3,7 @@ package view;
 import java.awt.Image;
 
 import controller.Features;
+import model.Histogram;
 
 /**
  * The interface to visualize the image processor in the GUI system.
@@ -21,6 +22,23 @@ public interface ImageProcessorGUIView extends ImageProcessorView {
    */
   void refresh(Image image, Boolean original);
 
+  /**
+   * Refreshes a part of the preview, showing the given image at the given
+   * position of it, and the rest of the preview as it was loaded.
+   *
+   * @param image the image of the part of the preview
+   * @param row   the row position of the part
+   * @param col   the column position of the part
+   */
+  void refreshPreview(Image image, int row, int col);
+
+  /**
+   * Redraws the histogram of the image, from the counts of the model.
+   *
+   * @param histogram the histogram of the image
+   */
+  void refreshHistogram(Histogram histogram);
+
   /**
    * Accepts an object of the features interface.
    * Called by the controller in its constructor.
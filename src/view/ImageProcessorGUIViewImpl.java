@@ -1,12 +1,13 @@
 package view;
 
 import controller.Features;
-import model.IPixel;
+import model.Histogram;
 import model.ImageProcessorModelState.GreyscaleType;
 import model.ImageProcessorModelState.ColorTransType;
 import model.ImageProcessorModelState.FilteringType;
 import model.ImageProcessorModelState.FlipType;
-import model.Pixel;
+import model.ImageProcessorModelState.ResizeType;
+import model.Region;
 import util.Utils;
 
 import javax.imageio.ImageIO;
@@ -28,12 +29,11 @@ import java.awt.Image;
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * This class implements the {@link ImageProcessorGUIView} interface, and will be in
@@ -71,7 +71,13 @@ public class ImageProcessorGUIViewImpl extends JFrame implements ImageProcessorG
   private final JButton greyscaleButton;
   private final JButton sepiaButton;
   private final JButton downscaleButton;
+  private final JButton resizeButton;
+  private final JButton gaussianBlurButton;
+  private final JButton zoomButton;
   private String currentImage;
+  private BufferedImage previewBase;
+  private BufferedImage previewImage;
+  private Rectangle previewEdit;
 
   /**
    * Constructor for ImageProcessorGUIView Implementation.
@@ -301,6 +307,21 @@ public class ImageProcessorGUIViewImpl extends JFrame implements ImageProcessorG
     this.downscaleButton.setActionCommand("Downscale");
     operationPanel.add(this.downscaleButton);
 
+    // resize (operation)
+    this.resizeButton = new JButton("Resize");
+    this.resizeButton.setActionCommand("Resize");
+    operationPanel.add(this.resizeButton);
+
+    // gaussian-blur (operation)
+    this.gaussianBlurButton = new JButton("Gaussian-blur");
+    this.gaussianBlurButton.setActionCommand("Gaussian-blur");
+    operationPanel.add(this.gaussianBlurButton);
+
+    // zoom (display)
+    this.zoomButton = new JButton("Zoom");
+    this.zoomButton.setActionCommand("Zoom");
+    operationPanel.add(this.zoomButton);
+
     setVisible(true);
   }
 
@@ -308,13 +329,47 @@ public class ImageProcessorGUIViewImpl extends JFrame implements ImageProcessorG
   public void refresh(Image image, Boolean original) {
     if (original) {
     this.fileLoadDisplay.setIcon(new ImageIcon(image));
-    this.histogramDisplay.setIcon(new ImageIcon(this.histogramImage("", image)));
     } else {
       this.previewDisplay.setIcon(new ImageIcon(image));
     }
     this.repaint();
   }
 
+  @Override
+  public void refreshPreview(Image image, int row, int col) {
+    if (this.previewImage == null) {
+      return;
+    }
+    Graphics2D graphics = this.previewImage.createGraphics();
+    // the part edited before shows the loaded image again
+    if (this.previewEdit != null) {
+      Rectangle edit = this.previewEdit;
+      graphics.drawImage(this.previewBase.getSubimage(edit.x, edit.y, edit.width, edit.height),
+              edit.x, edit.y, null);
+    }
+    graphics.drawImage(image, col, row, null);
+    graphics.dispose();
+    this.previewEdit = new Rectangle(col, row, image.getWidth(null), image.getHeight(null));
+    this.previewDisplay.repaint();
+  }
+
+  /**
+   * A private helper function to show a newly loaded image in the preview,
+   * keeping a copy of it to draw the edits of the preview on.
+   *
+   * @param image the loaded image
+   */
+  private void loadPreview(BufferedImage image) {
+    this.previewBase = image;
+    this.previewImage = new BufferedImage(image.getWidth(), image.getHeight(),
+            BufferedImage.TYPE_INT_RGB);
+    Graphics2D graphics = this.previewImage.createGraphics();
+    graphics.drawImage(image, 0, 0, null);
+    graphics.dispose();
+    this.previewEdit = null;
+    this.previewDisplay.setIcon(new ImageIcon(this.previewImage));
+  }
+
   @Override
   public void addFeatures(Features feature) {
     this.fileLoadButton.addActionListener(act -> {
@@ -330,14 +385,19 @@ public class ImageProcessorGUIViewImpl extends JFrame implements ImageProcessorG
           model.Image ppmImage = Utils.ppmToImage(this.currentImage, "image");
           BufferedImage bImage = Utils.toBufferedImage(ppmImage, this.currentImage);
           fileLoadDisplay.setIcon(new ImageIcon(bImage));
-          previewDisplay.setIcon(new ImageIcon(bImage));
+          this.loadPreview(bImage);
         } else {
           fileLoadDisplay.setIcon(new ImageIcon(this.currentImage));
-          previewDisplay.setIcon(new ImageIcon(this.currentImage));
+          try {
+            BufferedImage bImage = ImageIO.read(f);
+            if (bImage != null) {
+              this.loadPreview(bImage);
+            }
+          } catch (IOException e) {
+            this.renderMessage("The image cannot be shown in the preview.");
+          }
         }
         feature.load(this.currentImage);
-        histogramDisplay.setIcon(
-                new ImageIcon(this.histogramImage(this.currentImage, null)));
       }
     });
     this.fileSaveButton.addActionListener(act -> {
@@ -366,7 +426,7 @@ public class ImageProcessorGUIViewImpl extends JFrame implements ImageProcessorG
               "that you want to brighten this preview image by");
       try {
         int strength = Integer.parseInt(brightenPrevDisplay);
-        feature.brighten(strength, this.makeMask());
+        feature.brighten(strength, this.makeRegion());
       } catch (NumberFormatException e) {
         this.renderMessage("Please enter a valid strength");
       }
@@ -384,6 +444,44 @@ public class ImageProcessorGUIViewImpl extends JFrame implements ImageProcessorG
         this.renderMessage("Please enter a valid width and height");
       }
     });
+    this.resizeButton.addActionListener(act -> {
+      String widthDisplay = JOptionPane.showInputDialog("Please enter the new width " +
+              "(in pixels) of this image");
+      String heightDisplay = JOptionPane.showInputDialog("Please enter the new height " +
+              "(in pixels) of this image");
+      Object filter = JOptionPane.showInputDialog(this, "Please choose a filter to resize " +
+              "this image with", "Resize", JOptionPane.QUESTION_MESSAGE, null,
+              ResizeType.values(), ResizeType.Bicubic);
+      try {
+        int width = Integer.parseInt(widthDisplay);
+        int height = Integer.parseInt(heightDisplay);
+        if (filter != null) {
+          feature.resize(width, height, (ResizeType) filter);
+        }
+      } catch (NumberFormatException e) {
+        this.renderMessage("Please enter a valid width and height");
+      }
+    });
+    this.zoomButton.addActionListener(act -> {
+      String zoomDisplay = JOptionPane.showInputDialog("Please enter a zoom (0~1) " +
+              "to show this image at");
+      try {
+        double zoom = Double.parseDouble(zoomDisplay);
+        feature.zoom(zoom);
+      } catch (NumberFormatException | NullPointerException e) {
+        this.renderMessage("Please enter a valid zoom");
+      }
+    });
+    this.gaussianBlurButton.addActionListener(act -> {
+      String sigmaDisplay = JOptionPane.showInputDialog("Please enter a standard deviation " +
+              "(in pixels) that you want to blur this image by");
+      try {
+        double sigma = Double.parseDouble(sigmaDisplay);
+        feature.gaussianBlur(sigma);
+      } catch (NumberFormatException | NullPointerException e) {
+        this.renderMessage("Please enter a valid standard deviation");
+      }
+    });
     this.redComponentButton.addActionListener(act ->
             feature.greyComponent(GreyscaleType.Red, null));
     this.greenComponentButton.addActionListener(act ->
@@ -406,50 +504,44 @@ public class ImageProcessorGUIViewImpl extends JFrame implements ImageProcessorG
     this.sepiaButton.addActionListener(act ->
             feature.colorTransformation(ColorTransType.Sepia, null));
     this.redComponentPreviewButton.addActionListener(act ->
-            feature.greyComponent(GreyscaleType.Red, this.makeMask()));
+            feature.greyComponent(GreyscaleType.Red, this.makeRegion()));
     this.greenComponentPreviewButton.addActionListener(act ->
-            feature.greyComponent(GreyscaleType.Green, this.makeMask()));
+            feature.greyComponent(GreyscaleType.Green, this.makeRegion()));
     this.blueComponentPreviewButton.addActionListener(act ->
-            feature.greyComponent(GreyscaleType.Blue, this.makeMask()));
+            feature.greyComponent(GreyscaleType.Blue, this.makeRegion()));
     this.valueComponentPreviewButton.addActionListener(act ->
-            feature.greyComponent(GreyscaleType.Value, this.makeMask()));
+            feature.greyComponent(GreyscaleType.Value, this.makeRegion()));
     this.intensityComponentPreviewButton.addActionListener(act ->
-            feature.greyComponent(GreyscaleType.Intensity, this.makeMask()));
+            feature.greyComponent(GreyscaleType.Intensity, this.makeRegion()));
     this.lumaComponentPreviewButton.addActionListener(act ->
-            feature.greyComponent(GreyscaleType.Luma, this.makeMask()));
+            feature.greyComponent(GreyscaleType.Luma, this.makeRegion()));
     this.blurPreviewButton.addActionListener(act ->
-            feature.filtering(FilteringType.Blur, this.makeMask()));
+            feature.filtering(FilteringType.Blur, this.makeRegion()));
     this.sharpenPreviewButton.addActionListener(act ->
-            feature.filtering(FilteringType.Sharpen, this.makeMask()));
+            feature.filtering(FilteringType.Sharpen, this.makeRegion()));
     this.greyscalePreviewButton.addActionListener(act ->
-            feature.colorTransformation(ColorTransType.Greyscale, this.makeMask()));
+            feature.colorTransformation(ColorTransType.Greyscale, this.makeRegion()));
     this.sepiaPreviewButton.addActionListener(act ->
-            feature.colorTransformation(ColorTransType.Sepia, this.makeMask()));
+            feature.colorTransformation(ColorTransType.Sepia, this.makeRegion()));
   }
 
   /**
-   * A private helper function to create a 2D Pixel array
-   * that represents a "mask" for the preview panel.
+   * A private helper function to create the {@link Region} of the image
+   * shown in the preview panel, so that a preview only edits what it shows.
    *
-   * @return a mask in a 2D array of pixels
+   * @return the region of the image in the preview panel
    */
-  private IPixel[][] makeMask() {
-    int imageHeight = this.fileLoadDisplay.getHeight();
-    int imageWidth = this.fileLoadDisplay.getWidth();
-    int xPos = this.previewScrollPane.getViewport().getViewPosition().x;
-    int yPos = this.previewScrollPane.getViewport().getViewPosition().y;
-
-    IPixel[][] mask = new Pixel[imageHeight][imageWidth];
-    for (int i = 0; i < imageHeight; i++) {
-      for (int j = 0; j < imageWidth; j++) {
-        if ((yPos <= i && i <= yPos + 200) && (xPos <= j && j <= xPos + 200)) {
-          mask[i][j] = new Pixel(0,0,0);
-        } else {
-          mask[i][j] = new Pixel(255,255,255);
-        }
-      }
+  private Region makeRegion() {
+    Point position = this.previewScrollPane.getViewport().getViewPosition();
+    Dimension shown = this.previewScrollPane.getViewport().getExtentSize();
+    int width = shown.width;
+    int height = shown.height;
+    // the preview panel may be larger than a small image
+    if (this.previewImage != null) {
+      width = Math.min(width, this.previewImage.getWidth() - position.x);
+      height = Math.min(height, this.previewImage.getHeight() - position.y);
     }
-    return mask;
+    return new Region(position.y, position.x, Math.max(1, width), Math.max(1, height));
   }
 
   @Override
@@ -458,91 +550,42 @@ public class ImageProcessorGUIViewImpl extends JFrame implements ImageProcessorG
             this, message);
   }
 
+  @Override
+  public void refreshHistogram(Histogram histogram) {
+    this.histogramDisplay.setIcon(new ImageIcon(this.histogramImage(histogram)));
+    this.repaint();
+  }
+
   /**
    * A private helper function to generate an image of a
-   * histogram. Adapted the idea from Lab07 for using {@link Graphics2D}
+   * histogram. Adapted the idea from Lab07 for using {@link Graphics}
    * to generate the graph image. Produces four different graphs
-   * (R, G, B, Intensity) which are overlapped.
+   * (R, G, B, Intensity) which are overlapped. The counts of a 16-bit
+   * image are added up into 256 columns.
    *
-   * @param imageToLoad the image to make a histogram (in String)
-   * @param realImage   the image to make a histogram (in BufferedImage)
+   * @param histogram the histogram counted by the model
    * @return the completed histogram image
    */
-  private Image histogramImage(String imageToLoad, Image realImage) {
-    BufferedImage imageForHistogram = (BufferedImage) realImage;
-    IPixel[][] pixels = new IPixel[0][];
-    int pixTotal;
-
-    if (imageForHistogram == null) {
-      // if PPM
-      if (imageToLoad.endsWith("ppm")) {
-        model.Image ppmImage = Utils.ppmToImage(imageToLoad, "image");
-        imageForHistogram = Utils.toBufferedImage(ppmImage, imageToLoad);
-        pixels = ppmImage.getPixels();
-      } else {
-        try {
-          model.Image otherImage = Utils.othersToImage(imageToLoad, "image");
-          imageForHistogram = ImageIO.read(new FileInputStream(imageToLoad));
-          pixels = otherImage.getPixels();
-        } catch (IOException e) {
-          this.renderMessage("There has been an error while creating a histogram image.");
-        }
-      }
-    } else {
-      pixels = new Pixel[imageForHistogram.getHeight()][imageForHistogram.getWidth()];
-      for (int i = 0; i < imageForHistogram.getHeight(); i++) {
-        for (int j = 0; j < imageForHistogram.getWidth(); j++) {
-          int red = new Color(imageForHistogram.getRGB(j, i)).getRed();
-          int green = new Color(imageForHistogram.getRGB(j, i)).getGreen();
-          int blue = new Color(imageForHistogram.getRGB(j, i)).getBlue();
-          pixels[i][j] = new Pixel(red, green, blue);
-        }
-      }
-    }
-    pixTotal = imageForHistogram.getHeight() * imageForHistogram.getWidth();
-    Map<Integer, Integer> rChannel = new HashMap<>();
-    Map<Integer, Integer> gChannel = new HashMap<>();
-    Map<Integer, Integer> bChannel = new HashMap<>();
-    Map<Integer, Integer> iChannel = new HashMap<>();
-
-    for (IPixel[] pix : pixels) {
-      for (IPixel p : pix) {
-        rChannel.put(p.getRed(), rChannel.getOrDefault(p.getRed(), 0) + 1);
-        gChannel.put(p.getGreen(), gChannel.getOrDefault(p.getGreen(), 0) + 1);
-        bChannel.put(p.getBlue(), bChannel.getOrDefault(p.getBlue(), 0) + 1);
-        int intensity = (p.getRed() + p.getGreen() + p.getBlue()) / 3;
-        iChannel.put(intensity, iChannel.getOrDefault(intensity, 0) + 1);
-      }
-    }
+  private Image histogramImage(Histogram histogram) {
     Image histogramImage = new BufferedImage(256, 100, BufferedImage.TYPE_INT_RGB);
     Graphics g2d = histogramImage.getGraphics();
     g2d.setColor(new Color(255, 255, 255));
     g2d.fillRect(0, 0, 256, 100);
-
-    for (int i = 0; i < 256; i++) {
-      // intensity
-      g2d.setColor(new Color(100, 100, 100, 70));
-      int inInt = iChannel.getOrDefault(i, 0);
-      for (int in = inInt / (pixTotal / 5000); in > 0; in--) {
-        g2d.fillRect(i, 100 - in, 1, 1);
-      }
-      // red
-      g2d.setColor(new Color(255, 0, 0, 70));
-      int redInt = rChannel.getOrDefault(i, 0);
-      for (int r = redInt / (pixTotal / 5000); r > 0; r--) {
-        g2d.fillRect(i, 100 - r, 1, 1);
-      }
-      // green
-      g2d.setColor(new Color(0, 255, 0, 70));
-      int greenInt = gChannel.getOrDefault(i, 0);
-      for (int gr = greenInt / (pixTotal / 5000); gr > 0; gr--) {
-        g2d.fillRect(i, 100 - gr, 1, 1);
+    long[][] counts = {histogram.getIntensity(), histogram.getRed(), histogram.getGreen(),
+        histogram.getBlue()};
+    Color[] colors = {new Color(100, 100, 100, 70), new Color(255, 0, 0, 70),
+        new Color(0, 255, 0, 70), new Color(0, 0, 255, 70)};
+    // a column as tall as the graph holds a fiftieth of the pixels
+    double scale = 5000.0 / Math.max(1, histogram.getCount());
+    for (int c = 0; c < counts.length; c++) {
+      long[] columns = new long[256];
+      for (int v = 0; v < counts[c].length; v++) {
+        columns[(int) ((long) v * 256 / counts[c].length)] += counts[c][v];
       }
-      // blue
-      g2d.setColor(new Color(0, 0, 255, 70));
-      int blueInt = bChannel.getOrDefault(i, 0);
-      for (int b = blueInt / (pixTotal / 5000); b > 0; b--) {
-        g2d.fillRect(i, 100 - b, 1, 1);
+      g2d.setColor(colors[c]);
+      for (int i = 0; i < 256; i++) {
+        int bar = (int) Math.min(100, columns[i] * scale);
+        g2d.fillRect(i, 100 - bar, 1, bar);
       }
     }
     return histogramImage;
@@ -3,7 +3,12 @@ package controller;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
 import java.io.StringReader;
+import java.nio.file.Files;
+import java.util.List;
 
 import model.IPixel;
 import model.Image;
@@ -14,6 +19,7 @@ import model.MaskProcessorModelImpl;
 import model.Pixel;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 /**
  * Tests for {@link ControllerImpl} to check if it initializes correctly
@@ -428,4 +434,137 @@ public class ControllerTest {
 
     assertEquals(imageDownscale, this.model.getImage("house-downscale"));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testDownscaleArea() {
+    this.setup();
+    this.input = new StringReader("load res/house.ppm house\n" +
+            "downscale 0.5 0.5 house house-area area\n q");
+    this.controller = new ControllerImpl(this.model, this.input);
+    this.controller.runProcessor();
+
+    IPixel[][] pixelArea = new Pixel[1][1];
+    pixelArea[0][0] = new Pixel(96, 95, 90);
+    assertEquals(new ImageImpl(1, 1, 255, pixelArea), this.model.getImage("house-area"));
+  }
+
+  @Test
+  public void testBoxBlurAndThreshold() {
+    this.setup();
+    this.input = new StringReader("load res/house.ppm house\n" +
+            "box-blur 1 house house-box\n" +
+            "adaptive-threshold 1 0 house house-mask\n q");
+    this.controller = new ControllerImpl(this.model, this.input);
+    this.controller.runProcessor();
+
+    Image box = this.model.getImage("house-box");
+    for (int i = 0; i < 2; i++) {
+      for (int j = 0; j < 2; j++) {
+        assertEquals(new Pixel(96, 95, 90), box.getPixelAt(i, j));
+      }
+    }
+    // only the darkest pixel is darker than the mean of the image
+    Image mask = this.model.getImage("house-mask");
+    assertEquals(new Pixel(0, 0, 0), mask.getPixelAt(1, 0));
+    assertEquals(new Pixel(255, 255, 255), mask.getPixelAt(1, 1));
+    assertEquals(new Pixel(255, 255, 255), mask.getPixelAt(0, 0));
+  }
+
+  @Test
+  public void testHistogram() throws IOException {
+    this.setup();
+    File file = File.createTempFile("house-histogram", ".csv");
+    file.deleteOnExit();
+    this.input = new StringReader("load res/house.ppm house\n" +
+            "histogram house " + file.getPath() + "\n q");
+    this.controller = new ControllerImpl(this.model, this.input);
+    this.controller.runProcessor();
+
+    List<String> lines = Files.readAllLines(file.toPath());
+    assertEquals(257, lines.size());
+    assertEquals("value,red,green,blue,intensity", lines.get(0));
+    // the pixel (63, 66, 57) has an intensity of 62
+    assertEquals("62,0,0,0,1", lines.get(63));
+    assertEquals("63,1,0,0,0", lines.get(64));
+    assertEquals("96,1,1,0,1", lines.get(97));
+  }
+
+  @Test
+  public void testResize() {
+    this.setup();
+    this.input = new StringReader("load res/house.ppm house\n" +
+            "resize 4 4 house house-nearest nearest\n" +
+            "resize 5 3 house house-bicubic\n q");
+    this.controller = new ControllerImpl(this.model, this.input);
+    this.controller.runProcessor();
+
+    Image nearest = this.model.getImage("house-nearest");
+    assertEquals(4, nearest.getWidth());
+    assertEquals(this.pixelsHouse[1][1], nearest.getPixelAt(3, 2));
+    assertEquals(5, this.model.getImage("house-bicubic").getWidth());
+    assertEquals(3, this.model.getImage("house-bicubic").getHeight());
+  }
+
+  @Test
+  public void testCropAndTranspose() {
+    this.setup();
+    IPixel[][] pixelCrop = new Pixel[1][2];
+    pixelCrop[0][0] = this.pixelsHouse[0][0];
+    pixelCrop[0][1] = this.pixelsHouse[1][0];
+    Image imageCrop = new ImageImpl(2, 1, 255, pixelCrop);
+
+    this.input = new StringReader("load res/house.ppm house\n" +
+            "transpose house house-transpose\n" +
+            "crop 0 0 2 1 house-transpose house-crop\n q");
+    this.controller = new ControllerImpl(this.model, this.input);
+    this.controller.runProcessor();
+
+    assertEquals(imageCrop, this.model.getImage("house-crop"));
+  }
+
+  @Test
+  public void testPipeline() {
+    this.setup();
+    this.input = new StringReader("load res/house.ppm house\n" +
+            "brighten house 10 house-bright\n" +
+            "luma-component house-bright house-luma\n" +
+            "sepia house-luma house-sepia\n" +
+            "pipeline house house-pipeline brighten 10 as house-step luma-component sepia\n q");
+    this.controller = new ControllerImpl(this.model, this.input);
+    this.controller.runProcessor();
+
+    assertEquals(this.model.getImage("house-sepia"), this.model.getImage("house-pipeline"));
+    assertEquals(this.model.getImage("house-bright"), this.model.getImage("house-step"));
+  }
+
+  @Test
+  public void testGaussianBlur() {
+    this.setup();
+    this.input = new StringReader("load res/house.ppm house\n" +
+            "gaussian-blur 0.8 house house-gaussian\n" +
+            "gaussian-blur 0 house house-none\n q");
+    this.controller = new ControllerImpl(this.model, this.input);
+    this.controller.runProcessor();
+
+    assertEquals(this.model.getImage("house").getWidth(),
+            this.model.getImage("house-gaussian").getWidth());
+    assertNull(this.model.getImage("house-none"));
+  }
+
+  @Test
+  public void testConvolve() throws IOException {
+    File kernel = File.createTempFile("emboss", ".txt");
+    kernel.deleteOnExit();
+    try (FileWriter writer = new FileWriter(kernel)) {
+      writer.write("# emboss\n-2 -1 0\n-1 1 1\n\n0 1 2\n");
+    }
+    this.setup();
+    this.input = new StringReader("load res/house.ppm house\n" +
+            "convolve " + kernel.getPath() + " house house-emboss\n q");
+    this.controller = new ControllerImpl(this.model, this.input);
+    this.controller.runProcessor();
+
+    assertEquals(this.model.getImage("house").getWidth(),
+            this.model.getImage("house-emboss").getWidth());
+  }
+}
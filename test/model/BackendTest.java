@@ -0,0 +1,56 @@
+package model;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link Backend} to check if the backend asked for is picked
+ * where it can be, and that a request that cannot be met is reported.
+ */
+public class BackendTest {
+
+  /**
+   * A helper function to pick a backend, keeping what is reported.
+   *
+   * @param requested the backend asked for
+   * @param supported whether loops are turned into SIMD instructions
+   * @param warnings  the stream to report to
+   * @return the backend
+   */
+  private static Backend choose(String requested, boolean supported,
+                                ByteArrayOutputStream warnings) {
+    return Backend.choose(requested, supported, new PrintStream(warnings, true));
+  }
+
+  @Test
+  public void testChoose() {
+    ByteArrayOutputStream warnings = new ByteArrayOutputStream();
+    assertEquals(Backend.SCALAR, choose("scalar", true, warnings));
+    assertEquals(Backend.VECTOR, choose("vector", true, warnings));
+    assertEquals(Backend.VECTOR, choose(null, true, warnings));
+    assertEquals(Backend.SCALAR, choose("scalar", false, warnings));
+    assertEquals(Backend.SCALAR, choose("auto", false, warnings));
+    assertEquals(Backend.SCALAR, choose(null, false, warnings));
+    assertEquals("", warnings.toString());
+  }
+
+  @Test
+  public void testIgnoredVector() {
+    // the vector backend falls back to the scalar one where loops are not vectorized
+    ByteArrayOutputStream warnings = new ByteArrayOutputStream();
+    assertEquals(Backend.SCALAR, choose("vector", false, warnings));
+    assertTrue(warnings.toString().startsWith("The vector backend is ignored"));
+  }
+
+  @Test
+  public void testUnknownBackend() {
+    ByteArrayOutputStream warnings = new ByteArrayOutputStream();
+    assertEquals(Backend.VECTOR, choose("simd", true, warnings));
+    assertTrue(warnings.toString().startsWith("The backend \"simd\" is not known"));
+  }
+}
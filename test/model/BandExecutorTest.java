@@ -0,0 +1,75 @@
+package model;
+
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link BandExecutor} to check if every row is worked on exactly
+ * once, whether or not the rows are split into parallel bands.
+ */
+public class BandExecutorTest {
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructorParallelism() {
+    new BandExecutor(0, 100);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructorCutoff() {
+    new BandExecutor(2, 0);
+  }
+
+  /**
+   * A helper function to check that every row is worked on exactly once.
+   *
+   * @param executor the executor to check
+   * @param rows     the number of rows
+   */
+  private void checkEveryRowOnce(BandExecutor executor, int rows) {
+    AtomicIntegerArray counts = new AtomicIntegerArray(rows);
+    executor.forEachBand(rows, 10, (from, to) -> {
+      for (int i = from; i < to; i++) {
+        counts.incrementAndGet(i);
+      }
+    });
+    for (int i = 0; i < rows; i++) {
+      assertEquals(1, counts.get(i));
+    }
+  }
+
+  @Test
+  public void testEveryRowOnce() {
+    this.checkEveryRowOnce(new BandExecutor(1, 1), 1000);
+    this.checkEveryRowOnce(new BandExecutor(4, 1), 1000);
+    this.checkEveryRowOnce(new BandExecutor(4, 35), 999);
+    this.checkEveryRowOnce(BandExecutor.DEFAULT, 7);
+  }
+
+  @Test
+  public void testSharedPool() {
+    Set<ForkJoinPool> pools = ConcurrentHashMap.newKeySet();
+    for (int k = 0; k < 3; k++) {
+      // a model of 3 threads made again and again reuses the same threads
+      new BandExecutor(3, 1).forEachBand(100, 10, (from, to) -> pools.add(
+              ForkJoinTask.getPool()));
+    }
+    assertEquals(1, pools.size());
+    assertEquals(3, pools.iterator().next().getParallelism());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testException() {
+    new BandExecutor(4, 1).forEachBand(100, 10, (from, to) -> {
+      if (from <= 50 && 50 < to) {
+        throw new IllegalStateException("band failed");
+      }
+    });
+  }
+}
@@ -0,0 +1,232 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link ConvolutionPlan}, {@link FftConvolution}, and {@link Fft}
+ * to check if the cost model picks the expected way of convolving, and if
+ * every way gives the same values as the direct convolution.
+ */
+public class ConvolutionPlanTest {
+  private Image image;
+  private Random random;
+
+  /**
+   * An example of an image of 70 by 45 pixels of random values, which takes
+   * more than one block of the transform in both directions.
+   */
+  @Before
+  public void setup() {
+    this.random = new Random(7);
+    int[] data = new int[70 * 45];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = this.random.nextInt(1 << 24);
+    }
+    this.image = Images.packed(70, 45, 255, data);
+  }
+
+  /**
+   * A helper function to make a kernel of random weights adding up to 1.
+   *
+   * @param rows the number of rows
+   * @param cols the number of columns
+   * @return the weights
+   */
+  private double[][] randomKernel(int rows, int cols) {
+    double[][] weights = new double[rows][cols];
+    for (double[] row : weights) {
+      for (int j = 0; j < cols; j++) {
+        row[j] = (this.random.nextDouble() - 0.3) * 2 / (rows * cols);
+      }
+    }
+    return weights;
+  }
+
+  /**
+   * A helper function to convolve a part of the image, collecting its rows.
+   *
+   * @param apply  the convolution of a part
+   * @param top    the row position of the part
+   * @param left   the column position of the part
+   * @param width  the width of the part
+   * @param height the height of the part
+   * @return the red, green, and blue values of every pixel of the part
+   */
+  private static int[][][] collect(PartConvolution apply, int top, int left, int width,
+                                   int height) {
+    int[][][] result = new int[height][width][];
+    apply.apply(top, left, width, height, (row, red, green, blue) -> {
+      for (int j = 0; j < width; j++) {
+        result[row][j] = new int[]{red[j], green[j], blue[j]};
+      }
+    });
+    return result;
+  }
+
+  /**
+   * The convolution of a part of the image, to compare different ways of convolving.
+   */
+  private interface PartConvolution {
+    void apply(int top, int left, int width, int height, Convolution.RowConsumer rows);
+  }
+
+  /**
+   * A helper function to check that a plan gives the values of the direct
+   * convolution, up to the rounding of a single value, for the whole image
+   * and for a part of it.
+   *
+   * @param weights the weights of the kernel
+   * @param border  the border mode
+   * @param method  the way the plan is expected to convolve
+   */
+  private void check(double[][] weights, Convolution.Border border,
+                     ConvolutionPlan.Method method) {
+    ConvolutionPlan plan = ConvolutionPlan.of(weights, border, 255);
+    assertEquals(method, plan.getMethod());
+    Convolution direct = new Convolution(Kernel.of(weights, Kernel.Precision.FLOAT), border, 255);
+    int[][] parts = {{0, 0, 70, 45}, {13, 21, 40, 30}};
+    for (int[] part : parts) {
+      int[][][] expected = collect((top, left, width, height, rows) ->
+              direct.apply(this.image, top, left, width, height, rows),
+              part[0], part[1], part[2], part[3]);
+      int[][][] actual = collect((top, left, width, height, rows) ->
+              plan.apply(this.image, top, left, width, height, rows),
+              part[0], part[1], part[2], part[3]);
+      for (int i = 0; i < part[3]; i++) {
+        for (int j = 0; j < part[2]; j++) {
+          for (int channel = 0; channel < 3; channel++) {
+            assertTrue(Math.abs(expected[i][j][channel] - actual[i][j][channel]) <= 1);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testChoose() {
+    assertEquals(ConvolutionPlan.Method.DIRECT, ConvolutionPlan.choose(3, 3, false));
+    assertEquals(ConvolutionPlan.Method.DIRECT, ConvolutionPlan.choose(5, 5, false));
+    assertEquals(ConvolutionPlan.Method.SEPARABLE, ConvolutionPlan.choose(3, 3, true));
+    assertEquals(ConvolutionPlan.Method.SEPARABLE, ConvolutionPlan.choose(31, 31, true));
+    assertEquals(ConvolutionPlan.Method.FFT, ConvolutionPlan.choose(15, 15, false));
+    assertEquals(ConvolutionPlan.Method.FFT, ConvolutionPlan.choose(63, 63, false));
+    // a single row of weights is cheapest to convolve directly
+    assertEquals(ConvolutionPlan.Method.DIRECT, ConvolutionPlan.choose(1, 31, false));
+  }
+
+  @Test
+  public void testSeparate() {
+    double[][] weights = {{1, 2, 1}, {2, 4, 2}, {1, 2, 1}};
+    double[][] factors = ConvolutionPlan.separate(Kernel.of(weights, Kernel.Precision.FLOAT));
+    assertNotNull(factors);
+    for (int i = 0; i < 3; i++) {
+      for (int j = 0; j < 3; j++) {
+        assertEquals(weights[i][j], factors[0][i] * factors[1][j], 1e-12);
+      }
+    }
+    double[][] emboss = {{-2, -1, 0}, {-1, 1, 1}, {0, 1, 2}};
+    assertNull(ConvolutionPlan.separate(Kernel.of(emboss, Kernel.Precision.FLOAT)));
+    assertNull(ConvolutionPlan.separate(Kernel.of(new double[3][3], Kernel.Precision.FLOAT)));
+  }
+
+  @Test
+  public void testDirect() {
+    double[][] emboss = {{-2, -1, 0}, {-1, 1, 1}, {0, 1, 2}};
+    for (Convolution.Border border : Convolution.Border.values()) {
+      this.check(emboss, border, ConvolutionPlan.Method.DIRECT);
+    }
+  }
+
+  @Test
+  public void testSeparable() {
+    double[] column = new double[9];
+    double[] row = new double[5];
+    for (int i = 0; i < column.length; i++) {
+      column[i] = Math.exp(-(i - 4) * (i - 4) / 8.0) / 5;
+    }
+    for (int j = 0; j < row.length; j++) {
+      row[j] = j % 2 == 0 ? 0.4 : -0.1;
+    }
+    double[][] weights = new double[column.length][row.length];
+    for (int i = 0; i < column.length; i++) {
+      for (int j = 0; j < row.length; j++) {
+        weights[i][j] = column[i] * row[j];
+      }
+    }
+    for (Convolution.Border border : Convolution.Border.values()) {
+      this.check(weights, border, ConvolutionPlan.Method.SEPARABLE);
+    }
+  }
+
+  @Test
+  public void testFft() {
+    for (Convolution.Border border : Convolution.Border.values()) {
+      this.check(this.randomKernel(17, 17), border, ConvolutionPlan.Method.FFT);
+      this.check(this.randomKernel(21, 15), border, ConvolutionPlan.Method.FFT);
+    }
+  }
+
+  @Test
+  public void testFftBlocks() {
+    // transforms of 32 by 32 leave blocks of 16 by 22, so the part takes several of each
+    Kernel kernel = Kernel.of(this.randomKernel(17, 11), Kernel.Precision.FLOAT);
+    FftConvolution fft = new FftConvolution(kernel, Convolution.Border.REFLECT, 255, 32);
+    assertEquals(16, fft.getBlockRows());
+    assertEquals(22, fft.getBlockCols());
+    Convolution direct = new Convolution(kernel, Convolution.Border.REFLECT, 255);
+    int[][][] expected = collect((top, left, width, height, rows) ->
+            direct.apply(this.image, top, left, width, height, rows), 3, 5, 60, 40);
+    int[][][] actual = collect((top, left, width, height, rows) ->
+            fft.apply(this.image, top, left, width, height, rows), 3, 5, 60, 40);
+    for (int i = 0; i < 40; i++) {
+      for (int j = 0; j < 60; j++) {
+        for (int channel = 0; channel < 3; channel++) {
+          assertTrue(Math.abs(expected[i][j][channel] - actual[i][j][channel]) <= 1);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testFftRoundTrip() {
+    Fft fft = new Fft(8);
+    double[] real = new double[64];
+    double[] imaginary = new double[64];
+    for (int k = 0; k < 64; k++) {
+      real[k] = this.random.nextDouble();
+      imaginary[k] = this.random.nextDouble();
+    }
+    double[] originalReal = real.clone();
+    double[] originalImaginary = imaginary.clone();
+    fft.transform(real, imaginary, false);
+    // the first value of the transform is the sum of the block
+    double sum = 0;
+    for (double value : originalReal) {
+      sum += value;
+    }
+    assertEquals(sum, real[0], 1e-9);
+    fft.transform(real, imaginary, true);
+    for (int k = 0; k < 64; k++) {
+      assertEquals(originalReal[k], real[k], 1e-9);
+      assertEquals(originalImaginary[k], imaginary[k], 1e-9);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFftSize() {
+    new Fft(24);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullBorder() {
+    ConvolutionPlan.of(new double[][]{{1}}, null, 255);
+  }
+}
@@ -0,0 +1,188 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static model.ImageProcessorModelState.FilteringType;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link Convolution} and {@link Kernel} to check if every border
+ * mode, precision, and backend gives the same values as convolving one pixel at a time.
+ */
+public class ConvolutionTest {
+  private Image image;
+
+  /**
+   * An example of an image of seven by five pixels, smaller than twice the
+   * width of a kernel, so every pixel is near a border.
+   */
+  @Before
+  public void setup() {
+    int[] data = new int[7 * 5];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (i * 37 % 256) << 16 | (i * 91 % 256) << 8 | (255 - i * 11 % 256);
+    }
+    this.image = Images.packed(7, 5, 255, data);
+  }
+
+  /**
+   * A helper function to find the pixel a position outside of the image
+   * reads, one position at a time.
+   *
+   * @param position the position
+   * @param size     the number of positions inside the image
+   * @param border   the border mode
+   * @return the position inside the image, or -1 if it counts as black
+   */
+  private static int expectedPosition(int position, int size, Convolution.Border border) {
+    if (position >= 0 && position < size) {
+      return position;
+    }
+    if (border == Convolution.Border.CLAMP) {
+      return position < 0 ? 0 : size - 1;
+    }
+    if (border == Convolution.Border.REFLECT) {
+      while (position < 0 || position >= size) {
+        position = position < 0 ? -position : 2 * (size - 1) - position;
+      }
+      return position;
+    }
+    return -1;
+  }
+
+  /**
+   * A helper function to check a convolution against the weighted values
+   * of every pixel, computed one pixel at a time.
+   *
+   * @param weights   the weights of the kernel
+   * @param precision the precision of the kernel
+   * @param border    the border mode
+   * @param backend   the backend to run the kernel with
+   */
+  private void check(double[][] weights, Kernel.Precision precision,
+                     Convolution.Border border, Backend backend) {
+    Convolution convolution = new Convolution(Kernel.of(weights, precision, backend), border,
+            255);
+    int width = this.image.getWidth();
+    int height = this.image.getHeight();
+    int[][][] actual = new int[height][width][];
+    convolution.apply(this.image, 0, 0, width, height, (row, red, green, blue) -> {
+      for (int j = 0; j < width; j++) {
+        actual[row][j] = new int[]{red[j], green[j], blue[j]};
+      }
+    });
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        for (int channel = 0; channel < 3; channel++) {
+          double sum = 0;
+          for (int k = 0; k < weights.length; k++) {
+            for (int c = 0; c < weights[k].length; c++) {
+              int row = expectedPosition(i + k - weights.length / 2, height, border);
+              int col = expectedPosition(j + c - weights[k].length / 2, width, border);
+              int value = row < 0 || col < 0 ? 0 : this.image.getChannel(row, col, channel);
+              double tap = value * weights[k][c];
+              sum += precision == Kernel.Precision.TRUNCATED_TAPS ? (int) tap : tap;
+            }
+          }
+          int expected = (int) Math.max(0, Math.min(Math.round(sum), 255));
+          if (precision == Kernel.Precision.FIXED_POINT) {
+            assertTrue(Math.abs(expected - actual[i][j][channel]) <= 1);
+          } else {
+            assertEquals(expected, actual[i][j][channel]);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testBorderModes() {
+    double[][] weights = {{0.1, -0.2, 0.05}, {0.3, 0.5, 0.2}, {-0.1, 0.1, 0.05}};
+    for (Convolution.Border border : Convolution.Border.values()) {
+      for (Kernel.Precision precision : Kernel.Precision.values()) {
+        for (Backend backend : Backend.values()) {
+          this.check(weights, precision, border, backend);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testWideKernel() {
+    double[][] weights = new double[3][9];
+    for (int i = 0; i < 3; i++) {
+      for (int j = 0; j < 9; j++) {
+        weights[i][j] = (i + 1) * (j % 3 - 1) / 10.0 + 0.04;
+      }
+    }
+    for (Convolution.Border border : Convolution.Border.values()) {
+      for (Backend backend : Backend.values()) {
+        this.check(weights, Kernel.Precision.FLOAT, border, backend);
+      }
+    }
+  }
+
+  @Test
+  public void testFilters() {
+    // the filters divide each surrounding value by the kernel entry, dropping the fraction
+    int[][] blur = {{16, 8, 16}, {8, 4, 8}, {16, 8, 16}};
+    int[][] sharpen = {{-8, -8, -8, -8, -8}, {-8, 4, 4, 4, -8}, {-8, 4, 1, 4, -8},
+        {-8, 4, 4, 4, -8}, {-8, -8, -8, -8, -8}};
+    FilteringType[] types = {FilteringType.Blur, FilteringType.Sharpen};
+    int[][][] kernels = {blur, sharpen};
+    for (int t = 0; t < types.length; t++) {
+      int[][] kernel = kernels[t];
+      int half = kernel.length / 2;
+      ImageProcessorModelImpl.filterConvolution(types[t]).apply(this.image, 0, 0,
+          this.image.getWidth(), this.image.getHeight(), (i, red, green, blue) -> {
+            for (int j = 0; j < this.image.getWidth(); j++) {
+              int[] sums = new int[3];
+              for (int k = 0; k < kernel.length; k++) {
+                for (int c = 0; c < kernel.length; c++) {
+                  int row = i + k - half;
+                  int col = j + c - half;
+                  if (row < 0 || col < 0 || row >= this.image.getHeight()
+                          || col >= this.image.getWidth()) {
+                    continue;
+                  }
+                  for (int channel = 0; channel < 3; channel++) {
+                    sums[channel] += this.image.getChannel(row, col, channel) / kernel[k][c];
+                  }
+                }
+              }
+              assertEquals(Math.max(0, Math.min(sums[0], 255)), red[j]);
+              assertEquals(Math.max(0, Math.min(sums[1], 255)), green[j]);
+              assertEquals(Math.max(0, Math.min(sums[2], 255)), blue[j]);
+            }
+          });
+    }
+  }
+
+  @Test
+  public void testNormalized() {
+    Kernel kernel = Kernel.of(new double[][]{{1, 2, 1}, {2, 4, 2}, {1, 2, 1}},
+            Kernel.Precision.FLOAT).normalized();
+    assertEquals(0.25, kernel.getWeight(1, 1), 1e-12);
+    int[] flat = new int[9];
+    Arrays.fill(flat, 0x808080);
+    int[] result = new int[1];
+    new Convolution(kernel, Convolution.Border.CLAMP, 255).apply(
+            Images.packed(3, 3, 255, flat), 0, 0, 1, 1,
+        (row, red, green, blue) -> result[0] = red[0]);
+    assertEquals(0x80, result[0]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEvenKernel() {
+    Kernel.of(new double[][]{{1, 1}, {1, 1}}, Kernel.Precision.FLOAT);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNotRectangular() {
+    Kernel.of(new double[][]{{1, 1, 1}, {1}, {1, 1, 1}}, Kernel.Precision.FLOAT);
+  }
+}
@@ -0,0 +1,159 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static model.ImageProcessorModelState.ColorTransType;
+import static model.ImageProcessorModelState.FilteringType;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests for the updates of {@link ImageProcessorModelImpl} to check if the
+ * images made from an updated image are brought up to date, the same as if
+ * they were made from the new version, by only computing the part of them
+ * the change reaches.
+ */
+public class DerivationTest {
+  private static final int WIDTH = 300;
+  private static final int HEIGHT = 260;
+  private MaskProcessorModel model;
+  private Image noise;
+
+  /**
+   * An example of a model holding an image of random pixels, and a chain
+   * of images made from it.
+   */
+  @Before
+  public void setup() {
+    Random random = new Random(17);
+    int[] data = new int[WIDTH * HEIGHT];
+    for (int k = 0; k < data.length; k++) {
+      data[k] = random.nextInt(1 << 24);
+    }
+    this.noise = Images.packed(WIDTH, HEIGHT, 255, data);
+    this.model = new MaskProcessorModelImpl(3, 1000);
+    this.model.addImage("image", this.noise);
+    this.model.brighten("image", 30, "bright");
+    this.model.filtering("bright", FilteringType.Blur, "blur");
+    this.model.filtering("blur", FilteringType.Sharpen, "sharp");
+    this.model.gaussianBlur("image", 4, "gaussian");
+    this.model.colorTransformation("gaussian", ColorTransType.Sepia, "sepia");
+    this.model.convolve("image", new double[][]{{0, -1, 0}, {-1, 5, -1}, {0, -1, 0}},
+            "convolved");
+  }
+
+  /**
+   * A helper function to edit a rectangle of the image with a masked brighten,
+   * and update the image with the result.
+   *
+   * @param mask the rectangle to edit
+   */
+  private void edit(Mask mask) {
+    this.model.brighten("image", -80, mask, "edited");
+    this.model.update("image", this.model.getImage("edited"), mask.getBounds());
+  }
+
+  /**
+   * A helper function to check if every image of the chain is the same as
+   * when it is made from the current version of the image.
+   */
+  private void assertUpToDate() {
+    MaskProcessorModel fresh = new MaskProcessorModelImpl();
+    fresh.addImage("image", this.model.getImage("image"));
+    fresh.brighten("image", 30, "bright");
+    fresh.filtering("bright", FilteringType.Blur, "blur");
+    fresh.filtering("blur", FilteringType.Sharpen, "sharp");
+    fresh.gaussianBlur("image", 4, "gaussian");
+    fresh.colorTransformation("gaussian", ColorTransType.Sepia, "sepia");
+    fresh.convolve("image", new double[][]{{0, -1, 0}, {-1, 5, -1}, {0, -1, 0}},
+            "convolved");
+    for (String title : new String[]{"bright", "blur", "sharp", "gaussian", "sepia",
+        "convolved"}) {
+      assertEquals(title, fresh.getImage(title), this.model.getImage(title));
+    }
+  }
+
+  @Test
+  public void testUpdate() {
+    // across the edge between tiles, and on a corner of the image
+    this.edit(Mask.rectangle(WIDTH, HEIGHT, 120, 100, 40, 30));
+    this.assertUpToDate();
+    this.edit(Mask.rectangle(WIDTH, HEIGHT, HEIGHT - 5, WIDTH - 7, 7, 5));
+    this.assertUpToDate();
+  }
+
+  @Test
+  public void testOnlyReachComputed() {
+    // grown by the footprints of sharpen and blur, the edit stays inside the first tile
+    this.edit(Mask.rectangle(WIDTH, HEIGHT, 20, 30, 10, 10));
+    for (String title : new String[]{"bright", "blur", "sharp"}) {
+      assertEquals(1, ((TiledImageImpl) this.model.getImage(title)).writtenTiles());
+    }
+    this.assertUpToDate();
+  }
+
+  @Test
+  public void testReplacedImageKeepsOthers() {
+    Image bright = this.model.getImage("bright");
+    this.model.addImage("image", this.model.getImage("sepia"));
+    this.edit(Mask.rectangle(WIDTH, HEIGHT, 0, 0, 50, 50));
+    assertEquals(bright, this.model.getImage("bright"));
+  }
+
+  @Test
+  public void testUpdatedImageKeepsEdit() {
+    // the user edits an image made from another one, and then that other one
+    this.model.brighten("bright", -50, Mask.rectangle(WIDTH, HEIGHT, 10, 10, 30, 30),
+            "touched");
+    Image touched = this.model.getImage("touched");
+    this.model.update("bright", touched, new Region(10, 10, 30, 30));
+    this.edit(Mask.rectangle(WIDTH, HEIGHT, 0, 0, 60, 60));
+    assertEquals(touched, this.model.getImage("bright"));
+    // the images made from the edited one still follow it
+    MaskProcessorModel fresh = new MaskProcessorModelImpl();
+    fresh.addImage("bright", touched);
+    fresh.filtering("bright", FilteringType.Blur, "blur");
+    assertEquals(fresh.getImage("blur"), this.model.getImage("blur"));
+  }
+
+  @Test
+  public void testMadeFromItself() {
+    this.model.brighten("image", 10, "image");
+    this.model.brighten("image", 30, "bright");
+    this.edit(Mask.rectangle(WIDTH, HEIGHT, 40, 40, 50, 50));
+    MaskProcessorModel fresh = new MaskProcessorModelImpl();
+    fresh.addImage("image", this.model.getImage("image"));
+    fresh.brighten("image", 30, "bright");
+    assertEquals(fresh.getImage("bright"), this.model.getImage("bright"));
+  }
+
+  @Test
+  public void testEmptyMaskBounds() {
+    assertNull(new Mask(WIDTH, HEIGHT).getBounds());
+    assertEquals(new Region(3, 4, 5, 6), Mask.rectangle(WIDTH, HEIGHT, 3, 4, 5, 6).getBounds());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUpdateSize() {
+    this.model.update("image", Images.packed(2, 2, 255, new int[4]),
+            new Region(0, 0, 1, 1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUpdateOutside() {
+    this.model.update("image", this.noise, new Region(HEIGHT, 0, 1, 1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUpdateMissing() {
+    this.model.update("missing", this.noise, new Region(0, 0, 1, 1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUpdateNullRegion() {
+    this.model.update("image", this.noise, null);
+  }
+}
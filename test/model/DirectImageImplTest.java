@@ -0,0 +1,179 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+
+import util.Utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link DirectImageImpl} to check if the pixels stored outside
+ * of the heap are read back correctly, also across buffers, and that they
+ * cannot be read once the image is closed, and that the loaded images and
+ * the results of the model large enough to be stored outside of the heap are,
+ * and freed as soon as they leave the storage.
+ */
+public class DirectImageImplTest {
+  private DirectImageImpl image8;
+  private DirectImageImpl image16;
+
+  /**
+   * Examples of an 8-bit and a 16-bit image, whose buffers only hold
+   * a single row, so that every row is stored in its own buffer.
+   */
+  @Before
+  public void setup() {
+    this.image8 = new DirectImageImpl(2, 2, 255, 6);
+    this.image8.setPixel(0, 0, 120, 0, 255);
+    this.image8.setPixel(0, 1, 255, 255, 255);
+    this.image8.setPixel(1, 0, 255, 0, 200);
+    this.image8.setPixel(1, 1, 0, 150, 255);
+    this.image16 = new DirectImageImpl(2, 1, 65535);
+    this.image16.setPixel(0, 0, 65535, 0, 256);
+    this.image16.setPixel(0, 1, 300, 40000, 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructorOverMaxValue() {
+    new DirectImageImpl(2, 2, 65536);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructorRowTooWide() {
+    new DirectImageImpl(3, 2, 255, 6);
+  }
+
+  @Test
+  public void testGetPixelAt() {
+    assertEquals(new Pixel(120, 0, 255), this.image8.getPixelAt(0, 0));
+    assertEquals(new Pixel(0, 150, 255), this.image8.getPixelAt(1, 1));
+    assertEquals(new Pixel(65535, 0, 256), this.image16.getPixelAt(0, 0));
+    assertEquals(new Pixel(300, 40000, 1), this.image16.getPixelAt(0, 1));
+  }
+
+  @Test
+  public void testEqualsPacked() {
+    Image packed = Images.packed(2, 2, 255,
+            new int[]{0x7800FF, 0xFFFFFF, 0xFF00C8, 0x0096FF});
+    assertEquals(packed, this.image8);
+    assertEquals(packed.hashCode(), this.image8.hashCode());
+    assertEquals(packed.toByteRead(), this.image8.toByteRead());
+  }
+
+  @Test
+  public void testGetChannelRow() {
+    int[] values = new int[2];
+    this.image16.getChannelRow(0, 0, 2, 1, values);
+    assertEquals(0, values[0]);
+    assertEquals(40000, values[1]);
+  }
+
+  @Test
+  public void testClose() {
+    assertFalse(this.image8.isClosed());
+    this.image8.close();
+    assertTrue(this.image8.isClosed());
+    this.image8.close();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testReadAfterClose() {
+    this.image8.close();
+    this.image8.getChannel(0, 0, 0);
+  }
+
+  @Test
+  public void testLargeImagesStoredOffHeap() {
+    Image heap = Utils.ppmToImage("res/house.ppm", "house");
+    assertTrue(heap instanceof PlanarImageImpl);
+    // the house is 2 by 2 pixels, so it counts as large from 4 pixels on
+    long previous = WritableImage.setDirectPixels(4);
+    try {
+      Image loaded = Utils.ppmToImage("res/house.ppm", "house");
+      assertTrue(loaded instanceof DirectImageImpl);
+      assertEquals(heap, loaded);
+      assertTrue(Utils.othersToImage("res/house.png", "house") instanceof DirectImageImpl);
+      ImageProcessorModel model = new ImageProcessorModelImpl();
+      model.addImage("house", loaded);
+      model.brighten("house", 10, "bright");
+      TiledImageImpl bright = (TiledImageImpl) model.getImage("bright");
+      bright.getChannel(0, 0, 0);
+      assertTrue(bright.tileAt(0) instanceof DirectImageImpl);
+      assertTrue(WritableImage.blank(2, 1, 255) instanceof PlanarImageImpl);
+    } finally {
+      WritableImage.setDirectPixels(previous);
+    }
+  }
+
+  /**
+   * A helper function to find the number of bytes of the direct buffers in use.
+   *
+   * @return the number of bytes
+   */
+  private static long directBytes() {
+    for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+      if (pool.getName().equals("direct")) {
+        return pool.getMemoryUsed();
+      }
+    }
+    return 0;
+  }
+
+  @Test
+  public void testCloseFreesMemory() {
+    long before = directBytes();
+    DirectImageImpl image = new DirectImageImpl(1000, 1000, 255, 1 << 20);
+    assertTrue(directBytes() >= before + 3000000);
+    // freed right away, without waiting for the garbage collector
+    image.close();
+    assertTrue(directBytes() < before + 3000000);
+  }
+
+  @Test
+  public void testReleaseClosesTiles() {
+    int[] data = new int[300 * 10];
+    for (int k = 0; k < data.length; k++) {
+      data[k] = k * 7919 & 0x7F7F7F;
+    }
+    long previous = WritableImage.setDirectPixels(100);
+    try {
+      MaskProcessorModel model = new MaskProcessorModelImpl();
+      model.addImage("image", Images.packed(300, 10, 255, data));
+      model.brighten("image", 10, "bright");
+      TiledImageImpl bright = (TiledImageImpl) model.getImage("bright");
+      bright.materialize();
+      DirectImageImpl first = (DirectImageImpl) bright.tileAt(0);
+      DirectImageImpl second = (DirectImageImpl) bright.tileAt(1);
+      // only the first tile is written, so the others are shared with the masked result
+      model.brighten("bright", 10, Mask.rectangle(300, 10, 0, 0, 50, 10), "masked");
+      Image masked = model.getImage("masked");
+      Image expected = Images.packed(300, 10, 255, data.clone());
+      model.removeImage("bright");
+      assertTrue(first.isClosed());
+      assertFalse(second.isClosed());
+      assertEquals(expected.getPixelAt(3, 200).getValues()[0] + 10,
+              masked.getPixelAt(3, 200).getValues()[0]);
+      assertEquals(expected.getPixelAt(3, 20).getValues()[0] + 20,
+              masked.getPixelAt(3, 20).getValues()[0]);
+
+      // the copy a transposed view makes of itself is closed along with the view
+      model.transpose("masked", "transposed");
+      Image transposed = model.getImage("transposed");
+      transposed.getRow(0, 0, 10, new int[10], new int[10], new int[10]);
+      assertNotEquals(0, AbstractImage.directParts(transposed).size());
+      model.removeImage("transposed");
+      for (DirectImageImpl part : AbstractImage.directParts(transposed)) {
+        assertTrue(part.isClosed());
+      }
+    } finally {
+      WritableImage.setDirectPixels(previous);
+    }
+  }
+}
@@ -0,0 +1,125 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static model.ImageProcessorModelState.DownscaleType;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link Downscale} to check if fixed-point bilinear downscaling
+ * stays within rounding of blending with doubles, and if area downscaling
+ * averages every source pixel that each resulting pixel covers.
+ */
+public class DownscaleTest {
+  private Image image;
+
+  /**
+   * An example of an image of 37 by 23 pixels of random values.
+   */
+  @Before
+  public void setup() {
+    Random random = new Random(3);
+    int[] data = new int[37 * 23];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = random.nextInt(1 << 24);
+    }
+    this.image = Images.packed(37, 23, 255, data);
+  }
+
+  /**
+   * A helper function to shrink an image the given way.
+   *
+   * @param source        the image to shrink
+   * @param scale         the scale of both the width and the height
+   * @param downscaleType the type of downscaling
+   * @return the shrunk image
+   */
+  private static Image shrink(Image source, double scale, DownscaleType downscaleType) {
+    int width = (int) Math.floor(source.getWidth() * scale);
+    int height = (int) Math.floor(source.getHeight() * scale);
+    WritableImage dest = WritableImage.blank(width, height, source.getMaxValue());
+    Downscale.apply(source, scale, scale, downscaleType, dest, new BandExecutor(2, 16));
+    return dest;
+  }
+
+  @Test
+  public void testBilinear() {
+    for (double scale : new double[]{1.0, 0.77, 0.5, 0.3}) {
+      Image shrunk = shrink(this.image, scale, DownscaleType.Bilinear);
+      for (int i = 0; i < shrunk.getHeight(); i++) {
+        for (int j = 0; j < shrunk.getWidth(); j++) {
+          double row = i / scale;
+          double column = j / scale;
+          int top = (int) Math.floor(row);
+          int left = (int) Math.floor(column);
+          int bottom = Math.min(top + 1, this.image.getHeight() - 1);
+          int right = Math.min(left + 1, this.image.getWidth() - 1);
+          double down = row - top;
+          double across = column - left;
+          for (int channel = 0; channel < 3; channel++) {
+            double value = (this.image.getChannel(top, left, channel) * (1 - across)
+                    + this.image.getChannel(top, right, channel) * across) * (1 - down)
+                    + (this.image.getChannel(bottom, left, channel) * (1 - across)
+                    + this.image.getChannel(bottom, right, channel) * across) * down;
+            assertTrue(Math.abs((int) value - shrunk.getChannel(i, j, channel)) <= 1);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testAreaAverages() {
+    Image shrunk = shrink(this.image, 0.5, DownscaleType.Area);
+    assertEquals(18, shrunk.getWidth());
+    assertEquals(11, shrunk.getHeight());
+    for (int i = 0; i < shrunk.getHeight(); i++) {
+      for (int j = 0; j < shrunk.getWidth(); j++) {
+        for (int channel = 0; channel < 3; channel++) {
+          int sum = this.image.getChannel(2 * i, 2 * j, channel)
+                  + this.image.getChannel(2 * i, 2 * j + 1, channel)
+                  + this.image.getChannel(2 * i + 1, 2 * j, channel)
+                  + this.image.getChannel(2 * i + 1, 2 * j + 1, channel);
+          assertEquals(Math.round(sum / 4.0), shrunk.getChannel(i, j, channel));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testAreaKeepsColor() {
+    int[] data = new int[37 * 23];
+    java.util.Arrays.fill(data, 0x3C7FD2);
+    Image flat = Images.packed(37, 23, 255, data);
+    for (double scale : new double[]{0.9, 0.43, 0.13, 0.05}) {
+      Image shrunk = shrink(flat, scale, DownscaleType.Area);
+      for (int i = 0; i < shrunk.getHeight(); i++) {
+        for (int j = 0; j < shrunk.getWidth(); j++) {
+          assertEquals(new Pixel(0x3C, 0x7F, 0xD2), shrunk.getPixelAt(i, j));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testAreaDoesNotAlias() {
+    // a checkerboard shrunk to a tenth is grey, while bilinear only picks black or white
+    int[] data = new int[100 * 100];
+    for (int k = 0; k < data.length; k++) {
+      data[k] = (k / 100 + k % 100) % 2 == 0 ? 0xFFFFFF : 0;
+    }
+    Image checkerboard = Images.packed(100, 100, 255, data);
+    Image area = shrink(checkerboard, 0.1, DownscaleType.Area);
+    Image bilinear = shrink(checkerboard, 0.1, DownscaleType.Bilinear);
+    for (int i = 0; i < 10; i++) {
+      for (int j = 0; j < 10; j++) {
+        assertTrue(Math.abs(area.getChannel(i, j, 0) - 128) <= 1);
+        assertEquals(255, bilinear.getChannel(i, j, 0));
+      }
+    }
+  }
+}
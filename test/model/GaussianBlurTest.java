@@ -0,0 +1,142 @@
+package model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link GaussianBlur} to check if both the exact weights and the
+ * box blurs spread the pixels like a Gaussian, without darkening the image.
+ */
+public class GaussianBlurTest {
+
+  /**
+   * A helper function to make an image of the given size, black except for
+   * a single white pixel.
+   *
+   * @param width  the width of the image
+   * @param height the height of the image
+   * @param row    the row position of the white pixel
+   * @param col    the column position of the white pixel
+   * @return the image
+   */
+  private static Image impulse(int width, int height, int row, int col) {
+    int[] data = new int[width * height];
+    data[row * width + col] = 0xFFFFFF;
+    return Images.packed(width, height, 255, data);
+  }
+
+  @Test
+  public void testExactWeights() {
+    double sigma = 1.2;
+    Image image = impulse(21, 15, 7, 10);
+    Image blurred = GaussianBlur.apply(image, sigma, BandExecutor.DEFAULT);
+    assertEquals(21, blurred.getWidth());
+    assertEquals(15, blurred.getHeight());
+    double sum = 0;
+    for (int i = -4; i <= 4; i++) {
+      for (int j = -4; j <= 4; j++) {
+        sum += Math.exp(-(i * i + j * j) / (2 * sigma * sigma));
+      }
+    }
+    for (int i = 0; i < 15; i++) {
+      for (int j = 0; j < 21; j++) {
+        int di = i - 7;
+        int dj = j - 10;
+        double expected = Math.abs(di) > 4 || Math.abs(dj) > 4 ? 0
+                : 255 * Math.exp(-(di * di + dj * dj) / (2 * sigma * sigma)) / sum;
+        // the rows are rounded before the columns are blurred
+        assertTrue(Math.abs(expected - blurred.getChannel(i, j, 0)) <= 1);
+        assertEquals(blurred.getChannel(i, j, 0), blurred.getChannel(i, j, 2));
+      }
+    }
+  }
+
+  @Test
+  public void testBoxesSymmetric() {
+    Image blurred = GaussianBlur.apply(impulse(101, 101, 50, 50), 9, BandExecutor.DEFAULT);
+    int centre = blurred.getChannel(50, 50, 1);
+    assertTrue(centre > 0);
+    for (int d = 1; d < 30; d++) {
+      assertEquals(blurred.getChannel(50, 50 + d, 1), blurred.getChannel(50, 50 - d, 1));
+      assertEquals(blurred.getChannel(50 + d, 50, 1), blurred.getChannel(50 - d, 50, 1));
+      assertTrue(blurred.getChannel(50, 50 + d, 1) <= blurred.getChannel(50, 50 + d - 1, 1));
+    }
+  }
+
+  @Test
+  public void testFlatImageKeepsColor() {
+    int[] data = new int[40 * 30];
+    Arrays.fill(data, 0x4080C0);
+    Image flat = Images.packed(40, 30, 255, data);
+    for (double sigma : new double[]{0.5, 2, 3, 25}) {
+      assertEquals(flat, GaussianBlur.apply(flat, sigma, new BandExecutor(4, 1)));
+    }
+  }
+
+  @Test
+  public void testSixteenBit() {
+    short[] plane = new short[9];
+    Arrays.fill(plane, (short) 60000);
+    Image deep = new PlanarImageImpl(3, 3, 65535, plane, plane.clone(), plane.clone());
+    Image blurred = GaussianBlur.apply(deep, 4, BandExecutor.DEFAULT);
+    assertEquals(65535, blurred.getMaxValue());
+    assertEquals(60000, blurred.getChannel(1, 1, 0));
+  }
+
+  @Test
+  public void testRegion() {
+    Random random = new Random(5);
+    int[] data = new int[90 * 70];
+    for (int k = 0; k < data.length; k++) {
+      data[k] = random.nextInt(1 << 24);
+    }
+    Image image = Images.packed(90, 70, 255, data);
+    Region[] regions = {new Region(0, 0, 20, 15), new Region(30, 40, 25, 10),
+        new Region(55, 70, 20, 15), new Region(0, 0, 90, 70)};
+    // the exact weights, and the box blurs whose radii add up to more than the region
+    for (double sigma : new double[]{1.5, 9}) {
+      Image whole = GaussianBlur.apply(image, sigma, BandExecutor.DEFAULT);
+      for (Region region : regions) {
+        Image part = GaussianBlur.apply(image, sigma, region, new BandExecutor(3, 1));
+        assertEquals(ViewImageImpl.crop(whole, region.getRow(), region.getCol(),
+                region.getWidth(), region.getHeight()), part);
+      }
+    }
+  }
+
+  @Test
+  public void testColumnStrips() {
+    Random random = new Random(9);
+    int[] data = new int[100 * 40];
+    for (int k = 0; k < data.length; k++) {
+      data[k] = random.nextInt(1 << 24);
+    }
+    Image image = Images.packed(100, 40, 255, data);
+    // the columns of a few strips, the last one narrower, blurred on threads of their own
+    for (double sigma : new double[]{0.8, 6}) {
+      Image sequential = GaussianBlur.apply(image, sigma, new BandExecutor(1, 1 << 16));
+      assertEquals(sequential, GaussianBlur.apply(image, sigma, new BandExecutor(4, 1)));
+      long previous = WritableImage.setDirectPixels(1);
+      try {
+        assertEquals(sequential, GaussianBlur.apply(image, sigma, new BandExecutor(4, 1)));
+      } finally {
+        WritableImage.setDirectPixels(previous);
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testZeroSigma() {
+    GaussianBlur.apply(impulse(3, 3, 1, 1), 0, BandExecutor.DEFAULT);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNotANumber() {
+    GaussianBlur.apply(impulse(3, 3, 1, 1), Double.NaN, BandExecutor.DEFAULT);
+  }
+}
@@ -0,0 +1,139 @@
+package model;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link Histogram} to check if the counts of the parts counted
+ * in parallel add up to the counts of every pixel, for 8-bit and 16-bit
+ * images, and if a mask only counts the pixels it selects.
+ */
+public class HistogramTest {
+
+  /**
+   * A helper function to count the values of the pixels one by one.
+   *
+   * @param image the image
+   * @param mask  the mask of the pixels to count, or null to count every pixel
+   * @return the counts of the red, green, and blue values, and of the intensities
+   */
+  private static long[][] count(Image image, Mask mask) {
+    long[][] counts = new long[4][image.getMaxValue() + 1];
+    for (int i = 0; i < image.getHeight(); i++) {
+      for (int j = 0; j < image.getWidth(); j++) {
+        if (mask != null && !mask.isSelected(i, j)) {
+          continue;
+        }
+        int red = image.getChannel(i, j, 0);
+        int green = image.getChannel(i, j, 1);
+        int blue = image.getChannel(i, j, 2);
+        counts[0][red]++;
+        counts[1][green]++;
+        counts[2][blue]++;
+        counts[3][(red + green + blue) / 3]++;
+      }
+    }
+    return counts;
+  }
+
+  /**
+   * A helper function to check a histogram against the given counts.
+   *
+   * @param counts    the counts of every pixel
+   * @param histogram the histogram
+   */
+  private static void assertCounts(long[][] counts, Histogram histogram) {
+    assertArrayEquals(counts[0], histogram.getRed());
+    assertArrayEquals(counts[1], histogram.getGreen());
+    assertArrayEquals(counts[2], histogram.getBlue());
+    assertArrayEquals(counts[3], histogram.getIntensity());
+  }
+
+  @Test
+  public void testParts() {
+    // large enough to be counted in a few parts
+    Random random = new Random(17);
+    int[] data = new int[400 * 500];
+    for (int k = 0; k < data.length; k++) {
+      data[k] = random.nextInt(1 << 24);
+    }
+    Image image = Images.packed(400, 500, 255, data);
+    Histogram histogram = Histogram.of(image, null, new BandExecutor(4, 1000));
+    assertEquals(255, histogram.getMaxValue());
+    assertEquals(400 * 500, histogram.getCount());
+    assertCounts(count(image, null), histogram);
+    assertCounts(count(image, null), Histogram.of(image, null, new BandExecutor(1, 1)));
+  }
+
+  @Test
+  public void testSixteenBit() {
+    Random random = new Random(19);
+    short[][] planes = new short[3][60 * 40];
+    for (short[] plane : planes) {
+      for (int k = 0; k < plane.length; k++) {
+        plane[k] = (short) random.nextInt(65536);
+      }
+    }
+    Image image = new PlanarImageImpl(60, 40, 65535, planes[0], planes[1], planes[2]);
+    Histogram histogram = Histogram.of(image, null, BandExecutor.DEFAULT);
+    assertEquals(65536, histogram.getRed().length);
+    assertCounts(count(image, null), histogram);
+  }
+
+  @Test
+  public void testMask() {
+    Random random = new Random(23);
+    int[] data = new int[90 * 70];
+    for (int k = 0; k < data.length; k++) {
+      data[k] = random.nextInt(1 << 24);
+    }
+    Image image = Images.packed(90, 70, 255, data);
+    Mask mask = Mask.rectangle(90, 70, 10, 5, 60, 30)
+            .union(Mask.rectangle(90, 70, 50, 70, 20, 15));
+    MaskProcessorModel model = new MaskProcessorModelImpl(4, 500);
+    model.addImage("noise", image);
+    Histogram histogram = model.histogram("noise", mask);
+    assertEquals(mask.count(), histogram.getCount());
+    assertCounts(count(image, mask), histogram);
+    assertEquals(0, model.histogram("noise", new Mask(90, 70)).getCount());
+    assertCounts(count(image, null), model.histogram("noise"));
+  }
+
+  @Test
+  public void testPercentile() {
+    Image image = Images.packed(4, 1, 255, new int[]{0x0A0A0A, 0x141414, 0x1E1E1E,
+        0xC8C8C8});
+    Histogram histogram = Histogram.of(image, null, BandExecutor.DEFAULT);
+    assertEquals(10, histogram.percentile(0));
+    assertEquals(20, histogram.percentile(0.5));
+    assertEquals(30, histogram.percentile(0.75));
+    assertEquals(200, histogram.percentile(1));
+  }
+
+  @Test
+  public void testLazyModel() {
+    LazyMaskProcessorModelImpl model = new LazyMaskProcessorModelImpl();
+    model.addImage("image", Images.packed(2, 1, 255, new int[]{0x000000, 0xFFFFFF}));
+    model.brighten("image", 10, "bright");
+    Histogram histogram = model.histogram("bright");
+    assertEquals(2, histogram.getCount());
+    assertEquals(1, histogram.getIntensity()[10]);
+    assertEquals(1, histogram.getIntensity()[255]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMaskSize() {
+    MaskProcessorModel model = new MaskProcessorModelImpl();
+    model.addImage("image", Images.packed(2, 1, 255, new int[]{0, 0}));
+    model.histogram("image", new Mask(1, 2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNotFound() {
+    new MaskProcessorModelImpl().histogram("nothing");
+  }
+}
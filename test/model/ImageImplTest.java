@@ -3,6 +3,7 @@ package model;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -100,4 +101,28 @@ public class ImageImplTest {
     assertEquals(this.pixel11, this.image1.getPixelAt(1, 1));
     assertEquals(this.pixel21, this.image1.getPixelAt(2, 1));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testGetChannel() {
+    this.setup();
+    assertEquals(120, this.image1.getChannel(0, 0, 0));
+    assertEquals(200, this.image1.getChannel(2, 1, 1));
+    assertEquals(0, this.image1.getChannel(1, 1, 2));
+  }
+
+  @Test
+  public void testGetRow() {
+    this.setup();
+    int[] red = new int[2];
+    int[] green = new int[2];
+    int[] blue = new int[2];
+    this.image1.getRow(1, 0, 2, red, green, blue);
+    assertArrayEquals(new int[]{255, 255}, red);
+    assertArrayEquals(new int[]{0, 0}, green);
+    assertArrayEquals(new int[]{200, 0}, blue);
+    this.image1.getRow(2, 1, 1, red, green, blue);
+    assertEquals(0, red[0]);
+    assertEquals(200, green[0]);
+    assertEquals(50, blue[0]);
+  }
+}
@@ -3,11 +3,17 @@ package model;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Random;
+
 import static model.ImageProcessorModelState.GreyscaleType;
 import static model.ImageProcessorModelState.FilteringType;
 import static model.ImageProcessorModelState.ColorTransType;
+import static model.ImageProcessorModelState.DownscaleType;
+import static model.ImageProcessorModelState.ResizeType;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Tests for {@link ImageProcessorModelImpl}, to check if
@@ -87,6 +93,34 @@ public class ImageProcessorModelImplTest {
     assertEquals(photo1Vertical, this.model.getImage("photo1 Vertical"));
   }
 
+  @Test(expected = IllegalArgumentException.class)
+  public void testFlipNullType() {
+    this.model.flip("photo1", null, "photo1 Flip");
+  }
+
+  @Test
+  public void testCropAndTranspose() {
+    this.model.crop("photo1", 0, 1, 1, 2, "photo1 Crop");
+    IPixel[][] pixelCrop = new Pixel[2][1];
+    pixelCrop[0][0] = this.pixel01;
+    pixelCrop[1][0] = this.pixel11;
+    assertEquals(new ImageImpl(1, 2, 255, pixelCrop), this.model.getImage("photo1 Crop"));
+
+    this.model.transpose("photo1", "photo1 Transpose");
+    IPixel[][] pixelTranspose = new Pixel[2][2];
+    pixelTranspose[0][0] = this.pixel00;
+    pixelTranspose[1][0] = this.pixel01;
+    pixelTranspose[0][1] = this.pixel10;
+    pixelTranspose[1][1] = this.pixel11;
+    assertEquals(new ImageImpl(2, 2, 255, pixelTranspose),
+            this.model.getImage("photo1 Transpose"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCropOutOfBound() {
+    this.model.crop("photo1", 1, 1, 2, 1, "photo1 Crop");
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testBrightenNullImageTitle() {
     this.model.brighten(null, 10, "photo1 Vertical");
@@ -323,4 +357,267 @@ public class ImageProcessorModelImplTest {
     this.model.downscale("photo1", 0.5, 0.5, "photo1 Downscale");
     assertEquals(photo1Downscale, this.model.getImage("photo1 Downscale"));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testDownscaleArea() {
+    // the only resulting pixel averages all four pixels, rounded
+    this.model.downscale("photo1", 0.5, 0.5, DownscaleType.Area, "photo1 Area");
+    Image area = this.model.getImage("photo1 Area");
+    assertEquals(1, area.getWidth());
+    assertEquals(1, area.getHeight());
+    assertEquals(new Pixel(158, 101, 241), area.getPixelAt(0, 0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDownscaleNullType() {
+    this.model.downscale("photo1", 0.5, 0.5, null, "photo1 Downscale");
+  }
+
+  @Test
+  public void testResize() {
+    this.model.resize("photo1", 4, 6, ResizeType.Nearest, "photo1 Nearest");
+    Image nearest = this.model.getImage("photo1 Nearest");
+    assertEquals(4, nearest.getWidth());
+    assertEquals(6, nearest.getHeight());
+    assertEquals(this.pixel00, nearest.getPixelAt(2, 1));
+    assertEquals(this.pixel11, nearest.getPixelAt(3, 3));
+    this.model.resize("photo1", 2, 2, ResizeType.Lanczos, "photo1 Lanczos");
+    assertEquals(this.photo, this.model.getImage("photo1 Lanczos"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testResizeEmpty() {
+    this.model.resize("photo1", 0, 2, ResizeType.Bicubic, "photo1 Resize");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testResizeNullType() {
+    this.model.resize("photo1", 4, 4, null, "photo1 Resize");
+  }
+
+  @Test
+  public void testSixteenBitComponent() {
+    Image deep = new PlanarImageImpl(2, 1, 65535,
+            new short[]{(short) 65535, 300}, new short[]{0, (short) 40000}, new short[]{256, 1});
+    this.model.addImage("deep", deep);
+    this.model.multipleGreyscale("deep", GreyscaleType.Green, "deep Green Component");
+    Image green = this.model.getImage("deep Green Component");
+    assertEquals(65535, green.getMaxValue());
+    assertEquals(new Pixel(0, 0, 0), green.getPixelAt(0, 0));
+    assertEquals(new Pixel(40000, 40000, 40000), green.getPixelAt(0, 1));
+  }
+
+  @Test
+  public void testRemoveImage() {
+    this.model.removeImage("photo1");
+    assertNull(this.model.getImage("photo1"));
+    this.model.removeImage("photo2");
+  }
+
+  @Test
+  public void testRemoveDirectImage() {
+    DirectImageImpl direct = new DirectImageImpl(2, 2, 255);
+    direct.setPixel(0, 1, 10, 20, 30);
+    this.model.addImage("direct", direct);
+    this.model.brighten("direct", 5, "direct brighten");
+    this.model.removeImage("direct");
+    assertTrue(direct.isClosed());
+    assertEquals(new Pixel(15, 25, 35), this.model.getImage("direct brighten").getPixelAt(0, 1));
+  }
+
+  @Test
+  public void testParallelMatchesSequential() {
+    int width = 300;
+    int height = 200;
+    int[] data = new int[width * height];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (i * 7 % 256) << 16 | (i * 13 % 256) << 8 | (i * 29 % 256);
+    }
+    Image big = Images.packed(width, height, 255, data);
+    IPixel[][] mask = new Pixel[height][width];
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        mask[i][j] = (i + j) % 3 == 0 ? new Pixel(0, 0, 0) : new Pixel(255, 255, 255);
+      }
+    }
+    MaskProcessorModel sequential = new MaskProcessorModelImpl(1, 1);
+    MaskProcessorModel parallel = new MaskProcessorModelImpl(4, 1);
+    for (MaskProcessorModel model : new MaskProcessorModel[]{sequential, parallel}) {
+      model.addImage("big", big);
+      model.filtering("big", FilteringType.Sharpen, "big Sharpen");
+      model.brighten("big", 30, mask, "big Mask Brighten");
+      model.filtering("big", FilteringType.Blur, mask, "big Mask Blur");
+      model.colorTransformation("big", ColorTransType.Sepia, "big Sepia");
+      model.downscale("big", 0.7, 0.4, "big Downscale");
+      model.transpose("big Sepia", "big Transpose");
+    }
+    for (String title : new String[]{"big Sharpen", "big Mask Brighten", "big Mask Blur",
+        "big Sepia", "big Downscale", "big Transpose"}) {
+      assertEquals(sequential.getImage(title).toByteRead(),
+              parallel.getImage(title).toByteRead());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructorParallelism() {
+    new ImageProcessorModelImpl(0, 100);
+  }
+
+  @Test
+  public void testPipeline() {
+    this.model.brighten("photo1", 40, "photo1 Bright");
+    this.model.brighten("photo1 Bright", -15, "photo1 Dark");
+    this.model.multipleGreyscale("photo1 Dark", GreyscaleType.Intensity, "photo1 Intensity");
+    this.model.colorTransformation("photo1 Intensity", ColorTransType.Sepia, "photo1 Sepia");
+    this.model.multipleGreyscale("photo1 Sepia", GreyscaleType.Luma, "photo1 Luma");
+
+    PointOperation operation = PointOperation.brighten(40).then(PointOperation.brighten(-15))
+            .then(PointOperation.greyscale(GreyscaleType.Intensity)).saveAs("photo1 Step")
+            .then(PointOperation.colorTransformation(ColorTransType.Sepia))
+            .then(PointOperation.greyscale(GreyscaleType.Luma));
+    assertEquals(5, operation.size());
+    this.model.pipeline("photo1", operation, "photo1 Pipeline");
+    assertEquals(this.model.getImage("photo1 Luma"), this.model.getImage("photo1 Pipeline"));
+    assertEquals(this.model.getImage("photo1 Intensity"), this.model.getImage("photo1 Step"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPipelineNull() {
+    this.model.pipeline("photo1", null, "photo1 Pipeline");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPipelineNullStep() {
+    PointOperation.brighten(10).then(PointOperation.greyscale(null));
+  }
+
+  @Test
+  public void testGaussianBlur() {
+    this.model.gaussianBlur("photo1", 0.5, "photo1 Gaussian");
+    Image blurred = this.model.getImage("photo1 Gaussian");
+    assertEquals(2, blurred.getWidth());
+    assertEquals(2, blurred.getHeight());
+    // the edges repeat, so the red of the left column stays closer to its own value
+    assertTrue(blurred.getChannel(0, 0, 0) < blurred.getChannel(0, 1, 0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGaussianBlurNegativeSigma() {
+    this.model.gaussianBlur("photo1", -1, "photo1 Gaussian");
+  }
+
+  @Test
+  public void testConvolve() {
+    double[][] identity = new double[17][17];
+    identity[8][8] = 1;
+    this.model.convolve("photo1", identity, "photo1 Same");
+    assertEquals(this.model.getImage("photo1"), this.model.getImage("photo1 Same"));
+    // the edges repeat, so shifting by a pixel copies the right column into the left one
+    double[][] shift = {{0, 0, 0}, {0, 0, 1}, {0, 0, 0}};
+    this.model.convolve("photo1", shift, "photo1 Shifted");
+    Image shifted = this.model.getImage("photo1 Shifted");
+    Image original = this.model.getImage("photo1");
+    for (int i = 0; i < original.getHeight(); i++) {
+      for (int j = 0; j < original.getWidth(); j++) {
+        assertEquals(original.getPixelAt(i, original.getWidth() - 1),
+                shifted.getPixelAt(i, j));
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConvolveEvenKernel() {
+    this.model.convolve("photo1", new double[][]{{0.5, 0.5}}, "photo1 Convolved");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConvolveNullKernel() {
+    this.model.convolve("photo1", null, "photo1 Convolved");
+  }
+
+  @Test
+  public void testRegion() {
+    Random random = new Random(3);
+    int[] data = new int[70 * 50];
+    for (int k = 0; k < data.length; k++) {
+      data[k] = random.nextInt(1 << 24);
+    }
+    this.model.addImage("noise", Images.packed(70, 50, 255, data));
+    double[][] emboss = {{-2, -1, 0}, {-1, 1, 1}, {0, 1, 2}};
+    // a region inside the image, and regions on its corners, where the edges are read
+    Region[] regions = {new Region(12, 20, 30, 17), new Region(0, 0, 9, 14),
+        new Region(41, 58, 12, 9)};
+    for (Region region : regions) {
+      this.model.brighten("noise", 40, "all");
+      this.model.brighten("noise", 40, region, "part");
+      this.assertRegion(region, "all", "part");
+      this.model.multipleGreyscale("noise", GreyscaleType.Green, "all");
+      this.model.multipleGreyscale("noise", GreyscaleType.Green, region, "part");
+      this.assertRegion(region, "all", "part");
+      this.model.multipleGreyscale("noise", GreyscaleType.Luma, "all");
+      this.model.multipleGreyscale("noise", GreyscaleType.Luma, region, "part");
+      this.assertRegion(region, "all", "part");
+      this.model.filtering("noise", FilteringType.Sharpen, "all");
+      this.model.filtering("noise", FilteringType.Sharpen, region, "part");
+      this.assertRegion(region, "all", "part");
+      this.model.gaussianBlur("noise", 3.5, "all");
+      this.model.gaussianBlur("noise", 3.5, region, "part");
+      this.assertRegion(region, "all", "part");
+      this.model.convolve("noise", emboss, "all");
+      this.model.convolve("noise", emboss, region, "part");
+      this.assertRegion(region, "all", "part");
+      this.model.colorTransformation("noise", ColorTransType.Sepia, "all");
+      this.model.colorTransformation("noise", ColorTransType.Sepia, region, "part");
+      this.assertRegion(region, "all", "part");
+    }
+  }
+
+  /**
+   * A helper function to check if an image is the given region of another one.
+   *
+   * @param region the region
+   * @param whole  the name of the whole image
+   * @param part   the name of the image of the region
+   */
+  private void assertRegion(Region region, String whole, String part) {
+    assertEquals(ViewImageImpl.crop(this.model.getImage(whole), region.getRow(),
+            region.getCol(), region.getWidth(), region.getHeight()), this.model.getImage(part));
+  }
+
+  @Test
+  public void testImagesRunOnModelExecutor() {
+    BandExecutor single = new BandExecutor(1, 1);
+    MaskProcessorModelImpl model = new MaskProcessorModelImpl(single);
+    Image image = Images.packed(3, 2, 255, new int[6]);
+    model.addImage("image", image);
+    // a stored image, a result, and a masked copy are hashed and copied on the threads of
+    // the model only
+    assertSame(single, ((AbstractImage) image).getExecutor());
+    model.brighten("image", 10, "bright");
+    assertSame(single, ((AbstractImage) model.getImage("bright")).getExecutor());
+    model.brighten("image", 10, Mask.rectangle(3, 2, 0, 0, 1, 1), "masked");
+    assertSame(single, ((AbstractImage) model.getImage("masked")).getExecutor());
+    model.flip("image", ImageProcessorModelState.FlipType.Horizontal, "flipped");
+    assertSame(single, ((AbstractImage) model.getImage("flipped")).getExecutor());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRegionOutside() {
+    this.model.brighten("photo1", 10, new Region(1, 0, 2, 2), "photo1 Part");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRegionNull() {
+    this.model.filtering("photo1", FilteringType.Blur, (Region) null, "photo1 Part");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRegionNegative() {
+    new Region(-1, 0, 2, 2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRegionEmpty() {
+    new Region(0, 0, 0, 2);
+  }
+}
@@ -0,0 +1,40 @@
+package model;
+
+/**
+ * A helper for the tests to make images out of packed pixels (0xRRGGBB),
+ * which keeps the examples of the tests short.
+ */
+public final class Images {
+
+  /**
+   * A private constructor, since this class only holds a helper function.
+   */
+  private Images() {
+  }
+
+  /**
+   * Makes an image out of packed pixels, in row-major order, stored the same
+   * way as the loaded images.
+   *
+   * @param width    the image width
+   * @param height   the image height
+   * @param maxValue the maximum RBG value
+   * @param data     the packed pixels
+   * @return the image
+   * @throws IllegalArgumentException if the pixels don't match the width or height,
+   *                                  or a value is over the maximum value
+   */
+  public static Image packed(int width, int height, int maxValue, int[] data)
+          throws IllegalArgumentException {
+    if (data == null || data.length != (long) width * height) {
+      throw new IllegalArgumentException("The given pixels don't match the width or height.");
+    }
+    ImageBuilder builder = new ImageBuilder(width, height, maxValue);
+    int[] row = new int[width];
+    for (int i = 0; i < height; i++) {
+      System.arraycopy(data, i * width, row, 0, width);
+      builder.setRow(i, row);
+    }
+    return builder.build();
+  }
+}
@@ -0,0 +1,165 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static model.ImageProcessorModelState.ColorTransType;
+import static model.ImageProcessorModelState.FilteringType;
+import static model.ImageProcessorModelState.FlipType;
+import static model.ImageProcessorModelState.GreyscaleType;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link LazyMaskProcessorModelImpl} to check if the operations
+ * are only run once their images are asked for, and that their images are
+ * the same as the ones of {@link MaskProcessorModelImpl}.
+ */
+public class LazyMaskProcessorModelImplTest {
+  private LazyMaskProcessorModelImpl lazy;
+  private MaskProcessorModel eager;
+  private IPixel[][] mask;
+
+  /**
+   * An example of a lazy and an eager model, both holding the same image
+   * of two by three pixels, and a mask selecting its left column.
+   */
+  @Before
+  public void setup() {
+    this.lazy = new LazyMaskProcessorModelImpl();
+    this.eager = new MaskProcessorModelImpl();
+    int[] data = {0x102030, 0xFF8000, 0x00FF7F, 0x7F7F7F, 0x010203, 0xA0B0C0};
+    Image image = Images.packed(3, 2, 255, data);
+    this.lazy.addImage("photo", image);
+    this.eager.addImage("photo", image);
+    this.mask = new IPixel[2][3];
+    for (int i = 0; i < 2; i++) {
+      for (int j = 0; j < 3; j++) {
+        this.mask[i][j] = j == 0 ? new Pixel(0, 0, 0) : new Pixel(255, 255, 255);
+      }
+    }
+  }
+
+  @Test
+  public void testSameImages() {
+    for (MaskProcessorModel model : new MaskProcessorModel[]{this.lazy, this.eager}) {
+      model.brighten("photo", 20, "bright");
+      model.flip("bright", FlipType.Horizontal, "flip");
+      model.filtering("flip", FilteringType.Blur, this.mask, "blur");
+      model.multipleGreyscale("blur", GreyscaleType.Value, "value");
+      model.colorTransformation("photo", ColorTransType.Sepia, this.mask, "sepia");
+      model.transpose("sepia", "transpose");
+      model.crop("transpose", 1, 0, 2, 2, "crop");
+      model.downscale("photo", 0.5, 0.5, "downscale");
+      model.pipeline("photo", PointOperation.brighten(-10).saveAs("dark")
+              .then(PointOperation.greyscale(GreyscaleType.Luma)), "pipeline");
+    }
+    assertEquals(10, this.lazy.pendingImages());
+    assertEquals(this.eager.getImage("value"), this.lazy.getImage("value"));
+    assertEquals(9, this.lazy.pendingImages());
+    assertEquals(this.eager.getImage(), this.lazy.getImage());
+    assertEquals(0, this.lazy.pendingImages());
+  }
+
+  @Test
+  public void testReplacedImageNeverMade() {
+    this.lazy.brighten("photo", 20, "bright");
+    this.lazy.brighten("photo", 30, "bright");
+    this.lazy.brighten("photo", 40, "other");
+    this.lazy.addImage("other", this.lazy.getImage("photo"));
+    assertEquals(1, this.lazy.pendingImages());
+    this.eager.brighten("photo", 30, "bright");
+    assertEquals(this.eager.getImage("bright"), this.lazy.getImage("bright"));
+    assertEquals(this.lazy.getImage("photo"), this.lazy.getImage("other"));
+  }
+
+  @Test
+  public void testSameName() {
+    this.lazy.brighten("photo", 20, "photo");
+    this.lazy.multipleGreyscale("photo", GreyscaleType.Red, "photo");
+    this.eager.brighten("photo", 20, "photo");
+    this.eager.multipleGreyscale("photo", GreyscaleType.Red, "photo");
+    assertEquals(this.eager.getImage("photo"), this.lazy.getImage("photo"));
+  }
+
+  @Test
+  public void testConvolveKernelCopied() {
+    double[][] kernel = {{0, 0, 0}, {0.5, 0, 0.5}, {0, 0, 0}};
+    this.lazy.convolve("photo", kernel, "convolved");
+    this.eager.convolve("photo", kernel, "convolved");
+    // changing the kernel afterwards does not change the image still to be made
+    kernel[1][1] = 1;
+    assertEquals(this.eager.getImage("convolved"), this.lazy.getImage("convolved"));
+  }
+
+  @Test
+  public void testMaskCopied() {
+    this.lazy.brighten("photo", 20, this.mask, "bright");
+    this.eager.brighten("photo", 20, this.mask, "bright");
+    // changing the mask afterwards, a pixel or a whole row, does not change the image
+    this.mask[0][1] = new Pixel(0, 0, 0);
+    this.mask[1] = new IPixel[]{new Pixel(0, 0, 0), new Pixel(0, 0, 0), new Pixel(0, 0, 0)};
+    assertEquals(this.eager.getImage("bright"), this.lazy.getImage("bright"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConvolveEvenKernel() {
+    this.lazy.convolve("photo", new double[][]{{1, 1}, {1, 1}}, "convolved");
+  }
+
+  @Test
+  public void testGaussianBlurSigmaChecked() {
+    for (double sigma : new double[]{0, -1, Double.NaN, Double.POSITIVE_INFINITY}) {
+      try {
+        this.lazy.gaussianBlur("photo", sigma, "blur");
+        fail("A blur of a standard deviation of " + sigma + " was recorded");
+      } catch (IllegalArgumentException e) {
+        assertEquals("The standard deviation must be positive.", e.getMessage());
+      }
+      try {
+        this.lazy.gaussianBlur("photo", sigma, new Region(0, 0, 2, 2), "blur");
+        fail("A blur of a standard deviation of " + sigma + " was recorded");
+      } catch (IllegalArgumentException e) {
+        assertEquals("The standard deviation must be positive.", e.getMessage());
+      }
+    }
+    assertEquals(0, this.lazy.pendingImages());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingImage() {
+    this.lazy.brighten("missing", 20, "bright");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullType() {
+    this.lazy.multipleGreyscale("photo", null, "grey");
+  }
+
+  @Test
+  public void testFailureFoundWhenAsked() {
+    this.lazy.crop("photo", 1, 1, 5, 5, "crop");
+    try {
+      this.lazy.getImage("crop");
+      assertTrue(false);
+    } catch (IllegalArgumentException e) {
+      assertEquals("The region to crop must be inside the image.", e.getMessage());
+    }
+    assertNull(this.lazy.getImage("crop"));
+  }
+
+  @Test
+  public void testRemovedDirectImage() {
+    DirectImageImpl direct = new DirectImageImpl(2, 1, 255);
+    direct.setPixel(0, 0, 10, 20, 30);
+    direct.setPixel(0, 1, 40, 50, 60);
+    this.lazy.addImage("direct", direct);
+    this.lazy.brighten("direct", 5, "bright");
+    this.lazy.removeImage("direct");
+    assertTrue(direct.isClosed());
+    assertEquals(new Pixel(15, 25, 35), this.lazy.getImage("bright").getPixelAt(0, 0));
+    assertEquals(new Pixel(45, 55, 65), this.lazy.getImage("bright").getPixelAt(0, 1));
+  }
+}
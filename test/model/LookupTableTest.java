@@ -0,0 +1,100 @@
+package model;
+
+import org.junit.Test;
+
+import static model.ImageProcessorModelState.ColorTransType;
+import static model.ImageProcessorModelState.GreyscaleType;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link LookupTable} to check if applying the tables gives exactly
+ * the same values as computing every pixel with the functions of {@link Pixel}.
+ */
+public class LookupTableTest {
+
+  /**
+   * A helper function to check a point operation against the functions of
+   * {@link Pixel} on a spread of pixels up to the given maximum value.
+   *
+   * @param table    the point operation to check
+   * @param maxValue the largest channel value to check
+   * @param expected the expected result of a channel of a pixel
+   */
+  private void check(LookupTable table, int maxValue, Expected expected) {
+    int length = 0;
+    int[] red = new int[4096];
+    int[] green = new int[red.length];
+    int[] blue = new int[red.length];
+    int step = maxValue / 15 + 1;
+    for (int r = 0; r <= maxValue; r += step) {
+      for (int g = 0; g <= maxValue; g += step) {
+        for (int b = 0; b <= maxValue; b += step) {
+          red[length] = r;
+          green[length] = g;
+          blue[length] = b;
+          length++;
+        }
+      }
+    }
+    int[] resultRed = red.clone();
+    int[] resultGreen = green.clone();
+    int[] resultBlue = blue.clone();
+    table.apply(resultRed, resultGreen, resultBlue, length);
+    for (int j = 0; j < length; j++) {
+      assertEquals(expected.channel(red[j], green[j], blue[j], 0), resultRed[j]);
+      assertEquals(expected.channel(red[j], green[j], blue[j], 1), resultGreen[j]);
+      assertEquals(expected.channel(red[j], green[j], blue[j], 2), resultBlue[j]);
+    }
+  }
+
+  /**
+   * The expected result of a channel of a pixel.
+   */
+  private interface Expected {
+    int channel(int red, int green, int blue, int channel);
+  }
+
+  @Test
+  public void testBrighten() {
+    for (int maxValue : new int[]{1, 255, 1000, 65535, 100000}) {
+      for (int strength : new int[]{-300, -10, 0, 10, 300}) {
+        this.check(LookupTable.brighten(strength, maxValue), maxValue,
+            (r, g, b, channel) -> Pixel.brightenChannel(channel == 0 ? r : channel == 1 ? g : b,
+                strength, maxValue));
+      }
+    }
+  }
+
+  @Test
+  public void testGreyscale() {
+    for (int maxValue : new int[]{255, 65535, 100000}) {
+      for (GreyscaleType greyType : GreyscaleType.values()) {
+        this.check(LookupTable.greyscale(greyType, maxValue), maxValue,
+            (r, g, b, channel) -> Pixel.greyValue(greyType, r, g, b));
+      }
+    }
+  }
+
+  @Test
+  public void testColorTransformation() {
+    for (int maxValue : new int[]{100, 255, 65535, 100000}) {
+      for (ColorTransType colorType : ColorTransType.values()) {
+        this.check(LookupTable.colorTransformation(colorType, maxValue), maxValue,
+            (r, g, b, channel) -> Pixel.colorTransChannel(colorType, channel, r, g, b));
+      }
+    }
+  }
+
+  @Test
+  public void testValuesOverSmallMaximum() {
+    // a filter can write values up to 255 into an image of a smaller maximum value
+    int[] red = {255};
+    int[] green = {200};
+    int[] blue = {0};
+    LookupTable.colorTransformation(ColorTransType.Sepia, 10).apply(red, green, blue, 1);
+    assertEquals(Pixel.colorTransChannel(ColorTransType.Sepia, 0, 255, 200, 0), red[0]);
+    LookupTable.brighten(-5, 10).apply(red, green, blue, 1);
+    assertEquals(Pixel.brightenChannel(
+            Pixel.colorTransChannel(ColorTransType.Sepia, 0, 255, 200, 0), -5, 10), red[0]);
+  }
+}
@@ -61,7 +61,7 @@ public class MaskProcessorModelImplTest {
   @Test(expected = IllegalArgumentException.class)
   public void testBrightenException2() {
     this.setup();
-    this.model.brighten("house", 10, null, "house-mask-brighten");
+    this.model.brighten("house", 10, (IPixel[][]) null, "house-mask-brighten");
   }
 
   @Test(expected = IllegalArgumentException.class)
@@ -81,7 +81,7 @@ public class MaskProcessorModelImplTest {
   public void testMultipleGreyscaleException2() {
     this.setup();
     this.model.multipleGreyscale("house", GreyscaleType.Green,
-            null, "house-mask-green");
+            (IPixel[][]) null, "house-mask-green");
   }
 
   @Test(expected = IllegalArgumentException.class)
@@ -100,7 +100,7 @@ public class MaskProcessorModelImplTest {
   public void testMultipleFilteringException2() {
     this.setup();
     this.model.filtering("house", FilteringType.Blur,
-            null, "house-mask-blur");
+            (IPixel[][]) null, "house-mask-blur");
   }
 
   @Test(expected = IllegalArgumentException.class)
@@ -120,7 +120,7 @@ public class MaskProcessorModelImplTest {
   public void testMultipleColorTransException2() {
     this.setup();
     this.model.colorTransformation("house", ColorTransType.Greyscale,
-            null, "house-mask-greyscale");
+            (IPixel[][]) null, "house-mask-greyscale");
   }
 
   @Test(expected = IllegalArgumentException.class)
@@ -311,4 +311,35 @@ public class MaskProcessorModelImplTest {
 
     assertEquals(houseSepiaMask, this.model.getImage("house-mask-sepia"));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testBitMask() {
+    this.setup();
+    Mask mask = Mask.of(this.maskPixel);
+    this.model.brighten("house", 100, this.maskPixel, "house-mask-brighten");
+    this.model.brighten("house", 100, mask, "house-bit-brighten");
+    assertEquals(this.model.getImage("house-mask-brighten"),
+            this.model.getImage("house-bit-brighten"));
+    // the inverse mask changes only the pixels the mask leaves alone
+    this.model.filtering("house", FilteringType.Sharpen, mask.invert(), "house-sharpen");
+    Image sharpened = this.model.getImage("house-sharpen");
+    assertEquals(this.pixel00, sharpened.getPixelAt(0, 0));
+    assertEquals(this.pixel10, sharpened.getPixelAt(1, 0));
+    this.model.filtering("house", FilteringType.Sharpen, "house-sharpen-all");
+    assertEquals(this.model.getImage("house-sharpen-all").getPixelAt(1, 1),
+            sharpened.getPixelAt(1, 1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBitMaskSizeException() {
+    this.setup();
+    this.model.colorTransformation("house", ColorTransType.Sepia, new Mask(3, 2),
+            "house-mask-sepia");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBitMaskNullException() {
+    this.setup();
+    this.model.multipleGreyscale("house", GreyscaleType.Red, (Mask) null, "house-mask-red");
+  }
+}
@@ -0,0 +1,104 @@
+package model;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static model.ImageProcessorModelState.FilteringType;
+import static model.ImageProcessorModelState.GreyscaleType;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link MaskSpans} to check if a mask is turned into the right
+ * box and runs, and if the masked operations working on them only change
+ * the pixels the mask selects.
+ */
+public class MaskSpansTest {
+
+  /**
+   * A helper function to make a mask selecting the pixels marked with '#'.
+   *
+   * @param rows the rows of the mask
+   * @return the mask
+   */
+  private static IPixel[][] mask(String... rows) {
+    IPixel[][] mask = new Pixel[rows.length][rows[0].length()];
+    for (int i = 0; i < rows.length; i++) {
+      for (int j = 0; j < rows[i].length(); j++) {
+        mask[i][j] = rows[i].charAt(j) == '#' ? new Pixel(0, 0, 0) : new Pixel(255, 255, 255);
+      }
+    }
+    return mask;
+  }
+
+  @Test
+  public void testSpans() {
+    MaskSpans spans = MaskSpans.of(Mask.of(mask(
+            "......",
+            "..##.#",
+            "......",
+            ".###..",
+            "......")));
+    assertEquals(1, spans.getTop());
+    assertEquals(1, spans.getLeft());
+    assertEquals(5, spans.getWidth());
+    assertEquals(3, spans.getHeight());
+    assertArrayEquals(new int[]{}, spans.getSpans(0));
+    assertArrayEquals(new int[]{2, 4, 5, 6}, spans.getSpans(1));
+    assertArrayEquals(new int[]{1, 4}, spans.getSpans(3));
+    assertEquals(6, spans.getArea());
+  }
+
+  @Test
+  public void testWholeMask() {
+    MaskSpans spans = MaskSpans.of(Mask.all(4, 3));
+    assertEquals(0, spans.getTop());
+    assertEquals(4, spans.getWidth());
+    assertEquals(3, spans.getHeight());
+    assertArrayEquals(new int[]{0, 4}, spans.getSpans(2));
+    assertEquals(12, spans.getArea());
+  }
+
+  @Test
+  public void testNothingSelected() {
+    MaskSpans spans = MaskSpans.of(Mask.of(mask("...", "...")));
+    assertEquals(0, spans.getWidth());
+    assertEquals(0, spans.getHeight());
+    assertEquals(0, spans.getArea());
+  }
+
+  @Test
+  public void testMaskedOperations() {
+    Random random = new Random(11);
+    int[] data = new int[40 * 30];
+    for (int k = 0; k < data.length; k++) {
+      data[k] = random.nextInt(1 << 24);
+    }
+    Image image = Images.packed(40, 30, 255, data);
+    IPixel[][] mask = new Pixel[30][40];
+    for (int i = 0; i < 30; i++) {
+      for (int j = 0; j < 40; j++) {
+        boolean selected = i >= 7 && i < 19 && j >= 11 && j < 33 && (i + 2 * j) % 5 != 0;
+        mask[i][j] = selected ? new Pixel(0, 0, 0) : new Pixel(255, 255, 255);
+      }
+    }
+    MaskProcessorModel model = new MaskProcessorModelImpl(3, 8);
+    model.addImage("image", image);
+    model.filtering("image", FilteringType.Blur, "blur");
+    model.filtering("image", FilteringType.Blur, mask, "masked blur");
+    model.multipleGreyscale("image", GreyscaleType.Luma, "luma");
+    model.multipleGreyscale("image", GreyscaleType.Luma, mask, "masked luma");
+    String[][] pairs = {{"blur", "masked blur"}, {"luma", "masked luma"}};
+    for (String[] pair : pairs) {
+      Image whole = model.getImage(pair[0]);
+      Image masked = model.getImage(pair[1]);
+      for (int i = 0; i < 30; i++) {
+        for (int j = 0; j < 40; j++) {
+          Image expected = mask[i][j].getRed() < Mask.THRESHOLD ? whole : image;
+          assertEquals(expected.getPixelAt(i, j), masked.getPixelAt(i, j));
+        }
+      }
+    }
+  }
+}
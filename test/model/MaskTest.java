@@ -0,0 +1,131 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link Mask} to check if masks made from pixels, images, and
+ * rectangles select the right pixels, and if combining them on whole longs
+ * gives the same as combining every pixel, across the longs of a row.
+ */
+public class MaskTest {
+  // wider than two longs, so rows end partway through a long
+  private static final int WIDTH = 150;
+  private static final int HEIGHT = 7;
+  private IPixel[][] pixels;
+  private IPixel[][] otherPixels;
+
+  /**
+   * Examples of two mask images of random black and white pixels.
+   */
+  @Before
+  public void setup() {
+    Random random = new Random(13);
+    this.pixels = new Pixel[HEIGHT][WIDTH];
+    this.otherPixels = new Pixel[HEIGHT][WIDTH];
+    for (int i = 0; i < HEIGHT; i++) {
+      for (int j = 0; j < WIDTH; j++) {
+        this.pixels[i][j] = random.nextBoolean() ? new Pixel(0, 0, 0) : new Pixel(255, 255, 255);
+        this.otherPixels[i][j] = new Pixel(random.nextInt(256), 0, 0);
+      }
+    }
+  }
+
+  /**
+   * A helper function to check if a pixel of a mask image is selected.
+   *
+   * @param pixels the mask image
+   * @param i      the row position
+   * @param j      the column position
+   * @return whether the pixel is selected
+   */
+  private static boolean selected(IPixel[][] pixels, int i, int j) {
+    return pixels[i][j].getRed() < Mask.THRESHOLD;
+  }
+
+  @Test
+  public void testOf() {
+    Mask mask = Mask.of(this.pixels);
+    assertEquals(WIDTH, mask.getWidth());
+    assertEquals(HEIGHT, mask.getHeight());
+    long count = 0;
+    for (int i = 0; i < HEIGHT; i++) {
+      for (int j = 0; j < WIDTH; j++) {
+        assertEquals(selected(this.pixels, i, j), mask.isSelected(i, j));
+        count += selected(this.pixels, i, j) ? 1 : 0;
+      }
+    }
+    assertEquals(count, mask.count());
+    assertEquals(mask, Mask.of(new ImageImpl(WIDTH, HEIGHT, 255, this.pixels)));
+  }
+
+  @Test
+  public void testCombine() {
+    Mask mask = Mask.of(this.pixels);
+    Mask other = Mask.of(this.otherPixels);
+    Mask union = mask.union(other);
+    Mask intersection = mask.intersection(other);
+    Mask inverse = mask.invert();
+    for (int i = 0; i < HEIGHT; i++) {
+      for (int j = 0; j < WIDTH; j++) {
+        boolean first = selected(this.pixels, i, j);
+        boolean second = selected(this.otherPixels, i, j);
+        assertEquals(first || second, union.isSelected(i, j));
+        assertEquals(first && second, intersection.isSelected(i, j));
+        assertEquals(!first, inverse.isSelected(i, j));
+      }
+    }
+    assertEquals((long) WIDTH * HEIGHT, mask.count() + inverse.count());
+    assertEquals(mask, inverse.invert());
+    assertEquals((long) WIDTH * HEIGHT, Mask.all(WIDTH, HEIGHT).count());
+  }
+
+  @Test
+  public void testRectangle() {
+    Mask mask = Mask.rectangle(WIDTH, HEIGHT, 2, 60, 70, 10);
+    for (int i = 0; i < HEIGHT; i++) {
+      for (int j = 0; j < WIDTH; j++) {
+        assertEquals(i >= 2 && j >= 60 && j < 130, mask.isSelected(i, j));
+      }
+    }
+    assertEquals(5 * 70, mask.count());
+    assertEquals(0, Mask.rectangle(WIDTH, HEIGHT, 0, WIDTH, 10, 10).count());
+    assertEquals(WIDTH, Mask.rectangle(WIDTH, HEIGHT, -3, -5, 500, 4).count());
+  }
+
+  @Test
+  public void testRuns() {
+    Mask mask = Mask.rectangle(WIDTH, 1, 0, 3, 61, 1)
+            .union(Mask.rectangle(WIDTH, 1, 0, 64, 1, 1))
+            .union(Mask.rectangle(WIDTH, 1, 0, 100, 50, 1));
+    int[] runs = new int[WIDTH + 1];
+    assertEquals(4, mask.runs(0, runs));
+    assertEquals(3, runs[0]);
+    assertEquals(65, runs[1]);
+    assertEquals(100, runs[2]);
+    assertEquals(150, runs[3]);
+    assertFalse(mask.isSelected(0, 65));
+    assertTrue(mask.isSelected(0, 149));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCombineSize() {
+    Mask.of(this.pixels).union(new Mask(WIDTH, HEIGHT + 1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullPixels() {
+    Mask.of((IPixel[][]) null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOutside() {
+    new Mask(WIDTH, HEIGHT).isSelected(HEIGHT, 0);
+  }
+}
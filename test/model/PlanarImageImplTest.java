@@ -0,0 +1,136 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Tests for {@link PlanarImageImpl} to check if both the 8-bit and the
+ * 16-bit planes initialize correctly and are read back correctly.
+ */
+public class PlanarImageImplTest {
+  private IPixel[][] pixels1;
+  private Image image8;
+  private Image image16;
+
+  /**
+   * Examples of an 8-bit and a 16-bit planar image that are constructed well,
+   * without invoking any illegal argument exceptions. This would
+   * be used throughout the tests in the future.
+   */
+  @Before
+  public void setup() {
+    this.pixels1 = new Pixel[2][2];
+    this.pixels1[0][0] = new Pixel(120, 0, 255);
+    this.pixels1[0][1] = new Pixel(255, 255, 255);
+    this.pixels1[1][0] = new Pixel(255, 0, 200);
+    this.pixels1[1][1] = new Pixel(0, 150, 255);
+    this.image8 = new PlanarImageImpl(2, 2, 255,
+            new byte[]{120, (byte) 255, (byte) 255, 0},
+            new byte[]{0, (byte) 255, 0, (byte) 150},
+            new byte[]{(byte) 255, (byte) 255, (byte) 200, (byte) 255});
+    this.image16 = new PlanarImageImpl(2, 1, 65535,
+            new short[]{(short) 65535, 300},
+            new short[]{0, (short) 40000},
+            new short[]{256, 1});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructorNull() {
+    new PlanarImageImpl(2, 2, 255, new byte[4], null, new byte[4]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructorWrongSize() {
+    new PlanarImageImpl(2, 2, 255, new byte[4], new byte[3], new byte[4]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructorBytesOverMaxValue() {
+    new PlanarImageImpl(1, 1, 100, new byte[]{(byte) 200}, new byte[1], new byte[1]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructorShortsOverMaxValue() {
+    new PlanarImageImpl(1, 1, 1023, new short[]{1024}, new short[1], new short[1]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructorBytesSixteenBit() {
+    new PlanarImageImpl(1, 1, 256, new byte[1], new byte[1], new byte[1]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOutOfBound() {
+    this.image8.getPixelAt(0, 2);
+  }
+
+  @Test
+  public void testEightBit() {
+    assertArrayEquals(this.pixels1, this.image8.getPixels());
+    assertEquals(new ImageImpl(2, 2, 255, this.pixels1), this.image8);
+    assertEquals(Images.packed(2, 2, 255,
+            new int[]{0x7800FF, 0xFFFFFF, 0xFF00C8, 0x0096FF}), this.image8);
+  }
+
+  @Test
+  public void testSixteenBit() {
+    assertEquals(65535, this.image16.getMaxValue());
+    assertEquals(new Pixel(65535, 0, 256), this.image16.getPixelAt(0, 0));
+    assertEquals(new Pixel(300, 40000, 1), this.image16.getPixelAt(0, 1));
+  }
+
+  @Test
+  public void testGetChannelRow() {
+    int[] values = new int[2];
+    this.image8.getChannelRow(1, 0, 2, 2, values);
+    assertArrayEquals(new int[]{200, 255}, values);
+    this.image16.getChannelRow(0, 1, 1, 1, values);
+    assertEquals(40000, values[0]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testChannelOutOfBound() {
+    this.image16.getChannel(1, 0, 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testChannelRowOutOfBound() {
+    this.image8.getChannelRow(0, -1, 2, 0, new int[2]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testChannelPastRow() {
+    // one past the end of a row would otherwise read the start of the next row
+    this.image8.getChannel(0, 2, 0);
+  }
+
+  @Test
+  public void testLargeImageHash() {
+    int width = 700;
+    int height = 500;
+    int[] data = new int[width * height];
+    byte[] red = new byte[width * height];
+    byte[] green = new byte[width * height];
+    byte[] blue = new byte[width * height];
+    int hash = 31 * (31 * width + height) + 255;
+    for (int i = 0; i < data.length; i++) {
+      red[i] = (byte) (i % 251);
+      green[i] = (byte) (i % 13);
+      blue[i] = (byte) (i % 256);
+      data[i] = (i % 251) << 16 | (i % 13) << 8 | (i % 256);
+      hash = 31 * (31 * (31 * hash + (i % 251)) + (i % 13)) + (i % 256);
+    }
+    Image packed = Images.packed(width, height, 255, data);
+    Image planar = new PlanarImageImpl(width, height, 255, red, green, blue);
+    assertEquals(hash, packed.hashCode());
+    assertEquals(hash, planar.hashCode());
+    assertEquals(packed, planar);
+
+    blue[width * height - 1] = 0;
+    assertNotEquals(packed, new PlanarImageImpl(width, height, 255, red, green, blue));
+  }
+}
@@ -0,0 +1,144 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static model.ImageProcessorModelState.DownscaleType;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link Pyramid} to check if every level averages the level
+ * before it, if levels are only made once they are needed, and if the
+ * downscale of the model starts from the pyramid until the image is replaced.
+ */
+public class PyramidTest {
+  private Image image;
+
+  /**
+   * An example of an image of 64 by 40 pixels of random values.
+   */
+  @Before
+  public void setup() {
+    this.image = noise(64, 40, 7);
+  }
+
+  /**
+   * A helper function to make an image of random values.
+   *
+   * @param width  the width of the image
+   * @param height the height of the image
+   * @param seed   the seed of the random values
+   * @return the image
+   */
+  private static Image noise(int width, int height, long seed) {
+    Random random = new Random(seed);
+    int[] data = new int[width * height];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = random.nextInt(1 << 24);
+    }
+    return Images.packed(width, height, 255, data);
+  }
+
+  @Test
+  public void testLevels() {
+    Pyramid pyramid = new Pyramid(this.image, BandExecutor.DEFAULT);
+    assertSame(this.image, pyramid.atLeast(40, 40));
+    assertEquals(1, pyramid.levels());
+    Image level = pyramid.atLeast(10, 6);
+    assertEquals(16, level.getWidth());
+    assertEquals(10, level.getHeight());
+    assertEquals(3, pyramid.levels());
+    // the levels already made are kept
+    assertSame(level, pyramid.atLeast(16, 10));
+    assertEquals(3, pyramid.levels());
+    Image last = pyramid.atLeast(1, 1);
+    assertEquals(2, last.getWidth());
+    assertEquals(1, last.getHeight());
+  }
+
+  @Test
+  public void testAverages() {
+    Image level = new Pyramid(this.image, new BandExecutor(3, 16)).atLeast(32, 20);
+    for (int i = 0; i < 20; i++) {
+      for (int j = 0; j < 32; j++) {
+        for (int channel = 0; channel < 3; channel++) {
+          int sum = this.image.getChannel(2 * i, 2 * j, channel)
+                  + this.image.getChannel(2 * i, 2 * j + 1, channel)
+                  + this.image.getChannel(2 * i + 1, 2 * j, channel)
+                  + this.image.getChannel(2 * i + 1, 2 * j + 1, channel);
+          assertEquals((sum + 2) / 4, level.getChannel(i, j, channel));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testOddSides() {
+    Image odd = noise(9, 5, 3);
+    Image level = new Pyramid(odd, BandExecutor.DEFAULT).atLeast(4, 2);
+    assertEquals(4, level.getWidth());
+    assertEquals(2, level.getHeight());
+    // every pixel counts, so the average of the level stays the average of the image
+    for (int channel = 0; channel < 3; channel++) {
+      double sum = 0;
+      for (int i = 0; i < 5; i++) {
+        for (int j = 0; j < 9; j++) {
+          sum += odd.getChannel(i, j, channel);
+        }
+      }
+      double levelSum = 0;
+      for (int i = 0; i < 2; i++) {
+        for (int j = 0; j < 4; j++) {
+          levelSum += level.getChannel(i, j, channel);
+        }
+      }
+      assertTrue(Math.abs(sum / 45 - levelSum / 8) < 1);
+    }
+  }
+
+  @Test
+  public void testModelDownscale() {
+    ImageProcessorModelImpl model = new ImageProcessorModelImpl();
+    model.addImage("image", this.image);
+    model.downscale("image", 0.25, 0.25, DownscaleType.Area, "small");
+    assertEquals(3, model.getPyramid("image").levels());
+    // a power of two starts from a level of the same size, within rounding of the image
+    WritableImage direct = WritableImage.blank(16, 10, 255);
+    Downscale.apply(this.image, 0.25, 0.25, DownscaleType.Area, direct, BandExecutor.DEFAULT);
+    Image small = model.getImage("small");
+    for (int i = 0; i < 10; i++) {
+      for (int j = 0; j < 16; j++) {
+        for (int channel = 0; channel < 3; channel++) {
+          assertTrue(Math.abs(direct.getChannel(i, j, channel)
+                  - small.getChannel(i, j, channel)) <= 1);
+        }
+      }
+    }
+    // bilinear only starts from a level twice as large as its result
+    model.downscale("image", 0.5, 0.5, "half");
+    Image half = model.getImage("half");
+    assertEquals(this.image.getPixelAt(2, 4), half.getPixelAt(1, 2));
+  }
+
+  @Test
+  public void testReplacedImage() {
+    ImageProcessorModelImpl model = new ImageProcessorModelImpl();
+    model.addImage("image", this.image);
+    model.downscale("image", 0.3, 0.3, DownscaleType.Area, "small");
+    Image other = noise(64, 40, 8);
+    model.addImage("image", other);
+    assertNull(model.getPyramid("image"));
+    model.downscale("image", 0.3, 0.3, DownscaleType.Area, "small");
+    ImageProcessorModelImpl fresh = new ImageProcessorModelImpl();
+    fresh.addImage("image", other);
+    fresh.downscale("image", 0.3, 0.3, DownscaleType.Area, "small");
+    assertEquals(fresh.getImage("small"), model.getImage("small"));
+    model.downscale("image", 0.3, 0.3, DownscaleType.Area, "image");
+    assertNull(model.getPyramid("image"));
+  }
+}
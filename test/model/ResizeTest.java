@@ -0,0 +1,139 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static model.ImageProcessorModelState.ResizeType;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link Resize} to check if the two passes over precomputed
+ * integer weights give the values of weighing every pixel under the filter
+ * with doubles, and if every filter keeps sizes and flat colors.
+ */
+public class ResizeTest {
+  private Image image;
+
+  /**
+   * An example of an image of 37 by 23 pixels of random values.
+   */
+  @Before
+  public void setup() {
+    Random random = new Random(5);
+    int[] data = new int[37 * 23];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = random.nextInt(1 << 24);
+    }
+    this.image = Images.packed(37, 23, 255, data);
+  }
+
+  /**
+   * A helper function to resize an image with the given filter.
+   *
+   * @param source     the image to resize
+   * @param width      the new width
+   * @param height     the new height
+   * @param resizeType the filter
+   * @return the resized image
+   */
+  private static Image resize(Image source, int width, int height, ResizeType resizeType) {
+    WritableImage dest = WritableImage.blank(width, height, source.getMaxValue());
+    Resize.apply(source, resizeType, dest, new BandExecutor(3, 16));
+    return dest;
+  }
+
+  /**
+   * A helper function to compute the weights of every source position for
+   * a resulting position with doubles, adding up to one.
+   *
+   * @param size       the number of source positions
+   * @param newSize    the number of resulting positions
+   * @param position   the resulting position
+   * @param resizeType the filter
+   * @return the weight of every source position
+   */
+  private static double[] weights(int size, int newSize, int position, ResizeType resizeType) {
+    double scale = (double) newSize / size;
+    double stretch = Math.max(1, 1 / scale);
+    double center = (position + 0.5) / scale;
+    double[] weights = new double[size];
+    double sum = 0;
+    for (int k = (int) Math.floor(center) - 10 * (int) stretch - 10;
+         k < center + 10 * stretch + 10; k++) {
+      double weight = Resize.weight(resizeType, (k + 0.5 - center) / stretch);
+      weights[Math.max(0, Math.min(k, size - 1))] += weight;
+      sum += weight;
+    }
+    for (int k = 0; k < size; k++) {
+      weights[k] /= sum;
+    }
+    return weights;
+  }
+
+  @Test
+  public void testMatchesDirect() {
+    int[][] sizes = {{53, 61}, {20, 11}, {74, 15}};
+    for (ResizeType resizeType : new ResizeType[]{ResizeType.Bilinear, ResizeType.Bicubic,
+        ResizeType.Lanczos}) {
+      for (int[] size : sizes) {
+        Image resized = resize(this.image, size[0], size[1], resizeType);
+        for (int i = 0; i < size[1]; i++) {
+          double[] rowWeights = weights(23, size[1], i, resizeType);
+          for (int j = 0; j < size[0]; j++) {
+            double[] columnWeights = weights(37, size[0], j, resizeType);
+            for (int channel = 0; channel < 3; channel++) {
+              double value = 0;
+              for (int r = 0; r < 23; r++) {
+                for (int c = 0; c < 37; c++) {
+                  value += rowWeights[r] * columnWeights[c]
+                          * this.image.getChannel(r, c, channel);
+                }
+              }
+              long expected = Math.max(0, Math.min(Math.round(value), 255));
+              assertTrue(Math.abs(expected - resized.getChannel(i, j, channel)) <= 1);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSameSize() {
+    for (ResizeType resizeType : ResizeType.values()) {
+      assertEquals(this.image, resize(this.image, 37, 23, resizeType));
+    }
+  }
+
+  @Test
+  public void testKeepsColor() {
+    int[] data = new int[37 * 23];
+    Arrays.fill(data, 0x3C7FD2);
+    Image flat = Images.packed(37, 23, 255, data);
+    int[][] sizes = {{100, 70}, {5, 3}, {1, 1}, {37, 200}};
+    for (ResizeType resizeType : ResizeType.values()) {
+      for (int[] size : sizes) {
+        Image resized = resize(flat, size[0], size[1], resizeType);
+        for (int i = 0; i < size[1]; i++) {
+          for (int j = 0; j < size[0]; j++) {
+            assertEquals(new Pixel(0x3C, 0x7F, 0xD2), resized.getPixelAt(i, j));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testNearest() {
+    Image resized = resize(this.image, 74, 69, ResizeType.Nearest);
+    for (int i = 0; i < 69; i++) {
+      for (int j = 0; j < 74; j++) {
+        assertEquals(this.image.getPixelAt(i / 3, j / 2), resized.getPixelAt(i, j));
+      }
+    }
+  }
+}
@@ -0,0 +1,227 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests for {@link SummedAreaTable} to check if the sums over rectangles,
+ * the box blur, the statistics of regions, and the adaptive threshold are
+ * the same as working them out pixel by pixel, when the rows are summed in
+ * many bands, and if the model keeps a table until its image is replaced.
+ */
+public class SummedAreaTableTest {
+  private static final int WIDTH = 37;
+  private static final int HEIGHT = 29;
+  // splits the rows into bands of a few rows each
+  private static final BandExecutor BANDS = new BandExecutor(4, 2 * WIDTH);
+  private Image image;
+
+  /**
+   * An example of an image of random values.
+   */
+  @Before
+  public void setup() {
+    Random random = new Random(5);
+    int[] data = new int[WIDTH * HEIGHT];
+    for (int k = 0; k < data.length; k++) {
+      data[k] = random.nextInt(1 << 24);
+    }
+    this.image = Images.packed(WIDTH, HEIGHT, 255, data);
+  }
+
+  /**
+   * A helper function to add up the values of a channel over a rectangle, pixel by pixel.
+   *
+   * @param image   the image
+   * @param channel the channel
+   * @param top     the first row of the rectangle
+   * @param left    the first column of the rectangle
+   * @param bottom  the row past the last row of the rectangle
+   * @param right   the column past the last column of the rectangle
+   * @param squared whether to add up the squared values
+   * @return the sum
+   */
+  private static long sum(Image image, int channel, int top, int left, int bottom, int right,
+                          boolean squared) {
+    long sum = 0;
+    for (int i = top; i < bottom; i++) {
+      for (int j = left; j < right; j++) {
+        long value = image.getChannel(i, j, channel);
+        sum += squared ? value * value : value;
+      }
+    }
+    return sum;
+  }
+
+  @Test
+  public void testSums() {
+    SummedAreaTable table = new SummedAreaTable(this.image, BANDS);
+    int[][] rectangles = {{0, 0, HEIGHT, WIDTH}, {3, 5, 20, 31}, {10, 0, 11, 1},
+        {7, 7, 7, 12}, {28, 36, 29, 37}};
+    for (int[] r : rectangles) {
+      for (int c = 0; c < 3; c++) {
+        assertEquals(sum(this.image, c, r[0], r[1], r[2], r[3], false),
+                table.sum(c, r[0], r[1], r[2], r[3]));
+        assertEquals(sum(this.image, c, r[0], r[1], r[2], r[3], true),
+                table.sumOfSquares(c, r[0], r[1], r[2], r[3]));
+      }
+    }
+    // a single band sums the same
+    assertEquals(table.sum(1, 4, 9, 25, 30),
+            new SummedAreaTable(this.image, new BandExecutor(1, 1)).sum(1, 4, 9, 25, 30));
+  }
+
+  @Test
+  public void testStatistics() {
+    SummedAreaTable table = new SummedAreaTable(this.image, BANDS);
+    Region region = new Region(6, 4, 20, 15);
+    double[] mean = table.mean(region);
+    double[] variance = table.variance(region);
+    for (int c = 0; c < 3; c++) {
+      double expected = 0;
+      for (int i = 6; i < 21; i++) {
+        for (int j = 4; j < 24; j++) {
+          expected += this.image.getChannel(i, j, c);
+        }
+      }
+      expected /= 300;
+      double spread = 0;
+      for (int i = 6; i < 21; i++) {
+        for (int j = 4; j < 24; j++) {
+          double difference = this.image.getChannel(i, j, c) - expected;
+          spread += difference * difference;
+        }
+      }
+      assertEquals(expected, mean[c], 1e-9);
+      assertEquals(spread / 300, variance[c], 1e-6);
+    }
+    Image flat = Images.packed(3, 2, 255, new int[]{0x102030, 0x102030, 0x102030,
+        0x102030, 0x102030, 0x102030});
+    SummedAreaTable flatTable = new SummedAreaTable(flat, BANDS);
+    assertEquals(0x20, flatTable.mean(new Region(0, 0, 3, 2))[1], 0);
+    assertEquals(0, flatTable.variance(new Region(0, 1, 2, 2))[2], 0);
+  }
+
+  @Test
+  public void testBoxBlur() {
+    int radius = 3;
+    WritableImage blurred = WritableImage.blank(WIDTH, HEIGHT, 255);
+    new SummedAreaTable(this.image, BANDS).boxBlur(radius).apply(0, 0, blurred);
+    for (int i = 0; i < HEIGHT; i++) {
+      for (int j = 0; j < WIDTH; j++) {
+        int top = Math.max(0, i - radius);
+        int left = Math.max(0, j - radius);
+        int bottom = Math.min(HEIGHT, i + radius + 1);
+        int right = Math.min(WIDTH, j + radius + 1);
+        long count = (long) (bottom - top) * (right - left);
+        for (int c = 0; c < 3; c++) {
+          long sum = sum(this.image, c, top, left, bottom, right, false);
+          assertEquals((sum + count / 2) / count, blurred.getChannel(i, j, c));
+        }
+      }
+    }
+    // only the region and the pixels within the radius around it are summed
+    Region region = new Region(2, 20, 15, 9);
+    Image part = SummedAreaTable.boxBlur(this.image, radius, region, BANDS);
+    for (int i = 0; i < region.getHeight(); i++) {
+      for (int j = 0; j < region.getWidth(); j++) {
+        assertEquals(blurred.getPixelAt(i + 2, j + 20), part.getPixelAt(i, j));
+      }
+    }
+  }
+
+  @Test
+  public void testThreshold() {
+    int radius = 4;
+    int offset = 10;
+    Mask mask = new SummedAreaTable(this.image, BANDS).threshold(radius, offset);
+    for (int i = 0; i < HEIGHT; i++) {
+      for (int j = 0; j < WIDTH; j++) {
+        int top = Math.max(0, i - radius);
+        int left = Math.max(0, j - radius);
+        int bottom = Math.min(HEIGHT, i + radius + 1);
+        int right = Math.min(WIDTH, j + radius + 1);
+        double count = (double) (bottom - top) * (right - left);
+        double around = 0;
+        double pixel = 0;
+        for (int c = 0; c < 3; c++) {
+          around += sum(this.image, c, top, left, bottom, right, false);
+          pixel += this.image.getChannel(i, j, c);
+        }
+        boolean darker = pixel / 3 < around / (3 * count) - offset;
+        assertEquals(darker, mask.isSelected(i, j));
+      }
+    }
+    // the mask image reads back as the same mask
+    assertEquals(mask, Mask.of(mask.toImage()));
+  }
+
+  @Test
+  public void testModelKeepsTable() {
+    ImageProcessorModelImpl model = new ImageProcessorModelImpl(4, 2 * WIDTH);
+    model.addImage("noise", this.image);
+    assertNull(model.getTable("noise"));
+    model.boxBlur("noise", 2, "blur");
+    SummedAreaTable table = model.getTable("noise");
+    assertNotNull(table);
+    model.mean("noise", new Region(0, 0, WIDTH, HEIGHT));
+    model.adaptiveThreshold("noise", 5, 0);
+    assertSame(table, model.getTable("noise"));
+    model.addImage("noise", this.image);
+    assertNull(model.getTable("noise"));
+  }
+
+  @Test
+  public void testUpdateBoxBlur() {
+    ImageProcessorModelImpl model = new ImageProcessorModelImpl(4, 2 * WIDTH);
+    model.addImage("noise", this.image);
+    model.boxBlur("noise", 3, "blur");
+    model.mean("noise", new Region(0, 0, 4, 4));
+    model.brighten("noise", 30, new Region(10, 12, 6, 5), "patch");
+    WritableImage changed = WritableImage.blank(WIDTH, HEIGHT, 255);
+    for (int i = 0; i < HEIGHT; i++) {
+      for (int j = 0; j < WIDTH; j++) {
+        boolean inside = i >= 10 && i < 15 && j >= 12 && j < 18;
+        Image from = inside ? model.getImage("patch") : this.image;
+        int row = inside ? i - 10 : i;
+        int col = inside ? j - 12 : j;
+        int[] red = {from.getChannel(row, col, 0)};
+        int[] green = {from.getChannel(row, col, 1)};
+        int[] blue = {from.getChannel(row, col, 2)};
+        changed.setRow(i, j, 1, red, green, blue, 0);
+      }
+    }
+    model.update("noise", changed, new Region(10, 12, 6, 5));
+    assertNull(model.getTable("noise"));
+    model.addImage("changed", changed);
+    model.boxBlur("changed", 3, "expected");
+    Image expected = model.getImage("expected");
+    Image blur = model.getImage("blur");
+    for (int i = 0; i < HEIGHT; i++) {
+      for (int j = 0; j < WIDTH; j++) {
+        assertEquals(expected.getPixelAt(i, j), blur.getPixelAt(i, j));
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeRadius() {
+    ImageProcessorModel model = new ImageProcessorModelImpl();
+    model.addImage("noise", this.image);
+    model.boxBlur("noise", -1, "blur");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRegionOutside() {
+    ImageProcessorModel model = new ImageProcessorModelImpl();
+    model.addImage("noise", this.image);
+    model.variance("noise", new Region(20, 0, 5, 10));
+  }
+}
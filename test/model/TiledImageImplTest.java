@@ -0,0 +1,176 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Tests for {@link TiledImageImpl} to check if the tiles are only copied
+ * when they are written, that the source image is never altered, and that
+ * the tiles of a lazy image are only computed when they are read.
+ */
+public class TiledImageImplTest {
+  private int[] data;
+  private Image source;
+
+  /**
+   * An example of a packed image of three by two tiles, whose last
+   * column and row of tiles are only partly filled.
+   */
+  @Before
+  public void setup() {
+    int width = 2 * TiledImageImpl.TILE_SIZE + 10;
+    int height = TiledImageImpl.TILE_SIZE + 5;
+    this.data = new int[width * height];
+    for (int i = 0; i < this.data.length; i++) {
+      this.data[i] = (i % 256) << 16 | ((i / 7) % 256) << 8 | (i / 13) % 256;
+    }
+    this.source = Images.packed(width, height, 255, this.data.clone());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructorNull() {
+    new TiledImageImpl(null);
+  }
+
+  @Test
+  public void testUnwrittenCopy() {
+    TiledImageImpl copy = new TiledImageImpl(this.source);
+    assertEquals(0, copy.storedTiles());
+    assertEquals(this.source, copy);
+    assertEquals(this.source.hashCode(), copy.hashCode());
+    assertEquals(this.source.toByteRead(), copy.toByteRead());
+  }
+
+  @Test
+  public void testWriteCopiesOneTile() {
+    TiledImageImpl copy = new TiledImageImpl(this.source);
+    int row = TiledImageImpl.TILE_SIZE + 2;
+    int col = 2 * TiledImageImpl.TILE_SIZE + 3;
+    copy.setPixel(row, col, 1, 2, 3);
+    assertEquals(1, copy.writtenTiles());
+    assertEquals(new Pixel(1, 2, 3), copy.getPixelAt(row, col));
+    assertEquals(this.source.getPixelAt(row, col - 1), copy.getPixelAt(row, col - 1));
+    assertEquals(this.source, Images.packed(this.source.getWidth(),
+            this.source.getHeight(), 255, this.data));
+    assertNotEquals(this.source, copy);
+  }
+
+  @Test
+  public void testRowAcrossTiles() {
+    TiledImageImpl copy = new TiledImageImpl(this.source);
+    copy.setPixel(0, TiledImageImpl.TILE_SIZE, 9, 9, 9);
+    int length = TiledImageImpl.TILE_SIZE + 4;
+    int[] red = new int[length];
+    int[] green = new int[length];
+    int[] blue = new int[length];
+    copy.getRow(0, 2, length, red, green, blue);
+    for (int j = 0; j < length; j++) {
+      int col = 2 + j;
+      if (col == TiledImageImpl.TILE_SIZE) {
+        assertEquals(9, red[j]);
+        assertEquals(9, blue[j]);
+      } else {
+        assertEquals(this.source.getChannel(0, col, 0), red[j]);
+        assertEquals(this.source.getChannel(0, col, 1), green[j]);
+        assertEquals(this.source.getChannel(0, col, 2), blue[j]);
+      }
+    }
+  }
+
+  @Test
+  public void testSharedTiles() {
+    TiledImageImpl first = new TiledImageImpl(this.source);
+    first.setPixel(0, 0, 1, 1, 1);
+    TiledImageImpl second = new TiledImageImpl(first);
+    assertEquals(1, second.storedTiles());
+    assertEquals(0, second.writtenTiles());
+    assertEquals(first, second);
+
+    second.setPixel(0, 1, 2, 2, 2);
+    assertEquals(1, second.writtenTiles());
+    assertEquals(new Pixel(1, 1, 1), second.getPixelAt(0, 0));
+    assertEquals(new Pixel(2, 2, 2), second.getPixelAt(0, 1));
+    assertEquals(this.source.getPixelAt(0, 1), first.getPixelAt(0, 1));
+  }
+
+  @Test
+  public void testSixteenBitTiles() {
+    Image deep = new PlanarImageImpl(TiledImageImpl.TILE_SIZE + 1, 1, 1000,
+            new short[TiledImageImpl.TILE_SIZE + 1], new short[TiledImageImpl.TILE_SIZE + 1],
+            new short[TiledImageImpl.TILE_SIZE + 1]);
+    TiledImageImpl copy = new TiledImageImpl(deep);
+    copy.setPixel(0, TiledImageImpl.TILE_SIZE, 1000, 500, 0);
+    assertEquals(new Pixel(1000, 500, 0), copy.getPixelAt(0, TiledImageImpl.TILE_SIZE));
+    assertEquals(new Pixel(0, 0, 0), copy.getPixelAt(0, 0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLazyConstructorNull() {
+    new TiledImageImpl(2, 2, 255, null, null, BandExecutor.DEFAULT);
+  }
+
+  @Test
+  public void testLazyTilesComputedOnRead() {
+    int[] calls = new int[1];
+    TiledImageImpl lazy = new TiledImageImpl(this.source.getWidth(), this.source.getHeight(),
+        255, this.source, (top, left, region) -> {
+          calls[0]++;
+          int length = region.getWidth();
+          int[] red = new int[length];
+          int[] green = new int[length];
+          int[] blue = new int[length];
+          for (int i = 0; i < region.getHeight(); i++) {
+            this.source.getRow(top + i, left, length, red, green, blue);
+            region.setRow(i, 0, length, red, green, blue, 0);
+          }
+        }, new BandExecutor(1, 1));
+    assertEquals(0, calls[0]);
+    assertEquals(this.source.getPixelAt(TiledImageImpl.TILE_SIZE + 1, 3),
+            lazy.getPixelAt(TiledImageImpl.TILE_SIZE + 1, 3));
+    assertEquals(this.source.getPixelAt(TiledImageImpl.TILE_SIZE + 4, 8),
+            lazy.getPixelAt(TiledImageImpl.TILE_SIZE + 4, 8));
+    assertEquals(1, calls[0]);
+    assertEquals(1, lazy.storedTiles());
+
+    assertEquals(this.source, lazy);
+    assertEquals(6, calls[0]);
+  }
+
+  @Test
+  public void testCopyOfLazyImage() {
+    Image lazy = new TiledImageImpl(this.source.getWidth(), this.source.getHeight(), 255, null,
+        (top, left, region) -> region.setPixel(0, 0, 7, 7, 7), BandExecutor.DEFAULT);
+    TiledImageImpl copy = new TiledImageImpl(lazy);
+    copy.setPixel(1, 1, 1, 1, 1);
+    assertEquals(new Pixel(7, 7, 7), copy.getPixelAt(0, 0));
+    assertEquals(new Pixel(1, 1, 1), copy.getPixelAt(1, 1));
+    assertEquals(new Pixel(0, 0, 0), lazy.getPixelAt(1, 1));
+  }
+
+  @Test
+  public void testParallelTiles() {
+    TiledImageImpl lazy = new TiledImageImpl(this.source.getWidth(), this.source.getHeight(),
+        255, this.source, (top, left, region) -> {
+          for (int i = 0; i < region.getHeight(); i++) {
+            for (int j = 0; j < region.getWidth(); j++) {
+              region.setPixel(i, j, this.source.getChannel(top + i, left + j, 2),
+                      this.source.getChannel(top + i, left + j, 1),
+                      this.source.getChannel(top + i, left + j, 0));
+            }
+          }
+        }, new BandExecutor(4, 1));
+    int[] red = new int[this.source.getWidth()];
+    lazy.getChannelRow(0, 0, this.source.getWidth(), 0, red);
+    assertEquals(3, lazy.storedTiles());
+    lazy.materialize();
+    assertEquals(6, lazy.storedTiles());
+    for (int i = 0; i < this.source.getHeight(); i++) {
+      for (int j = 0; j < this.source.getWidth(); j++) {
+        assertEquals(this.source.getChannel(i, j, 2), lazy.getChannel(i, j, 0));
+      }
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static model.ImageProcessorModelState.FlipType;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link ViewImageImpl} to check if flips, crops, and transposes,
+ * as well as chains of them, remap every position onto the right pixel.
+ */
+public class ViewImageImplTest {
+  private Image image;
+
+  /**
+   * An example of a three by two packed image, whose pixels all differ.
+   */
+  @Before
+  public void setup() {
+    int[] data = new int[6];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (10 * i) << 16 | (10 * i + 1) << 8 | (10 * i + 2);
+    }
+    this.image = Images.packed(3, 2, 255, data);
+  }
+
+  /**
+   * A helper function to make a packed image out of the given red values,
+   * whose green and blue values follow the same pattern as the example.
+   *
+   * @param width  the image width
+   * @param height the image height
+   * @param reds   the red values in row-major order
+   * @return the packed image
+   */
+  private Image expected(int width, int height, int... reds) {
+    int[] data = new int[reds.length];
+    for (int i = 0; i < reds.length; i++) {
+      data[i] = reds[i] << 16 | (reds[i] + 1) << 8 | (reds[i] + 2);
+    }
+    return Images.packed(width, height, 255, data);
+  }
+
+  @Test
+  public void testFlip() {
+    assertEquals(this.expected(3, 2, 20, 10, 0, 50, 40, 30),
+            ViewImageImpl.flip(this.image, FlipType.Horizontal));
+    assertEquals(this.expected(3, 2, 30, 40, 50, 0, 10, 20),
+            ViewImageImpl.flip(this.image, FlipType.Vertical));
+  }
+
+  @Test
+  public void testCrop() {
+    Image crop = ViewImageImpl.crop(this.image, 1, 1, 2, 1);
+    assertEquals(this.expected(2, 1, 40, 50), crop);
+    assertEquals(new Pixel(50, 51, 52), crop.getPixelAt(0, 1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCropOutOfBound() {
+    ViewImageImpl.crop(this.image, 0, 2, 2, 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCropEmpty() {
+    ViewImageImpl.crop(this.image, 0, 0, 0, 1);
+  }
+
+  @Test
+  public void testTranspose() {
+    ViewImageImpl transpose = ViewImageImpl.transpose(this.image);
+    assertEquals(2, transpose.getWidth());
+    assertEquals(3, transpose.getHeight());
+    assertEquals(new Pixel(30, 31, 32), transpose.getPixelAt(0, 1));
+    assertTrue(transpose.dependsOn(this.image));
+    assertEquals(this.expected(2, 3, 0, 30, 10, 40, 20, 50), transpose);
+    assertFalse(transpose.dependsOn(this.image));
+  }
+
+  @Test
+  public void testChain() {
+    Image flipped = ViewImageImpl.flip(ViewImageImpl.flip(this.image, FlipType.Horizontal),
+            FlipType.Horizontal);
+    assertEquals(this.image, flipped);
+    Image chain = ViewImageImpl.crop(ViewImageImpl.transpose(
+            ViewImageImpl.flip(this.image, FlipType.Vertical)), 1, 0, 2, 2);
+    assertTrue(((ViewImageImpl) chain).dependsOn(this.image));
+    assertEquals(this.expected(2, 2, 40, 10, 50, 20), chain);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testChannelOutOfBound() {
+    // the position is inside the image under the view, but not inside the view
+    ViewImageImpl.crop(this.image, 0, 0, 2, 2).getChannel(0, 2, 0);
+  }
+}
@@ -13,8 +13,10 @@ import model.IPixel;
 import model.Image;
 import model.ImageImpl;
 import model.Pixel;
+import model.PlanarImageImpl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Tests for {@link Utils} class' static void methods.
@@ -50,6 +52,8 @@ public class UtilsTest {
     assertEquals(this.imageHouse.getPixelAt(0, 1), image.getPixelAt(0, 1));
     assertEquals(this.imageHouse.getPixelAt(1, 1), image.getPixelAt(1, 1));
     assertEquals(imageHouse, image);
+    // 8-bit images are loaded into planes of bytes
+    assertTrue(image instanceof PlanarImageImpl);
   }
 
   @Test
@@ -66,6 +70,8 @@ public class UtilsTest {
     assertEquals(this.imageHouse.getPixelAt(0, 1), image.getPixelAt(0, 1));
     assertEquals(this.imageHouse.getPixelAt(1, 1), image.getPixelAt(1, 1));
     assertEquals(imageHouse, image);
+    // 8-bit images are loaded into planes of bytes
+    assertTrue(image instanceof PlanarImageImpl);
   }
 
   @Test
@@ -4,6 +4,7 @@ import java.awt.Image;
 import java.io.IOException;
 
 import controller.Features;
+import model.Histogram;
 
 /**
  * A mock class built to test {@link ImageProcessorGUIView}.
@@ -48,4 +49,22 @@ public class GUIViewMock implements ImageProcessorGUIView {
       throw new IllegalArgumentException("IOException occurred; refresh failed");
     }
   }
+
+  @Override
+  public void refreshPreview(Image image, int row, int col) {
+    try {
+      this.log.append("Refreshing the preview at " + row + " " + col + "\n");
+    } catch (IOException e) {
+      throw new IllegalArgumentException("IOException occurred; refreshPreview failed");
+    }
+  }
+
+  @Override
+  public void refreshHistogram(Histogram histogram) {
+    try {
+      this.log.append("Refreshing the histogram of " + histogram.getCount() + " pixels\n");
+    } catch (IOException e) {
+      throw new IllegalArgumentException("IOException occurred; refreshHistogram failed");
+    }
+  }
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import static org.junit.Assert.assertEquals;
 
 import controller.Features;
 import controller.GUIController;
+import model.Images;
 import model.MaskProcessorModel;
 import model.MaskProcessorModelImpl;
 
@@ -40,5 +41,13 @@ public class GUIViewTest {
             "Adding features\n" +
             "Adding features\n" +
             "Refreshing the image displayed\n", inputLog.toString());
+
+    model.addImage("image", Images.packed(3, 2, 255, new int[6]));
+    view.refreshHistogram(model.histogram("image"));
+    assertEquals("Rendering Testing render message\n" +
+            "Adding features\n" +
+            "Adding features\n" +
+            "Refreshing the image displayed\n" +
+            "Refreshing the histogram of 6 pixels\n", inputLog.toString());
   }
 }
\ No newline at end of file